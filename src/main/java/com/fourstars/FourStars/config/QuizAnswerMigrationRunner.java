@@ -0,0 +1,41 @@
+package com.fourstars.FourStars.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import com.fourstars.FourStars.service.QuizAnswerMigrationService;
+
+/**
+ * Khi bật fourstars.quiz-answers.migrate-on-startup, chuyển toàn bộ câu trả lời
+ * đang lưu theo dòng sang cột answers_encoded lúc khởi động.
+ */
+@Component
+public class QuizAnswerMigrationRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizAnswerMigrationRunner.class);
+
+    private final QuizAnswerMigrationService quizAnswerMigrationService;
+
+    @Value("${fourstars.quiz-answers.migrate-on-startup:false}")
+    private boolean migrateOnStartup;
+
+    @Value("${fourstars.quiz-answers.migration-batch-size:500}")
+    private int batchSize;
+
+    public QuizAnswerMigrationRunner(QuizAnswerMigrationService quizAnswerMigrationService) {
+        this.quizAnswerMigrationService = quizAnswerMigrationService;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!migrateOnStartup) {
+            return;
+        }
+        logger.info("Migrating quiz answers to encoded storage (batch size {})", batchSize);
+        int migrated = quizAnswerMigrationService.migrateAll(batchSize);
+        logger.info("Quiz answer migration finished: {} attempts encoded", migrated);
+    }
+}
@@ -1,11 +1,17 @@
 package com.fourstars.FourStars.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -22,10 +28,14 @@ public class RabbitMQConfig {
     public static final String QUIZ_SCORING_EXCHANGE = "quiz_scoring_exchange";
     public static final String QUIZ_SCORING_QUEUE = "q.quiz_scoring";
     public static final String QUIZ_SCORING_ROUTING_KEY = "quiz.submission";
+    public static final String QUIZ_RESULT_EXCHANGE = "quiz_result_exchange";
 
     public static final String VOCABULARY_EVENT_EXCHANGE = "vocabulary_event_exchange";
     public static final String VOCABULARY_CREATED_QUEUE = "q.vocabulary.created";
     public static final String VOCABULARY_CREATED_ROUTING_KEY = "vocabulary.created";
+    public static final String VOCABULARY_UPDATED_ROUTING_KEY = "vocabulary.updated";
+    public static final String VOCABULARY_DELETED_ROUTING_KEY = "vocabulary.deleted";
+    public static final String VOCABULARY_CHANGE_ROUTING_KEY = "vocabulary.#";
 
     public static final String POST_BROADCAST_EXCHANGE = "post_broadcast_exchange";
     public static final String POST_LIKE_UPDATE_QUEUE = "q.post.like_update";
@@ -84,6 +94,27 @@ public class RabbitMQConfig {
                 .with(QUIZ_SCORING_ROUTING_KEY);
     }
 
+    @Bean
+    public FanoutExchange quizResultExchange() {
+        return new FanoutExchange(QUIZ_RESULT_EXCHANGE);
+    }
+
+    /**
+     * Queue tạm riêng cho từng node: kết quả chấm điểm được phát tới mọi node vì
+     * request long-poll và phiên STOMP của user có thể nằm ở node khác node chấm.
+     */
+    @Bean
+    public Queue quizResultQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding quizResultBinding() {
+        return BindingBuilder
+                .bind(quizResultQueue())
+                .to(quizResultExchange());
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -107,6 +138,52 @@ public class RabbitMQConfig {
                 .with(VOCABULARY_CREATED_ROUTING_KEY);
     }
 
+    /** Từ bị sửa hay bị xóa cũng cần dựng lại hoặc gỡ question template. */
+    @Bean
+    public Binding vocabularyTemplateBinding() {
+        return BindingBuilder
+                .bind(vocabularyCreatedQueue())
+                .to(vocabularyEventExchange())
+                .with(VOCABULARY_CHANGE_ROUTING_KEY);
+    }
+
+    /**
+     * Listener nhận message theo lô (tối đa batch-size message, hoặc những gì đã
+     * đến sau receive-timeout) để QuestionTemplateConsumer dựng template cho cả
+     * lô bằng vài câu lệnh thay vì từng từ một.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory vocabularyBatchListenerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            @Value("${fourstars.question-templates.batch-size:100}") int batchSize,
+            @Value("${fourstars.question-templates.receive-timeout-ms:1000}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(Math.max(batchSize, 1));
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        return factory;
+    }
+
+    /**
+     * Queue tạm riêng cho từng node (tự xóa khi node dừng) để mọi node đều nhận
+     * sự kiện thay đổi từ vựng và cập nhật kho đáp án nhiễu trong bộ nhớ.
+     */
+    @Bean
+    public Queue vocabularyPoolQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding vocabularyPoolBinding() {
+        return BindingBuilder
+                .bind(vocabularyPoolQueue())
+                .to(vocabularyEventExchange())
+                .with(VOCABULARY_CHANGE_ROUTING_KEY);
+    }
+
     @Bean
     public TopicExchange postBroadcastExchange() {
         return new TopicExchange(POST_BROADCAST_EXCHANGE);
@@ -14,6 +14,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import com.fourstars.FourStars.domain.User;
 import com.fourstars.FourStars.messaging.dto.user.UserActivityMessage;
 import com.fourstars.FourStars.repository.UserRepository;
+import com.fourstars.FourStars.service.DailyActivityService;
 import com.fourstars.FourStars.service.StreakService;
 import com.fourstars.FourStars.util.SecurityUtil;
 
@@ -22,16 +23,24 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Gửi UserActivityMessage để cập nhật streak, nhưng chỉ cho request đầu tiên
+ * trong ngày của mỗi user (xem {@link DailyActivityService}); các request sau
+ * không chạm DB hay RabbitMQ.
+ */
 @Component
 public class StreakUpdateFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(StreakUpdateFilter.class);
 
     private final UserRepository userRepository;
     private final RabbitTemplate rabbitTemplate;
+    private final DailyActivityService dailyActivityService;
 
-    public StreakUpdateFilter(UserRepository userRepository, RabbitTemplate rabbitTemplate) {
+    public StreakUpdateFilter(UserRepository userRepository, RabbitTemplate rabbitTemplate,
+            DailyActivityService dailyActivityService) {
         this.userRepository = userRepository;
         this.rabbitTemplate = rabbitTemplate;
+        this.dailyActivityService = dailyActivityService;
     }
 
     @Override
@@ -40,11 +49,17 @@ public class StreakUpdateFilter extends OncePerRequestFilter {
 
         try {
             Optional<String> userEmailOpt = SecurityUtil.getCurrentUserLogin();
-            if (userEmailOpt.isPresent()) {
-                userRepository.findByEmail(userEmailOpt.get()).ifPresent(user -> {
-                    UserActivityMessage message = new UserActivityMessage(user.getId());
-                    rabbitTemplate.convertAndSend("user_activity_exchange", "user.activity.update", message);
-                });
+            if (userEmailOpt.isPresent() && dailyActivityService.claim(userEmailOpt.get())) {
+                try {
+                    userRepository.findIdByEmail(userEmailOpt.get()).ifPresent(userId -> {
+                        UserActivityMessage message = new UserActivityMessage(userId);
+                        rabbitTemplate.convertAndSend("user_activity_exchange", "user.activity.update", message);
+                    });
+                } catch (RuntimeException e) {
+                    // Để request sau trong ngày thử gửi lại.
+                    dailyActivityService.release(userEmailOpt.get());
+                    throw e;
+                }
             }
         } catch (Exception e) {
             logger.error("Could not send user activity message", e);
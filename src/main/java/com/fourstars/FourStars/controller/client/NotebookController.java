@@ -1,5 +1,7 @@
 package com.fourstars.FourStars.controller.client;
 
+import java.util.List;
+
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,9 +11,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fourstars.FourStars.domain.response.CursorPaginationDTO;
 import com.fourstars.FourStars.domain.response.ResultPaginationDTO;
+import com.fourstars.FourStars.domain.response.vocabulary.CategoryProgressResponseDTO;
+import com.fourstars.FourStars.domain.response.vocabulary.ReviewForecastResponseDTO;
 import com.fourstars.FourStars.domain.response.vocabulary.UserVocabularyResponseDTO;
 import com.fourstars.FourStars.domain.response.vocabulary.VocabularyResponseDTO;
 import com.fourstars.FourStars.service.VocabularyService;
@@ -79,6 +85,54 @@ public class NotebookController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(summary = "Browse notebook words with a cursor", description = "Retrieves notebook words, most recently added first, optionally filtered by SM-2 level. Pass meta.nextCursor of the previous response to get the next page; the cost of a page does not grow with its depth. The total is only counted when includeTotal is true.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page"),
+            @ApiResponse(responseCode = "400", description = "Invalid level (must be 1-5) or malformed cursor"),
+            @ApiResponse(responseCode = "401", description = "User is not authenticated")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/entries")
+    @ApiMessage("Fetch notebook vocabularies by cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPaginationDTO<VocabularyResponseDTO>> getNotebookEntries(
+            @Parameter(description = "Optional SM-2 level (1-5) to filter by") @RequestParam(name = "level", required = false) Integer level,
+            @Parameter(description = "Cursor returned as meta.nextCursor by the previous page") @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        CursorPaginationDTO<VocabularyResponseDTO> result = vocabularyService.fetchNotebookPage(level, cursor, size,
+                includeTotal);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Get my progress per category", description = "Returns, for each vocabulary category with words in the user's notebook, the number of notebook words, the words at level 4 or above, and the words due for review by the end of today.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved category progress"),
+            @ApiResponse(responseCode = "401", description = "User is not authenticated")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/categories")
+    @ApiMessage("Fetch notebook progress per category")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<CategoryProgressResponseDTO>> getCategoryProgress() {
+        return ResponseEntity.ok(vocabularyService.fetchCategoryProgress());
+    }
+
+    @Operation(summary = "Get my review forecast", description = "Returns the number of words due for review on each of the next days (30 by default, at most 90), starting today. Today's count includes overdue words.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved review forecast"),
+            @ApiResponse(responseCode = "400", description = "Number of days is out of range"),
+            @ApiResponse(responseCode = "401", description = "User is not authenticated")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping("/forecast")
+    @ApiMessage("Fetch review forecast per day")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ReviewForecastResponseDTO>> getReviewForecast(
+            @RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(vocabularyService.fetchReviewForecast(days));
+    }
+
     @Operation(summary = "Remove a word from my notebook", description = "Removes a specific vocabulary word from the authenticated user's personal learning list.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Word successfully removed from the notebook"),
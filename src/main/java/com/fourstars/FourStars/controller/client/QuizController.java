@@ -9,12 +9,15 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
+import com.fourstars.FourStars.domain.request.quiz.SaveDraftAnswersRequestDTO;
 import com.fourstars.FourStars.domain.request.quiz.SubmitQuizRequestDTO;
 import com.fourstars.FourStars.domain.response.ResultPaginationDTO;
 import com.fourstars.FourStars.domain.response.quiz.QuizAttemptResponseDTO;
@@ -32,6 +35,8 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/v1/quizzes")
 @Tag(name = "Client - Quiz Management API", description = "APIs for creating, managing, and taking quizzes")
 public class QuizController {
+    private static final int MAX_WAIT_SECONDS = 60;
+
     private final QuizService quizService;
 
     public QuizController(QuizService quizService) {
@@ -67,6 +72,22 @@ public class QuizController {
                         "Your submission has been received and is being processed. You will be notified when the results are ready."));
     }
 
+    @Operation(summary = "Autosave draft answers", description = "Stores draft answers of an in-progress attempt server-side so they survive a refresh. Answers are only written to the database on submit.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Draft answers saved"),
+            @ApiResponse(responseCode = "400", description = "Attempt is already completed"),
+            @ApiResponse(responseCode = "401", description = "User is not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Quiz attempt not found")
+    })
+    @PutMapping("/attempts/{attemptId}/answers")
+    @ApiMessage("Autosave answers for a quiz attempt")
+    @PreAuthorize("hasPermission(null, null)")
+    public ResponseEntity<Void> saveDraftAnswers(@PathVariable long attemptId,
+            @Valid @RequestBody SaveDraftAnswersRequestDTO requestDTO) {
+        quizService.saveDraftAnswers(attemptId, requestDTO.getAnswers());
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(summary = "Get quiz attempt results", description = "Retrieves the detailed results of a completed quiz attempt.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved results"),
@@ -81,6 +102,21 @@ public class QuizController {
         return ResponseEntity.ok(quizService.getQuizResult(attemptId));
     }
 
+    @Operation(summary = "Wait for quiz attempt results", description = "Long-polls an attempt: responds as soon as scoring finishes, or with the current status once the timeout (max 60s) elapses.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Scored result, or the pending attempt status on timeout"),
+            @ApiResponse(responseCode = "401", description = "User is not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Quiz attempt not found")
+    })
+    @GetMapping("/attempts/{attemptId}/wait")
+    @ApiMessage("Wait for the result of a quiz attempt")
+    @PreAuthorize("hasPermission(null, null)")
+    public DeferredResult<QuizAttemptResponseDTO> awaitQuizResult(@PathVariable long attemptId,
+            @RequestParam(name = "timeout", defaultValue = "30") int timeoutSeconds) {
+        long timeoutMillis = Math.max(1, Math.min(timeoutSeconds, MAX_WAIT_SECONDS)) * 1000L;
+        return quizService.awaitQuizResult(attemptId, timeoutMillis);
+    }
+
     @Operation(summary = "Get a quiz by ID for editing", description = "Retrieves the full details of a quiz, including all questions and correct answer information.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved quiz details"),
@@ -17,7 +17,10 @@ import org.springframework.web.bind.annotation.RestController;
 import com.fourstars.FourStars.domain.UserVocabulary;
 import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
 import com.fourstars.FourStars.domain.request.vocabulary.SubmitReviewRequestDTO;
+import com.fourstars.FourStars.domain.request.vocabulary.SubmitReviewSessionRequestDTO;
 import com.fourstars.FourStars.domain.response.ResultPaginationDTO;
+import com.fourstars.FourStars.domain.response.vocabulary.ReviewSessionResponseDTO;
+import com.fourstars.FourStars.domain.response.vocabulary.UserVocabularyResponseDTO;
 import com.fourstars.FourStars.domain.response.vocabulary.VocabularyResponseDTO;
 import com.fourstars.FourStars.service.VocabularyService;
 import com.fourstars.FourStars.util.annotation.ApiMessage;
@@ -78,7 +81,37 @@ public class VocabularyController {
         return ResponseEntity.ok(result);
     }
 
-    @Operation(summary = "Generate a personalized review quiz", description = "Fetches words that are due for review for the current user and automatically creates a new quiz from them.")
+    @Operation(summary = "Start a review session", description = "Hands out a batch of due words together with a session token. Grades for the whole batch are submitted in one request.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Session started (no token and no cards when nothing is due)"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/review/sessions")
+    @PreAuthorize("hasPermission(null, null)")
+    @ApiMessage("Start a review session")
+    public ResponseEntity<ReviewSessionResponseDTO> startReviewSession(
+            @RequestParam(name = "size", defaultValue = "50") int size) {
+        ReviewSessionResponseDTO session = vocabularyService.startReviewSession(size);
+        return ResponseEntity.ok(session);
+    }
+
+    @Operation(summary = "Submit grades for a review session", description = "Grades any number of the session's cards in one request. Each card can be graded once per session.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Grades applied"),
+            @ApiResponse(responseCode = "400", description = "A card is not part of the session, already graded, or graded twice"),
+            @ApiResponse(responseCode = "404", description = "Session not found or expired")
+    })
+    @PostMapping("/review/sessions/{sessionToken}/grades")
+    @PreAuthorize("hasPermission(null, null)")
+    @ApiMessage("Submit grades for a review session")
+    public ResponseEntity<List<UserVocabularyResponseDTO>> submitReviewSession(@PathVariable String sessionToken,
+            @Valid @RequestBody SubmitReviewSessionRequestDTO request) {
+        List<UserVocabularyResponseDTO> result = vocabularyService.submitReviewSession(sessionToken,
+                request.getGrades());
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Generate a personalized review quiz", description = "Fetches words that are due for review for the current user and generates a temporary quiz from them. The quiz is kept in Redis for 24 hours (it is not saved to the quiz tables); its negative id is used with the normal start, submit and result endpoints.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Review quiz created successfully and returned"),
             @ApiResponse(responseCode = "200", description = "OK - No words to review at the moment (returns empty body)"),
@@ -0,0 +1,85 @@
+package com.fourstars.FourStars.domain;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Một lượt ôn tập, chỉ ghi thêm: trạng thái SM-2 trước và sau lượt ôn. Trạng
+ * thái hiện tại trong user_vocabularies là phép chiếu của sự kiện mới nhất;
+ * projection_pending đánh dấu sự kiện chưa được chiếu.
+ */
+@Entity
+@Table(name = "review_events", indexes = {
+        @Index(name = "idx_review_event_user_vocab", columnList = "user_id, vocabulary_id, reviewed_at"),
+        @Index(name = "idx_review_event_pending", columnList = "projection_pending, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReviewEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "user_id", nullable = false)
+    private long userId;
+
+    @Column(name = "vocabulary_id", nullable = false)
+    private long vocabularyId;
+
+    private int quality;
+
+    @Column(name = "reviewed_at", nullable = false)
+    private Instant reviewedAt;
+
+    private int previousLevel;
+
+    private int previousRepetitions;
+
+    private double previousEaseFactor;
+
+    private int previousInterval;
+
+    // Null khi thẻ chưa có trong sổ tay trước lượt ôn
+    private Instant previousNextReviewAt;
+
+    private int newRepetitions;
+
+    private double newEaseFactor;
+
+    private int newInterval;
+
+    private int newLevel;
+
+    private Instant nextReviewAt;
+
+    // Dòng cũ (trước khi có cột) nhận giá trị false, tức đã chiếu.
+    @Column(name = "projection_pending", nullable = false)
+    private boolean projectionPending;
+
+    public ReviewEvent(long userId, long vocabularyId, int quality, Instant reviewedAt) {
+        this.userId = userId;
+        this.vocabularyId = vocabularyId;
+        this.quality = quality;
+        this.reviewedAt = reviewedAt;
+    }
+
+    /** Trạng thái SM-2 trước lượt ôn, lấy từ sự kiện chưa ghi hoặc dòng user_vocabularies. */
+    public void setPreviousState(int level, int repetitions, double easeFactor, int interval) {
+        this.previousLevel = level;
+        this.previousRepetitions = repetitions;
+        this.previousEaseFactor = easeFactor;
+        this.previousInterval = interval;
+    }
+}
@@ -0,0 +1,58 @@
+package com.fourstars.FourStars.domain;
+
+import java.time.Instant;
+
+import com.fourstars.FourStars.domain.key.UserCategoryId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Tiến độ của một user trong một danh mục từ vựng: số từ trong sổ tay, số từ
+ * đã thuộc (level >= {@link #MASTERED_LEVEL}) và số từ đến hạn trước
+ * {@link #dueBefore} (hết ngày hôm nay). Được cộng trừ khi thêm, xóa hoặc ôn
+ * một từ; số từ đến hạn được đếm lại mỗi đêm khi sang ngày mới.
+ */
+@Entity
+@Table(name = "user_category_progress")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserCategoryProgress {
+
+    public static final int MASTERED_LEVEL = 4;
+
+    @EmbeddedId
+    private UserCategoryId id;
+
+    // Chỉ để đọc tên danh mục; không đặt khóa ngoại để xóa danh mục trống không bị chặn.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Category category;
+
+    @Column(name = "notebook_count", nullable = false)
+    private int notebookCount;
+
+    @Column(name = "mastered_count", nullable = false)
+    private int masteredCount;
+
+    @Column(name = "due_count", nullable = false)
+    private int dueCount;
+
+    @Column(name = "due_before", nullable = false)
+    private Instant dueBefore;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
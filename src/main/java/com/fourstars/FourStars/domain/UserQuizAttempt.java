@@ -10,7 +10,9 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "user_quiz_attempts")
+@Table(name = "user_quiz_attempts", indexes = {
+        @Index(name = "idx_attempt_status_completedat", columnList = "status, completed_at")
+})
 @Getter
 @Setter
 public class UserQuizAttempt {
@@ -36,8 +38,21 @@ public class UserQuizAttempt {
 
     private Instant startedAt;
 
+    // Lúc nộp bài; khác null nghĩa là bài đã nộp, đang chờ chấm, không được làm tiếp
+    private Instant submittedAt;
+
     private Instant completedAt;
 
+    // Khóa lạc quan: hai consumer cùng chấm một attempt sẽ không ghi đè lẫn nhau
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    // Câu trả lời mã hóa gọn (xem QuizAnswerCodec) khi lưu theo chế độ "encoded";
+    // chỉ ghi bằng JDBC nên JPA không bao giờ ghi đè cột này.
+    @Column(name = "answers_encoded", columnDefinition = "MEDIUMBLOB", insertable = false, updatable = false)
+    private byte[] answersEncoded;
+
     // Một lần làm bài sẽ có nhiều câu trả lời của người dùng
     @OneToMany(mappedBy = "userQuizAttempt", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<UserAnswer> userAnswers = new HashSet<>();
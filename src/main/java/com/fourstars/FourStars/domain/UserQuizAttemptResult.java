@@ -0,0 +1,72 @@
+package com.fourstars.FourStars.domain;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Kết quả đã chấm của một attempt, lưu một lần dưới dạng JSON lúc chấm điểm.
+ * Attempt COMPLETED không bao giờ thay đổi nên xem kết quả chỉ cần đọc một dòng
+ * theo khóa chính.
+ */
+@Entity
+@Table(name = "user_quiz_attempt_results")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserQuizAttemptResult implements Persistable<Long> {
+
+    @Id
+    @Column(name = "user_quiz_attempt_id")
+    private Long attemptId;
+
+    @Column(name = "user_id", nullable = false)
+    private long userId;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String resultJson;
+
+    private Instant createdAt;
+
+    @Transient
+    private boolean newEntry = true;
+
+    public UserQuizAttemptResult(long attemptId, long userId, String resultJson) {
+        this.attemptId = attemptId;
+        this.userId = userId;
+        this.resultJson = resultJson;
+    }
+
+    @Override
+    public Long getId() {
+        return attemptId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void markNotNew() {
+        this.newEntry = false;
+    }
+
+    @PrePersist
+    public void handleBeforeCreate() {
+        this.createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,86 @@
+package com.fourstars.FourStars.domain;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Thống kê quiz của một user (số lần hoàn thành, tổng điểm, điểm cao nhất), được
+ * cộng dồn mỗi lần chấm điểm để dashboard không phải quét lịch sử attempt.
+ */
+@Entity
+@Table(name = "user_quiz_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserQuizSummary implements Persistable<Long> {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private int attemptCount;
+
+    private long scoreSum;
+
+    private int bestScore;
+
+    private Instant lastCompletedAt;
+
+    private Instant updatedAt;
+
+    @Transient
+    private boolean newEntry = true;
+
+    public UserQuizSummary(long userId) {
+        this.userId = userId;
+    }
+
+    public void addAttempt(int score, Instant completedAt) {
+        this.attemptCount++;
+        this.scoreSum += score;
+        this.bestScore = Math.max(this.bestScore, score);
+        if (completedAt != null && (this.lastCompletedAt == null || completedAt.isAfter(this.lastCompletedAt))) {
+            this.lastCompletedAt = completedAt;
+        }
+    }
+
+    public double getAverageScore() {
+        return attemptCount == 0 ? 0.0 : (double) scoreSum / attemptCount;
+    }
+
+    @Override
+    public Long getId() {
+        return userId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void markNotNew() {
+        this.newEntry = false;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void handleBeforeSave() {
+        this.updatedAt = Instant.now();
+    }
+}
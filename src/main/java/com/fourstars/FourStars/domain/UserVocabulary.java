@@ -3,6 +3,8 @@ package com.fourstars.FourStars.domain;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
+import org.springframework.data.domain.Persistable;
+
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fourstars.FourStars.domain.key.UserVocabularyId;
@@ -15,9 +17,12 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.MapsId;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -28,13 +33,16 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "user_vocabularies", indexes = {
-        @Index(name = "idx_uservocab_nextreview", columnList = "next_review_at")
+        @Index(name = "idx_uservocab_nextreview", columnList = "next_review_at"),
+        @Index(name = "idx_uservocab_user_nextreview", columnList = "user_id, next_review_at"),
+        @Index(name = "idx_uservocab_user_created", columnList = "user_id, created_at, vocabulary_id"),
+        @Index(name = "idx_uservocab_user_level_created", columnList = "user_id, level, created_at")
 })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public class UserVocabulary {
+public class UserVocabulary implements Persistable<UserVocabularyId> {
 
     @EmbeddedId
     private UserVocabularyId id;
@@ -100,6 +108,26 @@ public class UserVocabulary {
     @JsonFormat(pattern = "dd-MM-yyyy HH:mm:ss a", timezone = "GMT+7")
     private Instant updatedAt;
 
+    /**
+     * Id được gán sẵn nên Spring Data không tự biết entity mới hay cũ; cờ này cho
+     * phép save() gọi persist (có thể batch) thay vì merge kèm một SELECT.
+     */
+    @Transient
+    @JsonIgnore
+    private boolean newEntry = true;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void markNotNew() {
+        this.newEntry = false;
+    }
+
     @PrePersist
     public void handleBeforeCreate() {
         Instant now = Instant.now();
@@ -0,0 +1,79 @@
+package com.fourstars.FourStars.domain;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Số từ trong sổ tay của một user, tổng và theo từng level 1-5. Được cộng trừ
+ * mỗi khi thêm, xóa hoặc ôn một từ để dashboard không phải đọc cả sổ tay.
+ */
+@Entity
+@Table(name = "user_vocabulary_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserVocabularyStats {
+
+    public static final int MAX_LEVEL = 5;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_count", nullable = false)
+    private int totalCount;
+
+    @Column(name = "level1_count", nullable = false)
+    private int level1Count;
+
+    @Column(name = "level2_count", nullable = false)
+    private int level2Count;
+
+    @Column(name = "level3_count", nullable = false)
+    private int level3Count;
+
+    @Column(name = "level4_count", nullable = false)
+    private int level4Count;
+
+    @Column(name = "level5_count", nullable = false)
+    private int level5Count;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public UserVocabularyStats(long userId) {
+        this.userId = userId;
+    }
+
+    /** counts[0] là tổng, counts[1..5] là số từ ở từng level. */
+    public UserVocabularyStats(long userId, int[] counts) {
+        this.userId = userId;
+        this.totalCount = counts[0];
+        this.level1Count = counts[1];
+        this.level2Count = counts[2];
+        this.level3Count = counts[3];
+        this.level4Count = counts[4];
+        this.level5Count = counts[5];
+    }
+
+    /** Số từ theo level, chỉ gồm các level có ít nhất một từ. */
+    public Map<Integer, Integer> getLevelCounts() {
+        int[] counts = { level1Count, level2Count, level3Count, level4Count, level5Count };
+        Map<Integer, Integer> levelCounts = new HashMap<>();
+        for (int level = 1; level <= MAX_LEVEL; level++) {
+            if (counts[level - 1] > 0) {
+                levelCounts.put(level, counts[level - 1]);
+            }
+        }
+        return levelCounts;
+    }
+}
@@ -0,0 +1,61 @@
+package com.fourstars.FourStars.domain;
+
+import java.time.Instant;
+
+import com.fourstars.FourStars.domain.key.UserWeekId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Điểm của các quiz ôn tập (quiz tạm, không có dòng user_quiz_attempts) mà một
+ * user đạt được trong một tuần, tính từ thứ Hai giờ Việt Nam. Bảng xếp hạng tuần
+ * cộng bảng này với điểm các attempt đã chấm.
+ */
+@Entity
+@Table(name = "user_weekly_quiz_points")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserWeeklyQuizPoints {
+
+    @EmbeddedId
+    private UserWeekId id;
+
+    @Column(nullable = false)
+    private int points;
+
+    @Column(name = "quiz_count", nullable = false)
+    private int quizCount;
+
+    @Column(name = "last_completed_at")
+    private Instant lastCompletedAt;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public UserWeeklyQuizPoints(UserWeekId id) {
+        this.id = id;
+    }
+
+    public void addQuiz(int score, Instant completedAt) {
+        this.points += score;
+        this.quizCount++;
+        if (completedAt != null && (this.lastCompletedAt == null || completedAt.isAfter(this.lastCompletedAt))) {
+            this.lastCompletedAt = completedAt;
+        }
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void handleBeforeSave() {
+        this.updatedAt = Instant.now();
+    }
+}
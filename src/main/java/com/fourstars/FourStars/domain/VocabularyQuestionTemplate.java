@@ -0,0 +1,58 @@
+package com.fourstars.FourStars.domain;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Mẫu câu hỏi dựng sẵn cho một từ vựng: câu điền khuyết cùng vị trí chỗ trống
+ * trong exampleEn, danh sách id đáp án nhiễu ứng viên và file nghe. Mẫu được
+ * dựng bất đồng bộ khi từ được tạo hoặc sửa; {@link #sourceUpdatedAt} ghi lại
+ * phiên bản của từ lúc dựng và {@link #formatVersion} phiên bản cách dựng, để
+ * nhận ra mẫu đã cũ.
+ */
+@Entity
+@Table(name = "vocabulary_question_templates")
+@Getter
+@Setter
+@NoArgsConstructor
+public class VocabularyQuestionTemplate {
+
+    @Id
+    @Column(name = "vocabulary_id")
+    private long vocabularyId;
+
+    // updatedAt (hoặc createdAt nếu chưa sửa) của từ vựng khi dựng mẫu
+    @Column(name = "source_updated_at", nullable = false)
+    private Instant sourceUpdatedAt;
+
+    // QuestionTemplateService.FORMAT_VERSION lúc dựng; null là mẫu dựng trước khi có cột này
+    @Column(name = "format_version")
+    private Integer formatVersion;
+
+    // exampleEn với từ được thay bằng chỗ trống; null nếu câu ví dụ không chứa từ
+    @Column(name = "cloze_prompt", columnDefinition = "TEXT")
+    private String clozePrompt;
+
+    @Column(name = "blank_start")
+    private Integer blankStart;
+
+    @Column(name = "blank_length")
+    private Integer blankLength;
+
+    // Id các từ cùng loại, cách nhau bởi dấu phẩy
+    @Column(name = "distractor_ids", length = 255)
+    private String distractorIds;
+
+    @Column(name = "listening_audio", length = 2048)
+    private String listeningAudio;
+
+    @Column(name = "built_at", nullable = false)
+    private Instant builtAt;
+}
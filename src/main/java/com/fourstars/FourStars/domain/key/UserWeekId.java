@@ -0,0 +1,43 @@
+package com.fourstars.FourStars.domain.key;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserWeekId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        UserWeekId that = (UserWeekId) o;
+        return Objects.equals(userId, that.userId) &&
+                Objects.equals(weekStart, that.weekStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, weekStart);
+    }
+}
@@ -0,0 +1,16 @@
+package com.fourstars.FourStars.domain.request.quiz;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SaveDraftAnswersRequestDTO {
+    @NotEmpty
+    @Valid
+    private List<UserAnswerRequestDTO> answers;
+}
@@ -3,7 +3,6 @@ package com.fourstars.FourStars.domain.request.quiz;
 import java.util.List;
 
 import jakarta.validation.Valid;
-import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
@@ -13,7 +12,7 @@ import lombok.Setter;
 public class SubmitQuizRequestDTO {
     @NotNull
     private Long userQuizAttemptId;
-    @NotEmpty
+    // Có thể rỗng nếu mọi câu trả lời đã được autosave
     @Valid
     private List<UserAnswerRequestDTO> answers;
 }
@@ -0,0 +1,17 @@
+package com.fourstars.FourStars.domain.request.vocabulary;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SubmitReviewSessionRequestDTO {
+    // Điểm của các thẻ trong phiên; có thể nộp nhiều lần, mỗi thẻ một lần
+    @NotEmpty(message = "Grades cannot be empty")
+    @Valid
+    private List<SubmitReviewRequestDTO> grades;
+}
@@ -0,0 +1,29 @@
+package com.fourstars.FourStars.domain.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPaginationDTO<T> {
+    private Meta meta;
+    private List<T> result;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Meta {
+        private int pageSize;
+        // null khi đã tới trang cuối
+        private String nextCursor;
+        // chỉ có khi client yêu cầu đếm tổng
+        private Long total;
+    }
+}
@@ -17,6 +17,7 @@ public class DashboardResponseDTO {
     private Map<Integer, Integer> vocabularyLevelCounts;
     private int totalQuizzesCompleted;
     private Double averageQuizScore;
+    private int bestQuizScore;
     private int currentStreak;
     private BadgeResponseDTO badges;
     private PlanResponseDTO currentPlan;
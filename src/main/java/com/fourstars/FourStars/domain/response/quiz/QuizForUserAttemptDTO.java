@@ -2,6 +2,9 @@ package com.fourstars.FourStars.domain.response.quiz;
 
 import java.util.List;
 
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.fourstars.FourStars.domain.request.quiz.UserAnswerRequestDTO;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,5 +17,8 @@ import lombok.Setter;
 public class QuizForUserAttemptDTO {
     private long attemptId;
     private String quizTitle;
-    private List<QuestionForUserDTO> questions;
+    // Mảng QuestionForUserDTO đã serialize sẵn (xem QuizPayloadCacheService)
+    private RawValue questions;
+    // Câu trả lời nháp đã autosave khi tiếp tục một attempt đang làm dở
+    private List<UserAnswerRequestDTO> savedAnswers;
 }
@@ -0,0 +1,21 @@
+package com.fourstars.FourStars.domain.response.vocabulary;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryProgressResponseDTO {
+    private long categoryId;
+    private String categoryName;
+    // Số từ của danh mục trong sổ tay
+    private int notebookCount;
+    // Số từ ở level 4 trở lên
+    private int masteredCount;
+    // Số từ đến hạn ôn trong hôm nay (kể cả quá hạn)
+    private int dueCount;
+}
@@ -0,0 +1,18 @@
+package com.fourstars.FourStars.domain.response.vocabulary;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewForecastResponseDTO {
+    private LocalDate date;
+    // Số từ đến hạn ôn trong ngày (ngày đầu tiên gồm cả từ quá hạn)
+    private long dueCount;
+}
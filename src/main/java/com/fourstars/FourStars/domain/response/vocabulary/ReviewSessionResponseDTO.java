@@ -0,0 +1,16 @@
+package com.fourstars.FourStars.domain.response.vocabulary;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ReviewSessionResponseDTO {
+    // null khi không có từ nào đến hạn
+    private String sessionToken;
+    private Instant expiresAt;
+    private List<VocabularyResponseDTO> cards;
+}
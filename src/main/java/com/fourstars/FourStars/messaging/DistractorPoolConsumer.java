@@ -0,0 +1,41 @@
+package com.fourstars.FourStars.messaging;
+
+import com.fourstars.FourStars.messaging.dto.vocabulary.NewVocabularyMessage;
+import com.fourstars.FourStars.messaging.dto.vocabulary.VocabularyChangedMessage;
+import com.fourstars.FourStars.service.DistractorPoolService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RabbitListener(queues = "#{vocabularyPoolQueue.name}")
+public class DistractorPoolConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(DistractorPoolConsumer.class);
+
+    private final DistractorPoolService distractorPoolService;
+
+    public DistractorPoolConsumer(DistractorPoolService distractorPoolService) {
+        this.distractorPoolService = distractorPoolService;
+    }
+
+    @RabbitHandler
+    public void handleCreated(NewVocabularyMessage message) {
+        refresh(message.getNewVocabularyId());
+    }
+
+    @RabbitHandler
+    public void handleChanged(VocabularyChangedMessage message) {
+        refresh(message.getVocabularyId());
+    }
+
+    private void refresh(Long vocabularyId) {
+        try {
+            distractorPoolService.refresh(vocabularyId);
+        } catch (Exception e) {
+            logger.error("Failed to refresh distractor pool for vocabulary ID: {}", vocabularyId, e);
+        }
+    }
+}
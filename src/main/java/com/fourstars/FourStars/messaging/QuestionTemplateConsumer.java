@@ -0,0 +1,73 @@
+package com.fourstars.FourStars.messaging;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import com.fourstars.FourStars.config.RabbitMQConfig;
+import com.fourstars.FourStars.messaging.dto.vocabulary.NewVocabularyMessage;
+import com.fourstars.FourStars.messaging.dto.vocabulary.VocabularyChangedMessage;
+import com.fourstars.FourStars.service.QuestionTemplateService;
+
+/**
+ * Nhận sự kiện từ vựng theo lô và dựng sẵn question template cho các từ trong lô.
+ * Lô lỗi thì thử lại từng từ để một từ hỏng không chặn cả lô.
+ */
+@Component
+public class QuestionTemplateConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(QuestionTemplateConsumer.class);
+
+    private final QuestionTemplateService questionTemplateService;
+    private final MessageConverter messageConverter;
+
+    public QuestionTemplateConsumer(QuestionTemplateService questionTemplateService,
+            MessageConverter messageConverter) {
+        this.questionTemplateService = questionTemplateService;
+        this.messageConverter = messageConverter;
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.VOCABULARY_CREATED_QUEUE, containerFactory = "vocabularyBatchListenerFactory")
+    public void handleBatch(List<Message> messages) {
+        Set<Long> vocabularyIds = new LinkedHashSet<>();
+        for (Message message : messages) {
+            Object payload;
+            try {
+                payload = messageConverter.fromMessage(message);
+            } catch (Exception e) {
+                logger.error("Skipping unreadable vocabulary event", e);
+                continue;
+            }
+            if (payload instanceof NewVocabularyMessage created) {
+                vocabularyIds.add(created.getNewVocabularyId());
+            } else if (payload instanceof VocabularyChangedMessage changed) {
+                vocabularyIds.add(changed.getVocabularyId());
+            } else {
+                logger.warn("Ignoring unexpected vocabulary event payload: {}", payload);
+            }
+        }
+        if (vocabularyIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            int written = questionTemplateService.precompile(vocabularyIds);
+            logger.info("Precompiled {} question templates from {} vocabulary events", written, messages.size());
+        } catch (Exception e) {
+            logger.warn("Batch question template precompile failed, retrying one by one", e);
+            for (Long vocabularyId : vocabularyIds) {
+                try {
+                    questionTemplateService.precompile(List.of(vocabularyId));
+                } catch (Exception ex) {
+                    logger.error("Failed to precompile question template for vocabulary ID: {}", vocabularyId, ex);
+                }
+            }
+        }
+    }
+}
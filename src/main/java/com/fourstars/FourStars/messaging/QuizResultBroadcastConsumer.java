@@ -0,0 +1,30 @@
+package com.fourstars.FourStars.messaging;
+
+import com.fourstars.FourStars.messaging.dto.quiz.QuizResultBroadcastMessage;
+import com.fourstars.FourStars.service.QuizResultPublisher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/** Nhận kết quả quiz do node chấm điểm phát ra và giao cho client đang kết nối tới node này. */
+@Component
+public class QuizResultBroadcastConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(QuizResultBroadcastConsumer.class);
+
+    private final QuizResultPublisher quizResultPublisher;
+
+    public QuizResultBroadcastConsumer(QuizResultPublisher quizResultPublisher) {
+        this.quizResultPublisher = quizResultPublisher;
+    }
+
+    @RabbitListener(queues = "#{quizResultQueue.name}")
+    public void handleQuizResult(QuizResultBroadcastMessage message) {
+        try {
+            quizResultPublisher.publish(message.getUserId(), message.getResult());
+        } catch (Exception e) {
+            logger.error("Failed to deliver quiz result for attempt ID: {}", message.getResult().getId(), e);
+        }
+    }
+}
@@ -21,7 +21,7 @@ public class QuizScoringConsumer {
         this.quizService = quizService;
     }
 
-    @RabbitListener(queues = RabbitMQConfig.QUIZ_SCORING_QUEUE)
+    @RabbitListener(queues = RabbitMQConfig.QUIZ_SCORING_QUEUE, concurrency = "${fourstars.quiz-scoring.concurrency:1}")
     public void handleQuizScoring(QuizSubmissionMessage message) {
         logger.info("[START] Processing quiz scoring for attempt ID: {}. User ID: {}",
                 message.getUserQuizAttemptId(), message.getUserId());
@@ -0,0 +1,19 @@
+package com.fourstars.FourStars.messaging.dto.quiz;
+
+import com.fourstars.FourStars.domain.response.quiz.QuizAttemptResponseDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.io.Serializable;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizResultBroadcastMessage implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Long userId;
+    private QuizAttemptResponseDTO result;
+}
@@ -0,0 +1,13 @@
+package com.fourstars.FourStars.messaging.dto.vocabulary;
+
+import java.io.Serializable;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VocabularyChangedMessage implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Long vocabularyId;
+}
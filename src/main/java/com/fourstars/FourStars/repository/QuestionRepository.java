@@ -1,6 +1,10 @@
 package com.fourstars.FourStars.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.fourstars.FourStars.domain.Question;
@@ -8,4 +12,11 @@ import com.fourstars.FourStars.domain.Question;
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     void deleteByQuizId(long quizId);
+
+    /**
+     * Tải toàn bộ câu hỏi của một quiz cùng quiz và các lựa chọn trong một truy
+     * vấn duy nhất (dùng khi chấm điểm).
+     */
+    @Query("SELECT DISTINCT q FROM Question q JOIN FETCH q.quiz LEFT JOIN FETCH q.choices WHERE q.quiz.id = :quizId")
+    List<Question> findAllWithChoicesByQuizId(@Param("quizId") long quizId);
 }
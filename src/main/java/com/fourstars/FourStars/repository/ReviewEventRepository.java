@@ -0,0 +1,14 @@
+package com.fourstars.FourStars.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.fourstars.FourStars.domain.ReviewEvent;
+
+@Repository
+public interface ReviewEventRepository extends JpaRepository<ReviewEvent, Long> {
+
+    List<ReviewEvent> findByUserIdAndVocabularyIdOrderByReviewedAtAscIdAsc(long userId, long vocabularyId);
+}
@@ -1,10 +1,19 @@
 package com.fourstars.FourStars.repository;
 
+import java.util.Collection;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.fourstars.FourStars.domain.UserAnswer;
 
 @Repository
 public interface UserAnswerRepository extends JpaRepository<UserAnswer, Long> {
+
+    @Modifying
+    @Query("DELETE FROM UserAnswer ua WHERE ua.userQuizAttempt.id IN :attemptIds")
+    int deleteByAttemptIds(@Param("attemptIds") Collection<Long> attemptIds);
 }
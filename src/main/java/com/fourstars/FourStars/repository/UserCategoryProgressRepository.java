@@ -0,0 +1,23 @@
+package com.fourstars.FourStars.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.fourstars.FourStars.domain.UserCategoryProgress;
+import com.fourstars.FourStars.domain.key.UserCategoryId;
+
+@Repository
+public interface UserCategoryProgressRepository extends JpaRepository<UserCategoryProgress, UserCategoryId> {
+
+    /** Mọi dòng tiến độ của user (đọc theo khóa chính), kèm tên danh mục. */
+    @Query("SELECT p FROM UserCategoryProgress p JOIN FETCH p.category WHERE p.id.userId = :userId "
+            + "ORDER BY p.id.categoryId")
+    List<UserCategoryProgress> findAllByUserIdWithCategory(@Param("userId") Long userId);
+
+    @Query("SELECT p.id.categoryId FROM UserCategoryProgress p WHERE p.id.userId = :userId")
+    List<Long> findCategoryIdsByUserId(@Param("userId") Long userId);
+}
@@ -1,18 +1,20 @@
 package com.fourstars.FourStars.repository;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fourstars.FourStars.domain.Quiz;
 import com.fourstars.FourStars.domain.User;
 import com.fourstars.FourStars.domain.UserQuizAttempt;
-import com.fourstars.FourStars.repository.projection.LeaderboardProjection;
+import com.fourstars.FourStars.repository.projection.QuizSummaryProjection;
 import com.fourstars.FourStars.util.constant.QuizStatus;
 
 import io.lettuce.core.dynamic.annotation.Param;
@@ -21,24 +23,65 @@ import io.lettuce.core.dynamic.annotation.Param;
 public interface UserQuizAttemptRepository extends JpaRepository<UserQuizAttempt, Long> {
         Optional<UserQuizAttempt> findByUserAndQuizAndStatus(User user, Quiz quiz, QuizStatus status);
 
+        /** Attempt đang làm dở gần nhất, bỏ qua các attempt đã nộp nhưng chưa chấm. */
+        Optional<UserQuizAttempt> findFirstByUserAndQuizAndStatusAndSubmittedAtIsNullOrderByStartedAtDesc(User user,
+                        Quiz quiz, QuizStatus status);
+
+        /** Một lần tra theo khóa chính: attempt còn làm tiếp được (chưa nộp, chưa chấm). */
+        @Query("SELECT COUNT(a) > 0 FROM UserQuizAttempt a WHERE a.id = :id AND a.user.id = :userId "
+                        + "AND a.status = com.fourstars.FourStars.util.constant.QuizStatus.IN_PROGRESS "
+                        + "AND a.submittedAt IS NULL")
+        boolean isResumable(@Param("id") long id, @Param("userId") long userId);
+
+        /**
+         * Đánh dấu attempt đã nộp trước khi gửi sang hàng đợi chấm điểm. Trả về 0
+         * nếu attempt không thuộc user hoặc đã chấm xong.
+         */
+        @Modifying
+        @Transactional
+        @Query("UPDATE UserQuizAttempt a SET a.submittedAt = :submittedAt "
+                        + "WHERE a.id = :id AND a.user.id = :userId "
+                        + "AND a.status <> com.fourstars.FourStars.util.constant.QuizStatus.COMPLETED")
+        int markSubmitted(@Param("id") long id, @Param("userId") long userId,
+                        @Param("submittedAt") Instant submittedAt);
+
         Optional<UserQuizAttempt> findByIdAndUserId(long id, long userId);
 
+        /**
+         * Nhận quyền chấm một attempt: chỉ một transaction cập nhật được dòng này
+         * từ IN_PROGRESS sang COMPLETED, các bản nộp trùng sẽ thấy 0 dòng.
+         */
+        @Modifying
+        @Query("UPDATE UserQuizAttempt a SET a.status = com.fourstars.FourStars.util.constant.QuizStatus.COMPLETED, "
+                        + "a.completedAt = :completedAt, a.version = a.version + 1 "
+                        + "WHERE a.id = :id AND a.user.id = :userId "
+                        + "AND a.status <> com.fourstars.FourStars.util.constant.QuizStatus.COMPLETED")
+        int claimForScoring(@Param("id") long id, @Param("userId") long userId,
+                        @Param("completedAt") Instant completedAt);
+
+        /** Chỉ đọc trạng thái, không nạp entity nên luôn thấy giá trị mới nhất trong DB. */
+        @Query("SELECT a.status FROM UserQuizAttempt a WHERE a.id = :id AND a.user.id = :userId")
+        Optional<QuizStatus> findStatusByIdAndUserId(@Param("id") long id, @Param("userId") long userId);
+
         int countByUser(User user);
 
+        /** Tổng hợp lịch sử đã hoàn thành của user, dùng một lần để khởi tạo bảng tổng hợp. */
+        @Query("SELECT COUNT(a) AS attemptCount, COALESCE(SUM(a.score), 0) AS scoreSum, "
+                        + "COALESCE(MAX(a.score), 0) AS bestScore, MAX(a.completedAt) AS lastCompletedAt "
+                        + "FROM UserQuizAttempt a WHERE a.user.id = :userId "
+                        + "AND a.status = com.fourstars.FourStars.util.constant.QuizStatus.COMPLETED "
+                        + "AND a.id <> :excludedAttemptId")
+        QuizSummaryProjection summarizeCompletedAttempts(@Param("userId") long userId,
+                        @Param("excludedAttemptId") long excludedAttemptId);
+
+        /** Các attempt đã hoàn thành trước mốc cutoff mà vẫn còn câu trả lời chi tiết. */
+        @Query("SELECT a.id FROM UserQuizAttempt a "
+                        + "WHERE a.status = com.fourstars.FourStars.util.constant.QuizStatus.COMPLETED "
+                        + "AND a.completedAt < :cutoff "
+                        + "AND EXISTS (SELECT 1 FROM UserAnswer ua WHERE ua.userQuizAttempt = a) "
+                        + "ORDER BY a.id")
+        List<Long> findCompactableAttemptIds(@Param("cutoff") Instant cutoff, Pageable pageable);
+
         @Query("SELECT AVG(ua.score) FROM UserQuizAttempt ua WHERE ua.user = :user")
         Double calculateAverageScoreByUser(User user);
-
-        @Query("SELECT u.id as userId, u.name as name, u.email as email, SUM(a.score) as weeklyPoints " +
-                        "FROM UserQuizAttempt a JOIN a.user u " +
-                        "WHERE a.status = com.fourstars.FourStars.util.constant.QuizStatus.COMPLETED " +
-                        "AND a.completedAt >= :startDate AND a.completedAt < :endDate " +
-                        "AND u.role.name IN ('USER', 'PREMIUM') " +
-                        "AND (:badgeId IS NULL OR u.badge.id = :badgeId) " +
-                        "GROUP BY u.id, u.name, u.email " +
-                        "ORDER BY weeklyPoints DESC, MAX(a.completedAt) ASC")
-        Page<LeaderboardProjection> findWeeklyLeaderboard(
-                        @Param("startDate") Instant startDate,
-                        @Param("endDate") Instant endDate,
-                        @Param("badgeId") Long badgeId,
-                        Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.fourstars.FourStars.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.fourstars.FourStars.domain.UserQuizAttemptResult;
+
+@Repository
+public interface UserQuizAttemptResultRepository extends JpaRepository<UserQuizAttemptResult, Long> {
+
+    @Query("SELECT r.resultJson FROM UserQuizAttemptResult r WHERE r.attemptId = :attemptId AND r.userId = :userId")
+    Optional<String> findResultJson(@Param("attemptId") long attemptId, @Param("userId") long userId);
+
+    @Query("SELECT r.attemptId FROM UserQuizAttemptResult r WHERE r.attemptId IN :attemptIds")
+    List<Long> findStoredAttemptIds(@Param("attemptIds") Collection<Long> attemptIds);
+}
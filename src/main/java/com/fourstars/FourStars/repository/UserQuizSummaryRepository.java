@@ -0,0 +1,10 @@
+package com.fourstars.FourStars.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.fourstars.FourStars.domain.UserQuizSummary;
+
+@Repository
+public interface UserQuizSummaryRepository extends JpaRepository<UserQuizSummary, Long> {
+}
@@ -1,6 +1,7 @@
 package com.fourstars.FourStars.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,10 @@ import org.springframework.stereotype.Repository;
 import com.fourstars.FourStars.domain.User;
 import com.fourstars.FourStars.domain.UserVocabulary;
 import com.fourstars.FourStars.domain.key.UserVocabularyId;
+import com.fourstars.FourStars.repository.projection.CategoryProgressProjection;
+import com.fourstars.FourStars.repository.projection.LevelCountProjection;
+import com.fourstars.FourStars.repository.projection.ReviewLoadProjection;
+import com.fourstars.FourStars.repository.projection.ReviewScheduleProjection;
 
 @Repository
 public interface UserVocabularyRepository
@@ -27,10 +32,16 @@ public interface UserVocabularyRepository
 
     List<UserVocabulary> findByUser(User user);
 
+    @Query("SELECT uv FROM UserVocabulary uv WHERE uv.id.userId = :userId AND uv.id.vocabularyId IN :vocabularyIds")
+    List<UserVocabulary> findByUserIdAndVocabularyIdIn(@Param("userId") Long userId,
+            @Param("vocabularyIds") Collection<Long> vocabularyIds);
+
     int countByUser(User user);
 
     long countByUserAndNextReviewAtBefore(User user, Instant now);
 
+    long countByIdUserIdAndNextReviewAtLessThanEqual(Long userId, Instant now);
+
     @Modifying
     @Query("DELETE FROM UserVocabulary uv WHERE uv.id.vocabularyId = :vocabularyId")
     void deleteByVocabularyId(@Param("vocabularyId") Long vocabularyId);
@@ -48,4 +59,69 @@ public interface UserVocabularyRepository
      */
     @Query("SELECT DISTINCT uv.user FROM UserVocabulary uv WHERE uv.nextReviewAt <= :now")
     List<User> findUsersWithPendingReviews(@Param("now") Instant now);
+
+    @Query("SELECT uv.id.vocabularyId AS vocabularyId, uv.nextReviewAt AS nextReviewAt "
+            + "FROM UserVocabulary uv WHERE uv.id.userId = :userId")
+    List<ReviewScheduleProjection> findReviewScheduleByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT uv.id.vocabularyId FROM UserVocabulary uv "
+            + "WHERE uv.id.userId = :userId AND uv.nextReviewAt <= :now ORDER BY uv.nextReviewAt ASC")
+    List<Long> findDueVocabularyIds(@Param("userId") Long userId, @Param("now") Instant now, Pageable pageable);
+
+    @Query("SELECT DISTINCT uv.id.userId FROM UserVocabulary uv ORDER BY uv.id.userId")
+    List<Long> findDistinctUserIds(Pageable pageable);
+
+    @Query("SELECT uv.id.userId FROM UserVocabulary uv WHERE uv.id.vocabularyId = :vocabularyId")
+    List<Long> findUserIdsByVocabularyId(@Param("vocabularyId") Long vocabularyId);
+
+    @Query("SELECT uv.id.vocabularyId AS vocabularyId, uv.nextReviewAt AS nextReviewAt, "
+            + "uv.reviewInterval AS reviewInterval FROM UserVocabulary uv "
+            + "WHERE uv.id.userId = :userId AND uv.nextReviewAt < :until ORDER BY uv.nextReviewAt ASC")
+    List<ReviewLoadProjection> findReviewLoadByUserId(@Param("userId") Long userId, @Param("until") Instant until);
+
+    long countByIdUserId(Long userId);
+
+    long countByIdUserIdAndLevel(Long userId, int level);
+
+    @Query("SELECT uv.level AS level, COUNT(uv) AS count FROM UserVocabulary uv "
+            + "WHERE uv.id.userId = :userId GROUP BY uv.level")
+    List<LevelCountProjection> countByLevelForUser(@Param("userId") Long userId);
+
+    /** Tiến độ theo danh mục tính trực tiếp từ sổ tay, dùng để khởi tạo bảng tổng hợp. */
+    @Query("SELECT c.id AS categoryId, c.name AS categoryName, COUNT(uv) AS notebookCount, "
+            + "SUM(CASE WHEN uv.level >= :masteredLevel THEN 1 ELSE 0 END) AS masteredCount, "
+            + "SUM(CASE WHEN uv.nextReviewAt < :dueBefore THEN 1 ELSE 0 END) AS dueCount "
+            + "FROM UserVocabulary uv JOIN uv.vocabulary v JOIN v.category c "
+            + "WHERE uv.id.userId = :userId GROUP BY c.id, c.name")
+    List<CategoryProgressProjection> summarizeByCategoryForUser(@Param("userId") Long userId,
+            @Param("masteredLevel") int masteredLevel, @Param("dueBefore") Instant dueBefore);
+
+    /**
+     * Trang đầu của sổ tay theo thời gian thêm (mới nhất trước), kèm Vocabulary
+     * và Category trong cùng truy vấn.
+     */
+    @Query("SELECT uv FROM UserVocabulary uv JOIN FETCH uv.vocabulary v LEFT JOIN FETCH v.category "
+            + "WHERE uv.id.userId = :userId ORDER BY uv.createdAt DESC, uv.id.vocabularyId DESC")
+    List<UserVocabulary> findNotebookFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    /** Trang kế tiếp sau con trỏ (createdAt, vocabularyId) của dòng cuối trang trước. */
+    @Query("SELECT uv FROM UserVocabulary uv JOIN FETCH uv.vocabulary v LEFT JOIN FETCH v.category "
+            + "WHERE uv.id.userId = :userId AND (uv.createdAt < :createdAt "
+            + "OR (uv.createdAt = :createdAt AND uv.id.vocabularyId < :vocabularyId)) "
+            + "ORDER BY uv.createdAt DESC, uv.id.vocabularyId DESC")
+    List<UserVocabulary> findNotebookPageAfter(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+            @Param("vocabularyId") Long vocabularyId, Pageable pageable);
+
+    @Query("SELECT uv FROM UserVocabulary uv JOIN FETCH uv.vocabulary v LEFT JOIN FETCH v.category "
+            + "WHERE uv.id.userId = :userId AND uv.level = :level "
+            + "ORDER BY uv.createdAt DESC, uv.id.vocabularyId DESC")
+    List<UserVocabulary> findNotebookFirstPageByLevel(@Param("userId") Long userId, @Param("level") int level,
+            Pageable pageable);
+
+    @Query("SELECT uv FROM UserVocabulary uv JOIN FETCH uv.vocabulary v LEFT JOIN FETCH v.category "
+            + "WHERE uv.id.userId = :userId AND uv.level = :level AND (uv.createdAt < :createdAt "
+            + "OR (uv.createdAt = :createdAt AND uv.id.vocabularyId < :vocabularyId)) "
+            + "ORDER BY uv.createdAt DESC, uv.id.vocabularyId DESC")
+    List<UserVocabulary> findNotebookPageByLevelAfter(@Param("userId") Long userId, @Param("level") int level,
+            @Param("createdAt") Instant createdAt, @Param("vocabularyId") Long vocabularyId, Pageable pageable);
 }
@@ -0,0 +1,10 @@
+package com.fourstars.FourStars.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.fourstars.FourStars.domain.UserVocabularyStats;
+
+@Repository
+public interface UserVocabularyStatsRepository extends JpaRepository<UserVocabularyStats, Long> {
+}
@@ -0,0 +1,46 @@
+package com.fourstars.FourStars.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.fourstars.FourStars.domain.UserWeeklyQuizPoints;
+import com.fourstars.FourStars.domain.key.UserWeekId;
+import com.fourstars.FourStars.repository.projection.LeaderboardProjection;
+
+@Repository
+public interface UserWeeklyQuizPointsRepository extends JpaRepository<UserWeeklyQuizPoints, UserWeekId> {
+
+        String WEEKLY_POINTS_SQL = "FROM (" +
+                        "SELECT a.user_id, a.score AS points, a.completed_at FROM user_quiz_attempts a " +
+                        "WHERE a.status = 'COMPLETED' AND a.completed_at >= :startDate AND a.completed_at < :endDate " +
+                        "UNION ALL " +
+                        "SELECT w.user_id, w.points, w.last_completed_at FROM user_weekly_quiz_points w " +
+                        "WHERE w.week_start = :weekStart" +
+                        ") p JOIN users u ON u.id = p.user_id JOIN roles r ON r.id = u.role_id " +
+                        "WHERE r.name IN ('USER', 'PREMIUM') " +
+                        "AND (:badgeId IS NULL OR u.badge_id = :badgeId) ";
+
+        /**
+         * Điểm tuần của mỗi user: điểm các attempt hoàn thành trong [startDate, endDate)
+         * cộng điểm quiz ôn tập của tuần bắt đầu từ weekStart.
+         */
+        @Query(value = "SELECT u.id AS userId, u.name AS name, u.email AS email, SUM(p.points) AS weeklyPoints " +
+                        WEEKLY_POINTS_SQL +
+                        "GROUP BY u.id, u.name, u.email " +
+                        "ORDER BY weeklyPoints DESC, MAX(p.completed_at) ASC",
+                        countQuery = "SELECT COUNT(DISTINCT u.id) " + WEEKLY_POINTS_SQL,
+                        nativeQuery = true)
+        Page<LeaderboardProjection> findWeeklyLeaderboard(
+                        @Param("startDate") Instant startDate,
+                        @Param("endDate") Instant endDate,
+                        @Param("weekStart") LocalDate weekStart,
+                        @Param("badgeId") Long badgeId,
+                        Pageable pageable);
+}
@@ -1,7 +1,9 @@
 package com.fourstars.FourStars.repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +16,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.repository.projection.DistractorProjection;
+import com.fourstars.FourStars.repository.projection.VocabularyCategoryProjection;
 
 @Repository
 public interface VocabularyRepository extends JpaRepository<Vocabulary, Long>, JpaSpecificationExecutor<Vocabulary> {
@@ -38,14 +42,18 @@ public interface VocabularyRepository extends JpaRepository<Vocabulary, Long>, J
                         @Param("now") Instant now,
                         Pageable pageable);
 
-        @Query(value = "SELECT * FROM vocabularies " +
-                        "WHERE id != :excludeId " +
-                        "AND word != :excludeWord " +
-                        "AND part_of_speech = :pos " +
-                        "ORDER BY RAND() LIMIT 3", nativeQuery = true)
-        List<Vocabulary> findRandomWords(
-                        @Param("excludeId") Long excludeId,
-                        @Param("excludeWord") String excludeWord,
-                        @Param("pos") String partOfSpeech);
+        @Query("SELECT v FROM Vocabulary v JOIN FETCH v.category WHERE v.id IN :ids")
+        List<Vocabulary> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+        @Query("SELECT v.id AS id, v.category.id AS categoryId FROM Vocabulary v WHERE v.id IN :ids")
+        List<VocabularyCategoryProjection> findCategoryIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+        @Query("SELECT v.id AS id, v.word AS word, v.partOfSpeech AS partOfSpeech, v.image AS image, " +
+                        "v.audio AS audio FROM Vocabulary v")
+        List<DistractorProjection> findAllDistractorCandidates();
+
+        @Query("SELECT v.id AS id, v.word AS word, v.partOfSpeech AS partOfSpeech, v.image AS image, " +
+                        "v.audio AS audio FROM Vocabulary v WHERE v.id = :id")
+        Optional<DistractorProjection> findDistractorCandidateById(@Param("id") Long id);
 
 }
@@ -0,0 +1,13 @@
+package com.fourstars.FourStars.repository.projection;
+
+public interface CategoryProgressProjection {
+    Long getCategoryId();
+
+    String getCategoryName();
+
+    Long getNotebookCount();
+
+    Long getMasteredCount();
+
+    Long getDueCount();
+}
@@ -0,0 +1,13 @@
+package com.fourstars.FourStars.repository.projection;
+
+public interface DistractorProjection {
+    Long getId();
+
+    String getWord();
+
+    String getPartOfSpeech();
+
+    String getImage();
+
+    String getAudio();
+}
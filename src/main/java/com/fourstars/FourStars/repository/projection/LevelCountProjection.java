@@ -0,0 +1,7 @@
+package com.fourstars.FourStars.repository.projection;
+
+public interface LevelCountProjection {
+    Integer getLevel();
+
+    Long getCount();
+}
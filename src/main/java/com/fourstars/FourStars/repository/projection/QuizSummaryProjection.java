@@ -0,0 +1,13 @@
+package com.fourstars.FourStars.repository.projection;
+
+import java.time.Instant;
+
+public interface QuizSummaryProjection {
+    Long getAttemptCount();
+
+    Long getScoreSum();
+
+    Integer getBestScore();
+
+    Instant getLastCompletedAt();
+}
@@ -0,0 +1,11 @@
+package com.fourstars.FourStars.repository.projection;
+
+import java.time.Instant;
+
+public interface ReviewLoadProjection {
+    Long getVocabularyId();
+
+    Instant getNextReviewAt();
+
+    Integer getReviewInterval();
+}
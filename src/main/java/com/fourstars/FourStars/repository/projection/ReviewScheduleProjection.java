@@ -0,0 +1,9 @@
+package com.fourstars.FourStars.repository.projection;
+
+import java.time.Instant;
+
+public interface ReviewScheduleProjection {
+    Long getVocabularyId();
+
+    Instant getNextReviewAt();
+}
@@ -0,0 +1,7 @@
+package com.fourstars.FourStars.repository.projection;
+
+public interface VocabularyCategoryProjection {
+    Long getId();
+
+    Long getCategoryId();
+}
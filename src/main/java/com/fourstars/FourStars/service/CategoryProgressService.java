@@ -0,0 +1,252 @@
+package com.fourstars.FourStars.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fourstars.FourStars.domain.UserCategoryProgress;
+import com.fourstars.FourStars.domain.key.UserCategoryId;
+import com.fourstars.FourStars.domain.response.vocabulary.CategoryProgressResponseDTO;
+import com.fourstars.FourStars.repository.UserCategoryProgressRepository;
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.repository.projection.CategoryProgressProjection;
+import com.fourstars.FourStars.repository.projection.VocabularyCategoryProjection;
+
+/**
+ * Duy trì {@link UserCategoryProgress}. Mỗi thay đổi của một thẻ (thêm, xóa,
+ * ôn) được quy thành delta [số từ, số từ đã thuộc, số từ đến hạn] của danh mục
+ * và cộng dồn bằng UPDATE "count = count + ?". User chưa có dòng tổng hợp
+ * thì khởi tạo mọi danh mục bằng một truy vấn GROUP BY; giống
+ * {@link VocabularyStatsService}, hàm ghi phải chạy sau khi user_vocabularies
+ * đã đổi, trong cùng transaction.
+ *
+ * "Đến hạn" là trước đầu ngày mai (giờ Việt Nam); mốc này được đếm lại cho mọi
+ * dòng bằng {@link #refreshDueCounts} mỗi đêm.
+ */
+@Service
+public class CategoryProgressService {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryProgressService.class);
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+
+    private static final String APPLY_DELTA_SQL = "UPDATE user_category_progress SET "
+            + "notebook_count = notebook_count + ?, mastered_count = mastered_count + ?, due_count = due_count + ?, "
+            + "updated_at = ? WHERE user_id = ? AND category_id = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO user_category_progress (notebook_count, mastered_count, "
+            + "due_count, due_before, updated_at, user_id, category_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String REFRESH_DUE_SQL = "UPDATE user_category_progress p SET due_count = "
+            + "(SELECT COUNT(*) FROM user_vocabularies uv JOIN vocabularies v ON v.id = uv.vocabulary_id "
+            + "WHERE uv.user_id = p.user_id AND v.category_id = p.category_id AND uv.next_review_at < ?), "
+            + "due_before = ?, updated_at = ?";
+
+    private static final String INVALIDATE_FOR_VOCABULARY_SQL = "DELETE FROM user_category_progress WHERE user_id IN "
+            + "(SELECT user_id FROM user_vocabularies WHERE vocabulary_id = ?)";
+
+    private final UserCategoryProgressRepository userCategoryProgressRepository;
+    private final UserVocabularyRepository userVocabularyRepository;
+    private final VocabularyRepository vocabularyRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryProgressService(UserCategoryProgressRepository userCategoryProgressRepository,
+            UserVocabularyRepository userVocabularyRepository, VocabularyRepository vocabularyRepository,
+            JdbcTemplate jdbcTemplate) {
+        this.userCategoryProgressRepository = userCategoryProgressRepository;
+        this.userVocabularyRepository = userVocabularyRepository;
+        this.vocabularyRepository = vocabularyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Trạng thái một thẻ trước và sau thay đổi; level null nghĩa là thẻ không có
+     * trong sổ tay (trước khi thêm hoặc sau khi xóa).
+     */
+    public record CardChange(long userId, long vocabularyId, Integer previousLevel, Instant previousNextReviewAt,
+            Integer newLevel, Instant newNextReviewAt) {
+    }
+
+    /** Mốc "đến hạn" của hôm nay: đầu ngày mai theo giờ Việt Nam. */
+    public static Instant dueBefore(Instant now) {
+        return LocalDate.ofInstant(now, ZONE).plusDays(1).atStartOfDay(ZONE).toInstant();
+    }
+
+    /**
+     * Tiến độ theo danh mục của user, đọc từ bảng tổng hợp. Chưa có dòng nào,
+     * hoặc số từ đến hạn chưa được đếm lại cho hôm nay, thì tính trực tiếp từ
+     * sổ tay (không ghi).
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryProgressResponseDTO> getProgress(long userId) {
+        Instant dueBefore = dueBefore(Instant.now());
+        List<UserCategoryProgress> rows = userCategoryProgressRepository.findAllByUserIdWithCategory(userId);
+        if (!rows.isEmpty() && rows.stream().allMatch(row -> dueBefore.equals(row.getDueBefore()))) {
+            return rows.stream()
+                    .filter(row -> row.getNotebookCount() > 0)
+                    .map(row -> new CategoryProgressResponseDTO(row.getId().getCategoryId(),
+                            row.getCategory().getName(), row.getNotebookCount(), row.getMasteredCount(),
+                            row.getDueCount()))
+                    .collect(Collectors.toList());
+        }
+        logger.debug("Category progress of user ID {} is missing or stale, counting from notebook", userId);
+        return userVocabularyRepository
+                .summarizeByCategoryForUser(userId, UserCategoryProgress.MASTERED_LEVEL, dueBefore).stream()
+                .map(row -> new CategoryProgressResponseDTO(row.getCategoryId(), row.getCategoryName(),
+                        row.getNotebookCount().intValue(), row.getMasteredCount().intValue(),
+                        row.getDueCount().intValue()))
+                .collect(Collectors.toList());
+    }
+
+    /** Một từ của danh mục vừa được thêm vào sổ tay. */
+    public void recordAdded(long userId, long categoryId, int level, Instant nextReviewAt) {
+        apply(Map.of(new UserCategoryId(userId, categoryId),
+                delta(null, null, level, nextReviewAt, dueBefore(Instant.now()))));
+    }
+
+    /** Một từ của danh mục vừa bị gỡ khỏi sổ tay. */
+    public void recordRemoved(long userId, long categoryId, int level, Instant nextReviewAt) {
+        apply(Map.of(new UserCategoryId(userId, categoryId),
+                delta(level, nextReviewAt, null, null, dueBefore(Instant.now()))));
+    }
+
+    /** Cộng thay đổi của nhiều thẻ; danh mục của các từ được tra bằng một truy vấn IN. */
+    public void applyChanges(List<CardChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Set<Long> vocabularyIds = changes.stream().map(CardChange::vocabularyId).collect(Collectors.toSet());
+        Map<Long, Long> categoryOf = new HashMap<>();
+        for (VocabularyCategoryProjection row : vocabularyRepository.findCategoryIdsByIdIn(vocabularyIds)) {
+            categoryOf.put(row.getId(), row.getCategoryId());
+        }
+
+        Instant dueBefore = dueBefore(Instant.now());
+        Map<UserCategoryId, int[]> deltas = new LinkedHashMap<>();
+        for (CardChange change : changes) {
+            Long categoryId = categoryOf.get(change.vocabularyId());
+            if (categoryId == null) {
+                continue;
+            }
+            int[] delta = delta(change.previousLevel(), change.previousNextReviewAt(), change.newLevel(),
+                    change.newNextReviewAt(), dueBefore);
+            int[] sum = deltas.computeIfAbsent(new UserCategoryId(change.userId(), categoryId), id -> new int[3]);
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] += delta[i];
+            }
+        }
+        deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0 && delta[2] == 0);
+        apply(deltas);
+    }
+
+    /** Cộng các delta bằng một JDBC batch; user chưa có dòng tổng hợp thì khởi tạo. */
+    public void apply(Map<UserCategoryId, int[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<UserCategoryId, int[]>> entries = new ArrayList<>(deltas.entrySet());
+        Timestamp now = Timestamp.from(Instant.now());
+        int[] updated = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, entries, entries.size(), (ps, entry) -> {
+            int[] delta = entry.getValue();
+            ps.setInt(1, delta[0]);
+            ps.setInt(2, delta[1]);
+            ps.setInt(3, delta[2]);
+            ps.setTimestamp(4, now);
+            ps.setLong(5, entry.getKey().getUserId());
+            ps.setLong(6, entry.getKey().getCategoryId());
+        })[0];
+
+        Map<Long, Map<Long, int[]>> missingByUser = new LinkedHashMap<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                UserCategoryId id = entries.get(i).getKey();
+                missingByUser.computeIfAbsent(id.getUserId(), userId -> new HashMap<>())
+                        .put(id.getCategoryId(), entries.get(i).getValue());
+            }
+        }
+        missingByUser.forEach((userId, missing) -> initialize(userId, missing, now));
+    }
+
+    /**
+     * Thêm mọi danh mục còn thiếu của user từ số đếm trên sổ tay (đã gồm thay đổi
+     * hiện tại). Dòng vừa được request khác thêm thì cộng delta vào dòng đó.
+     */
+    private void initialize(long userId, Map<Long, int[]> missing, Timestamp now) {
+        Set<Long> existing = new HashSet<>(userCategoryProgressRepository.findCategoryIdsByUserId(userId));
+        Instant dueBefore = dueBefore(now.toInstant());
+        Set<Long> concurrent = new HashSet<>();
+        int inserted = 0;
+        for (CategoryProgressProjection row : userVocabularyRepository.summarizeByCategoryForUser(userId,
+                UserCategoryProgress.MASTERED_LEVEL, dueBefore)) {
+            if (existing.contains(row.getCategoryId())) {
+                continue;
+            }
+            try {
+                jdbcTemplate.update(INSERT_SQL, row.getNotebookCount(), row.getMasteredCount(), row.getDueCount(),
+                        Timestamp.from(dueBefore), now, userId, row.getCategoryId());
+                inserted++;
+            } catch (DuplicateKeyException e) {
+                concurrent.add(row.getCategoryId());
+            }
+        }
+        missing.forEach((categoryId, delta) -> {
+            if (existing.contains(categoryId) || concurrent.contains(categoryId)) {
+                jdbcTemplate.update(APPLY_DELTA_SQL, delta[0], delta[1], delta[2], now, userId, categoryId);
+            }
+        });
+        logger.debug("Initialised progress of {} categories for user ID {}", inserted, userId);
+    }
+
+    /** Đếm lại số từ đến hạn của mọi dòng theo mốc của ngày mới; trả về số dòng. */
+    @Transactional
+    public int refreshDueCounts() {
+        Instant now = Instant.now();
+        Timestamp dueBefore = Timestamp.from(dueBefore(now));
+        return jdbcTemplate.update(REFRESH_DUE_SQL, dueBefore, dueBefore, Timestamp.from(now));
+    }
+
+    /**
+     * Xóa tiến độ của mọi user có từ này trong sổ tay, trước khi từ bị xóa hoặc
+     * chuyển danh mục; chúng sẽ được tính lại khi cần.
+     */
+    public void invalidateForVocabulary(long vocabularyId) {
+        int invalidated = jdbcTemplate.update(INVALIDATE_FOR_VOCABULARY_SQL, vocabularyId);
+        logger.debug("Invalidated {} category progress rows for vocabulary ID {}", invalidated, vocabularyId);
+    }
+
+    private static int[] delta(Integer previousLevel, Instant previousNextReviewAt, Integer newLevel,
+            Instant newNextReviewAt, Instant dueBefore) {
+        int[] delta = new int[3];
+        if (previousLevel != null) {
+            delta[0]--;
+            delta[1] -= previousLevel >= UserCategoryProgress.MASTERED_LEVEL ? 1 : 0;
+            delta[2] -= isDue(previousNextReviewAt, dueBefore) ? 1 : 0;
+        }
+        if (newLevel != null) {
+            delta[0]++;
+            delta[1] += newLevel >= UserCategoryProgress.MASTERED_LEVEL ? 1 : 0;
+            delta[2] += isDue(newNextReviewAt, dueBefore) ? 1 : 0;
+        }
+        return delta;
+    }
+
+    private static boolean isDue(Instant nextReviewAt, Instant dueBefore) {
+        return nextReviewAt != null && nextReviewAt.isBefore(dueBefore);
+    }
+}
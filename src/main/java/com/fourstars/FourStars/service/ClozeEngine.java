@@ -0,0 +1,215 @@
+package com.fourstars.FourStars.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Tạo câu điền khuyết (cloze) từ câu ví dụ: tách câu thành các từ một lần rồi so
+ * khớp theo ranh giới từ, nên "art" không bị khoét trong "start". Mỗi token của
+ * từ vựng được chấp nhận ở vài dạng biến đổi đơn giản (số nhiều, -ed, -ing).
+ *
+ * Kết quả được cache theo vocabulary id; mục cache tự tính lại khi câu ví dụ hoặc
+ * từ vựng đổi.
+ */
+@Component
+public class ClozeEngine {
+    public static final String BLANK = "______";
+
+    /** Vượt ngưỡng thì xóa cả cache; đủ chứa toàn bộ bảng vocabularies hiện tại. */
+    private static final int MAX_CACHED = 50_000;
+
+    private final Map<Long, Cached> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Kết quả khoét chỗ trống. Không khớp thì prompt giữ nguyên câu, blankStart
+     * là -1.
+     */
+    public record Cloze(String prompt, int blankStart, int blankLength) {
+        public boolean matched() {
+            return blankStart >= 0;
+        }
+    }
+
+    private record Cached(String sentence, String word, Cloze cloze) {
+    }
+
+    public Cloze cloze(long vocabularyId, String sentence, String word) {
+        Cached cached = cache.get(vocabularyId);
+        if (cached != null && Objects.equals(cached.sentence(), sentence) && Objects.equals(cached.word(), word)) {
+            return cached.cloze();
+        }
+        Cloze cloze = compute(sentence, word);
+        if (cache.size() >= MAX_CACHED) {
+            cache.clear();
+        }
+        cache.put(vocabularyId, new Cached(sentence, word, cloze));
+        return cloze;
+    }
+
+    /** Khoét mọi chỗ xuất hiện của word trong sentence, không dùng cache. */
+    public static Cloze compute(String sentence, String word) {
+        if (sentence == null || word == null) {
+            return new Cloze(sentence, -1, 0);
+        }
+        int[] wordBounds = boundaries(word);
+        String[] bases = new String[wordBounds[0]];
+        for (int k = 0; k < bases.length; k++) {
+            bases[k] = word.substring(wordBounds[1 + 2 * k], wordBounds[2 + 2 * k]).toLowerCase(Locale.ROOT);
+        }
+        int[] bounds = boundaries(sentence);
+        int tokenCount = bounds[0];
+        int n = bases.length;
+        if (n == 0 || tokenCount < n) {
+            return new Cloze(sentence, -1, 0);
+        }
+
+        StringBuilder prompt = null;
+        int copied = 0;
+        int firstStart = -1;
+        int firstLength = 0;
+        for (int i = 0; i + n <= tokenCount; i++) {
+            if (!matchesAt(sentence, bounds, i, bases)) {
+                continue;
+            }
+            int start = bounds[1 + 2 * i];
+            int end = bounds[2 + 2 * (i + n - 1)];
+            if (prompt == null) {
+                prompt = new StringBuilder(sentence.length());
+                firstStart = start;
+                firstLength = end - start;
+            }
+            prompt.append(sentence, copied, start).append(BLANK);
+            copied = end;
+            i += n - 1;
+        }
+        if (prompt == null) {
+            return new Cloze(sentence, -1, 0);
+        }
+        prompt.append(sentence, copied, sentence.length());
+        return new Cloze(prompt.toString(), firstStart, firstLength);
+    }
+
+    // Mỗi token của từ vựng được khớp cả ở dạng biến đổi ("look after" khớp "looks after").
+    private static boolean matchesAt(String sentence, int[] bounds, int from, String[] bases) {
+        for (int k = 0; k < bases.length; k++) {
+            int start = bounds[1 + 2 * (from + k)];
+            int length = bounds[2 + 2 * (from + k)] - start;
+            if (!isForm(sentence, start, length, bases[k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Token sentence[start, start + length) có phải là base hoặc một dạng biến đổi
+     * đều đặn của nó: -s, -es (sau s/x/z/ch/sh/o), -ed, -d (sau e, thân từ từ 3
+     * chữ), -ing, y → ies/ied, bỏ e + ing, gấp đôi phụ âm cuối (stop → stopped,
+     * run → running). So sánh tại chỗ, không tạo chuỗi.
+     */
+    static boolean isForm(String sentence, int start, int length, String base) {
+        int len = base.length();
+        if (length < len || length > len + 4) {
+            return false;
+        }
+        if (len < 2) {
+            return length == len && sentence.regionMatches(true, start, base, 0, len);
+        }
+        char last = base.charAt(len - 1);
+        char beforeLast = base.charAt(len - 2);
+        // "bake" → "baking": thân từ bỏ e cuối.
+        if (last == 'e' && beforeLast != 'e' && length == len + 2
+                && sentence.regionMatches(true, start, base, 0, len - 1)
+                && sentence.regionMatches(true, start + len - 1, "ing", 0, 3)) {
+            return true;
+        }
+        // "study" → "studies" / "studied".
+        if (last == 'y' && !isVowel(beforeLast) && length == len + 2
+                && sentence.regionMatches(true, start, base, 0, len - 1)
+                && (sentence.regionMatches(true, start + len - 1, "ies", 0, 3)
+                        || sentence.regionMatches(true, start + len - 1, "ied", 0, 3))) {
+            return true;
+        }
+        if (!sentence.regionMatches(true, start, base, 0, len)) {
+            return false;
+        }
+        int suffixStart = start + len;
+        int suffixLength = length - len;
+        if (suffixLength == 0) {
+            return true;
+        }
+        if (suffix(sentence, suffixStart, suffixLength, "s") || suffix(sentence, suffixStart, suffixLength, "ing")) {
+            return true;
+        }
+        if (suffix(sentence, suffixStart, suffixLength, "es")) {
+            return takesEs(last, beforeLast);
+        }
+        if (last == 'e') {
+            // "be" → "bed" là từ khác; thân từ ngắn hơn 3 chữ không nhận -d.
+            return len >= 3 && suffix(sentence, suffixStart, suffixLength, "d");
+        }
+        if (suffix(sentence, suffixStart, suffixLength, "ed")) {
+            return true;
+        }
+        if (len >= 3 && !isVowel(last) && "wxy".indexOf(last) < 0 && isVowel(beforeLast)
+                && !isVowel(base.charAt(len - 3))
+                && Character.toLowerCase(sentence.charAt(suffixStart)) == last) {
+            return suffix(sentence, suffixStart + 1, suffixLength - 1, "ed")
+                    || suffix(sentence, suffixStart + 1, suffixLength - 1, "ing");
+        }
+        return false;
+    }
+
+    // "bus" → "buses", "watch" → "watches", "go" → "goes"; "car" → "cares" là từ khác.
+    private static boolean takesEs(char last, char beforeLast) {
+        return "sxzo".indexOf(last) >= 0 || (last == 'h' && (beforeLast == 'c' || beforeLast == 's'));
+    }
+
+    private static boolean suffix(String sentence, int start, int length, String suffix) {
+        return length == suffix.length() && sentence.regionMatches(true, start, suffix, 0, length);
+    }
+
+    private static boolean isVowel(char c) {
+        return "aeiou".indexOf(c) >= 0;
+    }
+
+    /**
+     * Tách thành các chuỗi chữ / số liên tiếp; mọi ký tự khác (khoảng trắng, dấu
+     * câu, ', -) là ranh giới. Trả về [số token, start0, end0, start1, end1, ...]
+     * để không phải tạo chuỗi cho từng token của câu.
+     */
+    private static int[] boundaries(String text) {
+        int[] bounds = new int[17];
+        int count = 0;
+        int i = 0;
+        int len = text.length();
+        while (i < len) {
+            int cp = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(cp)) {
+                i += Character.charCount(cp);
+                continue;
+            }
+            int start = i;
+            while (i < len) {
+                cp = text.codePointAt(i);
+                if (!Character.isLetterOrDigit(cp)) {
+                    break;
+                }
+                i += Character.charCount(cp);
+            }
+            if (2 + 2 * count >= bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2 + 1);
+            }
+            bounds[1 + 2 * count] = start;
+            bounds[2 + 2 * count] = i;
+            count++;
+        }
+        bounds[0] = count;
+        return bounds;
+    }
+}
@@ -0,0 +1,84 @@
+package com.fourstars.FourStars.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Chống ghi nhận hoạt động trùng trong ngày cho streak: chỉ lần hoạt động đầu
+ * tiên mỗi ngày của một user mới cần tra DB và gửi UserActivityMessage.
+ *
+ * Mỗi node giữ tập email đã ghi nhận trong ngày; lần đầu gặp một email, node
+ * giành key Redis "activity:day:{yyyy-MM-dd}:{email}" bằng SET NX để các node
+ * khác bỏ qua. Redis lỗi thì chỉ dựa vào tập cục bộ (mỗi node gửi tối đa một
+ * message / user / ngày, StreakService vẫn bỏ qua lần thứ hai). Ngày tính theo
+ * LocalDate.now() giống StreakService.
+ */
+@Service
+public class DailyActivityService {
+    private static final Logger logger = LoggerFactory.getLogger(DailyActivityService.class);
+
+    private static final String KEY_PREFIX = "activity:day:";
+    private static final Duration KEY_TTL = Duration.ofDays(2);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private volatile RecordedDay recordedDay = new RecordedDay(LocalDate.now(), ConcurrentHashMap.newKeySet());
+
+    public DailyActivityService(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    private record RecordedDay(LocalDate day, Set<String> emails) {
+    }
+
+    private static String activityKey(LocalDate day, String email) {
+        return KEY_PREFIX + day + ":" + email;
+    }
+
+    /** true nếu đây là hoạt động đầu tiên trong ngày của user và nơi gọi cần ghi nhận nó. */
+    public boolean claim(String email) {
+        RecordedDay today = today();
+        if (!today.emails().add(email)) {
+            return false;
+        }
+        try {
+            Boolean first = redisTemplate.opsForValue().setIfAbsent(activityKey(today.day(), email), "1", KEY_TTL);
+            return !Boolean.FALSE.equals(first);
+        } catch (Exception e) {
+            logger.warn("Could not check daily activity marker for {}, relying on local marker", email, e);
+            return true;
+        }
+    }
+
+    /** Trả lại lượt đã giành khi ghi nhận thất bại để request sau thử lại. */
+    public void release(String email) {
+        RecordedDay today = today();
+        today.emails().remove(email);
+        try {
+            redisTemplate.delete(activityKey(today.day(), email));
+        } catch (Exception e) {
+            logger.warn("Could not clear daily activity marker for {}", email, e);
+        }
+    }
+
+    private RecordedDay today() {
+        LocalDate now = LocalDate.now();
+        RecordedDay current = recordedDay;
+        if (current.day().equals(now)) {
+            return current;
+        }
+        synchronized (this) {
+            if (!recordedDay.day().equals(now)) {
+                recordedDay = new RecordedDay(now, ConcurrentHashMap.newKeySet());
+            }
+            return recordedDay;
+        }
+    }
+}
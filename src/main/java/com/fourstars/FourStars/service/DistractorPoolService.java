@@ -0,0 +1,274 @@
+package com.fourstars.FourStars.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.repository.projection.DistractorProjection;
+
+/**
+ * Kho từ gây nhiễu cho câu hỏi trắc nghiệm, giữ trong bộ nhớ của mỗi node thay
+ * cho ORDER BY RAND() trên cả bảng vocabularies. Mỗi loại từ (part of speech)
+ * là một pool gồm các mảng song song id / word / image / audio; lấy mẫu là chọn
+ * ngẫu nhiên vị trí trong mảng nên tốn O(1) cho mỗi đáp án nhiễu.
+ *
+ * Pool được nạp đầy đủ ở lần dùng đầu tiên, sau đó cập nhật từng từ qua
+ * {@link #refresh(long)} khi nhận sự kiện tạo / sửa / xóa từ vựng.
+ */
+@Service
+public class DistractorPoolService {
+    private static final Logger logger = LoggerFactory.getLogger(DistractorPoolService.class);
+
+    /** Số lần chọn ngẫu nhiên cho mỗi đáp án nhiễu trước khi quét tuần tự. */
+    private static final int ATTEMPTS_PER_DISTRACTOR = 8;
+
+    private final VocabularyRepository vocabularyRepository;
+
+    private volatile Map<String, Pool> pools = new ConcurrentHashMap<>();
+    // Pool hiện chứa mỗi từ; chỉ ghi khi giữ khóa của service.
+    private volatile Map<Long, String> poolKeyById = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public DistractorPoolService(VocabularyRepository vocabularyRepository) {
+        this.vocabularyRepository = vocabularyRepository;
+    }
+
+    public record Distractor(long id, String word, String image, String audio) {
+    }
+
+    /**
+     * Tối đa count đáp án nhiễu cùng loại từ với target, khác id và khác từ (không
+     * phân biệt hoa thường), không trùng từ với nhau. requireImage chỉ lấy từ có ảnh.
+     */
+    public List<Distractor> sample(Vocabulary target, int count, boolean requireImage) {
+        return sample(target.getId(), target.getWord(), target.getPartOfSpeech(), count, requireImage);
+    }
+
+    public List<Distractor> sample(long vocabularyId, String word, String partOfSpeech, int count,
+            boolean requireImage) {
+        String key = poolKey(partOfSpeech);
+        if (key == null || count <= 0) {
+            return List.of();
+        }
+        ensureLoaded();
+        Pool pool = pools.get(key);
+        if (pool == null) {
+            return List.of();
+        }
+        return pool.sample(vocabularyId, fold(word), count, requireImage, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Tra các đáp án nhiễu đã chọn sẵn (question template) theo id, giữ thứ tự;
+     * id không còn trong pool (từ đã bị xóa) bị bỏ qua.
+     */
+    public List<Distractor> findByIds(long[] vocabularyIds) {
+        ensureLoaded();
+        Map<Long, String> keys = poolKeyById;
+        List<Distractor> found = new ArrayList<>(vocabularyIds.length);
+        for (long id : vocabularyIds) {
+            String key = keys.get(id);
+            Pool pool = key == null ? null : pools.get(key);
+            Distractor distractor = pool == null ? null : pool.get(id);
+            if (distractor != null) {
+                found.add(distractor);
+            }
+        }
+        return found;
+    }
+
+    /** Nạp pool ngay (nếu chưa nạp), để các luồng sinh câu hỏi không phải chờ nhau. */
+    public void preload() {
+        ensureLoaded();
+    }
+
+    /** Đọc lại một từ từ DB và chuyển nó vào đúng pool, hoặc gỡ nếu từ đã bị xóa. */
+    public synchronized void refresh(long vocabularyId) {
+        if (!loaded) {
+            // Lần nạp đầu tiên sẽ đọc trạng thái mới nhất.
+            return;
+        }
+        Optional<DistractorProjection> candidate = vocabularyRepository.findDistractorCandidateById(vocabularyId);
+        String previousKey = poolKeyById.remove(vocabularyId);
+        if (previousKey != null) {
+            pools.get(previousKey).remove(vocabularyId);
+        }
+        if (candidate.isPresent()) {
+            String key = poolKey(candidate.get().getPartOfSpeech());
+            if (key != null) {
+                pools.computeIfAbsent(key, k -> new Pool()).add(candidate.get());
+                poolKeyById.put(vocabularyId, key);
+            }
+        }
+        logger.debug("Refreshed distractor pool entry for vocabulary ID {}", vocabularyId);
+    }
+
+    /** Nạp lại toàn bộ pool từ bảng vocabularies. */
+    public synchronized void reload() {
+        Map<String, Pool> fresh = new ConcurrentHashMap<>();
+        Map<Long, String> keys = new ConcurrentHashMap<>();
+        for (DistractorProjection candidate : vocabularyRepository.findAllDistractorCandidates()) {
+            String key = poolKey(candidate.getPartOfSpeech());
+            if (key != null) {
+                fresh.computeIfAbsent(key, k -> new Pool()).add(candidate);
+                keys.put(candidate.getId(), key);
+            }
+        }
+        pools = fresh;
+        poolKeyById = keys;
+        loaded = true;
+        logger.info("Loaded {} vocabularies into {} distractor pools", keys.size(), fresh.size());
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    private static String poolKey(String partOfSpeech) {
+        if (partOfSpeech == null || partOfSpeech.isBlank()) {
+            return null;
+        }
+        return partOfSpeech.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String fold(String word) {
+        return word == null ? "" : word.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Một pool dạng mảng song song. Xóa bằng cách chuyển phần tử cuối vào chỗ
+     * trống nên mảng luôn liền mạch; ghi giữ write lock, lấy mẫu giữ read lock.
+     */
+    static final class Pool {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Integer> slotById = new HashMap<>();
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private String[] words = new String[INITIAL_CAPACITY];
+        private String[] foldedWords = new String[INITIAL_CAPACITY];
+        private String[] images = new String[INITIAL_CAPACITY];
+        private String[] audios = new String[INITIAL_CAPACITY];
+        private int size;
+
+        void add(DistractorProjection candidate) {
+            lock.writeLock().lock();
+            try {
+                if (size == ids.length) {
+                    int capacity = ids.length * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    words = Arrays.copyOf(words, capacity);
+                    foldedWords = Arrays.copyOf(foldedWords, capacity);
+                    images = Arrays.copyOf(images, capacity);
+                    audios = Arrays.copyOf(audios, capacity);
+                }
+                ids[size] = candidate.getId();
+                words[size] = candidate.getWord();
+                foldedWords[size] = fold(candidate.getWord());
+                images[size] = candidate.getImage();
+                audios[size] = candidate.getAudio();
+                slotById.put(candidate.getId(), size);
+                size++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long id) {
+            lock.writeLock().lock();
+            try {
+                Integer slot = slotById.remove(id);
+                if (slot == null) {
+                    return;
+                }
+                int last = --size;
+                if (slot != last) {
+                    ids[slot] = ids[last];
+                    words[slot] = words[last];
+                    foldedWords[slot] = foldedWords[last];
+                    images[slot] = images[last];
+                    audios[slot] = audios[last];
+                    slotById.put(ids[slot], slot);
+                }
+                words[last] = null;
+                foldedWords[last] = null;
+                images[last] = null;
+                audios[last] = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Distractor get(long id) {
+            lock.readLock().lock();
+            try {
+                Integer slot = slotById.get(id);
+                return slot == null ? null : new Distractor(ids[slot], words[slot], images[slot], audios[slot]);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Distractor> sample(long excludeId, String excludeWord, int count, boolean requireImage, Random random) {
+            lock.readLock().lock();
+            try {
+                int n = size;
+                List<Distractor> picked = new ArrayList<>(count);
+                if (n == 0) {
+                    return picked;
+                }
+                Set<String> usedWords = new HashSet<>();
+                usedWords.add(excludeWord);
+                for (int attempt = 0; attempt < count * ATTEMPTS_PER_DISTRACTOR && picked.size() < count;
+                        attempt++) {
+                    tryPick(random.nextInt(n), excludeId, requireImage, usedWords, picked);
+                }
+                if (picked.size() < count) {
+                    // Pool nhỏ hoặc ít ứng viên hợp lệ: quét một vòng từ vị trí ngẫu nhiên.
+                    int start = random.nextInt(n);
+                    for (int k = 0; k < n && picked.size() < count; k++) {
+                        tryPick((start + k) % n, excludeId, requireImage, usedWords, picked);
+                    }
+                }
+                return picked;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void tryPick(int slot, long excludeId, boolean requireImage, Set<String> usedWords,
+                List<Distractor> picked) {
+            if (ids[slot] == excludeId) {
+                return;
+            }
+            if (requireImage && (images[slot] == null || images[slot].isEmpty())) {
+                return;
+            }
+            if (usedWords.add(foldedWords[slot])) {
+                picked.add(new Distractor(ids[slot], words[slot], images[slot], audios[slot]));
+            }
+        }
+    }
+}
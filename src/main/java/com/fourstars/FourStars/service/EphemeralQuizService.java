@@ -0,0 +1,285 @@
+package com.fourstars.FourStars.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.fourstars.FourStars.domain.Question;
+import com.fourstars.FourStars.domain.QuestionChoice;
+import com.fourstars.FourStars.domain.Quiz;
+import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.domain.request.quiz.QuestionChoiceDTO;
+import com.fourstars.FourStars.domain.request.quiz.QuestionDTO;
+import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
+import com.fourstars.FourStars.domain.response.quiz.QuizAttemptResponseDTO;
+import com.fourstars.FourStars.service.QuizAnswerKeyService.QuizAnswerKey;
+import com.fourstars.FourStars.util.constant.QuizStatus;
+import com.fourstars.FourStars.util.error.BadRequestException;
+import com.fourstars.FourStars.util.error.ResourceNotFoundException;
+
+/**
+ * Quiz tạm (quiz ôn tập) chỉ sống trên Redis, không ghi vào các bảng quiz.
+ * Mỗi quiz là một hash "quiz:ephemeral:{n}" gồm chủ quiz, toàn bộ QuizDTO kèm
+ * đáp án (chỉ dùng phía server), thời điểm bắt đầu/nộp bài và kết quả đã chấm.
+ *
+ * Id của quiz tạm là số âm để không trùng quiz trong MySQL; mỗi quiz tạm chỉ có
+ * một lượt làm với attempt id bằng chính quiz id, nên luồng start/submit/kết
+ * quả thông thường phân biệt được bằng dấu của id.
+ */
+@Service
+public class EphemeralQuizService {
+    private static final Logger logger = LoggerFactory.getLogger(EphemeralQuizService.class);
+
+    private static final String KEY_PREFIX = "quiz:ephemeral:";
+    private static final String SEQUENCE_KEY = "quiz:ephemeral:seq";
+    private static final String FIELD_USER_ID = "userId";
+    private static final String FIELD_QUIZ = "quiz";
+    private static final String FIELD_STARTED_AT = "startedAt";
+    private static final String FIELD_SUBMITTED_AT = "submittedAt";
+    private static final String FIELD_RESULT = "result";
+    public static final Duration QUIZ_TTL = Duration.ofHours(24);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public EphemeralQuizService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Trạng thái của một quiz tạm đọc từ Redis. */
+    public record EphemeralQuiz(long id, long userId, QuizDTO quiz, Instant startedAt, Instant submittedAt,
+            String resultJson) {
+
+        public QuizStatus status() {
+            return submittedAt != null ? QuizStatus.COMPLETED : QuizStatus.IN_PROGRESS;
+        }
+    }
+
+    public static boolean isEphemeral(long quizId) {
+        return quizId < 0;
+    }
+
+    private static String quizKey(long quizId) {
+        return KEY_PREFIX + (-quizId);
+    }
+
+    /**
+     * Lưu một quiz vừa sinh cho user. Câu hỏi và lựa chọn được đánh id tuần tự
+     * trong phạm vi quiz; QuizDTO trả về mang các id đó và vẫn còn đáp án.
+     */
+    public QuizDTO create(long userId, QuizDTO quiz) {
+        long quizId = -redisTemplate.opsForValue().increment(SEQUENCE_KEY);
+        quiz.setId(quizId);
+        quiz.setCreatedAt(Instant.now());
+
+        long questionId = 0;
+        long choiceId = 0;
+        for (QuestionDTO question : quiz.getQuestions()) {
+            question.setId(++questionId);
+            question.setQuestionOrder((int) questionId);
+            if (question.getChoices() != null) {
+                for (QuestionChoiceDTO choice : question.getChoices()) {
+                    choice.setId(++choiceId);
+                }
+            }
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FIELD_USER_ID, String.valueOf(userId));
+        fields.put(FIELD_QUIZ, toJson(quiz));
+        redisTemplate.opsForHash().putAll(quizKey(quizId), fields);
+        redisTemplate.expire(quizKey(quizId), QUIZ_TTL);
+        logger.debug("Stored ephemeral quiz ID {} with {} questions for user ID {}", quizId, questionId, userId);
+        return quiz;
+    }
+
+    /** Quiz tạm của user; hết hạn hoặc thuộc user khác thì coi như không tồn tại. */
+    public EphemeralQuiz load(long quizId, long userId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(quizKey(quizId));
+        Object owner = fields.get(FIELD_USER_ID);
+        Object quizJson = fields.get(FIELD_QUIZ);
+        if (owner == null || quizJson == null || Long.parseLong(owner.toString()) != userId) {
+            throw new ResourceNotFoundException("Quiz not found with id: " + quizId);
+        }
+        QuizDTO quiz;
+        try {
+            quiz = objectMapper.readValue(quizJson.toString(), QuizDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored ephemeral quiz ID " + quizId + " is unreadable", e);
+        }
+        return new EphemeralQuiz(quizId, userId, quiz, toInstant(fields.get(FIELD_STARTED_AT)),
+                toInstant(fields.get(FIELD_SUBMITTED_AT)), (String) fields.get(FIELD_RESULT));
+    }
+
+    /** Bắt đầu (hoặc tiếp tục) lượt làm duy nhất của quiz tạm. */
+    public EphemeralQuiz start(long quizId, long userId) {
+        EphemeralQuiz quiz = load(quizId, userId);
+        if (quiz.status() == QuizStatus.COMPLETED) {
+            throw new BadRequestException("This quiz has already been completed.");
+        }
+        if (quiz.startedAt() != null) {
+            return quiz;
+        }
+        Instant now = Instant.now();
+        redisTemplate.opsForHash().putIfAbsent(quizKey(quizId), FIELD_STARTED_AT, String.valueOf(now.toEpochMilli()));
+        return new EphemeralQuiz(quizId, userId, quiz.quiz(), now, null, null);
+    }
+
+    /**
+     * Giữ quyền chấm điểm bằng HSETNX, tương tự claimForScoring trên bảng
+     * attempt. Nếu transaction chấm điểm rollback thì nhả lại để tin nhắn được
+     * chấm lại.
+     */
+    public EphemeralQuiz claimForScoring(long quizId, long userId) {
+        EphemeralQuiz quiz = load(quizId, userId);
+        Instant now = Instant.now();
+        Boolean claimed = redisTemplate.opsForHash().putIfAbsent(quizKey(quizId), FIELD_SUBMITTED_AT,
+                String.valueOf(now.toEpochMilli()));
+        if (!Boolean.TRUE.equals(claimed)) {
+            logger.warn("Attempting to score an already completed ephemeral quiz ID {}", quizId);
+            throw new BadRequestException("This quiz has already been completed.");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        redisTemplate.opsForHash().delete(quizKey(quizId), FIELD_SUBMITTED_AT);
+                    }
+                }
+            });
+        }
+        return new EphemeralQuiz(quizId, userId, quiz.quiz(), quiz.startedAt(), now, null);
+    }
+
+    /** Lưu kết quả đã chấm sau khi transaction chấm điểm commit. */
+    public void storeResult(long quizId, QuizAttemptResponseDTO result) {
+        String json = toJson(result);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doStoreResult(quizId, json);
+                }
+            });
+        } else {
+            doStoreResult(quizId, json);
+        }
+    }
+
+    private void doStoreResult(long quizId, String json) {
+        try {
+            redisTemplate.opsForHash().put(quizKey(quizId), FIELD_RESULT, json);
+            redisTemplate.expire(quizKey(quizId), QUIZ_TTL);
+        } catch (Exception e) {
+            logger.error("Could not store result of ephemeral quiz ID {}", quizId, e);
+        }
+    }
+
+    public Optional<QuizAttemptResponseDTO> findResult(EphemeralQuiz quiz) {
+        if (quiz.resultJson() == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(quiz.resultJson(), QuizAttemptResponseDTO.class));
+        } catch (JsonProcessingException e) {
+            logger.error("Stored result of ephemeral quiz ID {} is unreadable", quiz.id(), e);
+            return Optional.empty();
+        }
+    }
+
+    /** Đáp án đã biên dịch, dựng từ câu hỏi lưu trên Redis. */
+    public QuizAnswerKey getAnswerKey(EphemeralQuiz quiz) {
+        return QuizAnswerKey.compile(quiz.id(), 0L, toQuestions(quiz));
+    }
+
+    /** Phần câu hỏi (không kèm đáp án) gửi cho người chơi, cùng định dạng với {@link QuizPayloadCacheService}. */
+    public RawValue getPlayerQuestions(EphemeralQuiz quiz) {
+        List<Question> questions = toQuestions(quiz);
+        questions.sort(Comparator.comparingInt(Question::getQuestionOrder).thenComparingLong(Question::getId));
+        return new RawValue(new SerializedString(toJson(questions.stream()
+                .map(QuizPayloadCacheService::convertToQuestionForUserDTO)
+                .collect(Collectors.toList()))));
+    }
+
+    /** Bản QuizDTO trả cho client: giữ câu hỏi và lựa chọn nhưng bỏ đáp án. */
+    public static QuizDTO withoutAnswers(QuizDTO quiz) {
+        for (QuestionDTO question : quiz.getQuestions()) {
+            question.setCorrectSentence(null);
+            if (question.getChoices() != null) {
+                question.getChoices().forEach(choice -> choice.setIsCorrect(null));
+            }
+        }
+        return quiz;
+    }
+
+    /** Dựng các entity tạm (không bao giờ được lưu) để dùng lại bộ biên dịch đáp án. */
+    private static List<Question> toQuestions(EphemeralQuiz ephemeral) {
+        Quiz quiz = new Quiz();
+        quiz.setId(ephemeral.id());
+        quiz.setTitle(ephemeral.quiz().getTitle());
+
+        List<Question> questions = new ArrayList<>(ephemeral.quiz().getQuestions().size());
+        for (QuestionDTO dto : ephemeral.quiz().getQuestions()) {
+            Question q = new Question();
+            q.setId(dto.getId());
+            q.setQuiz(quiz);
+            q.setQuestionType(dto.getQuestionType());
+            q.setPrompt(dto.getPrompt());
+            q.setTextToFill(dto.getTextToFill());
+            q.setCorrectSentence(dto.getCorrectSentence());
+            q.setAudioUrl(dto.getAudioUrl());
+            q.setImageUrl(dto.getImageUrl());
+            q.setPoints(dto.getPoints());
+            q.setQuestionOrder(dto.getQuestionOrder());
+            if (dto.getRelatedVocabularyId() != null) {
+                Vocabulary vocabulary = new Vocabulary();
+                vocabulary.setId(dto.getRelatedVocabularyId());
+                q.setRelatedVocabulary(vocabulary);
+            }
+            if (dto.getChoices() != null) {
+                for (QuestionChoiceDTO choiceDto : dto.getChoices()) {
+                    QuestionChoice c = new QuestionChoice();
+                    c.setId(choiceDto.getId());
+                    c.setQuestion(q);
+                    c.setContent(choiceDto.getContent());
+                    c.setImageUrl(choiceDto.getImageUrl());
+                    c.setCorrect(Boolean.TRUE.equals(choiceDto.getIsCorrect()));
+                    q.getChoices().add(c);
+                }
+            }
+            questions.add(q);
+        }
+        return questions;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize ephemeral quiz data", e);
+        }
+    }
+
+    private static Instant toInstant(Object epochMillis) {
+        return epochMillis == null ? null : Instant.ofEpochMilli(Long.parseLong(epochMillis.toString()));
+    }
+}
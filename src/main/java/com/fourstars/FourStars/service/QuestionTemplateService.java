@@ -0,0 +1,215 @@
+package com.fourstars.FourStars.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.domain.VocabularyQuestionTemplate;
+import com.fourstars.FourStars.repository.VocabularyQuestionTemplateRepository;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.service.ClozeEngine.Cloze;
+
+/**
+ * Dựng và tra cứu {@link VocabularyQuestionTemplate}. Việc dựng chạy theo lô từ
+ * queue q.vocabulary.created (sự kiện tạo / sửa / xóa từ) và idempotent: từ đã
+ * có mẫu dựng từ đúng phiên bản (updatedAt) thì bỏ qua, nên message giao lại
+ * không tốn gì. Ghi bằng JDBC batch UPDATE rồi INSERT các dòng chưa có.
+ *
+ * Khi sinh quiz, {@link #findFresh} trả về mẫu còn khớp phiên bản của từ và
+ * {@link #FORMAT_VERSION}; từ chưa có mẫu hoặc mẫu đã cũ thì nơi gọi tự sinh như
+ * trước, và lần precompile sau của từ sẽ dựng lại mẫu.
+ */
+@Service
+public class QuestionTemplateService {
+    private static final Logger logger = LoggerFactory.getLogger(QuestionTemplateService.class);
+
+    /** Lưu nhiều hơn số đáp án nhiễu của một câu để mỗi quiz chọn một tổ hợp khác. */
+    static final int DISTRACTOR_CANDIDATES = 6;
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    /**
+     * Phiên bản cách dựng mẫu; tăng mỗi khi đầu ra thay đổi (ví dụ luật khớp dạng
+     * từ của {@link ClozeEngine}) để mẫu dựng theo cách cũ bị coi là cũ.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    private static final String UPDATE_SQL = "UPDATE vocabulary_question_templates SET source_updated_at = ?, "
+            + "format_version = ?, cloze_prompt = ?, blank_start = ?, blank_length = ?, distractor_ids = ?, listening_audio = ?, "
+            + "built_at = ? WHERE vocabulary_id = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO vocabulary_question_templates (source_updated_at, "
+            + "format_version, cloze_prompt, blank_start, blank_length, distractor_ids, listening_audio, built_at, "
+            + "vocabulary_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final VocabularyRepository vocabularyRepository;
+    private final VocabularyQuestionTemplateRepository templateRepository;
+    private final DistractorPoolService distractorPoolService;
+    private final ClozeEngine clozeEngine;
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuestionTemplateService(VocabularyRepository vocabularyRepository,
+            VocabularyQuestionTemplateRepository templateRepository, DistractorPoolService distractorPoolService,
+            ClozeEngine clozeEngine, JdbcTemplate jdbcTemplate) {
+        this.vocabularyRepository = vocabularyRepository;
+        this.templateRepository = templateRepository;
+        this.distractorPoolService = distractorPoolService;
+        this.clozeEngine = clozeEngine;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Phiên bản của từ vựng mà mẫu được so khớp. */
+    public static Instant sourceVersion(Vocabulary vocab) {
+        return vocab.getUpdatedAt() != null ? vocab.getUpdatedAt() : vocab.getCreatedAt();
+    }
+
+    /** Mẫu được dựng từ đúng phiên bản của từ và theo cách dựng hiện tại. */
+    private static boolean isCurrent(VocabularyQuestionTemplate template, Instant version) {
+        return template.getSourceUpdatedAt().equals(version)
+                && Integer.valueOf(FORMAT_VERSION).equals(template.getFormatVersion());
+    }
+
+    /**
+     * Dựng mẫu cho các từ còn thiếu hoặc đã cũ và gỡ mẫu của từ đã bị xóa; trả về
+     * số mẫu đã ghi.
+     */
+    @Transactional
+    public int precompile(Collection<Long> vocabularyIds) {
+        Set<Long> ids = new LinkedHashSet<>(vocabularyIds);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<Long, VocabularyQuestionTemplate> builtTemplates = new HashMap<>();
+        for (VocabularyQuestionTemplate template : templateRepository.findAllById(ids)) {
+            builtTemplates.put(template.getVocabularyId(), template);
+        }
+
+        Instant now = Instant.now();
+        List<VocabularyQuestionTemplate> templates = new ArrayList<>();
+        for (Vocabulary vocab : vocabularyRepository.findAllById(ids)) {
+            VocabularyQuestionTemplate built = builtTemplates.remove(vocab.getId());
+            Instant version = sourceVersion(vocab);
+            if (version == null || (built != null && isCurrent(built, version))) {
+                continue;
+            }
+            templates.add(build(vocab, version, now));
+        }
+        // Còn lại trong builtTemplates là mẫu của từ không còn tồn tại.
+        if (!builtTemplates.isEmpty()) {
+            templateRepository.deleteAllByIdInBatch(builtTemplates.keySet());
+        }
+        if (templates.isEmpty()) {
+            return 0;
+        }
+
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, templates, WRITE_BATCH_SIZE, this::setTemplate);
+        List<VocabularyQuestionTemplate> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] chunk : updated) {
+            for (int count : chunk) {
+                VocabularyQuestionTemplate template = templates.get(index++);
+                if (count == 0) {
+                    missing.add(template);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, missing, WRITE_BATCH_SIZE, this::setTemplate);
+        }
+        logger.debug("Precompiled question templates for {} vocabularies ({} new)", templates.size(), missing.size());
+        return templates.size();
+    }
+
+    /** Mẫu còn khớp phiên bản hiện tại của các từ và cách dựng hiện tại, theo vocabulary id. */
+    @Transactional(readOnly = true)
+    public Map<Long, VocabularyQuestionTemplate> findFresh(Collection<Vocabulary> vocabularies) {
+        Map<Long, Instant> versions = new HashMap<>(vocabularies.size());
+        for (Vocabulary vocab : vocabularies) {
+            versions.put(vocab.getId(), sourceVersion(vocab));
+        }
+        Map<Long, VocabularyQuestionTemplate> fresh = new HashMap<>();
+        for (VocabularyQuestionTemplate template : templateRepository.findAllById(versions.keySet())) {
+            if (isCurrent(template, versions.get(template.getVocabularyId()))) {
+                fresh.put(template.getVocabularyId(), template);
+            }
+        }
+        return fresh;
+    }
+
+    public static long[] parseDistractorIds(String distractorIds) {
+        if (distractorIds == null || distractorIds.isEmpty()) {
+            return new long[0];
+        }
+        String[] parts = distractorIds.split(",");
+        long[] ids = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            ids[i] = Long.parseLong(parts[i]);
+        }
+        return ids;
+    }
+
+    private VocabularyQuestionTemplate build(Vocabulary vocab, Instant version, Instant now) {
+        VocabularyQuestionTemplate template = new VocabularyQuestionTemplate();
+        template.setVocabularyId(vocab.getId());
+        template.setSourceUpdatedAt(version);
+        template.setFormatVersion(FORMAT_VERSION);
+        template.setBuiltAt(now);
+
+        String example = vocab.getExampleEn();
+        String word = vocab.getWord();
+        if (example != null && !example.isEmpty() && word != null && !word.isEmpty()) {
+            Cloze cloze = clozeEngine.cloze(vocab.getId(), example, word);
+            if (cloze.matched()) {
+                template.setBlankStart(cloze.blankStart());
+                template.setBlankLength(cloze.blankLength());
+                template.setClozePrompt(cloze.prompt());
+            }
+        }
+
+        template.setDistractorIds(distractorPoolService
+                .sample(vocab.getId(), word, vocab.getPartOfSpeech(), DISTRACTOR_CANDIDATES, false).stream()
+                .map(distractor -> String.valueOf(distractor.id()))
+                .collect(Collectors.joining(",")));
+
+        if (vocab.getAudio() != null && !vocab.getAudio().isEmpty()) {
+            template.setListeningAudio(vocab.getAudio());
+        }
+        return template;
+    }
+
+    private void setTemplate(PreparedStatement ps, VocabularyQuestionTemplate template) throws SQLException {
+        ps.setTimestamp(1, Timestamp.from(template.getSourceUpdatedAt()));
+        ps.setInt(2, template.getFormatVersion());
+        ps.setString(3, template.getClozePrompt());
+        setNullableInt(ps, 4, template.getBlankStart());
+        setNullableInt(ps, 5, template.getBlankLength());
+        ps.setString(6, template.getDistractorIds());
+        ps.setString(7, template.getListeningAudio());
+        ps.setTimestamp(8, Timestamp.from(template.getBuiltAt()));
+        ps.setLong(9, template.getVocabularyId());
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+}
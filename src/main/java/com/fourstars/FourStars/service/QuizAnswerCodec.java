@@ -0,0 +1,101 @@
+package com.fourstars.FourStars.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fourstars.FourStars.service.QuizScoringService.ScoredAnswer;
+
+/**
+ * Mã hóa toàn bộ câu trả lời của một attempt thành một mảng byte để lưu trong
+ * một cột, thay cho một dòng user_answers mỗi câu.
+ *
+ * Định dạng: 1 byte version, số câu trả lời (varint), rồi với mỗi câu: question
+ * id, selected choice id + 1 (0 = không chọn), (points << 1 | correct), độ dài
+ * text + 1 (0 = null) và các byte UTF-8 của text. Mọi số đều là varint không dấu.
+ */
+public final class QuizAnswerCodec {
+    static final int FORMAT_VERSION = 1;
+
+    private QuizAnswerCodec() {
+    }
+
+    public static byte[] encode(List<ScoredAnswer> answers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(answers.size() * 6 + 2);
+        out.write(FORMAT_VERSION);
+        writeVarLong(out, answers.size());
+        for (ScoredAnswer answer : answers) {
+            writeVarLong(out, answer.getQuestionId());
+            writeVarLong(out, answer.getSelectedChoiceId() == null ? 0 : answer.getSelectedChoiceId() + 1);
+            writeVarLong(out, ((long) answer.getPointsAwarded() << 1) | (answer.isCorrect() ? 1 : 0));
+            if (answer.getUserAnswerText() == null) {
+                writeVarLong(out, 0);
+            } else {
+                byte[] text = answer.getUserAnswerText().getBytes(StandardCharsets.UTF_8);
+                writeVarLong(out, text.length + 1L);
+                out.write(text, 0, text.length);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Giải mã về danh sách {@link ScoredAnswer} theo thứ tự đã ghi; questionIndex
+     * là -1 vì vị trí trong answer key phải tra lại theo version hiện tại.
+     */
+    public static List<ScoredAnswer> decode(byte[] data) {
+        Reader in = new Reader(data);
+        int version = in.data[in.pos++];
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported answer encoding version: " + version);
+        }
+        int count = (int) in.readVarLong();
+        List<ScoredAnswer> answers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long questionId = in.readVarLong();
+            long choice = in.readVarLong();
+            long pointsAndFlag = in.readVarLong();
+            long textLength = in.readVarLong();
+            String text = null;
+            if (textLength > 0) {
+                int length = (int) (textLength - 1);
+                text = new String(in.data, in.pos, length, StandardCharsets.UTF_8);
+                in.pos += length;
+            }
+            answers.add(new ScoredAnswer(-1, questionId, text, choice == 0 ? null : choice - 1,
+                    (pointsAndFlag & 1) == 1, (int) (pointsAndFlag >>> 1)));
+        }
+        return answers;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.fourstars.FourStars.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fourstars.FourStars.domain.Question;
+import com.fourstars.FourStars.domain.QuestionChoice;
+import com.fourstars.FourStars.repository.QuestionRepository;
+import com.fourstars.FourStars.util.constant.QuestionType;
+
+/**
+ * Cache đáp án đã biên dịch cho từng quiz, giữ trong bộ nhớ của mỗi node.
+ * Key gồm quiz id và một version lưu trên Redis, được tăng mỗi khi quiz bị sửa
+ * hoặc xóa, nên mọi node đều biết khi nào bản cache của mình đã cũ.
+ */
+@Service
+public class QuizAnswerKeyService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizAnswerKeyService.class);
+
+    private static final String VERSION_KEY_PREFIX = "quiz:version:";
+
+    private final QuestionRepository questionRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<Long, QuizAnswerKey> answerKeys = new ConcurrentHashMap<>();
+
+    public QuizAnswerKeyService(QuestionRepository questionRepository, RedisTemplate<String, String> redisTemplate) {
+        this.questionRepository = questionRepository;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Đáp án bất biến của một quiz, lưu dưới dạng các mảng song song sắp xếp theo
+     * question id.
+     */
+    public static final class QuizAnswerKey {
+        static final long NO_ID = -1L;
+
+        private final long quizId;
+        private final long version;
+        private final String quizTitle;
+        private final long[] questionIds;
+        private final boolean[] choiceBased;
+        private final long[] correctChoiceIds;
+        private final String[] expectedTexts;
+        private final int[] points;
+        private final long[] relatedVocabularyIds;
+        private final String[] prompts;
+        private final String[] correctSentences;
+        private final String[] correctChoiceContents;
+        private final String[] correctChoiceImageUrls;
+        private final int totalPoints;
+
+        private QuizAnswerKey(long quizId, long version, String quizTitle, int size, int totalPoints) {
+            this.quizId = quizId;
+            this.version = version;
+            this.quizTitle = quizTitle;
+            this.questionIds = new long[size];
+            this.choiceBased = new boolean[size];
+            this.correctChoiceIds = new long[size];
+            this.expectedTexts = new String[size];
+            this.points = new int[size];
+            this.relatedVocabularyIds = new long[size];
+            this.prompts = new String[size];
+            this.correctSentences = new String[size];
+            this.correctChoiceContents = new String[size];
+            this.correctChoiceImageUrls = new String[size];
+            this.totalPoints = totalPoints;
+        }
+
+        public static QuizAnswerKey compile(long quizId, long version, List<Question> questions) {
+            Question[] sorted = questions.toArray(new Question[0]);
+            Arrays.sort(sorted, Comparator.comparingLong(Question::getId));
+
+            int total = 0;
+            for (Question q : sorted) {
+                total += q.getPoints();
+            }
+            String title = sorted.length > 0 && sorted[0].getQuiz() != null ? sorted[0].getQuiz().getTitle() : null;
+
+            QuizAnswerKey key = new QuizAnswerKey(quizId, version, title, sorted.length, total);
+            for (int i = 0; i < sorted.length; i++) {
+                Question q = sorted[i];
+                key.questionIds[i] = q.getId();
+                key.choiceBased[i] = q.getQuestionType() == QuestionType.MULTIPLE_CHOICE_TEXT
+                        || q.getQuestionType() == QuestionType.MULTIPLE_CHOICE_IMAGE;
+                key.expectedTexts[i] = normalize(q.getCorrectSentence());
+                key.points[i] = q.getPoints();
+                key.relatedVocabularyIds[i] = q.getRelatedVocabulary() != null ? q.getRelatedVocabulary().getId()
+                        : NO_ID;
+                key.prompts[i] = q.getPrompt();
+                key.correctSentences[i] = q.getCorrectSentence();
+                key.correctChoiceIds[i] = NO_ID;
+                if (q.getChoices() != null) {
+                    for (QuestionChoice c : q.getChoices()) {
+                        if (c.isCorrect()) {
+                            key.correctChoiceIds[i] = c.getId();
+                            key.correctChoiceContents[i] = c.getContent();
+                            key.correctChoiceImageUrls[i] = c.getImageUrl();
+                            break;
+                        }
+                    }
+                }
+            }
+            return key;
+        }
+
+        /** Chuẩn hóa câu trả lời dạng text: bỏ khoảng trắng hai đầu, không phân biệt hoa thường. */
+        public static String normalize(String text) {
+            return text == null ? null : text.trim().toLowerCase(Locale.ROOT);
+        }
+
+        /** Vị trí của câu hỏi trong key, hoặc -1 nếu câu hỏi không thuộc quiz này. */
+        public int indexOf(long questionId) {
+            int index = Arrays.binarySearch(questionIds, questionId);
+            return index >= 0 ? index : -1;
+        }
+
+        public boolean isCorrect(int index, Long selectedChoiceId, String answerText) {
+            if (choiceBased[index]) {
+                return selectedChoiceId != null && correctChoiceIds[index] != NO_ID
+                        && correctChoiceIds[index] == selectedChoiceId;
+            }
+            return expectedTexts[index] != null && expectedTexts[index].equals(normalize(answerText));
+        }
+
+        public long getQuizId() {
+            return quizId;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /** Tiêu đề quiz tại thời điểm biên dịch; null nếu quiz chưa có câu hỏi nào. */
+        public String getQuizTitle() {
+            return quizTitle;
+        }
+
+        public int size() {
+            return questionIds.length;
+        }
+
+        public int getTotalPoints() {
+            return totalPoints;
+        }
+
+        public long getQuestionId(int index) {
+            return questionIds[index];
+        }
+
+        public int getPoints(int index) {
+            return points[index];
+        }
+
+        public boolean isChoiceBased(int index) {
+            return choiceBased[index];
+        }
+
+        public Long getRelatedVocabularyId(int index) {
+            return relatedVocabularyIds[index] == NO_ID ? null : relatedVocabularyIds[index];
+        }
+
+        public String getPrompt(int index) {
+            return prompts[index];
+        }
+
+        public String getCorrectSentence(int index) {
+            return correctSentences[index];
+        }
+
+        public Long getCorrectChoiceId(int index) {
+            return correctChoiceIds[index] == NO_ID ? null : correctChoiceIds[index];
+        }
+
+        public String getCorrectChoiceContent(int index) {
+            return correctChoiceContents[index];
+        }
+
+        public String getCorrectChoiceImageUrl(int index) {
+            return correctChoiceImageUrls[index];
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public QuizAnswerKey getAnswerKey(long quizId) {
+        long version;
+        try {
+            version = getQuizVersion(quizId);
+        } catch (Exception e) {
+            logger.warn("Could not read version for quiz ID {} from Redis, compiling answer key without cache: {}",
+                    quizId, e.getMessage());
+            return compileAnswerKey(quizId, -1L);
+        }
+
+        QuizAnswerKey cached = answerKeys.get(quizId);
+        if (cached != null && cached.getVersion() == version) {
+            return cached;
+        }
+
+        QuizAnswerKey compiled = compileAnswerKey(quizId, version);
+        answerKeys.put(quizId, compiled);
+        return compiled;
+    }
+
+    public long getQuizVersion(long quizId) {
+        String value = redisTemplate.opsForValue().get(VERSION_KEY_PREFIX + quizId);
+        return value == null ? 0L : Long.parseLong(value);
+    }
+
+    /**
+     * Tăng version của quiz sau khi transaction hiện tại commit, để không node
+     * nào biên dịch lại từ dữ liệu chưa commit rồi cache nó dưới version mới.
+     */
+    public void bumpQuizVersion(long quizId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doBumpQuizVersion(quizId);
+                }
+            });
+        } else {
+            doBumpQuizVersion(quizId);
+        }
+    }
+
+    private void doBumpQuizVersion(long quizId) {
+        answerKeys.remove(quizId);
+        try {
+            Long newVersion = redisTemplate.opsForValue().increment(VERSION_KEY_PREFIX + quizId);
+            logger.info("Bumped version of quiz ID {} to {}", quizId, newVersion);
+        } catch (Exception e) {
+            logger.error("Could not bump version for quiz ID {}", quizId, e);
+        }
+    }
+
+    private QuizAnswerKey compileAnswerKey(long quizId, long version) {
+        List<Question> questions = questionRepository.findAllWithChoicesByQuizId(quizId);
+        logger.debug("Compiled answer key for quiz ID {} (version {}) with {} questions", quizId, version,
+                questions.size());
+        return QuizAnswerKey.compile(quizId, version, questions);
+    }
+}
@@ -0,0 +1,90 @@
+package com.fourstars.FourStars.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fourstars.FourStars.service.QuizScoringService.ScoredAnswer;
+
+/**
+ * Chuyển dữ liệu cũ sang chế độ lưu "encoded": gom các dòng user_answers của
+ * từng attempt, ghi vào cột answers_encoded rồi xóa các dòng đó. Cột được
+ * Hibernate (ddl-auto=update) tạo sẵn, ở đây chỉ chuyển dữ liệu theo từng lô;
+ * mỗi lô chạy trong một transaction riêng nên attempt không bao giờ bị chuyển dở.
+ */
+@Service
+public class QuizAnswerMigrationService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizAnswerMigrationService.class);
+
+    private static final String SELECT_PENDING_ATTEMPTS_SQL = "SELECT DISTINCT ua.user_quiz_attempt_id "
+            + "FROM user_answers ua JOIN user_quiz_attempts a ON a.id = ua.user_quiz_attempt_id "
+            + "WHERE a.answers_encoded IS NULL ORDER BY ua.user_quiz_attempt_id LIMIT ?";
+
+    private static final String SELECT_ANSWERS_SQL = "SELECT user_quiz_attempt_id, question_id, user_answer_text, "
+            + "selected_choice_id, is_correct, points_awarded FROM user_answers "
+            + "WHERE user_quiz_attempt_id IN (%s) ORDER BY user_quiz_attempt_id, id";
+
+    private static final String UPDATE_ENCODED_SQL = "UPDATE user_quiz_attempts SET answers_encoded = ? WHERE id = ?";
+
+    private static final String DELETE_ANSWERS_SQL = "DELETE FROM user_answers WHERE user_quiz_attempt_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public QuizAnswerMigrationService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Chuyển tối đa batchSize attempt; trả về số attempt đã chuyển (0 là xong). */
+    public int migrateBatch(int batchSize) {
+        Integer migrated = transactionTemplate.execute(status -> encodeBatch(batchSize));
+        return migrated != null ? migrated : 0;
+    }
+
+    private int encodeBatch(int batchSize) {
+        List<Long> attemptIds = jdbcTemplate.queryForList(SELECT_PENDING_ATTEMPTS_SQL, Long.class, batchSize);
+        if (attemptIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(",", Collections.nCopies(attemptIds.size(), "?"));
+        Object[] params = attemptIds.toArray();
+
+        Map<Long, List<ScoredAnswer>> answersByAttempt = new LinkedHashMap<>();
+        jdbcTemplate.query(String.format(SELECT_ANSWERS_SQL, placeholders), rs -> {
+            long selectedChoiceId = rs.getLong("selected_choice_id");
+            Long choiceId = rs.wasNull() ? null : selectedChoiceId;
+            answersByAttempt.computeIfAbsent(rs.getLong("user_quiz_attempt_id"), id -> new ArrayList<>())
+                    .add(new ScoredAnswer(-1, rs.getLong("question_id"), rs.getString("user_answer_text"), choiceId,
+                            rs.getBoolean("is_correct"), rs.getInt("points_awarded")));
+        }, params);
+
+        List<Object[]> updates = new ArrayList<>(answersByAttempt.size());
+        answersByAttempt.forEach((attemptId, answers) -> updates.add(
+                new Object[] { QuizAnswerCodec.encode(answers), attemptId }));
+        jdbcTemplate.batchUpdate(UPDATE_ENCODED_SQL, updates);
+        int deleted = jdbcTemplate.update(String.format(DELETE_ANSWERS_SQL, placeholders), params);
+
+        logger.info("Encoded answers of {} quiz attempts ({} answer rows removed)", attemptIds.size(), deleted);
+        return attemptIds.size();
+    }
+
+    /** Chạy {@link #migrateBatch(int)} tới khi không còn attempt nào lưu theo dòng. */
+    public int migrateAll(int batchSize) {
+        int total = 0;
+        int migrated;
+        while ((migrated = migrateBatch(batchSize)) > 0) {
+            total += migrated;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,65 @@
+package com.fourstars.FourStars.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fourstars.FourStars.domain.UserQuizAttemptResult;
+import com.fourstars.FourStars.domain.response.quiz.QuizAttemptResponseDTO;
+import com.fourstars.FourStars.repository.UserQuizAttemptResultRepository;
+
+/**
+ * Lưu và đọc kết quả bất biến của các attempt đã chấm xong (xem
+ * {@link UserQuizAttemptResult}).
+ */
+@Service
+public class QuizAttemptResultService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizAttemptResultService.class);
+
+    private final UserQuizAttemptResultRepository resultRepository;
+    private final ObjectMapper objectMapper;
+
+    public QuizAttemptResultService(UserQuizAttemptResultRepository resultRepository, ObjectMapper objectMapper) {
+        this.resultRepository = resultRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Ghi kết quả trong cùng transaction chấm điểm. */
+    @Transactional
+    public void storeResult(long userId, QuizAttemptResponseDTO result) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize result of attempt ID " + result.getId(), e);
+        }
+        resultRepository.save(new UserQuizAttemptResult(result.getId(), userId, json));
+        logger.debug("Stored result of attempt ID {} ({} chars)", result.getId(), json.length());
+    }
+
+    @Transactional(readOnly = true)
+    public Set<Long> findStoredAttemptIds(Collection<Long> attemptIds) {
+        return new HashSet<>(resultRepository.findStoredAttemptIds(attemptIds));
+    }
+
+    /** Kết quả đã lưu của attempt, hoặc rỗng nếu attempt chưa chấm xong hoặc được chấm trước khi có bảng này. */
+    @Transactional(readOnly = true)
+    public Optional<QuizAttemptResponseDTO> findResult(long attemptId, long userId) {
+        return resultRepository.findResultJson(attemptId, userId).map(json -> {
+            try {
+                return objectMapper.readValue(json, QuizAttemptResponseDTO.class);
+            } catch (JsonProcessingException e) {
+                logger.error("Stored result of attempt ID {} is unreadable, rebuilding from answers", attemptId, e);
+                return null;
+            }
+        });
+    }
+}
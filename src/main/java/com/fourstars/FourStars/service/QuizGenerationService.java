@@ -1,172 +1,153 @@
 package com.fourstars.FourStars.service;
 
-import com.fourstars.FourStars.config.RabbitMQConfig;
 import com.fourstars.FourStars.domain.Category;
 import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.domain.VocabularyQuestionTemplate;
 import com.fourstars.FourStars.domain.request.quiz.QuestionChoiceDTO;
 import com.fourstars.FourStars.domain.request.quiz.QuestionDTO;
 import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
-import com.fourstars.FourStars.messaging.dto.vocabulary.NewVocabularyMessage;
 import com.fourstars.FourStars.repository.CategoryRepository;
 import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.service.DistractorPoolService.Distractor;
 import com.fourstars.FourStars.util.constant.QuestionType;
 import com.fourstars.FourStars.util.error.BadRequestException;
 import com.fourstars.FourStars.util.error.ResourceNotFoundException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.annotation.PreDestroy;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 @Service
 public class QuizGenerationService {
     private static final Logger logger = LoggerFactory.getLogger(QuizGenerationService.class);
 
+    private static final int DISTRACTOR_COUNT = 3;
+    /** Ít từ hơn thì chia việc cho nhiều luồng tốn hơn tự sinh. */
+    private static final int PARALLEL_THRESHOLD = 64;
+
     private final VocabularyRepository vocabularyRepository;
     private final CategoryRepository categoryRepository;
+    private final DistractorPoolService distractorPoolService;
+    private final QuestionTemplateService questionTemplateService;
+    private final ClozeEngine clozeEngine;
+    private volatile ForkJoinPool generationPool;
+
+    @Value("${fourstars.quiz-generation.max-questions:500}")
+    private int maxQuestions;
+
+    @Value("${fourstars.quiz-generation.parallelism:0}")
+    private int parallelism;
 
     public QuizGenerationService(VocabularyRepository vocabularyRepository,
-            CategoryRepository categoryRepository) {
+            CategoryRepository categoryRepository, DistractorPoolService distractorPoolService,
+            QuestionTemplateService questionTemplateService, ClozeEngine clozeEngine) {
         this.vocabularyRepository = vocabularyRepository;
         this.categoryRepository = categoryRepository;
+        this.distractorPoolService = distractorPoolService;
+        this.questionTemplateService = questionTemplateService;
+        this.clozeEngine = clozeEngine;
     }
 
-    // @RabbitListener(queues = RabbitMQConfig.VOCABULARY_CREATED_QUEUE)
-    @Transactional
-    public void generateQuizForVocabulary(NewVocabularyMessage message) {
-        long newVocabId = message.getNewVocabularyId();
-        logger.info("Received event to generate quiz for new vocabulary ID: {}", newVocabId);
-
-        try {
-            Vocabulary newVocab = vocabularyRepository.findById(newVocabId)
-                    .orElseThrow(
-                            () -> new RuntimeException("Vocabulary not found for quiz generation. ID: " + newVocabId));
-
-            QuizDTO quizDTO = new QuizDTO();
-            quizDTO.setTitle("Bài tập cho từ: '" + newVocab.getWord() + "'");
-            quizDTO.setDescription("Bài tập tự động tạo để ôn luyện từ vựng mới.");
-            quizDTO.setCategoryId(newVocab.getCategory().getId());
-
-            Set<QuestionDTO> questions = new HashSet<>();
-
-            generateFillInTheBlank(newVocab).ifPresent(questions::add);
-            generateMultipleChoiceText(newVocab).ifPresent(questions::add);
-            generateMultipleChoiceImage(newVocab).ifPresent(questions::add);
-            generateListeningComprehension(newVocab).ifPresent(questions::add);
-
-            if (questions.isEmpty()) {
-                logger.warn("Could not generate any questions for vocabulary ID: {}", newVocabId);
-                return;
-            }
-
-            quizDTO.setQuestions(questions);
-            // quizService.createQuiz(quizDTO);
-
-            logger.info("Successfully generated and saved a new quiz for vocabulary ID: {}", newVocabId);
-        } catch (Exception e) {
-            logger.error("Failed to generate quiz for vocabulary ID: {}", newVocabId, e);
-        }
-    }
-
-    private Optional<QuestionDTO> generateFillInTheBlank(Vocabulary vocab) {
-        if (vocab.getExampleEn() == null || vocab.getExampleEn().isEmpty()) {
+    private Optional<QuestionDTO> generateFillInTheBlank(WordSnapshot vocab) {
+        if (vocab.exampleEn() == null || vocab.exampleEn().isEmpty()) {
             return Optional.empty();
         }
 
-        String prompt = vocab.getExampleEn().replaceAll("(?i)" + Pattern.quote(vocab.getWord()), "______");
-
         QuestionDTO q = new QuestionDTO();
-        q.setPrompt(prompt);
-        q.setCorrectSentence(vocab.getWord());
+        q.setPrompt(cloze(vocab));
+        q.setCorrectSentence(vocab.word());
         q.setQuestionType(QuestionType.FILL_IN_BLANK);
         q.setPoints(10);
-        q.setRelatedVocabularyId(vocab.getId());
+        q.setRelatedVocabularyId(vocab.id());
         return Optional.of(q);
     }
 
-    private Optional<QuestionDTO> generateMultipleChoiceText(Vocabulary vocab) {
-        if (vocab.getExampleEn() == null || vocab.getExampleEn().isEmpty()) {
+    private Optional<QuestionDTO> generateMultipleChoiceText(WordSnapshot vocab) {
+        if (vocab.exampleEn() == null || vocab.exampleEn().isEmpty()) {
             return Optional.empty();
         }
-        List<Vocabulary> distractors = vocabularyRepository.findRandomWords(vocab.getId(), vocab.getWord(),
-                vocab.getPartOfSpeech());
-        if (distractors.size() < 3) {
+        List<Distractor> distractors = textDistractors(vocab);
+        if (distractors.size() < DISTRACTOR_COUNT) {
             return Optional.empty();
         }
 
-        String prompt = "Fill in the blanks: "
-                + vocab.getExampleEn().replaceAll("(?i)" + Pattern.quote(vocab.getWord()), "______");
+        String prompt = "Fill in the blanks: " + cloze(vocab);
 
         QuestionDTO q = new QuestionDTO();
         q.setPrompt(prompt);
         q.setQuestionType(QuestionType.MULTIPLE_CHOICE_TEXT);
         q.setPoints(10);
-        q.setRelatedVocabularyId(vocab.getId());
+        q.setRelatedVocabularyId(vocab.id());
 
         Set<QuestionChoiceDTO> choices = new HashSet<>();
-        choices.add(new QuestionChoiceDTO(0, vocab.getWord(), null, true));
-        distractors.forEach(d -> choices.add(new QuestionChoiceDTO(0, d.getWord(), null, false)));
+        choices.add(new QuestionChoiceDTO(0, vocab.word(), null, true));
+        distractors.forEach(d -> choices.add(new QuestionChoiceDTO(0, d.word(), null, false)));
 
         q.setChoices(choices);
         return Optional.of(q);
     }
 
-    private Optional<QuestionDTO> generateMultipleChoiceImage(Vocabulary vocab) {
-        if (vocab.getImage() == null || vocab.getImage().isEmpty() || vocab.getDefinitionEn() == null
-                || vocab.getDefinitionEn().isEmpty()) {
+    private Optional<QuestionDTO> generateMultipleChoiceImage(WordSnapshot vocab) {
+        if (vocab.image() == null || vocab.image().isEmpty() || vocab.definitionEn() == null
+                || vocab.definitionEn().isEmpty()) {
             return Optional.empty();
         }
 
-        List<Vocabulary> distractors = vocabularyRepository.findRandomWords(vocab.getId(), vocab.getWord(),
-                vocab.getPartOfSpeech());
-        if (distractors.size() < 3) {
+        List<Distractor> distractors = sampleDistractors(vocab, true);
+        if (distractors.size() < DISTRACTOR_COUNT) {
             return Optional.empty();
         }
 
         QuestionDTO q = new QuestionDTO();
-        q.setPrompt("Which image best represents the definition: \"" + vocab.getDefinitionEn() + "\"?");
+        q.setPrompt("Which image best represents the definition: \"" + vocab.definitionEn() + "\"?");
         q.setQuestionType(QuestionType.MULTIPLE_CHOICE_IMAGE);
         q.setPoints(10);
-        q.setRelatedVocabularyId(vocab.getId());
+        q.setRelatedVocabularyId(vocab.id());
 
         Set<QuestionChoiceDTO> choices = new HashSet<>();
-        choices.add(new QuestionChoiceDTO(0, null, vocab.getImage(), true));
-        distractors.forEach(d -> choices.add(new QuestionChoiceDTO(0, null, d.getImage(), false)));
+        choices.add(new QuestionChoiceDTO(0, null, vocab.image(), true));
+        distractors.forEach(d -> choices.add(new QuestionChoiceDTO(0, null, d.image(), false)));
 
         q.setChoices(choices);
         return Optional.of(q);
     }
 
-    private Optional<QuestionDTO> generateListeningComprehension(Vocabulary vocab) {
-        if (vocab.getAudio() == null || vocab.getAudio().isEmpty()) {
+    private Optional<QuestionDTO> generateListeningComprehension(WordSnapshot vocab) {
+        if (vocab.audio() == null || vocab.audio().isEmpty()) {
             return Optional.empty();
         }
 
-        List<Vocabulary> distractors = vocabularyRepository.findRandomWords(vocab.getId(), vocab.getWord(),
-                vocab.getPartOfSpeech());
-        if (distractors.size() < 3) {
+        List<Distractor> distractors = textDistractors(vocab);
+        if (distractors.size() < DISTRACTOR_COUNT) {
             return Optional.empty();
         }
 
         QuestionDTO q = new QuestionDTO();
         q.setPrompt("Listen to the audio and choose the correct word.");
-        q.setAudioUrl(vocab.getAudio());
+        q.setAudioUrl(vocab.audio());
         q.setQuestionType(QuestionType.LISTENING_COMPREHENSION);
         q.setPoints(10);
-        q.setRelatedVocabularyId(vocab.getId());
+        q.setRelatedVocabularyId(vocab.id());
 
         Set<QuestionChoiceDTO> choices = new HashSet<>();
-        choices.add(new QuestionChoiceDTO(0, vocab.getWord(), null, true));
-        distractors.forEach(d -> choices.add(new QuestionChoiceDTO(0, d.getWord(), null, false)));
+        choices.add(new QuestionChoiceDTO(0, vocab.word(), null, true));
+        distractors.forEach(d -> choices.add(new QuestionChoiceDTO(0, d.word(), null, false)));
 
         q.setChoices(choices);
         return Optional.of(q);
@@ -184,47 +165,60 @@ public class QuizGenerationService {
                     "No vocabularies found in category '" + category.getName() + "' to generate a quiz.");
         }
 
+        // Danh mục lớn hơn giới hạn số câu thì mỗi lần sinh lấy một tập từ khác nhau.
+        vocabularies = new ArrayList<>(vocabularies);
+        Collections.shuffle(vocabularies, ThreadLocalRandom.current());
+
         String title = "Review Quiz: " + category.getName();
         String description = "This quiz includes all vocabulary for the '" + category.getName() + "' topic.";
 
         return generateQuizFromVocabularyList(vocabularies, title, description, categoryId, 2);
     }
 
+    /**
+     * Sinh tối đa numberOfQuestions câu cho mỗi từ. Dữ liệu cần thiết được đọc
+     * trước trên luồng gọi (chụp các trường của từ cùng question template đã dựng
+     * sẵn, nạp kho đáp án nhiễu), sau đó các từ được sinh song song trên
+     * ForkJoinPool riêng mà không chạm DB. Tổng số câu bị giới hạn bởi
+     * fourstars.quiz-generation.max-questions; khi vượt, chỉ những từ đầu danh
+     * sách (thứ tự ưu tiên do nơi gọi quyết định) được sinh.
+     */
     @Transactional
     public QuizDTO generateQuizFromVocabularyList(List<Vocabulary> vocabularies, String title, String description,
             Long categoryId, int numberOfQuestions) {
         if (vocabularies == null || vocabularies.isEmpty()) {
             throw new BadRequestException("Vocabulary list cannot be empty to generate a quiz.");
         }
+        int perWord = Math.max(1, numberOfQuestions);
+
+        List<Vocabulary> selected = vocabularies;
+        if (maxQuestions > 0 && (long) vocabularies.size() * perWord > maxQuestions) {
+            int wordLimit = (maxQuestions + perWord - 1) / perWord;
+            selected = vocabularies.subList(0, wordLimit);
+            logger.info("Capping quiz at {} questions: using {} of {} vocabularies.", maxQuestions, wordLimit,
+                    vocabularies.size());
+        }
+        Map<Long, VocabularyQuestionTemplate> templates = questionTemplateService.findFresh(selected);
+        List<WordSnapshot> words = new ArrayList<>(selected.size());
+        for (Vocabulary vocab : selected) {
+            words.add(WordSnapshot.of(vocab, templates.get(vocab.getId())));
+        }
+        distractorPoolService.preload();
 
-        Set<QuestionDTO> questions = new HashSet<>();
-        logger.info("Generating one random question for each of the {} vocabularies.", vocabularies.size());
-
-        for (Vocabulary vocab : vocabularies) {
-            List<Optional<QuestionDTO>> questionFactories = new ArrayList<>();
-            if (vocab.getExampleEn().length() > 0) {
-                questionFactories.add(generateFillInTheBlank(vocab));
-                questionFactories.add(generateMultipleChoiceText(vocab));
-            }
-            // questionFactories.add(generateMultipleChoiceImage(vocab));
-            if (vocab.getAudio() != null) {
-                questionFactories.add(generateListeningComprehension(vocab));
-            }
-
-            Collections.shuffle(questionFactories);
-
-            int count = questionFactories.size() < numberOfQuestions ? questionFactories.size() : numberOfQuestions;
+        long start = System.nanoTime();
+        List<List<QuestionDTO>> generated = generateAll(words, perWord);
 
-            for (Optional<QuestionDTO> questionOpt : questionFactories) {
-                if (questionOpt.isPresent()) {
-                    questions.add(questionOpt.get());
-                    count--;
-                    if (count == 0) {
-                        break;
-                    }
+        Set<QuestionDTO> questions = new LinkedHashSet<>();
+        for (List<QuestionDTO> wordQuestions : generated) {
+            for (QuestionDTO question : wordQuestions) {
+                if (maxQuestions > 0 && questions.size() >= maxQuestions) {
+                    break;
                 }
+                questions.add(question);
             }
         }
+        logger.info("Generated {} questions for {} vocabularies in {} ms.", questions.size(), words.size(),
+                (System.nanoTime() - start) / 1_000_000);
 
         if (questions.isEmpty()) {
             throw new BadRequestException("Could not generate any valid questions for the provided vocabularies.");
@@ -238,4 +232,117 @@ public class QuizGenerationService {
 
         return quizDTO;
     }
+
+    /** Danh sách ít từ thì sinh ngay trên luồng gọi; nhiều từ thì chia cho ForkJoinPool. */
+    private List<List<QuestionDTO>> generateAll(List<WordSnapshot> words, int perWord) {
+        ForkJoinPool pool = generationPool();
+        if (words.size() < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+            List<List<QuestionDTO>> generated = new ArrayList<>(words.size());
+            for (WordSnapshot word : words) {
+                generated.add(generateQuestionsForWord(word, perWord));
+            }
+            return generated;
+        }
+        return pool.submit(() -> words.parallelStream()
+                .map(word -> generateQuestionsForWord(word, perWord))
+                .toList())
+                .join();
+    }
+
+    /**
+     * Chọn ngẫu nhiên các dạng câu hỏi áp dụng được cho từ rồi chỉ sinh lần lượt
+     * đến khi đủ perWord câu, thay vì sinh mọi dạng rồi bỏ bớt.
+     */
+    private List<QuestionDTO> generateQuestionsForWord(WordSnapshot word, int perWord) {
+        List<Function<WordSnapshot, Optional<QuestionDTO>>> factories = new ArrayList<>(3);
+        if (word.exampleEn() != null && !word.exampleEn().isEmpty()) {
+            factories.add(this::generateFillInTheBlank);
+            factories.add(this::generateMultipleChoiceText);
+        }
+        // factories.add(this::generateMultipleChoiceImage);
+        if (word.audio() != null) {
+            factories.add(this::generateListeningComprehension);
+        }
+        Collections.shuffle(factories, ThreadLocalRandom.current());
+
+        List<QuestionDTO> questions = new ArrayList<>(perWord);
+        for (Function<WordSnapshot, Optional<QuestionDTO>> factory : factories) {
+            if (questions.size() == perWord) {
+                break;
+            }
+            factory.apply(word).ifPresent(questions::add);
+        }
+        return questions;
+    }
+
+    private String cloze(WordSnapshot word) {
+        if (word.clozePrompt() != null) {
+            return word.clozePrompt();
+        }
+        return clozeEngine.cloze(word.id(), word.exampleEn(), word.word()).prompt();
+    }
+
+    /**
+     * Đáp án nhiễu dạng chữ: chọn ngẫu nhiên trong các ứng viên của template; nếu
+     * không có template hoặc ứng viên đã bị xóa bớt thì lấy mẫu trực tiếp từ kho.
+     */
+    private List<Distractor> textDistractors(WordSnapshot word) {
+        if (word.distractorIds() != null) {
+            List<Distractor> candidates = distractorPoolService.findByIds(word.distractorIds());
+            if (candidates.size() >= DISTRACTOR_COUNT) {
+                Collections.shuffle(candidates, ThreadLocalRandom.current());
+                return candidates.subList(0, DISTRACTOR_COUNT);
+            }
+        }
+        return sampleDistractors(word, false);
+    }
+
+    private List<Distractor> sampleDistractors(WordSnapshot word, boolean requireImage) {
+        return distractorPoolService.sample(word.id(), word.word(), word.partOfSpeech(), DISTRACTOR_COUNT,
+                requireImage);
+    }
+
+    private ForkJoinPool generationPool() {
+        ForkJoinPool pool = generationPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = generationPool;
+                if (pool == null) {
+                    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+                    pool = new ForkJoinPool(threads);
+                    generationPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    @PreDestroy
+    public void shutdownGenerationPool() {
+        if (generationPool != null) {
+            generationPool.shutdown();
+        }
+    }
+
+    /**
+     * Các trường của từ vựng mà việc sinh câu hỏi cần, chụp trên luồng gọi để các
+     * luồng ForkJoin không chạm vào entity JPA. clozePrompt và distractorIds lấy
+     * từ template còn mới, null nếu từ chưa có template.
+     */
+    private record WordSnapshot(long id, String word, String partOfSpeech, String exampleEn, String definitionEn,
+            String image, String audio, String clozePrompt, long[] distractorIds) {
+
+        static WordSnapshot of(Vocabulary vocab, VocabularyQuestionTemplate template) {
+            String clozePrompt = null;
+            long[] distractorIds = null;
+            if (template != null) {
+                // Câu ví dụ không chứa từ thì template không có cloze, câu hỏi giữ nguyên câu ví dụ.
+                clozePrompt = template.getClozePrompt() != null ? template.getClozePrompt() : vocab.getExampleEn();
+                distractorIds = QuestionTemplateService.parseDistractorIds(template.getDistractorIds());
+            }
+            return new WordSnapshot(vocab.getId(), vocab.getWord(), vocab.getPartOfSpeech(), vocab.getExampleEn(),
+                    vocab.getDefinitionEn(), vocab.getImage(), vocab.getAudio(), clozePrompt, distractorIds);
+        }
+
+    }
 }
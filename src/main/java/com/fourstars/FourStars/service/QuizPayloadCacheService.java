@@ -0,0 +1,140 @@
+package com.fourstars.FourStars.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.fourstars.FourStars.domain.Question;
+import com.fourstars.FourStars.domain.Quiz;
+import com.fourstars.FourStars.domain.response.quiz.QuestionChoiceForUserDTO;
+import com.fourstars.FourStars.domain.response.quiz.QuestionForUserDTO;
+import com.fourstars.FourStars.repository.QuestionRepository;
+import com.fourstars.FourStars.repository.QuizRepository;
+import com.fourstars.FourStars.util.error.ResourceNotFoundException;
+
+/**
+ * Cache phần câu hỏi (không kèm đáp án) mà người chơi nhận khi bắt đầu quiz,
+ * lưu sẵn dưới dạng JSON đã mã hóa UTF-8. Dùng chung version Redis với
+ * {@link QuizAnswerKeyService} nên sửa/xóa quiz sẽ làm mới cache trên mọi node.
+ */
+@Service
+public class QuizPayloadCacheService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizPayloadCacheService.class);
+
+    private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
+    private final QuizAnswerKeyService quizAnswerKeyService;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, QuizPayload> payloads = new ConcurrentHashMap<>();
+
+    public QuizPayloadCacheService(QuizRepository quizRepository, QuestionRepository questionRepository,
+            QuizAnswerKeyService quizAnswerKeyService, ObjectMapper objectMapper) {
+        this.quizRepository = quizRepository;
+        this.questionRepository = questionRepository;
+        this.quizAnswerKeyService = quizAnswerKeyService;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Payload bất biến của một quiz; {@code questions} được ghi thẳng ra response mà không serialize lại. */
+    public static final class QuizPayload {
+        private final long version;
+        private final String quizTitle;
+        private final RawValue questions;
+        private final int questionCount;
+
+        QuizPayload(long version, String quizTitle, RawValue questions, int questionCount) {
+            this.version = version;
+            this.quizTitle = quizTitle;
+            this.questions = questions;
+            this.questionCount = questionCount;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getQuizTitle() {
+            return quizTitle;
+        }
+
+        public RawValue getQuestions() {
+            return questions;
+        }
+
+        public int getQuestionCount() {
+            return questionCount;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public QuizPayload getPayload(long quizId) {
+        long version;
+        try {
+            version = quizAnswerKeyService.getQuizVersion(quizId);
+        } catch (Exception e) {
+            logger.warn("Could not read version for quiz ID {} from Redis, building payload without cache: {}",
+                    quizId, e.getMessage());
+            return buildPayload(quizId, -1L);
+        }
+
+        QuizPayload cached = payloads.get(quizId);
+        if (cached != null && cached.getVersion() == version) {
+            return cached;
+        }
+
+        QuizPayload built = buildPayload(quizId, version);
+        payloads.put(quizId, built);
+        return built;
+    }
+
+    private QuizPayload buildPayload(long quizId, long version) {
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz not found with id: " + quizId));
+
+        List<QuestionForUserDTO> questions = questionRepository.findAllWithChoicesByQuizId(quizId).stream()
+                .sorted(Comparator.comparingInt(Question::getQuestionOrder).thenComparingLong(Question::getId))
+                .map(QuizPayloadCacheService::convertToQuestionForUserDTO)
+                .collect(Collectors.toList());
+
+        SerializedString json;
+        try {
+            json = new SerializedString(objectMapper.writeValueAsString(questions));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize questions of quiz ID " + quizId, e);
+        }
+        // Mã hóa UTF-8 một lần ở đây; các response sau chỉ copy mảng byte đã có.
+        int size = json.asUnquotedUTF8().length;
+        logger.debug("Built player payload for quiz ID {} (version {}): {} questions, {} bytes", quizId, version,
+                questions.size(), size);
+
+        return new QuizPayload(version, quiz.getTitle(), new RawValue(json), questions.size());
+    }
+
+    static QuestionForUserDTO convertToQuestionForUserDTO(Question q) {
+        QuestionForUserDTO dto = new QuestionForUserDTO();
+        dto.setId(q.getId());
+        dto.setQuestionType(q.getQuestionType());
+        dto.setPrompt(q.getPrompt());
+        dto.setImageUrl(q.getImageUrl());
+        dto.setAudioUrl(q.getAudioUrl());
+        dto.setTextToFill(q.getTextToFill());
+        dto.setPoints(q.getPoints());
+        if (q.getChoices() != null) {
+            dto.setChoices(q.getChoices().stream()
+                    .map(c -> new QuestionChoiceForUserDTO(c.getId(), c.getContent(), c.getImageUrl()))
+                    .collect(Collectors.toSet()));
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,111 @@
+package com.fourstars.FourStars.service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.fourstars.FourStars.config.RabbitMQConfig;
+import com.fourstars.FourStars.domain.response.quiz.QuizAttemptResponseDTO;
+import com.fourstars.FourStars.messaging.dto.quiz.QuizResultBroadcastMessage;
+
+/**
+ * Đẩy kết quả quiz vừa chấm xong tới người dùng: gửi qua STOMP tới
+ * "/topic/quiz-results.{userId}" và hoàn tất các request long-poll đang chờ
+ * attempt đó, để client không phải poll liên tục.
+ *
+ * Long-poll và broker STOMP (simple broker) đều nằm trong bộ nhớ từng node,
+ * còn node chấm điểm là node nào nhận được message. Vì vậy node chấm phát kết
+ * quả qua fanout exchange "quiz_result_exchange" và mỗi node tự giao cho các
+ * client của mình (xem QuizResultBroadcastConsumer).
+ */
+@Service
+public class QuizResultPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(QuizResultPublisher.class);
+
+    private static final String DESTINATION_PREFIX = "/topic/quiz-results.";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RabbitTemplate rabbitTemplate;
+    private final ConcurrentMap<Long, List<DeferredResult<QuizAttemptResponseDTO>>> waiters = new ConcurrentHashMap<>();
+
+    public QuizResultPublisher(SimpMessagingTemplate messagingTemplate, RabbitTemplate rabbitTemplate) {
+        this.messagingTemplate = messagingTemplate;
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    public static String destinationFor(long userId) {
+        return DESTINATION_PREFIX + userId;
+    }
+
+    /**
+     * Gửi kết quả sau khi transaction chấm điểm commit, để client nhận được kết
+     * quả thì GET attempt cũng đã thấy trạng thái COMPLETED.
+     */
+    public void publishAfterCommit(long userId, QuizAttemptResponseDTO result) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(userId, result);
+                }
+            });
+        } else {
+            broadcast(userId, result);
+        }
+    }
+
+    /** Phát kết quả tới mọi node; không gửi được thì ít nhất giao cho client của node này. */
+    private void broadcast(long userId, QuizAttemptResponseDTO result) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.QUIZ_RESULT_EXCHANGE, "",
+                    new QuizResultBroadcastMessage(userId, result));
+        } catch (Exception e) {
+            logger.warn("Could not broadcast result of attempt ID {}, delivering on this node only: {}",
+                    result.getId(), e.getMessage());
+            publish(userId, result);
+        }
+    }
+
+    /** Giao kết quả cho các long-poll và phiên STOMP trên node này. */
+    public void publish(long userId, QuizAttemptResponseDTO result) {
+        List<DeferredResult<QuizAttemptResponseDTO>> pending = waiters.remove(result.getId());
+        if (pending != null) {
+            for (DeferredResult<QuizAttemptResponseDTO> deferred : pending) {
+                deferred.setResult(result);
+            }
+            logger.debug("Completed {} long-poll request(s) for attempt ID {}", pending.size(), result.getId());
+        }
+
+        String destination = destinationFor(userId);
+        try {
+            logger.debug("Pushing result of attempt ID {} to destination '{}'", result.getId(), destination);
+            messagingTemplate.convertAndSend(destination, result);
+        } catch (Exception e) {
+            logger.error("Error sending quiz result via WebSocket for attempt ID {}: {}", result.getId(),
+                    e.getMessage());
+        }
+    }
+
+    /** Đăng ký một request long-poll; tự gỡ khi request hoàn tất, hết hạn hoặc lỗi. */
+    public void register(long attemptId, DeferredResult<QuizAttemptResponseDTO> deferred) {
+        waiters.compute(attemptId, (id, list) -> {
+            List<DeferredResult<QuizAttemptResponseDTO>> target = list != null ? list : new CopyOnWriteArrayList<>();
+            target.add(deferred);
+            return target;
+        });
+        deferred.onCompletion(() -> waiters.computeIfPresent(attemptId, (id, list) -> {
+            list.remove(deferred);
+            return list.isEmpty() ? null : list;
+        }));
+    }
+}
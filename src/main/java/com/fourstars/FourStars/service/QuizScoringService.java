@@ -0,0 +1,158 @@
+package com.fourstars.FourStars.service;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fourstars.FourStars.domain.UserAnswer;
+import com.fourstars.FourStars.domain.request.quiz.UserAnswerRequestDTO;
+import com.fourstars.FourStars.domain.request.vocabulary.SubmitReviewRequestDTO;
+import com.fourstars.FourStars.service.QuizAnswerKeyService.QuizAnswerKey;
+import com.fourstars.FourStars.util.error.ResourceNotFoundException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Chấm điểm một bài nộp theo kiểu set-based: lấy đáp án đã biên dịch của quiz
+ * (xem {@link QuizAnswerKeyService}), chấm trong bộ nhớ, rồi ghi tất cả
+ * {@link UserAnswer} bằng một JDBC batch, hoặc (chế độ
+ * fourstars.quiz-answers.storage=encoded) ghi cả bài thành một cột mã hóa bằng
+ * {@link QuizAnswerCodec}.
+ */
+@Service
+public class QuizScoringService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizScoringService.class);
+
+    static final int ANSWER_BATCH_SIZE = 100;
+
+    private static final String DELETE_ANSWERS_SQL = "DELETE FROM user_answers WHERE user_quiz_attempt_id = ?";
+
+    private static final String INSERT_ANSWER_SQL = "INSERT INTO user_answers "
+            + "(user_quiz_attempt_id, question_id, user_answer_text, selected_choice_id, is_correct, points_awarded) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_ENCODED_ANSWERS_SQL = "UPDATE user_quiz_attempts SET answers_encoded = ? WHERE id = ?";
+
+    public static final String STORAGE_ROWS = "rows";
+    public static final String STORAGE_ENCODED = "encoded";
+
+    private final QuizAnswerKeyService quizAnswerKeyService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${fourstars.quiz-answers.storage:" + STORAGE_ROWS + "}")
+    private String answerStorage = STORAGE_ROWS;
+
+    public QuizScoringService(QuizAnswerKeyService quizAnswerKeyService, JdbcTemplate jdbcTemplate) {
+        this.quizAnswerKeyService = quizAnswerKeyService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ScoredAnswer {
+        private int questionIndex;
+        private long questionId;
+        private String userAnswerText;
+        private Long selectedChoiceId;
+        private boolean correct;
+        private int pointsAwarded;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ScoringResult {
+        private QuizAnswerKey answerKey;
+        private List<ScoredAnswer> answers;
+        private int totalScore;
+        private List<SubmitReviewRequestDTO> reviews;
+
+        public int getTotalPoints() {
+            return answerKey.getTotalPoints();
+        }
+    }
+
+    public ScoringResult score(long quizId, List<UserAnswerRequestDTO> answerRequests) {
+        return score(quizAnswerKeyService.getAnswerKey(quizId), answerRequests);
+    }
+
+    /** Chấm theo một đáp án có sẵn, vd. của quiz tạm (xem {@link EphemeralQuizService}). */
+    public ScoringResult score(QuizAnswerKey answerKey, List<UserAnswerRequestDTO> answerRequests) {
+        List<ScoredAnswer> answers = new ArrayList<>(answerRequests.size());
+        List<SubmitReviewRequestDTO> reviews = new ArrayList<>();
+        int totalScore = 0;
+
+        for (UserAnswerRequestDTO ansReq : answerRequests) {
+            int index = answerKey.indexOf(ansReq.getQuestionId());
+            if (index < 0) {
+                throw new ResourceNotFoundException("Question not found: " + ansReq.getQuestionId());
+            }
+
+            Long selectedChoiceId = answerKey.isChoiceBased(index) ? ansReq.getSelectedChoiceId() : null;
+            boolean isCorrect = answerKey.isCorrect(index, selectedChoiceId, ansReq.getUserAnswerText());
+            int pointsAwarded = isCorrect ? answerKey.getPoints(index) : 0;
+            totalScore += pointsAwarded;
+
+            answers.add(new ScoredAnswer(index, ansReq.getQuestionId(), ansReq.getUserAnswerText(),
+                    selectedChoiceId, isCorrect, pointsAwarded));
+            logger.debug("Scoring question {}: user answer is correct? {}", ansReq.getQuestionId(), isCorrect);
+
+            Long vocabularyId = answerKey.getRelatedVocabularyId(index);
+            if (vocabularyId != null) {
+                reviews.add(new SubmitReviewRequestDTO(vocabularyId, isCorrect ? 5 : 2));
+            }
+        }
+
+        return new ScoringResult(answerKey, answers, totalScore, reviews);
+    }
+
+    @Transactional
+    public void saveAnswers(long attemptId, List<ScoredAnswer> answers) {
+        if (STORAGE_ENCODED.equalsIgnoreCase(answerStorage)) {
+            saveEncodedAnswers(attemptId, answers);
+        } else {
+            saveAnswerRows(attemptId, answers);
+        }
+    }
+
+    /**
+     * Thay thế toàn bộ câu trả lời của một lần làm bài bằng một lệnh DELETE và
+     * một JDBC batch INSERT, thay vì một INSERT IDENTITY cho mỗi câu.
+     */
+    @Transactional
+    public void saveAnswerRows(long attemptId, List<ScoredAnswer> answers) {
+        jdbcTemplate.update(DELETE_ANSWERS_SQL, attemptId);
+        if (answers.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ANSWER_SQL, answers, ANSWER_BATCH_SIZE, (ps, answer) -> {
+            ps.setLong(1, attemptId);
+            ps.setLong(2, answer.getQuestionId());
+            ps.setString(3, answer.getUserAnswerText());
+            if (answer.getSelectedChoiceId() != null) {
+                ps.setLong(4, answer.getSelectedChoiceId());
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setBoolean(5, answer.isCorrect());
+            ps.setInt(6, answer.getPointsAwarded());
+        });
+        logger.debug("Batch-inserted {} answers for attempt ID {}", answers.size(), attemptId);
+    }
+
+    /** Ghi cả bài làm vào cột answers_encoded của attempt bằng một lệnh UPDATE. */
+    @Transactional
+    public void saveEncodedAnswers(long attemptId, List<ScoredAnswer> answers) {
+        byte[] encoded = QuizAnswerCodec.encode(answers);
+        jdbcTemplate.update(UPDATE_ENCODED_ANSWERS_SQL, encoded, attemptId);
+        logger.debug("Stored {} answers ({} bytes) for attempt ID {}", answers.size(), encoded.length, attemptId);
+    }
+}
@@ -4,6 +4,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -17,6 +18,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.fourstars.FourStars.config.RabbitMQConfig;
 import com.fourstars.FourStars.domain.Category;
@@ -32,11 +34,8 @@ import com.fourstars.FourStars.domain.request.quiz.QuestionDTO;
 import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
 import com.fourstars.FourStars.domain.request.quiz.SubmitQuizRequestDTO;
 import com.fourstars.FourStars.domain.request.quiz.UserAnswerRequestDTO;
-import com.fourstars.FourStars.domain.request.vocabulary.SubmitReviewRequestDTO;
 import com.fourstars.FourStars.domain.response.ResultPaginationDTO;
 import com.fourstars.FourStars.domain.response.quiz.QuestionAnswerDetailDTO;
-import com.fourstars.FourStars.domain.response.quiz.QuestionChoiceForUserDTO;
-import com.fourstars.FourStars.domain.response.quiz.QuestionForUserDTO;
 import com.fourstars.FourStars.domain.response.quiz.QuizAttemptResponseDTO;
 import com.fourstars.FourStars.domain.response.quiz.QuizForUserAttemptDTO;
 import com.fourstars.FourStars.domain.response.quiz.UserAnswerResponseDTO;
@@ -45,11 +44,12 @@ import com.fourstars.FourStars.messaging.dto.quiz.QuizSubmissionMessage;
 import com.fourstars.FourStars.repository.CategoryRepository;
 import com.fourstars.FourStars.repository.QuestionRepository;
 import com.fourstars.FourStars.repository.QuizRepository;
+import com.fourstars.FourStars.repository.UserAnswerRepository;
 import com.fourstars.FourStars.repository.UserQuizAttemptRepository;
 import com.fourstars.FourStars.repository.UserRepository;
 import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.service.QuizAnswerKeyService.QuizAnswerKey;
 import com.fourstars.FourStars.util.SecurityUtil;
-import com.fourstars.FourStars.util.constant.QuestionType;
 import com.fourstars.FourStars.util.constant.QuizStatus;
 import com.fourstars.FourStars.util.error.BadRequestException;
 import com.fourstars.FourStars.util.error.ResourceNotFoundException;
@@ -68,12 +68,25 @@ public class QuizService {
     private final VocabularyRepository vocabularyRepository;
     private final UserService userService;
     private final RabbitTemplate rabbitTemplate;
+    private final QuizScoringService quizScoringService;
+    private final QuizAnswerKeyService quizAnswerKeyService;
+    private final QuizResultPublisher quizResultPublisher;
+    private final QuizPayloadCacheService quizPayloadCacheService;
+    private final QuizAttemptResultService quizAttemptResultService;
+    private final QuizSessionService quizSessionService;
+    private final QuizSummaryService quizSummaryService;
+    private final UserAnswerRepository userAnswerRepository;
+    private final EphemeralQuizService ephemeralQuizService;
     private VocabularyService vocabularyService;
 
     public QuizService(QuizRepository quizRepository, QuestionRepository questionRepository,
             UserQuizAttemptRepository userQuizAttemptRepository, UserRepository userRepository,
             CategoryRepository categoryRepository, VocabularyRepository vocabularyRepository,
-            RabbitTemplate rabbitTemplate, UserService userService) {
+            RabbitTemplate rabbitTemplate, UserService userService, QuizScoringService quizScoringService,
+            QuizAnswerKeyService quizAnswerKeyService, QuizResultPublisher quizResultPublisher,
+            QuizPayloadCacheService quizPayloadCacheService, QuizAttemptResultService quizAttemptResultService,
+            QuizSessionService quizSessionService, QuizSummaryService quizSummaryService,
+            UserAnswerRepository userAnswerRepository, EphemeralQuizService ephemeralQuizService) {
         this.quizRepository = quizRepository;
         this.questionRepository = questionRepository;
         this.userQuizAttemptRepository = userQuizAttemptRepository;
@@ -82,6 +95,15 @@ public class QuizService {
         this.vocabularyRepository = vocabularyRepository;
         this.rabbitTemplate = rabbitTemplate;
         this.userService = userService;
+        this.quizScoringService = quizScoringService;
+        this.quizAnswerKeyService = quizAnswerKeyService;
+        this.quizResultPublisher = quizResultPublisher;
+        this.quizPayloadCacheService = quizPayloadCacheService;
+        this.quizAttemptResultService = quizAttemptResultService;
+        this.quizSessionService = quizSessionService;
+        this.quizSummaryService = quizSummaryService;
+        this.userAnswerRepository = userAnswerRepository;
+        this.ephemeralQuizService = ephemeralQuizService;
     }
 
     @Autowired
@@ -158,6 +180,7 @@ public class QuizService {
         }
 
         Quiz updatedQuiz = quizRepository.save(quiz);
+        quizAnswerKeyService.bumpQuizVersion(quizId);
         logger.info("Successfully updated quiz with ID: {}", updatedQuiz.getId());
 
         return convertToQuizDTO(updatedQuiz);
@@ -172,6 +195,7 @@ public class QuizService {
         }
 
         quizRepository.deleteById(quizId);
+        quizAnswerKeyService.bumpQuizVersion(quizId);
         logger.info("Successfully deleted quiz with ID: {}", quizId);
 
     }
@@ -218,122 +242,204 @@ public class QuizService {
     public QuizForUserAttemptDTO startQuiz(long quizId) {
         User currentUser = getCurrentAuthenticatedUser();
         logger.info("User '{}' starting quiz with ID: {}", currentUser.getEmail(), quizId);
+        if (EphemeralQuizService.isEphemeral(quizId)) {
+            return startEphemeralQuiz(currentUser, quizId);
+        }
 
-        Quiz quiz = quizRepository.findById(quizId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quiz not found with id: " + quizId));
+        QuizPayloadCacheService.QuizPayload payload = quizPayloadCacheService.getPayload(quizId);
+
+        Long attemptId = findResumableAttemptId(currentUser, quizId);
+        List<UserAnswerRequestDTO> savedAnswers = List.of();
+        if (attemptId != null) {
+            logger.info("User '{}' resumed quiz attempt with ID: {}", currentUser.getEmail(), attemptId);
+            savedAnswers = loadDraftAnswers(attemptId);
+        } else {
+            UserQuizAttempt attempt = new UserQuizAttempt();
+            attempt.setUser(currentUser);
+            attempt.setQuiz(quizRepository.getReferenceById(quizId));
+            attempt.setStatus(QuizStatus.IN_PROGRESS);
+            attempt.setStartedAt(Instant.now());
+
+            attemptId = userQuizAttemptRepository.save(attempt).getId();
+            logger.info("User '{}' started new quiz attempt with ID: {}", currentUser.getEmail(), attemptId);
+        }
 
-        UserQuizAttempt attempt = new UserQuizAttempt();
-        attempt.setUser(currentUser);
-        attempt.setQuiz(quiz);
-        attempt.setStatus(QuizStatus.IN_PROGRESS);
-        attempt.setStartedAt(Instant.now());
+        try {
+            quizSessionService.openSession(attemptId, currentUser.getId(), quizId, currentUser.getEmail());
+        } catch (Exception e) {
+            logger.warn("Could not open quiz session for attempt ID {}: {}", attemptId, e.getMessage());
+        }
 
-        UserQuizAttempt savedAttempt = userQuizAttemptRepository.save(attempt);
+        return new QuizForUserAttemptDTO(attemptId, payload.getQuizTitle(), payload.getQuestions(), savedAnswers);
+    }
 
-        List<QuestionForUserDTO> questionForUserDTOs = quiz.getQuestions().stream()
-                .map(this::convertToQuestionForUserDTO)
-                .collect(Collectors.toList());
-        logger.info("User '{}' started new quiz attempt with ID: {}", currentUser.getEmail(), savedAttempt.getId());
+    /** Quiz tạm chỉ có một lượt làm, attempt id chính là quiz id. */
+    private QuizForUserAttemptDTO startEphemeralQuiz(User currentUser, long quizId) {
+        EphemeralQuizService.EphemeralQuiz quiz = ephemeralQuizService.start(quizId, currentUser.getId());
+        List<UserAnswerRequestDTO> savedAnswers = loadDraftAnswers(quizId);
+        try {
+            quizSessionService.openSession(quizId, currentUser.getId(), quizId, currentUser.getEmail());
+        } catch (Exception e) {
+            logger.warn("Could not open quiz session for ephemeral quiz ID {}: {}", quizId, e.getMessage());
+        }
+        return new QuizForUserAttemptDTO(quizId, quiz.quiz().getTitle(), ephemeralQuizService.getPlayerQuestions(quiz),
+                savedAnswers);
+    }
 
-        return new QuizForUserAttemptDTO(savedAttempt.getId(), quiz.getTitle(), questionForUserDTOs);
+    private Long findResumableAttemptId(User user, long quizId) {
+        try {
+            Long attemptId = quizSessionService.findActiveAttemptId(user.getId(), quizId);
+            // Phiên Redis có thể còn sống sau khi bài đã nộp: kiểm tra lại trong DB.
+            if (attemptId != null && userQuizAttemptRepository.isResumable(attemptId, user.getId())) {
+                return attemptId;
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read active quiz session of user '{}' from Redis: {}", user.getEmail(),
+                    e.getMessage());
+        }
+        return userQuizAttemptRepository.findFirstByUserAndQuizAndStatusAndSubmittedAtIsNullOrderByStartedAtDesc(user,
+                quizRepository.getReferenceById(quizId), QuizStatus.IN_PROGRESS)
+                .map(UserQuizAttempt::getId)
+                .orElse(null);
+    }
+
+    private List<UserAnswerRequestDTO> loadDraftAnswers(long attemptId) {
+        try {
+            return quizSessionService.getDraftAnswers(attemptId);
+        } catch (Exception e) {
+            logger.warn("Could not load draft answers for attempt ID {}: {}", attemptId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Autosave: chỉ ghi vào phiên trên Redis. Khi phiên còn sống, việc kiểm tra
+     * quyền chỉ so email trong JWT với chủ phiên, không truy vấn MySQL.
+     */
+    public void saveDraftAnswers(long attemptId, List<UserAnswerRequestDTO> answers) {
+        String email = SecurityUtil.getCurrentUserLogin()
+                .orElseThrow(() -> new ResourceNotFoundException("User not authenticated. Please login."));
+
+        String owner = quizSessionService.getOwnerEmail(attemptId);
+        if (owner == null) {
+            // Phiên đã hết hạn hoặc attempt được tạo trước khi có phiên: kiểm tra DB rồi mở lại.
+            User currentUser = getCurrentAuthenticatedUser();
+            long quizId;
+            QuizStatus status;
+            if (EphemeralQuizService.isEphemeral(attemptId)) {
+                quizId = attemptId;
+                status = ephemeralQuizService.load(attemptId, currentUser.getId()).status();
+            } else {
+                UserQuizAttempt attempt = userQuizAttemptRepository.findByIdAndUserId(attemptId, currentUser.getId())
+                        .orElseThrow(() -> new ResourceNotFoundException(
+                                "Quiz attempt not found or you don't have permission."));
+                quizId = attempt.getQuiz().getId();
+                status = attempt.getStatus();
+                if (attempt.getSubmittedAt() != null && status != QuizStatus.COMPLETED) {
+                    throw new BadRequestException("This quiz has already been submitted.");
+                }
+            }
+            if (status == QuizStatus.COMPLETED) {
+                throw new BadRequestException("This quiz has already been completed.");
+            }
+            quizSessionService.openSession(attemptId, currentUser.getId(), quizId, email);
+        } else if (!owner.equals(email)) {
+            throw new ResourceNotFoundException("Quiz attempt not found or you don't have permission.");
+        }
+
+        quizSessionService.saveDraftAnswers(attemptId, answers);
+        logger.debug("Autosaved {} answers for attempt ID {}", answers.size(), attemptId);
     }
 
     public void acceptQuizSubmission(SubmitQuizRequestDTO requestDTO) {
         User currentUser = getCurrentAuthenticatedUser();
-        logger.info("Accepting quiz submission for attempt ID: {} from user '{}'", requestDTO.getUserQuizAttemptId(),
+        long attemptId = requestDTO.getUserQuizAttemptId();
+        logger.info("Accepting quiz submission for attempt ID: {} from user '{}'", attemptId,
                 currentUser.getEmail());
 
+        List<UserAnswerRequestDTO> answers = requestDTO.getAnswers();
+        boolean ownsSession = false;
+        try {
+            ownsSession = currentUser.getEmail().equals(quizSessionService.getOwnerEmail(attemptId));
+            if (ownsSession) {
+                answers = quizSessionService.mergeWithDrafts(attemptId, answers);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read quiz session for attempt ID {}, submitting request answers only: {}",
+                    attemptId, e.getMessage());
+        }
+        if (answers == null || answers.isEmpty()) {
+            throw new BadRequestException("No answers to submit for this quiz attempt.");
+        }
+
+        // Ghi nhận việc nộp trước khi gửi đi để startQuiz không mở lại attempt đang chờ chấm.
+        // Nộp lại một attempt chưa chấm vẫn được phép; claimForScoring loại bản trùng.
+        if (!EphemeralQuizService.isEphemeral(attemptId)
+                && userQuizAttemptRepository.markSubmitted(attemptId, currentUser.getId(), Instant.now()) == 0) {
+            userQuizAttemptRepository.findStatusByIdAndUserId(attemptId, currentUser.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Quiz attempt not found or you don't have permission."));
+            throw new BadRequestException("This quiz has already been completed.");
+        }
+
         QuizSubmissionMessage message = new QuizSubmissionMessage(
                 currentUser.getId(),
-                requestDTO.getUserQuizAttemptId(),
-                requestDTO.getAnswers());
+                attemptId,
+                answers);
 
         rabbitTemplate.convertAndSend(
                 RabbitMQConfig.QUIZ_SCORING_EXCHANGE,
                 RabbitMQConfig.QUIZ_SCORING_ROUTING_KEY,
                 message);
-        logger.info("Published quiz submission message for attempt ID {} to RabbitMQ.",
-                requestDTO.getUserQuizAttemptId());
+        logger.info("Published quiz submission message for attempt ID {} to RabbitMQ.", attemptId);
 
+        if (ownsSession) {
+            try {
+                quizSessionService.closeSession(attemptId, currentUser.getId());
+            } catch (Exception e) {
+                logger.warn("Could not close quiz session for attempt ID {}: {}", attemptId, e.getMessage());
+            }
+        }
     }
 
     @Transactional
     public QuizAttemptResponseDTO processAndScoreQuiz(QuizSubmissionMessage submitDTO) {
         logger.info("BEGIN SCORING for attempt ID: {}", submitDTO.getUserQuizAttemptId());
 
-        User currentUser = userRepository.findById(submitDTO.getUserId())
+        // Khóa user trước để các attempt của cùng một user được chấm tuần tự trên mọi
+        // consumer/node; user khác nhau vẫn chấm song song.
+        User currentUser = userRepository.findByIdForUpdate(submitDTO.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + submitDTO.getUserId()));
+        if (EphemeralQuizService.isEphemeral(submitDTO.getUserQuizAttemptId())) {
+            return processAndScoreEphemeralQuiz(submitDTO, currentUser);
+        }
+
+        if (userQuizAttemptRepository.claimForScoring(submitDTO.getUserQuizAttemptId(), currentUser.getId(),
+                Instant.now()) == 0) {
+            userQuizAttemptRepository.findStatusByIdAndUserId(submitDTO.getUserQuizAttemptId(), currentUser.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Quiz attempt not found or you don't have permission."));
+            logger.warn("Attempting to score an already completed quiz. Attempt ID: {}",
+                    submitDTO.getUserQuizAttemptId());
+            throw new BadRequestException("This quiz has already been completed.");
+        }
         UserQuizAttempt attempt = userQuizAttemptRepository
                 .findByIdAndUserId(submitDTO.getUserQuizAttemptId(), currentUser.getId())
                 .orElseThrow(
                         () -> new ResourceNotFoundException("Quiz attempt not found or you don't have permission."));
 
-        if (attempt.getStatus() == QuizStatus.COMPLETED) {
-            logger.warn("Attempting to score an already completed quiz. Attempt ID: {}", attempt.getId());
-            throw new BadRequestException("This quiz has already been completed.");
-        }
-
-        attempt.getUserAnswers().clear();
-        int totalScore = 0;
-
-        for (UserAnswerRequestDTO ansReq : submitDTO.getAnswers()) {
-            Question question = questionRepository.findById(ansReq.getQuestionId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Question not found: " + ansReq.getQuestionId()));
-
-            UserAnswer userAnswer = new UserAnswer();
-            userAnswer.setUserQuizAttempt(attempt);
-            userAnswer.setQuestion(question);
-            userAnswer.setUserAnswerText(ansReq.getUserAnswerText());
-
-            boolean isCorrect = false;
-            if (question.getQuestionType() == QuestionType.MULTIPLE_CHOICE_TEXT
-                    || question.getQuestionType() == QuestionType.MULTIPLE_CHOICE_IMAGE) {
-                QuestionChoice correctChoice = question.getChoices().stream()
-                        .filter(c -> c.isCorrect())
-                        .findFirst()
-                        .orElse(null);
+        QuizScoringService.ScoringResult scoringResult = quizScoringService.score(attempt.getQuiz().getId(),
+                submitDTO.getAnswers());
+        quizScoringService.saveAnswers(attempt.getId(), scoringResult.getAnswers());
+        int totalScore = scoringResult.getTotalScore();
 
-                if (correctChoice != null && ansReq.getSelectedChoiceId() != null
-                        && correctChoice.getId() == ansReq.getSelectedChoiceId()) {
-                    isCorrect = true;
-                }
-                if (ansReq.getSelectedChoiceId() != null) {
-                    QuestionChoice choiceRef = new QuestionChoice();
-                    choiceRef.setId(ansReq.getSelectedChoiceId());
-                    userAnswer.setSelectedChoice(choiceRef);
-                }
-            } else {
-                if (question.getCorrectSentence() != null
-                        && question.getCorrectSentence().equalsIgnoreCase(ansReq.getUserAnswerText())) {
-                    isCorrect = true;
-                }
-            }
-
-            userAnswer.setCorrect(isCorrect);
-            if (isCorrect) {
-                userAnswer.setPointsAwarded(question.getPoints());
-                totalScore += question.getPoints();
-            }
-
-            attempt.getUserAnswers().add(userAnswer);
-            logger.debug("Scoring question {}: user answer is correct? {}", ansReq.getQuestionId(), isCorrect);
-
-            if (question.getRelatedVocabulary() != null) {
-                int quality = isCorrect ? 5 : 2;
-                SubmitReviewRequestDTO reviewDTO = new SubmitReviewRequestDTO(question.getRelatedVocabulary().getId(),
-                        quality);
-                try {
-                    vocabularyService.submitVocabularyReview(reviewDTO, currentUser);
-                } catch (Exception e) {
-                    logger.error("Could not auto-submit review for vocab ID {}",
-                            question.getRelatedVocabulary().getId(), e);
-                }
-            }
+        try {
+            vocabularyService.submitVocabularyReviews(scoringResult.getReviews(), currentUser);
+        } catch (Exception e) {
+            logger.error("Could not auto-submit reviews for attempt ID {}", attempt.getId(), e);
         }
 
         attempt.setScore(totalScore);
-        attempt.setStatus(QuizStatus.COMPLETED);
-        attempt.setCompletedAt(Instant.now());
 
         if (totalScore > 0) {
             int currentPoints = currentUser.getPoint();
@@ -345,13 +451,19 @@ public class QuizService {
         }
 
         UserQuizAttempt savedAttempt = userQuizAttemptRepository.save(attempt);
+        quizSummaryService.recordCompletedAttempt(currentUser.getId(), savedAttempt.getId(), totalScore,
+                savedAttempt.getCompletedAt());
         logger.info("Scoring complete for attempt ID: {}. Final score: {}", savedAttempt.getId(),
                 savedAttempt.getScore());
 
+        String quizTitle = scoringResult.getAnswerKey().getQuizTitle() != null
+                ? scoringResult.getAnswerKey().getQuizTitle()
+                : savedAttempt.getQuiz().getTitle();
+
         QuizResultMessage resultMessage = new QuizResultMessage(
-                savedAttempt.getUser().getId(),
+                currentUser.getId(),
                 savedAttempt.getId(),
-                savedAttempt.getQuiz().getTitle(),
+                quizTitle,
                 savedAttempt.getScore());
 
         rabbitTemplate.convertAndSend(
@@ -360,13 +472,75 @@ public class QuizService {
                 resultMessage);
         logger.info("Published quiz result notification for attempt ID: {}", savedAttempt.getId());
 
-        return convertToQuizAttemptResponseDTO(savedAttempt);
+        QuizAttemptResponseDTO result = convertToQuizAttemptResponseDTO(savedAttempt, quizTitle, scoringResult);
+        quizAttemptResultService.storeResult(currentUser.getId(), result);
+        quizResultPublisher.publishAfterCommit(currentUser.getId(), result);
+        return result;
+    }
+
+    /**
+     * Chấm quiz tạm trong bộ nhớ: không ghi attempt hay câu trả lời vào MySQL; chỉ
+     * cộng điểm cho user, ghi lượt ôn từ vựng và cộng vào tổng hợp quiz cùng điểm
+     * tuần (bảng xếp hạng). Kết quả được lưu lại trên Redis cùng quiz.
+     */
+    private QuizAttemptResponseDTO processAndScoreEphemeralQuiz(QuizSubmissionMessage submitDTO, User currentUser) {
+        EphemeralQuizService.EphemeralQuiz quiz = ephemeralQuizService
+                .claimForScoring(submitDTO.getUserQuizAttemptId(), currentUser.getId());
+
+        QuizScoringService.ScoringResult scoringResult = quizScoringService
+                .score(ephemeralQuizService.getAnswerKey(quiz), submitDTO.getAnswers());
+        int totalScore = scoringResult.getTotalScore();
+
+        try {
+            vocabularyService.submitVocabularyReviews(scoringResult.getReviews(), currentUser);
+        } catch (Exception e) {
+            logger.error("Could not auto-submit reviews for ephemeral quiz ID {}", quiz.id(), e);
+        }
+
+        if (totalScore > 0) {
+            currentUser.setPoint(currentUser.getPoint() + totalScore);
+            logger.info("Added {} points to user '{}'. New total points: {}", totalScore, currentUser.getEmail(),
+                    currentUser.getPoint());
+            userService.checkAndAwardBadge(currentUser);
+        }
+
+        // Attempt tạm chỉ để dựng response, không bao giờ được lưu.
+        Quiz quizRef = new Quiz();
+        quizRef.setId(quiz.id());
+        UserQuizAttempt attempt = new UserQuizAttempt();
+        attempt.setId(quiz.id());
+        attempt.setQuiz(quizRef);
+        attempt.setStatus(QuizStatus.COMPLETED);
+        attempt.setScore(totalScore);
+        attempt.setStartedAt(quiz.startedAt() != null ? quiz.startedAt() : quiz.submittedAt());
+        attempt.setCompletedAt(quiz.submittedAt() != null ? quiz.submittedAt() : Instant.now());
+        quizSummaryService.recordCompletedEphemeralQuiz(currentUser.getId(), totalScore, attempt.getCompletedAt());
+        logger.info("Scoring complete for ephemeral quiz ID: {}. Final score: {}", quiz.id(), totalScore);
+
+        String quizTitle = quiz.quiz().getTitle();
+        rabbitTemplate.convertAndSend(
+                RabbitMQConfig.NOTIFICATION_EXCHANGE,
+                "notification.quiz.result",
+                new QuizResultMessage(currentUser.getId(), quiz.id(), quizTitle, totalScore));
+
+        QuizAttemptResponseDTO result = convertToQuizAttemptResponseDTO(attempt, quizTitle, scoringResult);
+        ephemeralQuizService.storeResult(quiz.id(), result);
+        quizResultPublisher.publishAfterCommit(currentUser.getId(), result);
+        return result;
     }
 
     @Transactional(readOnly = true)
     public QuizAttemptResponseDTO getQuizResult(long attemptId) {
         User currentUser = getCurrentAuthenticatedUser();
         logger.debug("User '{}' fetching result for attempt ID: {}", currentUser.getEmail(), attemptId);
+        if (EphemeralQuizService.isEphemeral(attemptId)) {
+            return getEphemeralQuizResult(attemptId, currentUser.getId());
+        }
+
+        Optional<QuizAttemptResponseDTO> stored = quizAttemptResultService.findResult(attemptId, currentUser.getId());
+        if (stored.isPresent()) {
+            return stored.get();
+        }
 
         UserQuizAttempt attempt = userQuizAttemptRepository.findByIdAndUserId(attemptId, currentUser.getId())
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -375,6 +549,89 @@ public class QuizService {
         return convertToQuizAttemptResponseDTO(attempt);
     }
 
+    private QuizAttemptResponseDTO getEphemeralQuizResult(long attemptId, long userId) {
+        EphemeralQuizService.EphemeralQuiz quiz = ephemeralQuizService.load(attemptId, userId);
+        Optional<QuizAttemptResponseDTO> stored = ephemeralQuizService.findResult(quiz);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        // Chưa chấm xong: chỉ có thông tin của lượt làm.
+        QuizAttemptResponseDTO dto = new QuizAttemptResponseDTO();
+        dto.setId(attemptId);
+        dto.setQuizId(attemptId);
+        dto.setQuizTitle(quiz.quiz().getTitle());
+        dto.setStatus(QuizStatus.IN_PROGRESS);
+        dto.setStartedAt(quiz.startedAt());
+        dto.setUserAnswers(List.of());
+        return dto;
+    }
+
+    /**
+     * Long-poll kết quả của một attempt: trả ngay nếu đã chấm xong, nếu không thì
+     * chờ tới khi {@link QuizResultPublisher} báo kết quả hoặc hết thời gian (khi
+     * đó trả về trạng thái IN_PROGRESS để client gọi lại).
+     */
+    public DeferredResult<QuizAttemptResponseDTO> awaitQuizResult(long attemptId, long timeoutMillis) {
+        User currentUser = getCurrentAuthenticatedUser();
+        QuizStatus status = findAttemptStatus(attemptId, currentUser.getId())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Quiz attempt result not found or you don't have permission."));
+
+        QuizAttemptResponseDTO pending = new QuizAttemptResponseDTO();
+        pending.setId(attemptId);
+        pending.setStatus(status);
+        DeferredResult<QuizAttemptResponseDTO> deferred = new DeferredResult<>(timeoutMillis, pending);
+
+        if (status != QuizStatus.COMPLETED) {
+            quizResultPublisher.register(attemptId, deferred);
+            // Việc chấm điểm có thể đã xong giữa lần đọc đầu và lúc đăng ký.
+            status = findAttemptStatus(attemptId, currentUser.getId()).orElse(status);
+        }
+        if (status == QuizStatus.COMPLETED && !deferred.isSetOrExpired()) {
+            deferred.setResult(getQuizResult(attemptId));
+        }
+        return deferred;
+    }
+
+    /** Quiz tạm được coi là xong khi kết quả đã lưu, vì kết quả được ghi sau khi commit. */
+    private Optional<QuizStatus> findAttemptStatus(long attemptId, long userId) {
+        if (!EphemeralQuizService.isEphemeral(attemptId)) {
+            return userQuizAttemptRepository.findStatusByIdAndUserId(attemptId, userId);
+        }
+        try {
+            EphemeralQuizService.EphemeralQuiz quiz = ephemeralQuizService.load(attemptId, userId);
+            return Optional.of(quiz.resultJson() != null ? QuizStatus.COMPLETED : QuizStatus.IN_PROGRESS);
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Nén lịch sử của các attempt đã hoàn thành: bảo đảm mỗi attempt có kết quả
+     * lưu sẵn (attempt cũ được dựng lại từ câu trả lời) rồi xóa các dòng
+     * user_answers. Xem kết quả sau đó chỉ đọc bảng kết quả.
+     */
+    @Transactional
+    public int compactAttemptHistory(List<Long> attemptIds) {
+        if (attemptIds.isEmpty()) {
+            return 0;
+        }
+        Set<Long> stored = quizAttemptResultService.findStoredAttemptIds(attemptIds);
+        for (Long attemptId : attemptIds) {
+            if (stored.contains(attemptId)) {
+                continue;
+            }
+            UserQuizAttempt attempt = userQuizAttemptRepository.findById(attemptId).orElse(null);
+            if (attempt == null || attempt.getStatus() != QuizStatus.COMPLETED) {
+                continue;
+            }
+            quizAttemptResultService.storeResult(attempt.getUser().getId(), convertToQuizAttemptResponseDTO(attempt));
+        }
+        int deleted = userAnswerRepository.deleteByAttemptIds(attemptIds);
+        logger.info("Compacted {} quiz attempts ({} answer rows removed)", attemptIds.size(), deleted);
+        return deleted;
+    }
+
     private QuizDTO convertToQuizDTO(Quiz quiz) {
         QuizDTO dto = new QuizDTO();
         dto.setId(quiz.getId());
@@ -459,64 +716,106 @@ public class QuizService {
         return c;
     }
 
-    private QuestionForUserDTO convertToQuestionForUserDTO(Question q) {
-        QuestionForUserDTO dto = new QuestionForUserDTO();
-        dto.setId(q.getId());
-        dto.setQuestionType(q.getQuestionType());
-        dto.setPrompt(q.getPrompt());
-        dto.setImageUrl(q.getImageUrl());
-        dto.setAudioUrl(q.getAudioUrl());
-        dto.setTextToFill(q.getTextToFill());
-        dto.setPoints(q.getPoints());
-        if (q.getChoices() != null) {
-            dto.setChoices(q.getChoices().stream()
-                    .map(c -> new QuestionChoiceForUserDTO(c.getId(), c.getContent(), c.getImageUrl()))
-                    .collect(Collectors.toSet()));
+    private QuizAttemptResponseDTO convertToQuizAttemptResponseDTO(UserQuizAttempt attempt) {
+        if (attempt.getAnswersEncoded() != null) {
+            QuizAnswerKey answerKey = quizAnswerKeyService.getAnswerKey(attempt.getQuiz().getId());
+            QuizAttemptResponseDTO dto = createQuizAttemptResponseDTO(attempt, attempt.getQuiz().getTitle(),
+                    answerKey.getTotalPoints());
+            dto.setUserAnswers(QuizAnswerCodec.decode(attempt.getAnswersEncoded()).stream()
+                    .map(ans -> convertToUserAnswerResponseDTO(ans, answerKey))
+                    .collect(Collectors.toList()));
+            return dto;
         }
+
+        int totalPoints = attempt.getQuiz().getQuestions().stream().mapToInt(Question::getPoints).sum();
+        QuizAttemptResponseDTO dto = createQuizAttemptResponseDTO(attempt, attempt.getQuiz().getTitle(), totalPoints);
+
+        List<UserAnswerResponseDTO> answerDTOs = attempt.getUserAnswers().stream()
+                .map(this::convertToUserAnswerResponseDTO)
+                .collect(Collectors.toList());
+        dto.setUserAnswers(answerDTOs);
+
         return dto;
     }
 
-    private QuizAttemptResponseDTO convertToQuizAttemptResponseDTO(UserQuizAttempt attempt) {
+    private QuizAttemptResponseDTO convertToQuizAttemptResponseDTO(UserQuizAttempt attempt, String quizTitle,
+            QuizScoringService.ScoringResult scoringResult) {
+        QuizAttemptResponseDTO dto = createQuizAttemptResponseDTO(attempt, quizTitle,
+                scoringResult.getTotalPoints());
+        QuizAnswerKey answerKey = scoringResult.getAnswerKey();
+
+        List<UserAnswerResponseDTO> answerDTOs = scoringResult.getAnswers().stream()
+                .map(ans -> convertToUserAnswerResponseDTO(ans, answerKey))
+                .collect(Collectors.toList());
+        dto.setUserAnswers(answerDTOs);
+
+        return dto;
+    }
+
+    private UserAnswerResponseDTO convertToUserAnswerResponseDTO(QuizScoringService.ScoredAnswer ans,
+            QuizAnswerKey answerKey) {
+        UserAnswerResponseDTO ansDto = new UserAnswerResponseDTO();
+        ansDto.setQuestionId(ans.getQuestionId());
+        ansDto.setUserAnswerText(ans.getUserAnswerText());
+        ansDto.setSelectedChoiceId(ans.getSelectedChoiceId());
+        ansDto.setCorrect(ans.isCorrect());
+        ansDto.setPointsAwarded(ans.getPointsAwarded());
+
+        // Câu trả lời giải mã từ cột encoded không mang vị trí; câu hỏi đã bị xóa thì bỏ qua đáp án.
+        int index = ans.getQuestionIndex() >= 0 ? ans.getQuestionIndex() : answerKey.indexOf(ans.getQuestionId());
+        if (index < 0) {
+            return ansDto;
+        }
+        ansDto.setQuestionPrompt(answerKey.getPrompt(index));
+
+        QuestionAnswerDetailDTO correctAnswerDetail = new QuestionAnswerDetailDTO();
+        correctAnswerDetail.setCorrectText(answerKey.getCorrectSentence(index));
+        if (answerKey.getCorrectChoiceId(index) != null) {
+            correctAnswerDetail.setCorrectChoice(new QuestionChoiceDTO(answerKey.getCorrectChoiceId(index),
+                    answerKey.getCorrectChoiceContent(index), answerKey.getCorrectChoiceImageUrl(index), true));
+        }
+        ansDto.setCorrectAnswer(correctAnswerDetail);
+
+        return ansDto;
+    }
+
+    private QuizAttemptResponseDTO createQuizAttemptResponseDTO(UserQuizAttempt attempt, String quizTitle,
+            int totalPoints) {
         QuizAttemptResponseDTO dto = new QuizAttemptResponseDTO();
         dto.setId(attempt.getId());
         dto.setQuizId(attempt.getQuiz().getId());
-        dto.setQuizTitle(attempt.getQuiz().getTitle());
+        dto.setQuizTitle(quizTitle);
         dto.setStatus(attempt.getStatus());
         dto.setScore(attempt.getScore());
         dto.setStartedAt(attempt.getStartedAt());
         dto.setCompletedAt(attempt.getCompletedAt());
-
-        int totalPoints = attempt.getQuiz().getQuestions().stream().mapToInt(Question::getPoints).sum();
         dto.setTotalPoints(totalPoints);
+        return dto;
+    }
 
-        List<UserAnswerResponseDTO> answerDTOs = attempt.getUserAnswers().stream().map(ans -> {
-            UserAnswerResponseDTO ansDto = new UserAnswerResponseDTO();
-            ansDto.setQuestionId(ans.getQuestion().getId());
-            ansDto.setQuestionPrompt(ans.getQuestion().getPrompt());
-            ansDto.setUserAnswerText(ans.getUserAnswerText());
-            if (ans.getSelectedChoice() != null) {
-                ansDto.setSelectedChoiceId(ans.getSelectedChoice().getId());
-            }
-            ansDto.setCorrect(ans.isCorrect());
-            ansDto.setPointsAwarded(ans.getPointsAwarded());
-
-            QuestionAnswerDetailDTO correctAnswerDetail = new QuestionAnswerDetailDTO();
-            correctAnswerDetail.setCorrectText(ans.getQuestion().getCorrectSentence());
-            QuestionChoiceDTO correctChoiceDto = ans.getQuestion().getChoices().stream()
-                    .filter(c -> c.isCorrect())
-                    .findFirst()
-                    .map(this::convertToQuestionChoiceDTO)
-                    .orElse(null);
-
-            correctAnswerDetail.setCorrectChoice(correctChoiceDto);
-            ansDto.setCorrectAnswer(correctAnswerDetail);
+    private UserAnswerResponseDTO convertToUserAnswerResponseDTO(UserAnswer ans) {
+        UserAnswerResponseDTO ansDto = new UserAnswerResponseDTO();
+        ansDto.setQuestionId(ans.getQuestion().getId());
+        ansDto.setQuestionPrompt(ans.getQuestion().getPrompt());
+        ansDto.setUserAnswerText(ans.getUserAnswerText());
+        if (ans.getSelectedChoice() != null) {
+            ansDto.setSelectedChoiceId(ans.getSelectedChoice().getId());
+        }
+        ansDto.setCorrect(ans.isCorrect());
+        ansDto.setPointsAwarded(ans.getPointsAwarded());
 
-            return ansDto;
-        }).collect(Collectors.toList());
+        QuestionAnswerDetailDTO correctAnswerDetail = new QuestionAnswerDetailDTO();
+        correctAnswerDetail.setCorrectText(ans.getQuestion().getCorrectSentence());
+        QuestionChoiceDTO correctChoiceDto = ans.getQuestion().getChoices().stream()
+                .filter(c -> c.isCorrect())
+                .findFirst()
+                .map(this::convertToQuestionChoiceDTO)
+                .orElse(null);
 
-        dto.setUserAnswers(answerDTOs);
+        correctAnswerDetail.setCorrectChoice(correctChoiceDto);
+        ansDto.setCorrectAnswer(correctAnswerDetail);
 
-        return dto;
+        return ansDto;
     }
 
 }
@@ -0,0 +1,137 @@
+package com.fourstars.FourStars.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fourstars.FourStars.domain.request.quiz.UserAnswerRequestDTO;
+
+/**
+ * Phiên làm quiz đang dở, lưu trên Redis: mỗi attempt là một hash gồm email
+ * người làm, quiz id và các câu trả lời nháp ("q:{questionId}" -> JSON). Một key
+ * phụ theo user + quiz trỏ tới attempt đang mở để bắt đầu lại thì tiếp tục
+ * attempt cũ. Câu trả lời nháp chỉ được ghi xuống MySQL khi nộp bài.
+ */
+@Service
+public class QuizSessionService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizSessionService.class);
+
+    private static final String SESSION_KEY_PREFIX = "quiz:session:";
+    private static final String ACTIVE_KEY_PREFIX = "quiz:session:active:";
+    private static final String FIELD_EMAIL = "email";
+    private static final String FIELD_QUIZ_ID = "quizId";
+    private static final String ANSWER_FIELD_PREFIX = "q:";
+    static final Duration SESSION_TTL = Duration.ofHours(24);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public QuizSessionService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    private static String sessionKey(long attemptId) {
+        return SESSION_KEY_PREFIX + attemptId;
+    }
+
+    private static String activeKey(long userId, long quizId) {
+        return ACTIVE_KEY_PREFIX + userId + ":" + quizId;
+    }
+
+    /** Attempt đang mở của user cho quiz này theo Redis, hoặc null nếu không có. */
+    public Long findActiveAttemptId(long userId, long quizId) {
+        String value = redisTemplate.opsForValue().get(activeKey(userId, quizId));
+        return value == null ? null : Long.valueOf(value);
+    }
+
+    public void openSession(long attemptId, long userId, long quizId, String email) {
+        Map<String, String> meta = new HashMap<>();
+        meta.put(FIELD_EMAIL, email);
+        meta.put(FIELD_QUIZ_ID, String.valueOf(quizId));
+        redisTemplate.opsForHash().putAll(sessionKey(attemptId), meta);
+        redisTemplate.expire(sessionKey(attemptId), SESSION_TTL);
+        redisTemplate.opsForValue().set(activeKey(userId, quizId), String.valueOf(attemptId), SESSION_TTL);
+        logger.debug("Opened quiz session for attempt ID {} (user ID {}, quiz ID {})", attemptId, userId, quizId);
+    }
+
+    /** Email chủ phiên, hoặc null nếu phiên không tồn tại / đã hết hạn. */
+    public String getOwnerEmail(long attemptId) {
+        Object email = redisTemplate.opsForHash().get(sessionKey(attemptId), FIELD_EMAIL);
+        return email == null ? null : email.toString();
+    }
+
+    /** Lưu nháp các câu trả lời (ghi đè theo question id) và gia hạn phiên. */
+    public void saveDraftAnswers(long attemptId, List<UserAnswerRequestDTO> answers) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (UserAnswerRequestDTO answer : answers) {
+            try {
+                fields.put(ANSWER_FIELD_PREFIX + answer.getQuestionId(), objectMapper.writeValueAsString(answer));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize draft answer", e);
+            }
+        }
+        redisTemplate.opsForHash().putAll(sessionKey(attemptId), fields);
+        redisTemplate.expire(sessionKey(attemptId), SESSION_TTL);
+    }
+
+    public List<UserAnswerRequestDTO> getDraftAnswers(long attemptId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(sessionKey(attemptId));
+        List<UserAnswerRequestDTO> answers = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            if (!entry.getKey().toString().startsWith(ANSWER_FIELD_PREFIX)) {
+                continue;
+            }
+            try {
+                answers.add(objectMapper.readValue(entry.getValue().toString(), UserAnswerRequestDTO.class));
+            } catch (JsonProcessingException e) {
+                logger.warn("Skipping unreadable draft answer {} of attempt ID {}", entry.getKey(), attemptId);
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * Ghép câu trả lời khi nộp bài: nháp trên Redis làm nền, câu trả lời gửi kèm
+     * request được ưu tiên.
+     */
+    public List<UserAnswerRequestDTO> mergeWithDrafts(long attemptId, List<UserAnswerRequestDTO> submitted) {
+        Map<Long, UserAnswerRequestDTO> merged = new LinkedHashMap<>();
+        for (UserAnswerRequestDTO draft : getDraftAnswers(attemptId)) {
+            merged.put(draft.getQuestionId(), draft);
+        }
+        if (submitted != null) {
+            for (UserAnswerRequestDTO answer : submitted) {
+                merged.put(answer.getQuestionId(), answer);
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /** Xóa phiên và con trỏ attempt đang mở của user sau khi nộp bài. */
+    public void closeSession(long attemptId, long userId) {
+        Long quizId = getQuizId(attemptId);
+        List<String> keys = new ArrayList<>(List.of(sessionKey(attemptId)));
+        if (quizId != null) {
+            keys.add(activeKey(userId, quizId));
+        }
+        redisTemplate.delete(keys);
+        logger.debug("Closed quiz session for attempt ID {}", attemptId);
+    }
+
+    /** Quiz id của phiên, hoặc null nếu phiên không tồn tại. */
+    public Long getQuizId(long attemptId) {
+        Object quizId = redisTemplate.opsForHash().get(sessionKey(attemptId), FIELD_QUIZ_ID);
+        return quizId == null ? null : Long.valueOf(quizId.toString());
+    }
+}
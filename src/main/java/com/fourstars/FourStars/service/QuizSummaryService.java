@@ -0,0 +1,100 @@
+package com.fourstars.FourStars.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fourstars.FourStars.domain.UserQuizSummary;
+import com.fourstars.FourStars.domain.UserWeeklyQuizPoints;
+import com.fourstars.FourStars.domain.key.UserWeekId;
+import com.fourstars.FourStars.repository.UserQuizAttemptRepository;
+import com.fourstars.FourStars.repository.UserQuizSummaryRepository;
+import com.fourstars.FourStars.repository.UserWeeklyQuizPointsRepository;
+import com.fourstars.FourStars.repository.projection.QuizSummaryProjection;
+
+/**
+ * Duy trì {@link UserQuizSummary}: cộng dồn ngay khi chấm điểm và khởi tạo từ
+ * lịch sử attempt cho những user chưa có dòng tổng hợp. Quiz ôn tập không có
+ * dòng attempt nên còn được cộng vào {@link UserWeeklyQuizPoints} cho bảng xếp
+ * hạng tuần.
+ */
+@Service
+public class QuizSummaryService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizSummaryService.class);
+
+    private static final long NO_ATTEMPT = -1L;
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+
+    private final UserQuizSummaryRepository userQuizSummaryRepository;
+    private final UserQuizAttemptRepository userQuizAttemptRepository;
+    private final UserWeeklyQuizPointsRepository userWeeklyQuizPointsRepository;
+
+    public QuizSummaryService(UserQuizSummaryRepository userQuizSummaryRepository,
+            UserQuizAttemptRepository userQuizAttemptRepository,
+            UserWeeklyQuizPointsRepository userWeeklyQuizPointsRepository) {
+        this.userQuizSummaryRepository = userQuizSummaryRepository;
+        this.userQuizAttemptRepository = userQuizAttemptRepository;
+        this.userWeeklyQuizPointsRepository = userWeeklyQuizPointsRepository;
+    }
+
+    /** Thứ Hai (giờ Việt Nam) của tuần chứa thời điểm này. */
+    public static LocalDate weekStart(Instant instant) {
+        return LocalDate.ofInstant(instant, ZONE).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Cộng một attempt vừa chấm vào bảng tổng hợp. Phải gọi trong transaction chấm
+     * điểm, sau khi đã khóa dòng user, để các lần cập nhật của một user không chồng
+     * lên nhau.
+     */
+    @Transactional
+    public UserQuizSummary recordCompletedAttempt(long userId, long attemptId, int score, Instant completedAt) {
+        UserQuizSummary summary = userQuizSummaryRepository.findById(userId)
+                .orElseGet(() -> buildFromHistory(userId, attemptId));
+        summary.addAttempt(score, completedAt);
+        return userQuizSummaryRepository.save(summary);
+    }
+
+    /**
+     * Cộng một quiz ôn tập vừa chấm vào bảng tổng hợp và điểm tuần của user. Cùng
+     * điều kiện gọi như {@link #recordCompletedAttempt}.
+     */
+    @Transactional
+    public UserQuizSummary recordCompletedEphemeralQuiz(long userId, int score, Instant completedAt) {
+        UserWeekId weekId = new UserWeekId(userId, weekStart(completedAt));
+        UserWeeklyQuizPoints weekly = userWeeklyQuizPointsRepository.findById(weekId)
+                .orElseGet(() -> new UserWeeklyQuizPoints(weekId));
+        weekly.addQuiz(score, completedAt);
+        userWeeklyQuizPointsRepository.save(weekly);
+        return recordCompletedAttempt(userId, NO_ATTEMPT, score, completedAt);
+    }
+
+    /** Tổng hợp của user; user cũ chưa có dòng tổng hợp thì tính từ lịch sử (không ghi). */
+    @Transactional(readOnly = true)
+    public UserQuizSummary getSummary(long userId) {
+        return userQuizSummaryRepository.findById(userId)
+                .orElseGet(() -> buildFromHistory(userId, NO_ATTEMPT));
+    }
+
+    private UserQuizSummary buildFromHistory(long userId, long excludedAttemptId) {
+        QuizSummaryProjection history = userQuizAttemptRepository.summarizeCompletedAttempts(userId,
+                excludedAttemptId);
+        UserQuizSummary summary = new UserQuizSummary(userId);
+        if (history != null && history.getAttemptCount() != null) {
+            summary.setAttemptCount(history.getAttemptCount().intValue());
+            summary.setScoreSum(history.getScoreSum() != null ? history.getScoreSum() : 0L);
+            summary.setBestScore(history.getBestScore() != null ? history.getBestScore() : 0);
+            summary.setLastCompletedAt(history.getLastCompletedAt());
+        }
+        logger.debug("Initialised quiz summary for user ID {} from {} past attempts", userId,
+                summary.getAttemptCount());
+        return summary;
+    }
+}
@@ -0,0 +1,334 @@
+package com.fourstars.FourStars.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fourstars.FourStars.domain.ReviewEvent;
+import com.fourstars.FourStars.domain.key.UserVocabularyId;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Nhật ký ôn tập chỉ ghi thêm. Mỗi lượt ôn được INSERT vào review_events ngay
+ * trong request (cùng transaction với nơi gọi) với projection_pending = true,
+ * nên node chết cũng không mất lượt ôn và mọi node đều thấy nó.
+ *
+ * Phần chiếu chạy nền theo lô: giành các sự kiện còn chờ bằng UPDATE
+ * projection_pending (như claimForScoring, node khác thấy 0 dòng), rồi chiếu
+ * trạng thái mới nhất của từng thẻ vào user_vocabularies, số từ theo level
+ * trong {@link VocabularyStatsService} và tiến độ theo danh mục trong
+ * {@link CategoryProgressService}, trong cùng một transaction.
+ *
+ * Sự kiện chưa chiếu đọc được qua {@link #findPending} để lượt ôn kế tiếp của
+ * cùng thẻ tính SM-2 từ trạng thái mới nhất chứ không phải dòng cũ trong DB.
+ */
+@Service
+public class ReviewEventLog {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewEventLog.class);
+
+    static final int FLUSH_BATCH_SIZE = 500;
+
+    private static final String EVENT_COLUMNS = "id, user_id, vocabulary_id, quality, reviewed_at, previous_level, "
+            + "previous_repetitions, previous_ease_factor, previous_interval, previous_next_review_at, "
+            + "new_repetitions, new_ease_factor, new_interval, new_level, next_review_at";
+
+    private static final String INSERT_EVENT_SQL = "INSERT INTO review_events "
+            + "(user_id, vocabulary_id, quality, reviewed_at, previous_level, previous_repetitions, "
+            + "previous_ease_factor, previous_interval, previous_next_review_at, new_repetitions, new_ease_factor, "
+            + "new_interval, new_level, next_review_at, projection_pending) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE)";
+
+    private static final String SELECT_PENDING_SQL = "SELECT " + EVENT_COLUMNS + " FROM review_events "
+            + "WHERE projection_pending = TRUE ORDER BY id LIMIT ?";
+
+    private static final String SELECT_PENDING_FOR_CARDS_SQL = "SELECT " + EVENT_COLUMNS + " FROM review_events "
+            + "WHERE user_id = ? AND vocabulary_id IN (%s) AND projection_pending = TRUE ORDER BY id";
+
+    private static final String SELECT_PENDING_SCHEDULE_SQL = "SELECT vocabulary_id, next_review_at "
+            + "FROM review_events WHERE user_id = ? AND projection_pending = TRUE ORDER BY id";
+
+    private static final String CLAIM_EVENT_SQL = "UPDATE review_events SET projection_pending = FALSE "
+            + "WHERE id = ? AND projection_pending = TRUE";
+
+    private static final String DISCARD_PENDING_SQL = "UPDATE review_events SET projection_pending = FALSE "
+            + "WHERE user_id = ? AND vocabulary_id = ? AND projection_pending = TRUE";
+
+    private static final String UPDATE_STATE_SQL = "UPDATE user_vocabularies SET level = ?, repetitions = ?, "
+            + "ease_factor = ?, reivew_interval = ?, last_reviewed_at = ?, next_review_at = ?, updated_at = ? "
+            + "WHERE user_id = ? AND vocabulary_id = ?";
+
+    private static final String INSERT_STATE_SQL = "INSERT INTO user_vocabularies "
+            + "(level, repetitions, ease_factor, reivew_interval, last_reviewed_at, next_review_at, updated_at, "
+            + "user_id, vocabulary_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VocabularyStatsService vocabularyStatsService;
+    private final CategoryProgressService categoryProgressService;
+
+    public ReviewEventLog(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            VocabularyStatsService vocabularyStatsService, CategoryProgressService categoryProgressService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.vocabularyStatsService = vocabularyStatsService;
+        this.categoryProgressService = categoryProgressService;
+    }
+
+    /** Ghi bền một lượt ôn; user_vocabularies được cập nhật ở lần chiếu kế tiếp. */
+    public void append(ReviewEvent event) {
+        appendAll(List.of(event));
+    }
+
+    /** Ghi bền nhiều lượt ôn bằng một JDBC batch; thứ tự trong danh sách là thứ tự ôn. */
+    public void appendAll(List<ReviewEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events, FLUSH_BATCH_SIZE, (ps, event) -> {
+            ps.setLong(1, event.getUserId());
+            ps.setLong(2, event.getVocabularyId());
+            ps.setInt(3, event.getQuality());
+            ps.setTimestamp(4, Timestamp.from(event.getReviewedAt()));
+            ps.setInt(5, event.getPreviousLevel());
+            ps.setInt(6, event.getPreviousRepetitions());
+            ps.setDouble(7, event.getPreviousEaseFactor());
+            ps.setInt(8, event.getPreviousInterval());
+            ps.setTimestamp(9, timestamp(event.getPreviousNextReviewAt()));
+            ps.setInt(10, event.getNewRepetitions());
+            ps.setDouble(11, event.getNewEaseFactor());
+            ps.setInt(12, event.getNewInterval());
+            ps.setInt(13, event.getNewLevel());
+            ps.setTimestamp(14, Timestamp.from(event.getNextReviewAt()));
+        });
+        events.forEach(event -> event.setProjectionPending(true));
+    }
+
+    /** Sự kiện mới nhất chưa được chiếu của thẻ, hoặc null. */
+    public ReviewEvent findPending(long userId, long vocabularyId) {
+        return findPending(userId, List.of(vocabularyId)).get(vocabularyId);
+    }
+
+    /** Sự kiện mới nhất chưa được chiếu của từng thẻ (theo vocabulary id) trong một truy vấn. */
+    public Map<Long, ReviewEvent> findPending(long userId, Collection<Long> vocabularyIds) {
+        if (vocabularyIds.isEmpty()) {
+            return Map.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(vocabularyIds.size(), "?"));
+        Object[] params = new Object[vocabularyIds.size() + 1];
+        params[0] = userId;
+        int i = 1;
+        for (Long vocabularyId : vocabularyIds) {
+            params[i++] = vocabularyId;
+        }
+        Map<Long, ReviewEvent> latest = new HashMap<>();
+        for (ReviewEvent event : jdbcTemplate.query(String.format(SELECT_PENDING_FOR_CARDS_SQL, placeholders),
+                ReviewEventLog::mapEvent, params)) {
+            latest.put(event.getVocabularyId(), event);
+        }
+        return latest;
+    }
+
+    /**
+     * Lịch ôn mới nhất (vocabulary id -> nextReviewAt) của các thẻ có lượt ôn chưa
+     * được chiếu của user, để dựng lại hàng đợi và dự báo không lấy lịch cũ.
+     */
+    public Map<Long, Instant> findPendingSchedule(long userId) {
+        Map<Long, Instant> schedule = new HashMap<>();
+        jdbcTemplate.query(SELECT_PENDING_SCHEDULE_SQL, rs -> {
+            schedule.put(rs.getLong("vocabulary_id"), rs.getTimestamp("next_review_at").toInstant());
+        }, userId);
+        return schedule;
+    }
+
+    /**
+     * Bỏ chiếu các lượt ôn đang chờ của thẻ (khi thẻ bị xóa khỏi sổ tay), để lần
+     * chiếu sau không tạo lại dòng user_vocabularies. Sự kiện vẫn nằm trong nhật
+     * ký. Trả về số sự kiện đã bỏ.
+     */
+    public int discardPending(long userId, long vocabularyId) {
+        return jdbcTemplate.update(DISCARD_PENDING_SQL, userId, vocabularyId);
+    }
+
+    @Scheduled(fixedDelayString = "${fourstars.review-events.flush-interval-ms:1000}")
+    public void flushScheduled() {
+        flush();
+    }
+
+    /** Chiếu mọi sự kiện đang chờ theo từng lô; trả về số sự kiện đã chiếu. */
+    public synchronized int flush() {
+        int written = 0;
+        while (true) {
+            List<ReviewEvent> batch = jdbcTemplate.query(SELECT_PENDING_SQL, ReviewEventLog::mapEvent,
+                    FLUSH_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            written += writeBatch(batch);
+            if (batch.size() < FLUSH_BATCH_SIZE) {
+                break;
+            }
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int written = flush();
+        if (written > 0) {
+            logger.info("Projected {} review events on shutdown", written);
+        }
+    }
+
+    private int writeBatch(List<ReviewEvent> batch) {
+        try {
+            Integer projected = transactionTemplate.execute(status -> persist(batch));
+            logger.debug("Projected {} review events", projected);
+            return projected != null ? projected : 0;
+        } catch (Exception e) {
+            // Một sự kiện hỏng (vd. từ vựng vừa bị xóa) không được chặn cả lô.
+            logger.warn("Batch of {} review events failed, retrying one by one: {}", batch.size(), e.getMessage());
+            int written = 0;
+            for (ReviewEvent event : batch) {
+                try {
+                    Integer projected = transactionTemplate.execute(status -> persist(List.of(event)));
+                    written += projected != null ? projected : 0;
+                } catch (Exception single) {
+                    logger.error("Skipping projection of review event ID {} (user ID {}, vocabulary ID {})",
+                            event.getId(), event.getUserId(), event.getVocabularyId(), single);
+                    transactionTemplate.executeWithoutResult(
+                            status -> jdbcTemplate.update(CLAIM_EVENT_SQL, event.getId()));
+                }
+            }
+            return written;
+        }
+    }
+
+    private int persist(List<ReviewEvent> batch) {
+        // Chỉ chiếu những sự kiện giành được; node khác đang chiếu chúng thì bỏ qua.
+        int[][] claimed = jdbcTemplate.batchUpdate(CLAIM_EVENT_SQL, batch, FLUSH_BATCH_SIZE,
+                (ps, event) -> ps.setLong(1, event.getId()));
+        List<ReviewEvent> events = new ArrayList<>(batch.size());
+        int index = 0;
+        for (int[] chunk : claimed) {
+            for (int count : chunk) {
+                ReviewEvent event = batch.get(index++);
+                if (count > 0) {
+                    events.add(event);
+                }
+            }
+        }
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        // Chỉ sự kiện cuối cùng của mỗi thẻ trong lô quyết định trạng thái hiện tại;
+        // sự kiện đầu tiên cho biết trạng thái của thẻ trước lô này.
+        Map<UserVocabularyId, ReviewEvent> first = new HashMap<>();
+        Map<UserVocabularyId, ReviewEvent> latest = new LinkedHashMap<>();
+        for (ReviewEvent event : events) {
+            UserVocabularyId key = new UserVocabularyId(event.getUserId(), event.getVocabularyId());
+            first.putIfAbsent(key, event);
+            latest.put(key, event);
+        }
+        List<ReviewEvent> projections = new ArrayList<>(latest.values());
+        Timestamp now = Timestamp.from(Instant.now());
+
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_STATE_SQL, projections, FLUSH_BATCH_SIZE,
+                (ps, event) -> setState(ps, event, now));
+        List<ReviewEvent> missing = new ArrayList<>();
+        Map<Long, int[]> statsDeltas = new HashMap<>();
+        List<CategoryProgressService.CardChange> cardChanges = new ArrayList<>(projections.size());
+        index = 0;
+        for (int[] chunk : updated) {
+            for (int count : chunk) {
+                ReviewEvent event = projections.get(index++);
+                ReviewEvent before = first.get(new UserVocabularyId(event.getUserId(), event.getVocabularyId()));
+                if (count == 0 && before.getPreviousNextReviewAt() != null) {
+                    // Thẻ đã có trong sổ tay lúc ôn nhưng nay đã bị xóa: không tạo lại.
+                    logger.debug("Vocabulary ID {} left the notebook of user ID {}, not re-creating it",
+                            event.getVocabularyId(), event.getUserId());
+                    continue;
+                }
+                int[] delta = statsDeltas.computeIfAbsent(event.getUserId(),
+                        id -> VocabularyStatsService.emptyDelta());
+                Integer previousLevel = null;
+                Instant previousNextReviewAt = null;
+                if (count == 0) {
+                    missing.add(event);
+                    delta[0]++;
+                } else {
+                    previousLevel = before.getPreviousLevel();
+                    previousNextReviewAt = before.getPreviousNextReviewAt();
+                    if (previousLevel >= 1 && previousLevel < delta.length) {
+                        delta[previousLevel]--;
+                    }
+                }
+                delta[event.getNewLevel()]++;
+                cardChanges.add(new CategoryProgressService.CardChange(event.getUserId(), event.getVocabularyId(),
+                        previousLevel, previousNextReviewAt, event.getNewLevel(), event.getNextReviewAt()));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STATE_SQL, missing, FLUSH_BATCH_SIZE, (ps, event) -> {
+                setState(ps, event, now);
+                ps.setTimestamp(10, now);
+            });
+        }
+        statsDeltas.values().removeIf(delta -> Arrays.stream(delta).allMatch(value -> value == 0));
+        vocabularyStatsService.apply(statsDeltas);
+        categoryProgressService.applyChanges(cardChanges);
+        return events.size();
+    }
+
+    private static void setState(PreparedStatement ps, ReviewEvent event, Timestamp now) throws SQLException {
+        ps.setInt(1, event.getNewLevel());
+        ps.setInt(2, event.getNewRepetitions());
+        ps.setDouble(3, event.getNewEaseFactor());
+        ps.setInt(4, event.getNewInterval());
+        ps.setTimestamp(5, Timestamp.from(event.getReviewedAt()));
+        ps.setTimestamp(6, Timestamp.from(event.getNextReviewAt()));
+        ps.setTimestamp(7, now);
+        ps.setLong(8, event.getUserId());
+        ps.setLong(9, event.getVocabularyId());
+    }
+
+    private static ReviewEvent mapEvent(ResultSet rs, int rowNum) throws SQLException {
+        ReviewEvent event = new ReviewEvent(rs.getLong("user_id"), rs.getLong("vocabulary_id"), rs.getInt("quality"),
+                rs.getTimestamp("reviewed_at").toInstant());
+        event.setId(rs.getLong("id"));
+        event.setPreviousState(rs.getInt("previous_level"), rs.getInt("previous_repetitions"),
+                rs.getDouble("previous_ease_factor"), rs.getInt("previous_interval"));
+        Timestamp previousNextReviewAt = rs.getTimestamp("previous_next_review_at");
+        event.setPreviousNextReviewAt(previousNextReviewAt != null ? previousNextReviewAt.toInstant() : null);
+        event.setNewRepetitions(rs.getInt("new_repetitions"));
+        event.setNewEaseFactor(rs.getDouble("new_ease_factor"));
+        event.setNewInterval(rs.getInt("new_interval"));
+        event.setNewLevel(rs.getInt("new_level"));
+        event.setNextReviewAt(rs.getTimestamp("next_review_at").toInstant());
+        event.setProjectionPending(true);
+        return event;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
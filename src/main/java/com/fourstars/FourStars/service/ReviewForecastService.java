@@ -0,0 +1,289 @@
+package com.fourstars.FourStars.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fourstars.FourStars.domain.response.vocabulary.ReviewForecastResponseDTO;
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.repository.projection.ReviewScheduleProjection;
+
+/**
+ * Dự báo số từ đến hạn theo ngày của mỗi user, giữ trên Redis dưới dạng hash
+ * "review:forecast:{userId}" với field là ngày (yyyy-MM-dd, giờ Việt Nam) và
+ * value là số từ có nextReviewAt rơi vào ngày đó. Mỗi khi một từ đổi ngày ôn
+ * (ôn tập, thêm/xóa khỏi sổ tay, dàn lịch) chỉ hai bucket bị HINCRBY, nên đọc
+ * dự báo là một HGETALL trên vài trăm field thay vì GROUP BY cả sổ tay.
+ *
+ * Field {@link #READY_FIELD} đánh dấu hash đã được dựng; thiếu nó thì dựng lại
+ * từ user_vocabularies (cộng các lượt ôn chưa chiếu). Ghi chỉ diễn ra sau khi
+ * transaction commit và được đồng bộ lại cùng hàng đợi ôn tập bởi
+ * {@link ReviewQueueService#rebuildAll()}. Lịch mới của các từ đổi ngày trong
+ * lúc dựng lại được {@link ReviewRebuildJournal} giữ lại và áp trước khi RENAME.
+ */
+@Service
+public class ReviewForecastService {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewForecastService.class);
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+    private static final String KEY_PREFIX = "review:forecast:";
+    static final String READY_FIELD = "ready";
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    /**
+     * KEYS: hash dự báo, token dựng lại, journal; ARGV: TTL journal, số cặp
+     * (ngày, độ lệch), các cặp đó, rồi các mục journal. Chỉ HINCRBY khi hash đã
+     * dựng, nhưng luôn ghi journal khi đang có lần dựng lại.
+     */
+    private static final RedisScript<Long> MOVE_SCRIPT = new DefaultRedisScript<>("""
+            local pairs = tonumber(ARGV[2])
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+                for i = 3 + 2 * pairs, #ARGV do
+                    redis.call('RPUSH', KEYS[3], ARGV[i])
+                end
+                redis.call('PEXPIRE', KEYS[3], ARGV[1])
+            end
+            if redis.call('HEXISTS', KEYS[1], 'ready') == 0 then
+                return 0
+            end
+            for i = 3, 2 + 2 * pairs, 2 do
+                redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final UserVocabularyRepository userVocabularyRepository;
+    private final ReviewEventLog reviewEventLog;
+    private final ReviewRebuildJournal reviewRebuildJournal;
+
+    public ReviewForecastService(RedisTemplate<String, String> redisTemplate,
+            UserVocabularyRepository userVocabularyRepository, ReviewEventLog reviewEventLog,
+            ReviewRebuildJournal reviewRebuildJournal) {
+        this.redisTemplate = redisTemplate;
+        this.userVocabularyRepository = userVocabularyRepository;
+        this.reviewEventLog = reviewEventLog;
+        this.reviewRebuildJournal = reviewRebuildJournal;
+    }
+
+    /** Một từ đổi lịch ôn; from null là từ mới vào sổ tay, to null là từ bị gỡ. */
+    public record Move(long vocabularyId, Instant from, Instant to) {
+    }
+
+    private static String forecastKey(long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private HashOperations<String, String, String> hashOps() {
+        return redisTemplate.opsForHash();
+    }
+
+    public void move(long userId, long vocabularyId, Instant from, Instant to) {
+        moveAll(userId, List.of(new Move(vocabularyId, from, to)));
+    }
+
+    /** Gộp các lần đổi lịch thành độ lệch theo ngày, mỗi ngày một HINCRBY, trong một script. */
+    public void moveAll(long userId, List<Move> moves) {
+        Map<LocalDate, Long> deltas = new HashMap<>();
+        List<String> entries = new ArrayList<>(moves.size());
+        for (Move move : moves) {
+            LocalDate fromDay = move.from() != null ? LocalDate.ofInstant(move.from(), ZONE) : null;
+            LocalDate toDay = move.to() != null ? LocalDate.ofInstant(move.to(), ZONE) : null;
+            if (fromDay != null && fromDay.equals(toDay)) {
+                continue;
+            }
+            entries.add(ReviewRebuildJournal.entry(move.vocabularyId(), move.to()));
+            if (fromDay != null) {
+                deltas.merge(fromDay, -1L, Long::sum);
+            }
+            if (toDay != null) {
+                deltas.merge(toDay, 1L, Long::sum);
+            }
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(2 + 2 * deltas.size() + entries.size());
+        args.add(String.valueOf(ReviewRebuildJournal.REBUILD_TTL.toMillis()));
+        args.add(String.valueOf(deltas.size()));
+        deltas.forEach((day, delta) -> {
+            args.add(day.toString());
+            args.add(String.valueOf(delta));
+        });
+        args.addAll(entries);
+        String key = forecastKey(userId);
+        afterCommit(() -> redisTemplate.execute(MOVE_SCRIPT,
+                List.of(key, ReviewRebuildJournal.tokenKey(key), ReviewRebuildJournal.journalKey(key)),
+                args.toArray()));
+    }
+
+    /**
+     * Xóa dự báo của mọi user có từ này trong sổ tay (trước khi từ bị xóa), để lần
+     * đọc sau dựng lại từ user_vocabularies.
+     */
+    public void invalidateForVocabulary(long vocabularyId) {
+        // Xóa cả token để lần dựng lại đang chạy (đã đọc từ này) không RENAME đè lên.
+        List<String> keys = userVocabularyRepository.findUserIdsByVocabularyId(vocabularyId).stream()
+                .map(ReviewForecastService::forecastKey)
+                .flatMap(key -> Stream.of(key, ReviewRebuildJournal.tokenKey(key)))
+                .toList();
+        if (!keys.isEmpty()) {
+            afterCommit(() -> redisTemplate.delete(keys));
+        }
+    }
+
+    /**
+     * Số từ đến hạn trong từng ngày của days ngày tới kể từ hôm nay; ngày đầu tiên
+     * gồm cả các từ đã quá hạn.
+     */
+    public List<ReviewForecastResponseDTO> getForecast(long userId, Instant now, int days) {
+        Map<LocalDate, Long> buckets;
+        try {
+            ensureReady(userId);
+            buckets = parse(hashOps().entries(forecastKey(userId)));
+        } catch (Exception e) {
+            logger.warn("Review forecast unavailable for user ID {}, computing it from database: {}", userId,
+                    e.getMessage());
+            buckets = bucketize(loadSchedule(userId).values());
+        }
+
+        LocalDate today = LocalDate.ofInstant(now, ZONE);
+        long[] counts = new long[days];
+        buckets.forEach((day, count) -> {
+            if (!day.isAfter(today)) {
+                counts[0] += count;
+            } else if (day.isBefore(today.plusDays(days))) {
+                counts[(int) (day.toEpochDay() - today.toEpochDay())] += count;
+            }
+        });
+
+        List<ReviewForecastResponseDTO> forecast = new ArrayList<>(days);
+        for (int d = 0; d < days; d++) {
+            // Bucket có thể lệch âm tạm thời nếu một lần cập nhật bị mất; job dựng lại sẽ sửa.
+            forecast.add(new ReviewForecastResponseDTO(today.plusDays(d), Math.max(0, counts[d])));
+        }
+        return forecast;
+    }
+
+    /**
+     * Lịch ôn hiện tại của user (vocabulary id -> nextReviewAt): user_vocabularies
+     * cộng lượt ôn chưa chiếu mới nhất của từng thẻ. Đọc sự kiện trước, vì lần
+     * chiếu xóa cờ chờ và cập nhật dòng trong cùng một transaction.
+     */
+    public Map<Long, Instant> loadSchedule(long userId) {
+        Map<Long, Instant> pending = reviewEventLog.findPendingSchedule(userId);
+        Map<Long, Instant> schedule = new HashMap<>();
+        for (ReviewScheduleProjection entry : userVocabularyRepository.findReviewScheduleByUserId(userId)) {
+            if (entry.getNextReviewAt() != null) {
+                schedule.put(entry.getVocabularyId(), entry.getNextReviewAt());
+            }
+        }
+        schedule.putAll(pending);
+        return schedule;
+    }
+
+    /**
+     * Dựng lại hash của user vào key tạm rồi RENAME, để người đọc không thấy dự
+     * báo rỗng giữa chừng.
+     */
+    public void rebuild(long userId) {
+        String token = startRebuild(userId);
+        finishRebuild(userId, token, loadSchedule(userId));
+    }
+
+    /** Bắt đầu dựng lại; phải gọi trước {@link #loadSchedule} để mọi thay đổi sau đó được ghi journal. */
+    String startRebuild(long userId) {
+        return reviewRebuildJournal.start(forecastKey(userId));
+    }
+
+    /**
+     * Ghi hash tạm từ lịch đã đọc cộng các thay đổi trong journal rồi RENAME; ném
+     * IllegalStateException nếu lần dựng lại bị thay chỗ hoặc journal không ngừng
+     * có mục mới.
+     */
+    void finishRebuild(long userId, String token, Map<Long, Instant> schedule) {
+        String key = forecastKey(userId);
+        String tmpKey = ReviewRebuildJournal.tmpKey(key, token);
+        long consumed = 0;
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            consumed += reviewRebuildJournal.replay(key, consumed, schedule);
+            Map<String, String> fields = new HashMap<>();
+            bucketize(schedule.values()).forEach((day, count) -> fields.put(day.toString(), String.valueOf(count)));
+            fields.put(READY_FIELD, "1");
+
+            redisTemplate.delete(tmpKey);
+            hashOps().putAll(tmpKey, fields);
+            redisTemplate.expire(tmpKey, ReviewRebuildJournal.REBUILD_TTL);
+            ReviewRebuildJournal.Outcome outcome = reviewRebuildJournal.finish(key, token, consumed);
+            if (outcome == ReviewRebuildJournal.Outcome.DONE) {
+                logger.debug("Rebuilt review forecast for user ID {} with {} days", userId, fields.size() - 1);
+                return;
+            }
+            if (outcome == ReviewRebuildJournal.Outcome.SUPERSEDED) {
+                throw new IllegalStateException("Review forecast rebuild for user ID " + userId + " was superseded");
+            }
+        }
+        redisTemplate.delete(tmpKey);
+        throw new IllegalStateException("Review forecast for user ID " + userId + " kept changing during rebuild");
+    }
+
+    private static Map<LocalDate, Long> bucketize(Iterable<Instant> nextReviewAts) {
+        Map<LocalDate, Long> buckets = new HashMap<>();
+        for (Instant nextReviewAt : nextReviewAts) {
+            buckets.merge(LocalDate.ofInstant(nextReviewAt, ZONE), 1L, Long::sum);
+        }
+        return buckets;
+    }
+
+    private static Map<LocalDate, Long> parse(Map<String, String> fields) {
+        Map<LocalDate, Long> buckets = new HashMap<>(fields.size());
+        fields.forEach((field, value) -> {
+            if (!READY_FIELD.equals(field)) {
+                buckets.put(LocalDate.parse(field), Long.parseLong(value));
+            }
+        });
+        return buckets;
+    }
+
+    private void ensureReady(long userId) {
+        if (!hashOps().hasKey(forecastKey(userId), READY_FIELD)) {
+            rebuild(userId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                logger.error("Could not update review forecast, it will be reconciled by the rebuild job", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.fourstars.FourStars.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.repository.projection.ReviewLoadProjection;
+
+/**
+ * Dàn đều lịch ôn tập theo ngày. Từ quá hạn vượt giới hạn mỗi ngày được rải
+ * sang các ngày tới; từ chưa đến hạn được dời trong một cửa sổ dung sai tỉ lệ
+ * với interval sang ngày ít từ hơn (ưu tiên tải của user, sau đó tải toàn hệ
+ * thống). Giờ trong ngày của mỗi từ được giữ nguyên.
+ *
+ * Cập nhật user_vocabularies theo lô JDBC, chỉ ghi đè khi next_review_at chưa
+ * đổi kể từ lúc đọc và từ không có lượt ôn chưa chiếu, nên không đè lên lượt
+ * ôn vừa xảy ra, kể cả lượt ôn đến sau khi user đã được lên kế hoạch.
+ */
+@Service
+public class ReviewLoadSmoothingService {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewLoadSmoothingService.class);
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
+    private static final int USER_CHUNK_SIZE = 500;
+    private static final int UPDATE_BATCH_SIZE = 500;
+    /** Interval ngắn hơn thì không dời, tránh làm lệch các lần ôn đầu. */
+    private static final int MIN_SHIFTABLE_INTERVAL = 3;
+    /** Chỉ dời vì tải toàn hệ thống khi ngày đích nhẹ hơn ít nhất 10%. */
+    private static final double GLOBAL_MARGIN = 0.9;
+
+    private static final String UPDATE_SQL = "UPDATE user_vocabularies SET next_review_at = ?, updated_at = ? "
+            + "WHERE user_id = ? AND vocabulary_id = ? AND next_review_at = ? AND NOT EXISTS (SELECT 1 "
+            + "FROM review_events e WHERE e.user_id = ? AND e.vocabulary_id = ? AND e.projection_pending)";
+
+    private final UserVocabularyRepository userVocabularyRepository;
+    private final ReviewQueueService reviewQueueService;
+    private final ReviewForecastService reviewForecastService;
+    private final ReviewEventLog reviewEventLog;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${fourstars.review-smoothing.daily-limit:50}")
+    private int dailyLimit;
+
+    @Value("${fourstars.review-smoothing.horizon-days:30}")
+    private int horizonDays;
+
+    @Value("${fourstars.review-smoothing.max-shift-days:7}")
+    private int maxShiftDays;
+
+    @Value("${fourstars.review-smoothing.shift-ratio:0.1}")
+    private double shiftRatio;
+
+    public ReviewLoadSmoothingService(UserVocabularyRepository userVocabularyRepository,
+            ReviewQueueService reviewQueueService, ReviewForecastService reviewForecastService,
+            ReviewEventLog reviewEventLog, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.userVocabularyRepository = userVocabularyRepository;
+        this.reviewQueueService = reviewQueueService;
+        this.reviewForecastService = reviewForecastService;
+        this.reviewEventLog = reviewEventLog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Một từ được dời lịch. */
+    public record Reschedule(long userId, long vocabularyId, Instant from, Instant to) {
+    }
+
+    /** Dàn lịch cho mọi user; trả về số từ đã được dời. */
+    public int smoothAll() {
+        Instant now = Instant.now();
+        int[] globalLoad = new int[windowDays()];
+        Instant until = LocalDate.ofInstant(now, ZONE).plusDays(globalLoad.length).atStartOfDay(ZONE).toInstant();
+
+        int users = 0;
+        int moved = 0;
+        List<Reschedule> pendingWrites = new ArrayList<>(UPDATE_BATCH_SIZE);
+        for (int page = 0;; page++) {
+            List<Long> userIds = userVocabularyRepository.findDistinctUserIds(PageRequest.of(page, USER_CHUNK_SIZE));
+            for (Long userId : userIds) {
+                try {
+                    List<ReviewLoadProjection> cards = userVocabularyRepository.findReviewLoadByUserId(userId,
+                            until);
+                    List<Reschedule> planned = plan(userId, cards, now, globalLoad);
+                    // Lượt ôn chưa chiếu sẽ tự đặt lịch mới cho từ này; lượt ôn đến
+                    // sau bước này được UPDATE_SQL chặn lúc ghi.
+                    Set<Long> reviewed = planned.isEmpty() ? Set.of()
+                            : reviewEventLog.findPending(userId,
+                                    planned.stream().map(Reschedule::vocabularyId).toList()).keySet();
+                    for (Reschedule reschedule : planned) {
+                        if (!reviewed.contains(reschedule.vocabularyId())) {
+                            pendingWrites.add(reschedule);
+                        }
+                    }
+                    users++;
+                } catch (Exception e) {
+                    logger.error("Failed to plan review load for user ID {}", userId, e);
+                }
+                if (pendingWrites.size() >= UPDATE_BATCH_SIZE) {
+                    moved += write(pendingWrites);
+                    pendingWrites = new ArrayList<>(UPDATE_BATCH_SIZE);
+                }
+            }
+            if (userIds.size() < USER_CHUNK_SIZE) {
+                break;
+            }
+        }
+        moved += write(pendingWrites);
+        logger.info("Review load smoothing processed {} users and rescheduled {} words", users, moved);
+        return moved;
+    }
+
+    /**
+     * Tính các từ cần dời của một user. cards phải sắp theo nextReviewAt tăng
+     * dần; globalLoad (số từ mỗi ngày kể từ hôm nay của các user đã xử lý) được
+     * cộng thêm lịch sau khi dàn của user này.
+     */
+    public List<Reschedule> plan(long userId, List<ReviewLoadProjection> cards, Instant now, int[] globalLoad) {
+        int days = globalLoad.length;
+        LocalDate today = LocalDate.ofInstant(now, ZONE);
+        int[] userLoad = new int[days];
+        int[] dayOf = new int[cards.size()];
+        List<Integer> overdue = new ArrayList<>();
+
+        for (int i = 0; i < cards.size(); i++) {
+            Instant due = cards.get(i).getNextReviewAt();
+            if (!due.isAfter(now)) {
+                overdue.add(i);
+                dayOf[i] = -1;
+                continue;
+            }
+            int day = (int) ChronoUnit.DAYS.between(today, LocalDate.ofInstant(due, ZONE));
+            dayOf[i] = day < days ? day : -1;
+            if (dayOf[i] >= 0) {
+                userLoad[day]++;
+            }
+        }
+
+        List<Reschedule> result = new ArrayList<>();
+
+        // Giữ những từ quá hạn lâu nhất cho hôm nay, phần dư rải vào ngày sớm nhất còn chỗ.
+        int keepToday = Math.max(0, dailyLimit - userLoad[0]);
+        for (int k = 0; k < overdue.size(); k++) {
+            ReviewLoadProjection card = cards.get(overdue.get(k));
+            if (k < keepToday) {
+                userLoad[0]++;
+                continue;
+            }
+            int target = firstDayUnderLimit(userLoad);
+            userLoad[target]++;
+            result.add(new Reschedule(userId, card.getVocabularyId(), card.getNextReviewAt(),
+                    now.plus(target, ChronoUnit.DAYS)));
+        }
+
+        for (int i = 0; i < cards.size(); i++) {
+            int day = dayOf[i];
+            if (day < 1 || day > horizonDays) {
+                continue;
+            }
+            ReviewLoadProjection card = cards.get(i);
+            int tolerance = tolerance(card.getReviewInterval());
+            if (tolerance == 0) {
+                continue;
+            }
+            userLoad[day]--;
+            int best = day;
+            for (int candidate = Math.max(1, day - tolerance); candidate <= Math.min(days - 1, day + tolerance);
+                    candidate++) {
+                if (isLighter(candidate, best, day, userLoad, globalLoad)) {
+                    best = candidate;
+                }
+            }
+            userLoad[best]++;
+            if (best != day) {
+                result.add(new Reschedule(userId, card.getVocabularyId(), card.getNextReviewAt(),
+                        card.getNextReviewAt().plus(best - day, ChronoUnit.DAYS)));
+            }
+        }
+
+        for (int d = 0; d < days; d++) {
+            globalLoad[d] += userLoad[d];
+        }
+        return result;
+    }
+
+    private int windowDays() {
+        return horizonDays + maxShiftDays + 1;
+    }
+
+    private int tolerance(Integer interval) {
+        if (interval == null || interval < MIN_SHIFTABLE_INTERVAL) {
+            return 0;
+        }
+        return Math.min(maxShiftDays, Math.max(1, (int) Math.round(interval * shiftRatio)));
+    }
+
+    private int firstDayUnderLimit(int[] userLoad) {
+        int lightest = 1;
+        for (int d = 1; d < userLoad.length; d++) {
+            if (userLoad[d] < dailyLimit) {
+                return d;
+            }
+            if (userLoad[d] < userLoad[lightest]) {
+                lightest = d;
+            }
+        }
+        return lightest;
+    }
+
+    /**
+     * candidate tốt hơn best khi tải của user thấp hơn; bằng nhau thì xét tải toàn
+     * hệ thống (có ngưỡng để từ không bị dời qua lại), rồi đến khoảng cách tới ngày gốc.
+     */
+    private static boolean isLighter(int candidate, int best, int original, int[] userLoad, int[] globalLoad) {
+        if (userLoad[candidate] != userLoad[best]) {
+            return userLoad[candidate] < userLoad[best];
+        }
+        if (globalLoad[candidate] < globalLoad[best] * GLOBAL_MARGIN) {
+            return true;
+        }
+        if (globalLoad[best] < globalLoad[candidate] * GLOBAL_MARGIN) {
+            return false;
+        }
+        return Math.abs(candidate - original) < Math.abs(best - original);
+    }
+
+    private int write(List<Reschedule> reschedules) {
+        if (reschedules.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        int[][] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, reschedules,
+                    UPDATE_BATCH_SIZE, (ps, reschedule) -> {
+                        ps.setTimestamp(1, Timestamp.from(reschedule.to()));
+                        ps.setTimestamp(2, now);
+                        ps.setLong(3, reschedule.userId());
+                        ps.setLong(4, reschedule.vocabularyId());
+                        ps.setTimestamp(5, Timestamp.from(reschedule.from()));
+                        ps.setLong(6, reschedule.userId());
+                        ps.setLong(7, reschedule.vocabularyId());
+                    }));
+        } catch (Exception e) {
+            logger.error("Failed to write {} rescheduled reviews", reschedules.size(), e);
+            return 0;
+        }
+
+        Map<Long, Map<Long, Instant>> byUser = new LinkedHashMap<>();
+        Map<Long, List<ReviewForecastService.Move>> movesByUser = new LinkedHashMap<>();
+        int index = 0;
+        int written = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                Reschedule reschedule = reschedules.get(index++);
+                // 0 nghĩa là từ đã được ôn (next_review_at đổi hoặc có lượt ôn
+                // chưa chiếu) trong lúc job chạy.
+                if (count != 0) {
+                    byUser.computeIfAbsent(reschedule.userId(), id -> new LinkedHashMap<>())
+                            .put(reschedule.vocabularyId(), reschedule.to());
+                    movesByUser.computeIfAbsent(reschedule.userId(), id -> new ArrayList<>())
+                            .add(new ReviewForecastService.Move(reschedule.vocabularyId(), reschedule.from(),
+                                    reschedule.to()));
+                    written++;
+                }
+            }
+        }
+        byUser.forEach(reviewQueueService::scheduleAll);
+        movesByUser.forEach(reviewForecastService::moveAll);
+        return written;
+    }
+}
@@ -0,0 +1,244 @@
+package com.fourstars.FourStars.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+
+/**
+ * Hàng đợi ôn tập của mỗi user trên Redis: một sorted set "review:due:{userId}"
+ * với member là vocabulary id và score là nextReviewAt (epoch millis). Lấy N từ
+ * đến hạn và đếm số từ đến hạn đều là ZRANGEBYSCORE / ZCOUNT, không chạm MySQL.
+ *
+ * Member đặc biệt {@link #READY_MEMBER} (score +inf) đánh dấu hàng đợi đã được
+ * dựng; thiếu nó thì dựng lại từ user_vocabularies. Ghi vào Redis chỉ diễn ra
+ * sau khi transaction commit; lỗi Redis thì đọc thẳng từ MySQL và để job
+ * {@link #rebuildAll()} đồng bộ lại (cùng với dự báo của
+ * {@link ReviewForecastService}). Thay đổi xảy ra trong lúc dựng lại được
+ * {@link ReviewRebuildJournal} giữ lại và áp lên key tạm trước khi RENAME.
+ */
+@Service
+public class ReviewQueueService {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewQueueService.class);
+
+    private static final String KEY_PREFIX = "review:due:";
+    static final String READY_MEMBER = "ready";
+    private static final int REBUILD_USER_CHUNK_SIZE = 500;
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    /**
+     * KEYS: hàng đợi, token dựng lại, journal; ARGV: TTL journal rồi các cặp
+     * (vocabulary id, epoch millis), millis rỗng là gỡ từ. Chỉ ZADD khi hàng đợi
+     * đã dựng, nhưng luôn ghi journal khi đang có lần dựng lại.
+     */
+    private static final RedisScript<Long> SCHEDULE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[2]) == 1 then
+                for i = 2, #ARGV, 2 do
+                    redis.call('RPUSH', KEYS[3], ARGV[i] .. ':' .. ARGV[i + 1])
+                end
+                redis.call('PEXPIRE', KEYS[3], ARGV[1])
+            end
+            local ready = redis.call('ZSCORE', KEYS[1], 'ready')
+            for i = 2, #ARGV, 2 do
+                if ARGV[i + 1] == '' then
+                    redis.call('ZREM', KEYS[1], ARGV[i])
+                elseif ready then
+                    redis.call('ZADD', KEYS[1], ARGV[i + 1], ARGV[i])
+                end
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final UserVocabularyRepository userVocabularyRepository;
+    private final ReviewForecastService reviewForecastService;
+    private final ReviewRebuildJournal reviewRebuildJournal;
+
+    public ReviewQueueService(RedisTemplate<String, String> redisTemplate,
+            UserVocabularyRepository userVocabularyRepository, ReviewForecastService reviewForecastService,
+            ReviewRebuildJournal reviewRebuildJournal) {
+        this.redisTemplate = redisTemplate;
+        this.userVocabularyRepository = userVocabularyRepository;
+        this.reviewForecastService = reviewForecastService;
+        this.reviewRebuildJournal = reviewRebuildJournal;
+    }
+
+    private static String queueKey(long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    /** Đặt (hoặc dời) lịch ôn của một từ trong hàng đợi của user. */
+    public void schedule(long userId, long vocabularyId, Instant nextReviewAt) {
+        scheduleAll(userId, Map.of(vocabularyId, nextReviewAt));
+    }
+
+    /** Dời lịch của nhiều từ cùng một user trong một script. */
+    public void scheduleAll(long userId, Map<Long, Instant> nextReviewAts) {
+        if (nextReviewAts.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(1 + 2 * nextReviewAts.size());
+        args.add(String.valueOf(ReviewRebuildJournal.REBUILD_TTL.toMillis()));
+        nextReviewAts.forEach((vocabularyId, nextReviewAt) -> {
+            args.add(String.valueOf(vocabularyId));
+            args.add(String.valueOf(nextReviewAt.toEpochMilli()));
+        });
+        afterCommit(() -> execute(userId, args));
+    }
+
+    public void remove(long userId, long vocabularyId) {
+        List<String> args = List.of(String.valueOf(ReviewRebuildJournal.REBUILD_TTL.toMillis()),
+                String.valueOf(vocabularyId), "");
+        afterCommit(() -> execute(userId, args));
+    }
+
+    private void execute(long userId, List<String> args) {
+        String key = queueKey(userId);
+        redisTemplate.execute(SCHEDULE_SCRIPT,
+                List.of(key, ReviewRebuildJournal.tokenKey(key), ReviewRebuildJournal.journalKey(key)),
+                args.toArray());
+    }
+
+    /** Tối đa limit vocabulary id đã đến hạn, từ quá hạn lâu nhất trước. */
+    public List<Long> findDueVocabularyIds(long userId, Instant now, int limit) {
+        try {
+            ensureReady(userId);
+            Set<String> members = redisTemplate.opsForZSet().rangeByScore(queueKey(userId),
+                    Double.NEGATIVE_INFINITY, now.toEpochMilli(), 0, limit);
+            List<Long> ids = new ArrayList<>();
+            if (members != null) {
+                for (String member : members) {
+                    ids.add(Long.valueOf(member));
+                }
+            }
+            return ids;
+        } catch (Exception e) {
+            logger.warn("Review queue unavailable for user ID {}, reading due words from database: {}", userId,
+                    e.getMessage());
+            return userVocabularyRepository.findDueVocabularyIds(userId, now, PageRequest.of(0, limit));
+        }
+    }
+
+    public long countDue(long userId, Instant now) {
+        try {
+            ensureReady(userId);
+            Long count = redisTemplate.opsForZSet().count(queueKey(userId), Double.NEGATIVE_INFINITY,
+                    now.toEpochMilli());
+            return count == null ? 0 : count;
+        } catch (Exception e) {
+            logger.warn("Review queue unavailable for user ID {}, counting due words in database: {}", userId,
+                    e.getMessage());
+            return userVocabularyRepository.countByIdUserIdAndNextReviewAtLessThanEqual(userId, now);
+        }
+    }
+
+    /**
+     * Dựng lại hàng đợi của một user từ MySQL vào key tạm rồi RENAME, để người
+     * đọc không bao giờ thấy hàng đợi rỗng giữa chừng.
+     */
+    public void rebuild(long userId) {
+        String token = reviewRebuildJournal.start(queueKey(userId));
+        finishRebuild(userId, token, reviewForecastService.loadSchedule(userId));
+    }
+
+    /**
+     * Ghi key tạm từ lịch đã đọc cộng các thay đổi trong journal rồi RENAME; ném
+     * IllegalStateException nếu lần dựng lại bị thay chỗ hoặc journal không ngừng
+     * có mục mới.
+     */
+    private void finishRebuild(long userId, String token, Map<Long, Instant> schedule) {
+        String key = queueKey(userId);
+        String tmpKey = ReviewRebuildJournal.tmpKey(key, token);
+        long consumed = 0;
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            consumed += reviewRebuildJournal.replay(key, consumed, schedule);
+            Set<TypedTuple<String>> tuples = new HashSet<>(schedule.size() + 1);
+            schedule.forEach((vocabularyId, nextReviewAt) -> tuples.add(
+                    TypedTuple.of(String.valueOf(vocabularyId), (double) nextReviewAt.toEpochMilli())));
+            tuples.add(TypedTuple.of(READY_MEMBER, Double.POSITIVE_INFINITY));
+
+            redisTemplate.delete(tmpKey);
+            redisTemplate.opsForZSet().add(tmpKey, tuples);
+            redisTemplate.expire(tmpKey, ReviewRebuildJournal.REBUILD_TTL);
+            ReviewRebuildJournal.Outcome outcome = reviewRebuildJournal.finish(key, token, consumed);
+            if (outcome == ReviewRebuildJournal.Outcome.DONE) {
+                logger.debug("Rebuilt review queue for user ID {} with {} words", userId, tuples.size() - 1);
+                return;
+            }
+            if (outcome == ReviewRebuildJournal.Outcome.SUPERSEDED) {
+                throw new IllegalStateException("Review queue rebuild for user ID " + userId + " was superseded");
+            }
+        }
+        redisTemplate.delete(tmpKey);
+        throw new IllegalStateException("Review queue for user ID " + userId + " kept changing during rebuild");
+    }
+
+    /**
+     * Đồng bộ lại hàng đợi và dự báo ôn tập của mọi user có từ trong sổ tay, dùng
+     * chung một lần đọc lịch ôn cho mỗi user.
+     */
+    public int rebuildAll() {
+        int users = 0;
+        for (int page = 0;; page++) {
+            List<Long> userIds = userVocabularyRepository.findDistinctUserIds(
+                    PageRequest.of(page, REBUILD_USER_CHUNK_SIZE));
+            for (Long userId : userIds) {
+                try {
+                    String queueToken = reviewRebuildJournal.start(queueKey(userId));
+                    String forecastToken = reviewForecastService.startRebuild(userId);
+                    Map<Long, Instant> schedule = reviewForecastService.loadSchedule(userId);
+                    finishRebuild(userId, queueToken, new HashMap<>(schedule));
+                    reviewForecastService.finishRebuild(userId, forecastToken, schedule);
+                    users++;
+                } catch (Exception e) {
+                    logger.error("Failed to rebuild review queue for user ID {}", userId, e);
+                }
+            }
+            if (userIds.size() < REBUILD_USER_CHUNK_SIZE) {
+                return users;
+            }
+        }
+    }
+
+    private void ensureReady(long userId) {
+        if (redisTemplate.opsForZSet().score(queueKey(userId), READY_MEMBER) == null) {
+            rebuild(userId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                logger.error("Could not update review queue, it will be reconciled by the rebuild job", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+}
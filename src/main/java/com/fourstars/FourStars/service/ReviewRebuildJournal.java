@@ -0,0 +1,121 @@
+package com.fourstars.FourStars.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Giữ các thay đổi lịch ôn xảy ra trong lúc dựng lại một key Redis (hàng đợi
+ * hoặc dự báo ôn tập) từ MySQL, để lần RENAME cuối không ghi đè chúng.
+ *
+ * Lần dựng lại ghi token của mình vào "{key}:rebuilding" trước khi đọc DB.
+ * Trong lúc token còn đó, script ghi của {@link ReviewQueueService} và
+ * {@link ReviewForecastService} ghi thêm lịch mới của từng thẻ (giá trị tuyệt
+ * đối, áp lại nhiều lần vẫn đúng) vào list "{key}:changes". Trước khi RENAME,
+ * lần dựng lại áp các mục này lên dữ liệu đã đọc; {@link #finish} chỉ RENAME khi
+ * token vẫn là của nó và không có mục mới nào từ lần đọc cuối.
+ */
+@Component
+public class ReviewRebuildJournal {
+
+    /** Token hết hạn thì lần dựng lại bị bỏ, lần đọc sau dựng lại từ đầu. */
+    static final Duration REBUILD_TTL = Duration.ofMinutes(1);
+
+    /** Kết quả của {@link #finish}. */
+    public enum Outcome {
+        DONE, RETRY, SUPERSEDED
+    }
+
+    private static final RedisScript<Long> START_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[2])
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS: key tạm, key thật, token, journal; ARGV: token, số mục đã áp. Trả về
+     * 1 nếu đã RENAME, -1 nếu journal có mục mới, 0 nếu lần dựng lại khác đã
+     * thay chỗ (key tạm bị xóa).
+     */
+    private static final RedisScript<Long> FINISH_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[3]) ~= ARGV[1] then
+                redis.call('DEL', KEYS[1])
+                return 0
+            end
+            if redis.call('LLEN', KEYS[4]) > tonumber(ARGV[2]) then
+                return -1
+            end
+            redis.call('RENAME', KEYS[1], KEYS[2])
+            redis.call('DEL', KEYS[3], KEYS[4])
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public ReviewRebuildJournal(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public static String tokenKey(String key) {
+        return key + ":rebuilding";
+    }
+
+    public static String journalKey(String key) {
+        return key + ":changes";
+    }
+
+    public static String tmpKey(String key, String token) {
+        return key + ":rebuild:" + token;
+    }
+
+    /** Mục journal của một thẻ: "vocabularyId:epochMillis", để trống millis khi thẻ bị gỡ. */
+    public static String entry(long vocabularyId, Instant nextReviewAt) {
+        return vocabularyId + ":" + (nextReviewAt != null ? String.valueOf(nextReviewAt.toEpochMilli()) : "");
+    }
+
+    /** Bắt đầu dựng lại key; phải gọi trước khi đọc DB. Trả về token của lần dựng lại này. */
+    public String start(String key) {
+        String token = UUID.randomUUID().toString();
+        redisTemplate.execute(START_SCRIPT, List.of(tokenKey(key), journalKey(key)), token,
+                String.valueOf(REBUILD_TTL.toMillis()));
+        return token;
+    }
+
+    /**
+     * Áp các mục journal từ vị trí from lên lịch ôn (vocabulary id -> nextReviewAt,
+     * thẻ bị gỡ thì xóa khỏi map); trả về số mục đã áp.
+     */
+    public int replay(String key, long from, Map<Long, Instant> schedule) {
+        List<String> entries = redisTemplate.opsForList().range(journalKey(key), from, -1);
+        if (entries == null) {
+            return 0;
+        }
+        for (String entry : entries) {
+            int separator = entry.indexOf(':');
+            long vocabularyId = Long.parseLong(entry.substring(0, separator));
+            if (separator == entry.length() - 1) {
+                schedule.remove(vocabularyId);
+            } else {
+                schedule.put(vocabularyId, Instant.ofEpochMilli(Long.parseLong(entry.substring(separator + 1))));
+            }
+        }
+        return entries.size();
+    }
+
+    /** RENAME key tạm thành key thật nếu token còn hiệu lực và journal không có mục mới sau consumed. */
+    public Outcome finish(String key, String token, long consumed) {
+        Long result = redisTemplate.execute(FINISH_SCRIPT,
+                List.of(tmpKey(key, token), key, tokenKey(key), journalKey(key)), token, String.valueOf(consumed));
+        if (result != null && result > 0) {
+            return Outcome.DONE;
+        }
+        return result != null && result < 0 ? Outcome.RETRY : Outcome.SUPERSEDED;
+    }
+}
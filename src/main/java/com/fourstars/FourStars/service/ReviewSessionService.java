@@ -0,0 +1,148 @@
+package com.fourstars.FourStars.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fourstars.FourStars.util.error.BadRequestException;
+import com.fourstars.FourStars.util.error.ResourceNotFoundException;
+
+/**
+ * Phiên ôn tập trên Redis: mỗi phiên là một hash "review:session:{token}" gồm
+ * user id và một field "v:{vocabularyId}" cho mỗi thẻ chưa chấm. Chấm điểm gỡ
+ * field của thẻ, nên mỗi thẻ chỉ được chấm một lần trong phiên; phiên tự xóa
+ * khi đã chấm hết hoặc hết hạn. Transaction chấm điểm không commit thì các thẻ
+ * được trả lại phiên để user chấm lại.
+ */
+@Service
+public class ReviewSessionService {
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSessionService.class);
+
+    private static final String KEY_PREFIX = "review:session:";
+    private static final String FIELD_USER_ID = "userId";
+    private static final String CARD_FIELD_PREFIX = "v:";
+    public static final Duration SESSION_TTL = Duration.ofHours(2);
+
+    /**
+     * ARGV[1] là user id, các ARGV sau là field của thẻ. Trả về -1 nếu phiên không
+     * tồn tại hoặc của user khác, i (từ 1) nếu thẻ thứ i không còn trong phiên, 0
+     * nếu đã gỡ hết các thẻ (xóa luôn phiên khi chỉ còn field userId).
+     */
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local owner = redis.call('HGET', KEYS[1], 'userId')
+            if not owner or owner ~= ARGV[1] then
+                return -1
+            end
+            for i = 2, #ARGV do
+                if redis.call('HEXISTS', KEYS[1], ARGV[i]) == 0 then
+                    return i - 1
+                end
+            end
+            for i = 2, #ARGV do
+                redis.call('HDEL', KEYS[1], ARGV[i])
+            end
+            if redis.call('HLEN', KEYS[1]) <= 1 then
+                redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * ARGV[1] là user id, ARGV[2] là TTL (ms) nếu phải tạo lại phiên đã bị xóa,
+     * các ARGV sau là field của thẻ cần trả lại.
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                redis.call('HSET', KEYS[1], 'userId', ARGV[1])
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            for i = 3, #ARGV do
+                redis.call('HSET', KEYS[1], ARGV[i], '')
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public ReviewSessionService(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    private static String sessionKey(String token) {
+        return KEY_PREFIX + token;
+    }
+
+    /** Mở phiên cho các thẻ đã phát; trả về token của phiên. */
+    public String open(long userId, List<Long> vocabularyIds) {
+        String token = UUID.randomUUID().toString();
+        Map<String, String> fields = new HashMap<>(vocabularyIds.size() + 1);
+        fields.put(FIELD_USER_ID, String.valueOf(userId));
+        for (Long vocabularyId : vocabularyIds) {
+            fields.put(CARD_FIELD_PREFIX + vocabularyId, "");
+        }
+        redisTemplate.opsForHash().putAll(sessionKey(token), fields);
+        redisTemplate.expire(sessionKey(token), SESSION_TTL);
+        logger.debug("Opened review session {} for user ID {} with {} cards", token, userId, vocabularyIds.size());
+        return token;
+    }
+
+    /**
+     * Đánh dấu các thẻ là đã chấm. Phiên không tồn tại hoặc của user khác thì
+     * ResourceNotFoundException; thẻ không thuộc phiên hoặc đã chấm thì
+     * BadRequestException và không thẻ nào bị gỡ. Kiểm tra và gỡ chạy trong một
+     * script Lua nên hai request chấm cùng thẻ đồng thời chỉ có một request thắng.
+     * Gọi trong transaction thì các thẻ được trả lại phiên nếu transaction không
+     * commit.
+     */
+    public void claim(String token, long userId, Collection<Long> vocabularyIds) {
+        List<Long> ids = List.copyOf(vocabularyIds);
+        Object[] args = new Object[ids.size() + 1];
+        args[0] = String.valueOf(userId);
+        for (int i = 0; i < ids.size(); i++) {
+            args[i + 1] = CARD_FIELD_PREFIX + ids.get(i);
+        }
+        Long result = redisTemplate.execute(CLAIM_SCRIPT, List.of(sessionKey(token)), args);
+        if (result == null || result < 0) {
+            throw new ResourceNotFoundException("Review session not found or expired: " + token);
+        }
+        if (result > 0) {
+            throw new BadRequestException("Vocabulary ID " + ids.get((int) (result - 1))
+                    + " is not part of this session or was already graded");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(token, args);
+                    }
+                }
+            });
+        }
+    }
+
+    private void release(String token, Object[] claimArgs) {
+        Object[] args = new Object[claimArgs.length + 1];
+        args[0] = claimArgs[0];
+        args[1] = String.valueOf(SESSION_TTL.toMillis());
+        System.arraycopy(claimArgs, 1, args, 2, claimArgs.length - 1);
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(sessionKey(token)), args);
+            logger.debug("Released {} cards back to review session {}", claimArgs.length - 1, token);
+        } catch (Exception e) {
+            logger.warn("Could not release cards back to review session {}", token, e);
+        }
+    }
+}
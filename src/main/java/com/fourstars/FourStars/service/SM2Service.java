@@ -15,6 +15,8 @@ import java.time.temporal.ChronoUnit;
 public class SM2Service {
     private static final Logger logger = LoggerFactory.getLogger(SM2Service.class);
 
+    private static final long MILLIS_PER_DAY = ChronoUnit.DAYS.getDuration().toMillis();
+
     @Getter
     @Setter
     public static class SM2InputData {
@@ -36,41 +38,67 @@ public class SM2Service {
     }
 
     public SM2Result calculate(SM2InputData data) {
-        logger.debug("Calculating SM2 with input: repetitions={}, easeFactor={}, interval={}, quality={}",
-                data.getRepetitions(), data.getEaseFactor(), data.getInterval(), data.getQuality());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculating SM2 with input: repetitions={}, easeFactor={}, interval={}, quality={}",
+                    data.getRepetitions(), data.getEaseFactor(), data.getInterval(), data.getQuality());
+        }
 
-        int repetitions = data.getRepetitions();
-        double easeFactor = data.getEaseFactor();
-        int interval = data.getInterval();
         int quality = data.getQuality();
+        int repetitions = nextRepetitions(data.getRepetitions(), quality);
+        int interval = nextInterval(repetitions, data.getInterval(), data.getEaseFactor());
+        double easeFactor = nextEaseFactor(data.getEaseFactor(), quality);
 
-        if (quality < 3) {
-            repetitions = 0;
-            interval = 1;
-        } else {
-            repetitions++;
-            if (repetitions == 1) {
-                interval = 1;
-            } else if (repetitions == 2) {
-                interval = 6;
-            } else {
-                interval = (int) Math.round(interval * easeFactor);
-            }
-        }
+        Instant nextReviewDate = Instant.ofEpochMilli(Instant.now().toEpochMilli() + interval * MILLIS_PER_DAY);
+
+        return new SM2Result(repetitions, easeFactor, interval, calculateLevel(interval), nextReviewDate);
+    }
+
+    /**
+     * Tính SM-2 cho {@code count} thẻ cùng lúc trên mảng nguyên thủy, không cấp
+     * phát đối tượng cho từng thẻ. repetitions, easeFactors và intervals được ghi
+     * đè bằng trạng thái mới; levels và nextReviewEpochMillis nhận kết quả. Mọi
+     * thẻ dùng chung một thời điểm {@code nowEpochMillis}.
+     */
+    public void calculateBatch(int count, int[] repetitions, double[] easeFactors, int[] intervals,
+            int[] qualities, int[] levels, long[] nextReviewEpochMillis, long nowEpochMillis) {
+        for (int i = 0; i < count; i++) {
+            int quality = qualities[i];
+            int reps = nextRepetitions(repetitions[i], quality);
+            int interval = nextInterval(reps, intervals[i], easeFactors[i]);
 
-        easeFactor = easeFactor + (0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02));
-        if (easeFactor < 1.3) {
-            easeFactor = 1.3;
+            repetitions[i] = reps;
+            easeFactors[i] = nextEaseFactor(easeFactors[i], quality);
+            intervals[i] = interval;
+            levels[i] = calculateLevel(interval);
+            nextReviewEpochMillis[i] = nowEpochMillis + interval * MILLIS_PER_DAY;
         }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculated SM2 for a batch of {} cards", count);
+        }
+    }
+
+    // Luật SM-2 dùng chung cho calculate và calculateBatch; đủ nhỏ để JIT inline.
 
-        int newLevel = calculateLevel(interval);
+    private static int nextRepetitions(int repetitions, int quality) {
+        return quality < 3 ? 0 : repetitions + 1;
+    }
 
-        Instant nextReviewDate = Instant.now().plus(interval, ChronoUnit.DAYS);
+    /** repetitions là giá trị mới; 0 nghĩa là vừa trả lời sai. */
+    private static int nextInterval(int repetitions, int interval, double easeFactor) {
+        if (repetitions <= 1) {
+            return 1;
+        } else if (repetitions == 2) {
+            return 6;
+        }
+        return (int) Math.round(interval * easeFactor);
+    }
 
-        return new SM2Result(repetitions, easeFactor, interval, newLevel, nextReviewDate);
+    private static double nextEaseFactor(double easeFactor, int quality) {
+        double updated = easeFactor + (0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02));
+        return updated < 1.3 ? 1.3 : updated;
     }
 
-    private int calculateLevel(int intervalInDays) {
+    private static int calculateLevel(int intervalInDays) {
         if (intervalInDays <= 1) {
             return 1; // Mới học
         } else if (intervalInDays <= 7) {
@@ -3,16 +3,20 @@ package com.fourstars.FourStars.service;
 import com.fourstars.FourStars.config.RabbitMQConfig;
 import com.fourstars.FourStars.domain.User;
 import com.fourstars.FourStars.messaging.dto.notification.ReviewReminderMessage;
+import com.fourstars.FourStars.repository.UserQuizAttemptRepository;
 import com.fourstars.FourStars.repository.UserVocabularyRepository;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,12 +25,29 @@ public class ScheduledTaskService {
 
     private static final Logger logger = LoggerFactory.getLogger(ScheduledTaskService.class);
 
+    private static final int QUIZ_COMPACTION_CHUNK_SIZE = 500;
+
     private final UserVocabularyRepository userVocabularyRepository;
+    private final UserQuizAttemptRepository userQuizAttemptRepository;
+    private final QuizService quizService;
+    private final ReviewQueueService reviewQueueService;
+    private final ReviewLoadSmoothingService reviewLoadSmoothingService;
+    private final CategoryProgressService categoryProgressService;
     private final RabbitTemplate rabbitTemplate;
 
+    @Value("${myapp.scheduling.quiz-compaction.retention-days:90}")
+    private int quizHistoryRetentionDays;
+
     public ScheduledTaskService(UserVocabularyRepository userVocabularyRepository,
-            RabbitTemplate rabbitTemplate) {
+            UserQuizAttemptRepository userQuizAttemptRepository, QuizService quizService,
+            ReviewQueueService reviewQueueService, ReviewLoadSmoothingService reviewLoadSmoothingService,
+            CategoryProgressService categoryProgressService, RabbitTemplate rabbitTemplate) {
         this.userVocabularyRepository = userVocabularyRepository;
+        this.userQuizAttemptRepository = userQuizAttemptRepository;
+        this.quizService = quizService;
+        this.reviewQueueService = reviewQueueService;
+        this.reviewLoadSmoothingService = reviewLoadSmoothingService;
+        this.categoryProgressService = categoryProgressService;
         this.rabbitTemplate = rabbitTemplate;
     }
 
@@ -48,9 +69,7 @@ public class ScheduledTaskService {
         for (User user : usersToNotify) {
             logger.debug("Processing user ID: {}. Counting overdue vocabularies...", user.getId());
 
-            long reviewCount = user.getUserVocabularies().stream()
-                    .filter(uv -> uv.getNextReviewAt() != null && uv.getNextReviewAt().isBefore(Instant.now()))
-                    .count();
+            long reviewCount = reviewQueueService.countDue(user.getId(), Instant.now());
 
             if (reviewCount > 0) {
                 ReviewReminderMessage message = new ReviewReminderMessage(
@@ -73,4 +92,65 @@ public class ScheduledTaskService {
         logger.info("Finished sending {} reminder messages. Task complete.", usersToNotify.size());
     }
 
+    /**
+     * Nén các attempt đã hoàn thành lâu hơn thời hạn lưu giữ, mỗi lần một nhóm
+     * trong transaction riêng để không khóa bảng user_answers quá lâu.
+     */
+    @Scheduled(cron = "${myapp.scheduling.quiz-compaction.cron:0 30 3 * * *}", zone = "Asia/Ho_Chi_Minh")
+    public void compactQuizHistory() {
+        Instant cutoff = Instant.now().minus(quizHistoryRetentionDays, ChronoUnit.DAYS);
+        logger.info("==================== Running scheduled task: Compacting quiz attempts before {} ====================",
+                cutoff);
+
+        int attempts = 0;
+        while (true) {
+            List<Long> attemptIds = userQuizAttemptRepository.findCompactableAttemptIds(cutoff,
+                    PageRequest.of(0, QUIZ_COMPACTION_CHUNK_SIZE));
+            if (attemptIds.isEmpty()) {
+                break;
+            }
+            try {
+                quizService.compactAttemptHistory(attemptIds);
+            } catch (Exception e) {
+                logger.error("Failed to compact quiz attempts {}..{}, stopping this run", attemptIds.get(0),
+                        attemptIds.get(attemptIds.size() - 1), e);
+                break;
+            }
+            attempts += attemptIds.size();
+        }
+        logger.info("Quiz history compaction finished. {} attempts compacted.", attempts);
+    }
+
+    /**
+     * Đồng bộ lại hàng đợi và dự báo ôn tập trên Redis từ user_vocabularies, bù
+     * cho các lần cập nhật bị lỗi hoặc bị mất.
+     */
+    @Scheduled(cron = "${myapp.scheduling.review-queue-rebuild.cron:0 0 4 * * *}", zone = "Asia/Ho_Chi_Minh")
+    public void rebuildReviewQueues() {
+        logger.info("==================== Running scheduled task: Rebuilding review queues... ====================");
+        int users = reviewQueueService.rebuildAll();
+        logger.info("Review queue rebuild finished. {} users reconciled.", users);
+    }
+
+    /**
+     * Dàn đều lịch ôn theo ngày trước giờ nhắc ôn, để người quay lại sau thời gian
+     * dài không nhận cả trăm từ cùng lúc và tải hằng ngày không dồn vào vài ngày.
+     */
+    @Scheduled(cron = "${myapp.scheduling.review-smoothing.cron:0 30 4 * * *}", zone = "Asia/Ho_Chi_Minh")
+    public void smoothReviewLoad() {
+        logger.info("==================== Running scheduled task: Smoothing review load... ====================");
+        int moved = reviewLoadSmoothingService.smoothAll();
+        logger.info("Review load smoothing finished. {} words rescheduled.", moved);
+    }
+
+    /**
+     * Đếm lại số từ đến hạn trong bảng tiến độ theo danh mục cho ngày mới, sau
+     * khi lịch ôn đã được dàn đều.
+     */
+    @Scheduled(cron = "${myapp.scheduling.category-progress.cron:0 45 4 * * *}", zone = "Asia/Ho_Chi_Minh")
+    public void refreshCategoryProgress() {
+        logger.info("==================== Running scheduled task: Refreshing category progress... ====================");
+        int rows = categoryProgressService.refreshDueCounts();
+        logger.info("Category progress refresh finished. {} rows recounted.", rows);
+    }
 }
@@ -11,10 +11,8 @@ import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
@@ -40,7 +38,8 @@ import com.fourstars.FourStars.domain.Plan;
 import com.fourstars.FourStars.domain.Role;
 import com.fourstars.FourStars.domain.Subscription;
 import com.fourstars.FourStars.domain.User;
-import com.fourstars.FourStars.domain.UserVocabulary;
+import com.fourstars.FourStars.domain.UserQuizSummary;
+import com.fourstars.FourStars.domain.UserVocabularyStats;
 import com.fourstars.FourStars.domain.request.auth.ForgotPasswordRequestDTO;
 import com.fourstars.FourStars.domain.request.auth.RegisterRequestDTO;
 import com.fourstars.FourStars.domain.request.auth.ResetPasswordRequestDTO;
@@ -59,9 +58,8 @@ import com.fourstars.FourStars.repository.BadgeRepository;
 import com.fourstars.FourStars.repository.PlanRepository;
 import com.fourstars.FourStars.repository.RoleRepository;
 import com.fourstars.FourStars.repository.SubscriptionRepository;
-import com.fourstars.FourStars.repository.UserQuizAttemptRepository;
 import com.fourstars.FourStars.repository.UserRepository;
-import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.repository.UserWeeklyQuizPointsRepository;
 import com.fourstars.FourStars.repository.projection.LeaderboardProjection;
 import com.fourstars.FourStars.util.SecurityUtil;
 import com.fourstars.FourStars.util.error.BadRequestException;
@@ -89,14 +87,16 @@ public class UserService implements UserDetailsService {
     private final RoleRepository roleRepository;
     private final BadgeRepository badgeRepository;
     private final PasswordEncoder passwordEncoder;
-    private final UserVocabularyRepository userVocabularyRepository;
-    private final UserQuizAttemptRepository userQuizAttemptRepository;
+    private final VocabularyStatsService vocabularyStatsService;
+    private final UserWeeklyQuizPointsRepository userWeeklyQuizPointsRepository;
     private final PlanRepository planRepository;
     private final SubscriptionRepository subscriptionRepository;
     private final SecurityUtil securityUtil;
     private final CacheManager cacheManager;
     private final EmailService emailService;
     private final RedisTemplate<String, String> redisTemplate;
+    private final QuizSummaryService quizSummaryService;
+    private final ReviewQueueService reviewQueueService;
 
     @Value("${spring.security.oauth2.client.registration.google.client-id}")
     private String googleClientId;
@@ -111,24 +111,27 @@ public class UserService implements UserDetailsService {
             RoleRepository roleRepository,
             BadgeRepository badgeRepository,
             PasswordEncoder passwordEncoder,
-            UserVocabularyRepository userVocabularyRepository,
-            UserQuizAttemptRepository userQuizAttemptRepository,
+            VocabularyStatsService vocabularyStatsService,
+            UserWeeklyQuizPointsRepository userWeeklyQuizPointsRepository,
             PlanRepository planRepository,
             SubscriptionRepository subscriptionRepository,
             SecurityUtil securityUtil, CacheManager cacheManager,
-            EmailService emailService, RedisTemplate<String, String> redisTemplate) {
+            EmailService emailService, RedisTemplate<String, String> redisTemplate,
+            QuizSummaryService quizSummaryService, ReviewQueueService reviewQueueService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.badgeRepository = badgeRepository;
         this.passwordEncoder = passwordEncoder;
-        this.userVocabularyRepository = userVocabularyRepository;
-        this.userQuizAttemptRepository = userQuizAttemptRepository;
+        this.vocabularyStatsService = vocabularyStatsService;
+        this.userWeeklyQuizPointsRepository = userWeeklyQuizPointsRepository;
         this.planRepository = planRepository;
         this.subscriptionRepository = subscriptionRepository;
         this.securityUtil = securityUtil;
         this.cacheManager = cacheManager;
         this.emailService = emailService;
         this.redisTemplate = redisTemplate;
+        this.quizSummaryService = quizSummaryService;
+        this.reviewQueueService = reviewQueueService;
     }
 
     private UserResponseDTO convertToUserResponseDTO(User user) {
@@ -658,8 +661,8 @@ public class UserService implements UserDetailsService {
         Instant startOfWeek = monday.atStartOfDay(ZoneId.systemDefault()).toInstant();
         Instant endOfWeek = sunday.atTime(23, 59, 59).atZone(ZoneId.systemDefault()).toInstant();
 
-        Page<LeaderboardProjection> leaderboardPage = userQuizAttemptRepository.findWeeklyLeaderboard(
-                startOfWeek, endOfWeek, badgeId, pageable);
+        Page<LeaderboardProjection> leaderboardPage = userWeeklyQuizPointsRepository.findWeeklyLeaderboard(
+                startOfWeek, endOfWeek, monday, badgeId, pageable);
 
         List<UserResponseDTO> userDTOs = leaderboardPage.getContent().stream()
                 .filter(p -> p.getUserId() != null)
@@ -695,19 +698,14 @@ public class UserService implements UserDetailsService {
 
         DashboardResponseDTO dashboard = new DashboardResponseDTO();
 
-        dashboard.setTotalVocabulary(userVocabularyRepository.countByUser(currentUser));
+        UserVocabularyStats vocabularyStats = vocabularyStatsService.getStats(currentUser.getId());
+        dashboard.setTotalVocabulary(vocabularyStats.getTotalCount());
+        dashboard.setVocabularyLevelCounts(vocabularyStats.getLevelCounts());
 
-        Map<Integer, Integer> levelCounts = new HashMap<>();
-        List<UserVocabulary> userVocabularies = userVocabularyRepository.findByUser(currentUser);
-        for (UserVocabulary uv : userVocabularies) {
-            levelCounts.put(uv.getLevel(), levelCounts.getOrDefault(uv.getLevel(), 0) + 1);
-        }
-        dashboard.setVocabularyLevelCounts(levelCounts);
-
-        dashboard.setTotalQuizzesCompleted(userQuizAttemptRepository.countByUser(currentUser));
-
-        Double averageScore = userQuizAttemptRepository.calculateAverageScoreByUser(currentUser);
-        dashboard.setAverageQuizScore(averageScore != null ? averageScore : 0.0);
+        UserQuizSummary quizSummary = quizSummaryService.getSummary(currentUser.getId());
+        dashboard.setTotalQuizzesCompleted(quizSummary.getAttemptCount());
+        dashboard.setAverageQuizScore(quizSummary.getAverageScore());
+        dashboard.setBestQuizScore(quizSummary.getBestScore());
 
         dashboard.setCurrentStreak(currentUser.getStreakCount() != null ? currentUser.getStreakCount() : 0);
 
@@ -717,7 +715,7 @@ public class UserService implements UserDetailsService {
 
         dashboard.setUserPoints(currentUser.getPoint() != 0 ? currentUser.getPoint() : 0);
 
-        long reviewCount = userVocabularyRepository.countByUserAndNextReviewAtBefore(currentUser, Instant.now());
+        long reviewCount = reviewQueueService.countDue(currentUser.getId(), Instant.now());
         dashboard.setWordsToReviewCount(reviewCount);
 
         Subscription currentSubscription = subscriptionRepository.findTopByUserOrderByEndDateDesc(currentUser)
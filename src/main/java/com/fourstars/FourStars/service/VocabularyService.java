@@ -1,12 +1,19 @@
 package com.fourstars.FourStars.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -18,9 +25,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.fourstars.FourStars.config.RabbitMQConfig;
 import com.fourstars.FourStars.domain.Category;
+import com.fourstars.FourStars.domain.ReviewEvent;
 import com.fourstars.FourStars.domain.User;
 import com.fourstars.FourStars.domain.UserVocabulary;
 import com.fourstars.FourStars.domain.Vocabulary;
@@ -28,10 +38,15 @@ import com.fourstars.FourStars.domain.key.UserVocabularyId;
 import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
 import com.fourstars.FourStars.domain.request.vocabulary.SubmitReviewRequestDTO;
 import com.fourstars.FourStars.domain.request.vocabulary.VocabularyRequestDTO;
+import com.fourstars.FourStars.domain.response.CursorPaginationDTO;
 import com.fourstars.FourStars.domain.response.ResultPaginationDTO;
+import com.fourstars.FourStars.domain.response.vocabulary.CategoryProgressResponseDTO;
+import com.fourstars.FourStars.domain.response.vocabulary.ReviewForecastResponseDTO;
+import com.fourstars.FourStars.domain.response.vocabulary.ReviewSessionResponseDTO;
 import com.fourstars.FourStars.domain.response.vocabulary.UserVocabularyResponseDTO;
 import com.fourstars.FourStars.domain.response.vocabulary.VocabularyResponseDTO;
 import com.fourstars.FourStars.messaging.dto.vocabulary.NewVocabularyMessage;
+import com.fourstars.FourStars.messaging.dto.vocabulary.VocabularyChangedMessage;
 import com.fourstars.FourStars.repository.CategoryRepository;
 import com.fourstars.FourStars.repository.UserRepository;
 import com.fourstars.FourStars.repository.UserVocabularyRepository;
@@ -48,6 +63,10 @@ import jakarta.persistence.criteria.Predicate;
 public class VocabularyService {
     private static final Logger logger = LoggerFactory.getLogger(VocabularyService.class);
 
+    private static final int MAX_REVIEW_SESSION_SIZE = 200;
+    private static final int MAX_NOTEBOOK_PAGE_SIZE = 100;
+    private static final int MAX_FORECAST_DAYS = 90;
+
     private final VocabularyRepository vocabularyRepository;
     private final CategoryRepository categoryRepository;
     private final UserVocabularyRepository userVocabularyRepository;
@@ -55,7 +74,13 @@ public class VocabularyService {
     private final SM2Service sm2Service;
     private final RabbitTemplate rabbitTemplate;
     private final QuizGenerationService quizGenerationService;
-    private final QuizService quizService;
+    private final EphemeralQuizService ephemeralQuizService;
+    private final ReviewQueueService reviewQueueService;
+    private final ReviewEventLog reviewEventLog;
+    private final ReviewSessionService reviewSessionService;
+    private final VocabularyStatsService vocabularyStatsService;
+    private final CategoryProgressService categoryProgressService;
+    private final ReviewForecastService reviewForecastService;
 
     public VocabularyService(VocabularyRepository vocabularyRepository,
             CategoryRepository categoryRepository,
@@ -63,7 +88,13 @@ public class VocabularyService {
             UserRepository userRepository,
             SM2Service sm2Service, RabbitTemplate rabbitTemplate,
             QuizGenerationService quizGenerationService,
-            QuizService quizService) {
+            EphemeralQuizService ephemeralQuizService,
+            ReviewQueueService reviewQueueService,
+            ReviewEventLog reviewEventLog,
+            ReviewSessionService reviewSessionService,
+            VocabularyStatsService vocabularyStatsService,
+            CategoryProgressService categoryProgressService,
+            ReviewForecastService reviewForecastService) {
         this.vocabularyRepository = vocabularyRepository;
         this.categoryRepository = categoryRepository;
         this.userVocabularyRepository = userVocabularyRepository;
@@ -71,7 +102,13 @@ public class VocabularyService {
         this.sm2Service = sm2Service;
         this.rabbitTemplate = rabbitTemplate;
         this.quizGenerationService = quizGenerationService;
-        this.quizService = quizService;
+        this.ephemeralQuizService = ephemeralQuizService;
+        this.reviewQueueService = reviewQueueService;
+        this.reviewEventLog = reviewEventLog;
+        this.reviewSessionService = reviewSessionService;
+        this.vocabularyStatsService = vocabularyStatsService;
+        this.categoryProgressService = categoryProgressService;
+        this.reviewForecastService = reviewForecastService;
     }
 
     private VocabularyResponseDTO convertToVocabularyResponseDTO(Vocabulary vocab) {
@@ -152,16 +189,8 @@ public class VocabularyService {
         Vocabulary savedVocab = vocabularyRepository.save(vocab);
         logger.info("Successfully created new vocabulary with ID: {}", savedVocab.getId());
 
-        try {
-            NewVocabularyMessage message = new NewVocabularyMessage(savedVocab.getId());
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.VOCABULARY_EVENT_EXCHANGE,
-                    RabbitMQConfig.VOCABULARY_CREATED_ROUTING_KEY,
-                    message);
-            logger.info("Published new vocabulary event for ID: {}", savedVocab.getId());
-        } catch (Exception e) {
-            logger.error("Failed to publish new vocabulary event for ID: {}", savedVocab.getId(), e);
-        }
+        publishVocabularyEvent(RabbitMQConfig.VOCABULARY_CREATED_ROUTING_KEY,
+                new NewVocabularyMessage(savedVocab.getId()), savedVocab.getId());
 
         return convertToVocabularyResponseDTO(savedVocab);
     }
@@ -196,10 +225,15 @@ public class VocabularyService {
         vocabDB.setPronunciation(requestDTO.getPronunciation());
         vocabDB.setImage(requestDTO.getImage());
         vocabDB.setAudio(requestDTO.getAudio());
+        if (vocabDB.getCategory().getId() != category.getId()) {
+            categoryProgressService.invalidateForVocabulary(id);
+        }
         vocabDB.setCategory(category);
 
         Vocabulary updatedVocab = vocabularyRepository.save(vocabDB);
         logger.info("Successfully updated vocabulary with ID: {}", updatedVocab.getId());
+        publishVocabularyEvent(RabbitMQConfig.VOCABULARY_UPDATED_ROUTING_KEY,
+                new VocabularyChangedMessage(updatedVocab.getId()), updatedVocab.getId());
 
         return convertToVocabularyResponseDTO(updatedVocab);
     }
@@ -213,9 +247,13 @@ public class VocabularyService {
         }
         logger.warn("Deleting all user progress associated with vocabulary ID: {}", id);
 
+        vocabularyStatsService.invalidateForVocabulary(id);
+        categoryProgressService.invalidateForVocabulary(id);
+        reviewForecastService.invalidateForVocabulary(id);
         userVocabularyRepository.deleteByVocabularyId(id);
         vocabularyRepository.deleteById(id);
         logger.info("Successfully deleted vocabulary with ID: {}", id);
+        publishVocabularyEvent(RabbitMQConfig.VOCABULARY_DELETED_ROUTING_KEY, new VocabularyChangedMessage(id), id);
 
     }
 
@@ -263,10 +301,7 @@ public class VocabularyService {
         User user = getCurrentAuthenticatedUser();
         logger.info("User '{}' requesting {} vocabularies for review.", user.getEmail(), limit);
 
-        Pageable pageable = PageRequest.of(0, limit);
-
-        List<Vocabulary> vocabularies = vocabularyRepository.findVocabulariesForReview(user.getId(), Instant.now(),
-                pageable);
+        List<Vocabulary> vocabularies = findDueVocabularies(user.getId(), limit);
         logger.info("Found {} vocabularies for user '{}' to review.", vocabularies.size(), user.getEmail());
 
         return vocabularies.stream()
@@ -274,13 +309,53 @@ public class VocabularyService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Phát một lô thẻ đến hạn kèm token phiên; điểm của cả lô được nộp một lần
+     * qua {@link #submitReviewSession}.
+     */
+    @Transactional(readOnly = true)
+    public ReviewSessionResponseDTO startReviewSession(int size) {
+        User user = getCurrentAuthenticatedUser();
+        int limit = Math.max(1, Math.min(size, MAX_REVIEW_SESSION_SIZE));
+
+        List<Vocabulary> vocabularies = findDueVocabularies(user.getId(), limit);
+        ReviewSessionResponseDTO response = new ReviewSessionResponseDTO();
+        response.setCards(vocabularies.stream()
+                .map(this::convertToVocabularyResponseDTO)
+                .collect(Collectors.toList()));
+        if (!vocabularies.isEmpty()) {
+            List<Long> ids = vocabularies.stream().map(Vocabulary::getId).collect(Collectors.toList());
+            response.setSessionToken(reviewSessionService.open(user.getId(), ids));
+            response.setExpiresAt(Instant.now().plus(ReviewSessionService.SESSION_TTL));
+        }
+        logger.info("Started review session for user '{}' with {} cards", user.getEmail(), vocabularies.size());
+        return response;
+    }
+
+    /** Chấm điểm các thẻ của một phiên ôn tập bằng một lần xử lý theo lô. */
+    @Transactional
+    public List<UserVocabularyResponseDTO> submitReviewSession(String sessionToken,
+            List<SubmitReviewRequestDTO> grades) {
+        User user = getCurrentAuthenticatedUser();
+        Set<Long> vocabularyIds = new LinkedHashSet<>();
+        for (SubmitReviewRequestDTO grade : grades) {
+            if (!vocabularyIds.add(grade.getVocabularyId())) {
+                throw new BadRequestException("Vocabulary ID " + grade.getVocabularyId() + " is graded more than once");
+            }
+        }
+        reviewSessionService.claim(sessionToken, user.getId(), vocabularyIds);
+
+        return submitVocabularyReviews(grades, user).stream()
+                .map(this::convertToUserVocabularyResponseDTO)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public QuizDTO createReviewQuiz() {
         User user = getCurrentAuthenticatedUser();
         logger.info("User '{}' requested a review quiz.", user.getEmail());
 
-        List<Vocabulary> vocabulariesToReview = vocabularyRepository.findVocabulariesForReview(user.getId(),
-                Instant.now(), PageRequest.of(0, 1000));
+        List<Vocabulary> vocabulariesToReview = findDueVocabularies(user.getId(), 1000);
 
         if (vocabulariesToReview.isEmpty()) {
             logger.info("User '{}' has no vocabularies to review at the moment.", user.getEmail());
@@ -296,9 +371,58 @@ public class VocabularyService {
         QuizDTO generatedQuizData = quizGenerationService.generateQuizFromVocabularyList(vocabulariesToReview, title,
                 description, null, 1);
 
-        QuizDTO createdQuiz = quizService.createQuiz(generatedQuizData);
+        // Quiz ôn tập chỉ dùng một lần nên giữ trên Redis thay vì ghi vào các bảng quiz.
+        QuizDTO createdQuiz = ephemeralQuizService.create(user.getId(), generatedQuizData);
+
+        return EphemeralQuizService.withoutAnswers(createdQuiz);
+    }
 
-        return createdQuiz;
+    /**
+     * Các từ đến hạn theo thứ tự của hàng đợi ôn tập trên Redis, nạp bằng một truy
+     * vấn theo id. Id không còn tồn tại (từ đã bị xóa) được gỡ khỏi hàng đợi.
+     */
+    private List<Vocabulary> findDueVocabularies(long userId, int limit) {
+        List<Long> dueIds = reviewQueueService.findDueVocabularyIds(userId, Instant.now(), limit);
+        if (dueIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Vocabulary> byId = vocabularyRepository.findAllWithCategoryByIdIn(dueIds).stream()
+                .collect(Collectors.toMap(Vocabulary::getId, v -> v));
+        List<Vocabulary> vocabularies = new ArrayList<>(dueIds.size());
+        for (Long id : dueIds) {
+            Vocabulary vocab = byId.get(id);
+            if (vocab != null) {
+                vocabularies.add(vocab);
+            } else {
+                reviewQueueService.remove(userId, id);
+            }
+        }
+        return vocabularies;
+    }
+
+    /**
+     * Gửi sự kiện từ vựng sau khi transaction commit, để consumer (kho đáp án
+     * nhiễu trên mọi node, sinh câu hỏi) đọc được dữ liệu đã ghi.
+     */
+    private void publishVocabularyEvent(String routingKey, Object message, long vocabularyId) {
+        Runnable publish = () -> {
+            try {
+                rabbitTemplate.convertAndSend(RabbitMQConfig.VOCABULARY_EVENT_EXCHANGE, routingKey, message);
+                logger.debug("Published '{}' event for vocabulary ID: {}", routingKey, vocabularyId);
+            } catch (Exception e) {
+                logger.error("Failed to publish '{}' event for vocabulary ID: {}", routingKey, vocabularyId, e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
     }
 
     private User getCurrentAuthenticatedUser() {
@@ -323,40 +447,197 @@ public class VocabularyService {
         return processReview(user, reviewDTO);
     }
 
+    /**
+     * Tính SM-2 từ trạng thái mới nhất của thẻ (sự kiện chưa chiếu, dòng
+     * user_vocabularies, hoặc trạng thái khởi đầu) và ghi lượt ôn vào
+     * {@link ReviewEventLog}; user_vocabularies được cập nhật khi log chiếu lô.
+     */
     private UserVocabulary processReview(User user, SubmitReviewRequestDTO reviewDTO) {
         Long vocabularyId = reviewDTO.getVocabularyId();
 
-        UserVocabularyId userVocabularyId = new UserVocabularyId(user.getId(), vocabularyId);
-        Optional<UserVocabulary> optionalUserVocabulary = userVocabularyRepository.findById(userVocabularyId);
-        UserVocabulary userVocabulary;
-        if (optionalUserVocabulary.isPresent()) {
-            userVocabulary = optionalUserVocabulary.get();
-        } else {
-            Vocabulary vocab = vocabularyRepository.findById(vocabularyId)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Vocabulary not found with id: " + vocabularyId));
-            userVocabulary = new UserVocabulary(user, vocab);
+        ReviewEvent pending = reviewEventLog.findPending(user.getId(), vocabularyId);
+        UserVocabulary row = null;
+        if (pending == null) {
+            row = userVocabularyRepository.findById(new UserVocabularyId(user.getId(), vocabularyId)).orElse(null);
+            if (row == null && !vocabularyRepository.existsById(vocabularyId)) {
+                throw new ResourceNotFoundException("Vocabulary not found with id: " + vocabularyId);
+            }
         }
 
+        ReviewEvent event = new ReviewEvent(user.getId(), vocabularyId, reviewDTO.getQuality(), Instant.now());
+        setPreviousState(event, pending, row);
+
         SM2Service.SM2InputData sm2Input = new SM2Service.SM2InputData();
-        sm2Input.setRepetitions(userVocabulary.getRepetitions());
-        sm2Input.setEaseFactor(userVocabulary.getEaseFactor());
-        sm2Input.setInterval(userVocabulary.getReviewInterval());
-        sm2Input.setQuality(reviewDTO.getQuality());
+        sm2Input.setRepetitions(event.getPreviousRepetitions());
+        sm2Input.setEaseFactor(event.getPreviousEaseFactor());
+        sm2Input.setInterval(event.getPreviousInterval());
+        sm2Input.setQuality(event.getQuality());
 
         SM2Service.SM2Result sm2Result = sm2Service.calculate(sm2Input);
 
-        userVocabulary.setLevel(sm2Result.getNewLevel());
-        userVocabulary.setRepetitions(sm2Result.getNewRepetitions());
-        userVocabulary.setEaseFactor(sm2Result.getNewEaseFactor());
-        userVocabulary.setReviewInterval(sm2Result.getNewInterval());
-        userVocabulary.setNextReviewAt(sm2Result.getNextReviewDate());
-        userVocabulary.setLastReviewedAt(Instant.now());
+        event.setNewRepetitions(sm2Result.getNewRepetitions());
+        event.setNewEaseFactor(sm2Result.getNewEaseFactor());
+        event.setNewInterval(sm2Result.getNewInterval());
+        event.setNewLevel(sm2Result.getNewLevel());
+        event.setNextReviewAt(sm2Result.getNextReviewDate());
+
+        reviewEventLog.append(event);
+        reviewQueueService.schedule(user.getId(), vocabularyId, event.getNextReviewAt());
+        reviewForecastService.move(user.getId(), vocabularyId, event.getPreviousNextReviewAt(),
+                event.getNextReviewAt());
+        logger.info("Recorded review of vocabulary ID {} for user '{}'", vocabularyId, user.getEmail());
+
+        return toUserVocabulary(event, row);
+    }
+
+    /**
+     * Áp dụng nhiều lượt ôn tập của cùng một user trong một lần: tải mọi
+     * UserVocabulary liên quan bằng một truy vấn IN, chạy SM-2 theo lô trong bộ
+     * nhớ rồi ghi các lượt ôn vào {@link ReviewEventLog}. Một từ xuất hiện nhiều
+     * lần được ôn lần lượt theo thứ tự trong danh sách.
+     */
+    @Transactional
+    public List<UserVocabulary> submitVocabularyReviews(List<SubmitReviewRequestDTO> reviewDTOs, User user) {
+        if (reviewDTOs == null || reviewDTOs.isEmpty()) {
+            return List.of();
+        }
+        logger.info("System submitting {} auto-reviews on behalf of user '{}'", reviewDTOs.size(), user.getEmail());
+
+        Set<Long> vocabularyIds = reviewDTOs.stream()
+                .map(SubmitReviewRequestDTO::getVocabularyId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<Long, UserVocabulary> rows = new HashMap<>();
+        for (UserVocabulary uv : userVocabularyRepository.findByUserIdAndVocabularyIdIn(user.getId(), vocabularyIds)) {
+            rows.put(uv.getId().getVocabularyId(), uv);
+        }
+
+        Map<Long, ReviewEvent> pending = reviewEventLog.findPending(user.getId(), vocabularyIds);
+        Set<Long> knownIds = new HashSet<>(rows.keySet());
+        knownIds.addAll(pending.keySet());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : vocabularyIds) {
+            if (!knownIds.contains(id)) {
+                missingIds.add(id);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (Vocabulary vocab : vocabularyRepository.findAllById(missingIds)) {
+                knownIds.add(vocab.getId());
+            }
+        }
 
-        userVocabulary = userVocabularyRepository.save(userVocabulary);
-        logger.info("Successfully updated learning progress for user '{}' and vocabulary ID {}", user.getEmail(),
-                reviewDTO.getVocabularyId());
+        // Lần ôn thứ k của cùng một từ nằm ở lượt k, nên mỗi lượt là một batch SM-2
+        // không trùng từ và thứ tự ôn của từng từ được giữ nguyên.
+        Instant now = Instant.now();
+        List<List<ReviewEvent>> rounds = new ArrayList<>();
+        Map<Long, Integer> occurrences = new HashMap<>();
+        for (SubmitReviewRequestDTO reviewDTO : reviewDTOs) {
+            Long vocabularyId = reviewDTO.getVocabularyId();
+            if (!knownIds.contains(vocabularyId)) {
+                logger.warn("Skipping review for missing vocabulary ID {}", vocabularyId);
+                continue;
+            }
+            int round = occurrences.merge(vocabularyId, 1, Integer::sum) - 1;
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(new ReviewEvent(user.getId(), vocabularyId, reviewDTO.getQuality(), now));
+        }
 
+        Map<Long, ReviewEvent> latest = new LinkedHashMap<>();
+        List<ReviewEvent> events = new ArrayList<>(reviewDTOs.size());
+        for (List<ReviewEvent> round : rounds) {
+            for (ReviewEvent event : round) {
+                ReviewEvent previous = latest.get(event.getVocabularyId());
+                if (previous == null) {
+                    previous = pending.get(event.getVocabularyId());
+                }
+                setPreviousState(event, previous, rows.get(event.getVocabularyId()));
+            }
+            applyReviews(round, now);
+            for (ReviewEvent event : round) {
+                events.add(event);
+                latest.put(event.getVocabularyId(), event);
+            }
+        }
+        reviewEventLog.appendAll(events);
+
+        List<UserVocabulary> reviewed = new ArrayList<>(latest.size());
+        for (ReviewEvent event : latest.values()) {
+            reviewQueueService.schedule(user.getId(), event.getVocabularyId(), event.getNextReviewAt());
+            reviewed.add(toUserVocabulary(event, rows.get(event.getVocabularyId())));
+        }
+        if (!rounds.isEmpty()) {
+            // Lượt đầu chứa lần ôn đầu tiên của mỗi từ, tức lịch cũ trước cả lô.
+            List<ReviewForecastService.Move> moves = new ArrayList<>(rounds.get(0).size());
+            for (ReviewEvent first : rounds.get(0)) {
+                moves.add(new ReviewForecastService.Move(first.getVocabularyId(), first.getPreviousNextReviewAt(),
+                        latest.get(first.getVocabularyId()).getNextReviewAt()));
+            }
+            reviewForecastService.moveAll(user.getId(), moves);
+        }
+        logger.info("Recorded reviews of {} vocabularies for user '{}'", reviewed.size(), user.getEmail());
+        return reviewed;
+    }
+
+    /** Trạng thái trước lượt ôn: sự kiện trước đó nếu có, nếu không thì dòng trong DB hoặc trạng thái khởi đầu. */
+    private static void setPreviousState(ReviewEvent event, ReviewEvent previous, UserVocabulary row) {
+        if (previous != null) {
+            event.setPreviousState(previous.getNewLevel(), previous.getNewRepetitions(),
+                    previous.getNewEaseFactor(), previous.getNewInterval());
+            event.setPreviousNextReviewAt(previous.getNextReviewAt());
+        } else if (row != null) {
+            event.setPreviousState(row.getLevel(), row.getRepetitions(), row.getEaseFactor(),
+                    row.getReviewInterval());
+            event.setPreviousNextReviewAt(row.getNextReviewAt());
+        } else {
+            event.setPreviousState(1, 0, 2.5, 0);
+        }
+    }
+
+    /** Áp dụng SM-2 cho nhiều từ khác nhau bằng {@link SM2Service#calculateBatch}. */
+    private void applyReviews(List<ReviewEvent> events, Instant reviewedAt) {
+        int count = events.size();
+        int[] repetitions = new int[count];
+        double[] easeFactors = new double[count];
+        int[] intervals = new int[count];
+        int[] qualities = new int[count];
+        for (int i = 0; i < count; i++) {
+            ReviewEvent event = events.get(i);
+            repetitions[i] = event.getPreviousRepetitions();
+            easeFactors[i] = event.getPreviousEaseFactor();
+            intervals[i] = event.getPreviousInterval();
+            qualities[i] = event.getQuality();
+        }
+        int[] levels = new int[count];
+        long[] nextReviews = new long[count];
+
+        sm2Service.calculateBatch(count, repetitions, easeFactors, intervals, qualities, levels, nextReviews,
+                reviewedAt.toEpochMilli());
+
+        for (int i = 0; i < count; i++) {
+            ReviewEvent event = events.get(i);
+            event.setNewRepetitions(repetitions[i]);
+            event.setNewEaseFactor(easeFactors[i]);
+            event.setNewInterval(intervals[i]);
+            event.setNewLevel(levels[i]);
+            event.setNextReviewAt(Instant.ofEpochMilli(nextReviews[i]));
+        }
+    }
+
+    /** Trạng thái thẻ sau lượt ôn, dựng từ sự kiện (không gắn với persistence context). */
+    private static UserVocabulary toUserVocabulary(ReviewEvent event, UserVocabulary row) {
+        UserVocabulary userVocabulary = new UserVocabulary();
+        userVocabulary.setId(new UserVocabularyId(event.getUserId(), event.getVocabularyId()));
+        userVocabulary.setLevel(event.getNewLevel());
+        userVocabulary.setRepetitions(event.getNewRepetitions());
+        userVocabulary.setEaseFactor(event.getNewEaseFactor());
+        userVocabulary.setReviewInterval(event.getNewInterval());
+        userVocabulary.setLastReviewedAt(event.getReviewedAt());
+        userVocabulary.setNextReviewAt(event.getNextReviewAt());
+        userVocabulary.setCreatedAt(row != null ? row.getCreatedAt() : event.getReviewedAt());
+        userVocabulary.setUpdatedAt(event.getReviewedAt());
         return userVocabulary;
     }
 
@@ -378,7 +659,14 @@ public class VocabularyService {
     private UserVocabularyResponseDTO createOrGetNotebookEntry(User user, Long vocabularyId) {
         UserVocabularyId userVocabularyId = new UserVocabularyId(user.getId(), vocabularyId);
 
+        // Lượt ôn chưa chiếu là trạng thái thật của thẻ. Thẻ chưa có dòng thì lần chiếu
+        // sẽ tạo dòng, cộng thống kê; hàng đợi và dự báo đã được lượt ôn cập nhật.
+        ReviewEvent pending = reviewEventLog.findPending(user.getId(), vocabularyId);
         Optional<UserVocabulary> existingEntry = userVocabularyRepository.findById(userVocabularyId);
+        if (pending != null) {
+            reviewQueueService.schedule(user.getId(), vocabularyId, pending.getNextReviewAt());
+            return convertToUserVocabularyResponseDTO(toUserVocabulary(pending, existingEntry.orElse(null)));
+        }
         if (existingEntry.isPresent()) {
             return convertToUserVocabularyResponseDTO(existingEntry.get());
         }
@@ -388,6 +676,11 @@ public class VocabularyService {
 
         UserVocabulary newUserVocabulary = new UserVocabulary(user, vocab);
         UserVocabulary savedEntry = userVocabularyRepository.save(newUserVocabulary);
+        vocabularyStatsService.recordAdded(user.getId(), savedEntry.getLevel());
+        categoryProgressService.recordAdded(user.getId(), vocab.getCategory().getId(), savedEntry.getLevel(),
+                savedEntry.getNextReviewAt());
+        reviewQueueService.schedule(user.getId(), vocabularyId, savedEntry.getNextReviewAt());
+        reviewForecastService.move(user.getId(), vocabularyId, null, savedEntry.getNextReviewAt());
 
         return convertToUserVocabularyResponseDTO(savedEntry);
     }
@@ -400,12 +693,29 @@ public class VocabularyService {
 
         UserVocabularyId userVocabularyId = new UserVocabularyId(currentUser.getId(), vocabularyId);
 
-        if (!userVocabularyRepository.existsById(userVocabularyId)) {
+        // Lượt ôn chưa chiếu được bỏ để lần chiếu sau không tạo lại thẻ; thẻ mới chỉ
+        // có trong nhật ký (chưa có dòng) cũng xóa được.
+        ReviewEvent pending = reviewEventLog.findPending(currentUser.getId(), vocabularyId);
+        if (pending != null) {
+            reviewEventLog.discardPending(currentUser.getId(), vocabularyId);
+        }
+        UserVocabulary entry = userVocabularyRepository.findById(userVocabularyId).orElse(null);
+        if (entry == null && pending == null) {
             throw new ResourceNotFoundException(
                     "Vocabulary with id " + vocabularyId + " is not in the user's notebook.");
         }
 
-        userVocabularyRepository.deleteById(userVocabularyId);
+        // Số từ theo level và tiến độ danh mục chỉ đổi khi chiếu, nên tính theo dòng
+        // hiện tại; hàng đợi và dự báo đã theo lượt ôn chưa chiếu.
+        if (entry != null) {
+            userVocabularyRepository.delete(entry);
+            vocabularyStatsService.recordRemoved(currentUser.getId(), entry.getLevel());
+            categoryProgressService.recordRemoved(currentUser.getId(), entry.getVocabulary().getCategory().getId(),
+                    entry.getLevel(), entry.getNextReviewAt());
+        }
+        reviewQueueService.remove(currentUser.getId(), vocabularyId);
+        reviewForecastService.move(currentUser.getId(), vocabularyId,
+                pending != null ? pending.getNextReviewAt() : entry.getNextReviewAt(), null);
         logger.info("Successfully removed vocabulary ID {} from notebook for user '{}'.", vocabularyId,
                 currentUser.getEmail());
     }
@@ -432,6 +742,101 @@ public class VocabularyService {
         return new ResultPaginationDTO<>(meta, vocabDTOs);
     }
 
+    /**
+     * Sổ tay theo con trỏ (seek pagination) trên (createdAt, vocabularyId), mới
+     * nhất trước; level null nghĩa là mọi level. Chi phí mỗi trang không phụ
+     * thuộc độ sâu, và chỉ đếm tổng khi includeTotal.
+     */
+    @Transactional(readOnly = true)
+    public CursorPaginationDTO<VocabularyResponseDTO> fetchNotebookPage(Integer level, String cursor, int size,
+            boolean includeTotal) {
+        if (level != null && (level < 1 || level > 5)) {
+            throw new BadRequestException("Level must be between 1 and 5.");
+        }
+        User currentUser = getCurrentAuthenticatedUser();
+        long userId = currentUser.getId();
+        int pageSize = Math.max(1, Math.min(size, MAX_NOTEBOOK_PAGE_SIZE));
+        // Lấy dư một dòng để biết còn trang sau hay không.
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<UserVocabulary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = level == null
+                    ? userVocabularyRepository.findNotebookFirstPage(userId, limit)
+                    : userVocabularyRepository.findNotebookFirstPageByLevel(userId, level, limit);
+        } else {
+            NotebookCursor after = NotebookCursor.decode(cursor);
+            rows = level == null
+                    ? userVocabularyRepository.findNotebookPageAfter(userId, after.createdAt(), after.vocabularyId(),
+                            limit)
+                    : userVocabularyRepository.findNotebookPageByLevelAfter(userId, level, after.createdAt(),
+                            after.vocabularyId(), limit);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = NotebookCursor.of(rows.get(pageSize - 1)).encode();
+        }
+        List<VocabularyResponseDTO> vocabDTOs = rows.stream()
+                .map(userVocab -> convertToVocabularyResponseDTO(userVocab.getVocabulary()))
+                .collect(Collectors.toList());
+
+        Long total = null;
+        if (includeTotal) {
+            total = level == null
+                    ? userVocabularyRepository.countByIdUserId(userId)
+                    : userVocabularyRepository.countByIdUserIdAndLevel(userId, level);
+        }
+
+        logger.debug("Fetched {} notebook entries (level {}) for user '{}'", vocabDTOs.size(), level,
+                currentUser.getEmail());
+        return new CursorPaginationDTO<>(new CursorPaginationDTO.Meta(pageSize, nextCursor, total), vocabDTOs);
+    }
+
+    /** Tiến độ của user trong từng danh mục có từ trong sổ tay (xem {@link CategoryProgressService}). */
+    @Transactional(readOnly = true)
+    public List<CategoryProgressResponseDTO> fetchCategoryProgress() {
+        User currentUser = getCurrentAuthenticatedUser();
+        logger.debug("User '{}' fetching category progress.", currentUser.getEmail());
+        return categoryProgressService.getProgress(currentUser.getId());
+    }
+
+    /** Số từ đến hạn mỗi ngày trong days ngày tới (xem {@link ReviewForecastService}). */
+    public List<ReviewForecastResponseDTO> fetchReviewForecast(int days) {
+        if (days < 1 || days > MAX_FORECAST_DAYS) {
+            throw new BadRequestException("Forecast days must be between 1 and " + MAX_FORECAST_DAYS + ".");
+        }
+        User currentUser = getCurrentAuthenticatedUser();
+        logger.debug("User '{}' fetching review forecast for {} days.", currentUser.getEmail(), days);
+        return reviewForecastService.getForecast(currentUser.getId(), Instant.now(), days);
+    }
+
+    /** Con trỏ sổ tay dạng base64url của "epochSecond.nano.vocabularyId". */
+    private record NotebookCursor(Instant createdAt, long vocabularyId) {
+
+        static NotebookCursor of(UserVocabulary userVocab) {
+            return new NotebookCursor(userVocab.getCreatedAt(), userVocab.getId().getVocabularyId());
+        }
+
+        String encode() {
+            String raw = createdAt.getEpochSecond() + "." + createdAt.getNano() + "." + vocabularyId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static NotebookCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\.");
+                return new NotebookCursor(
+                        Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                        Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+        }
+    }
+
     @Transactional(readOnly = true)
     public ResultPaginationDTO<VocabularyResponseDTO> fetchNotebookByLevel(Integer level, Pageable pageable) {
         if (level < 1 || level > 5) {
@@ -510,19 +915,10 @@ public class VocabularyService {
         List<Vocabulary> savedVocabularies = vocabularyRepository.saveAll(vocabulariesToSave);
         logger.info("Successfully created {} new vocabularies in bulk.", savedVocabularies.size());
 
-        logger.info("Publishing events for bulk-created vocabularies...");
         for (Vocabulary savedVocab : savedVocabularies) {
-            try {
-                NewVocabularyMessage message = new NewVocabularyMessage(savedVocab.getId());
-                rabbitTemplate.convertAndSend(
-                        RabbitMQConfig.VOCABULARY_EVENT_EXCHANGE,
-                        RabbitMQConfig.VOCABULARY_CREATED_ROUTING_KEY,
-                        message);
-            } catch (Exception e) {
-                logger.error("Failed to publish new vocabulary event for bulk-created ID: {}", savedVocab.getId(), e);
-            }
+            publishVocabularyEvent(RabbitMQConfig.VOCABULARY_CREATED_ROUTING_KEY,
+                    new NewVocabularyMessage(savedVocab.getId()), savedVocab.getId());
         }
-        logger.info("Finished publishing {} events.", savedVocabularies.size());
 
         return savedVocabularies.stream()
                 .map(this::convertToVocabularyResponseDTO)
@@ -0,0 +1,141 @@
+package com.fourstars.FourStars.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fourstars.FourStars.domain.UserVocabularyStats;
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.repository.UserVocabularyStatsRepository;
+import com.fourstars.FourStars.repository.projection.LevelCountProjection;
+
+/**
+ * Duy trì {@link UserVocabularyStats}. Thay đổi được cộng dồn bằng UPDATE
+ * "count = count + ?" nên các request song song của một user không ghi đè
+ * nhau. User chưa có dòng thống kê thì khởi tạo bằng một truy vấn GROUP BY
+ * level; hàm ghi phải được gọi sau khi user_vocabularies đã đổi, trong cùng
+ * transaction, để số khởi tạo đã gồm thay đổi hiện tại.
+ *
+ * Mảng delta có dạng [tổng, level 1, ..., level 5].
+ */
+@Service
+public class VocabularyStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(VocabularyStatsService.class);
+
+    private static final String APPLY_DELTA_SQL = "UPDATE user_vocabulary_stats SET total_count = total_count + ?, "
+            + "level1_count = level1_count + ?, level2_count = level2_count + ?, level3_count = level3_count + ?, "
+            + "level4_count = level4_count + ?, level5_count = level5_count + ?, updated_at = ? WHERE user_id = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO user_vocabulary_stats (total_count, level1_count, "
+            + "level2_count, level3_count, level4_count, level5_count, updated_at, user_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INVALIDATE_FOR_VOCABULARY_SQL = "DELETE FROM user_vocabulary_stats WHERE user_id IN "
+            + "(SELECT user_id FROM user_vocabularies WHERE vocabulary_id = ?)";
+
+    private final UserVocabularyStatsRepository userVocabularyStatsRepository;
+    private final UserVocabularyRepository userVocabularyRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public VocabularyStatsService(UserVocabularyStatsRepository userVocabularyStatsRepository,
+            UserVocabularyRepository userVocabularyRepository, JdbcTemplate jdbcTemplate) {
+        this.userVocabularyStatsRepository = userVocabularyStatsRepository;
+        this.userVocabularyRepository = userVocabularyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static int[] emptyDelta() {
+        return new int[UserVocabularyStats.MAX_LEVEL + 1];
+    }
+
+    /** Thống kê của user; chưa có dòng thống kê thì đếm từ user_vocabularies (không ghi). */
+    @Transactional(readOnly = true)
+    public UserVocabularyStats getStats(long userId) {
+        return userVocabularyStatsRepository.findById(userId)
+                .orElseGet(() -> new UserVocabularyStats(userId, countFromNotebook(userId)));
+    }
+
+    /** Một từ mới vào sổ tay ở level cho trước. */
+    public void recordAdded(long userId, int level) {
+        int[] delta = emptyDelta();
+        delta[0] = 1;
+        delta[level] = 1;
+        apply(Map.of(userId, delta));
+    }
+
+    /** Một từ bị gỡ khỏi sổ tay khi đang ở level cho trước. */
+    public void recordRemoved(long userId, int level) {
+        int[] delta = emptyDelta();
+        delta[0] = -1;
+        delta[level] = -1;
+        apply(Map.of(userId, delta));
+    }
+
+    /** Cộng các delta của nhiều user bằng một JDBC batch. */
+    public void apply(Map<Long, int[]> deltasByUser) {
+        if (deltasByUser.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, int[]>> entries = new ArrayList<>(deltasByUser.entrySet());
+        Timestamp now = Timestamp.from(Instant.now());
+        int[] updated = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, entries, entries.size(), (ps, entry) -> {
+            int[] delta = entry.getValue();
+            for (int i = 0; i < delta.length; i++) {
+                ps.setInt(i + 1, delta[i]);
+            }
+            ps.setTimestamp(7, now);
+            ps.setLong(8, entry.getKey());
+        })[0];
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                initialize(entries.get(i), now);
+            }
+        }
+    }
+
+    /**
+     * Xóa thống kê của mọi user có từ này trong sổ tay, trước khi xóa hàng loạt;
+     * chúng sẽ được đếm lại khi cần.
+     */
+    public void invalidateForVocabulary(long vocabularyId) {
+        int invalidated = jdbcTemplate.update(INVALIDATE_FOR_VOCABULARY_SQL, vocabularyId);
+        logger.debug("Invalidated vocabulary stats of {} users for vocabulary ID {}", invalidated, vocabularyId);
+    }
+
+    private void initialize(Map.Entry<Long, int[]> entry, Timestamp now) {
+        long userId = entry.getKey();
+        int[] counts = countFromNotebook(userId);
+        try {
+            jdbcTemplate.update(INSERT_SQL, counts[0], counts[1], counts[2], counts[3], counts[4], counts[5], now,
+                    userId);
+            logger.debug("Initialised vocabulary stats for user ID {} with {} words", userId, counts[0]);
+        } catch (DuplicateKeyException e) {
+            // Request khác vừa khởi tạo từ dữ liệu chưa gồm thay đổi này.
+            int[] delta = entry.getValue();
+            jdbcTemplate.update(APPLY_DELTA_SQL, delta[0], delta[1], delta[2], delta[3], delta[4], delta[5], now,
+                    userId);
+        }
+    }
+
+    private int[] countFromNotebook(long userId) {
+        int[] counts = emptyDelta();
+        for (LevelCountProjection row : userVocabularyRepository.countByLevelForUser(userId)) {
+            int count = row.getCount().intValue();
+            counts[0] += count;
+            if (row.getLevel() >= 1 && row.getLevel() <= UserVocabularyStats.MAX_LEVEL) {
+                counts[row.getLevel()] = count;
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,128 @@
+package com.fourstars.FourStars.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.fourstars.FourStars.domain.Category;
+import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.service.ClozeEngine;
+import com.fourstars.FourStars.util.constant.CategoryType;
+
+/**
+ * So sánh cách khoét chỗ trống cũ (replaceAll với regex biên dịch lại cho mỗi
+ * câu) với {@link ClozeEngine} khi tính mới và khi đã có trong cache, trên toàn
+ * bộ bảng vocabularies (H2). Bảng được nạp các câu ví dụ có dạng biến đổi (-s,
+ * -ed, -ing) và các từ chứa từ vựng bên trong ("start" chứa "art") để đếm thêm
+ * số câu hai cách cho kết quả khác nhau.
+ *
+ * Chạy bằng: mvn test -Pbenchmark -Dtest=ClozeBenchmarkTest
+ */
+@Tag("benchmark")
+@DataJpaTest
+class ClozeBenchmarkTest {
+
+    private static final int VOCABULARY_COUNT = 20_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private static final String[] WORDS = { "art", "walk", "study", "run", "bake", "cat", "look after", "bus",
+            "stop", "play", "hope", "book" };
+    private static final String[] SENTENCES = {
+            "We should %s before the start of the party.",
+            "They %ss every day, and she %sed yesterday.",
+            "Is anyone %sing in the apartment tonight?",
+            "Nobody mentioned %s at the meeting.",
+            "The article about %s was surprisingly short.",
+    };
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private VocabularyRepository vocabularyRepository;
+
+    @Test
+    void compareRegexAndTokenisedCloze() {
+        persistVocabularies();
+        List<Vocabulary> vocabularies = vocabularyRepository.findAll();
+        assertEquals(VOCABULARY_COUNT, vocabularies.size());
+
+        ClozeEngine engine = new ClozeEngine();
+        double regexMs = measure(vocabularies, vocab -> vocab.getExampleEn()
+                .replaceAll("(?i)" + Pattern.quote(vocab.getWord()), ClozeEngine.BLANK).length());
+        double uncachedMs = measure(vocabularies,
+                vocab -> ClozeEngine.compute(vocab.getExampleEn(), vocab.getWord()).prompt().length());
+        double cachedMs = measure(vocabularies,
+                vocab -> engine.cloze(vocab.getId(), vocab.getExampleEn(), vocab.getWord()).prompt().length());
+
+        int differing = 0;
+        for (Vocabulary vocab : vocabularies) {
+            String regex = vocab.getExampleEn().replaceAll("(?i)" + Pattern.quote(vocab.getWord()), ClozeEngine.BLANK);
+            if (!regex.equals(ClozeEngine.compute(vocab.getExampleEn(), vocab.getWord()).prompt())) {
+                differing++;
+            }
+        }
+        assertTrue(differing > 0);
+
+        System.out.printf("%n=== Cloze benchmark (%d vocabularies) ===%n", vocabularies.size());
+        System.out.printf("regex replaceAll:      %8.2f ms per pass%n", regexMs);
+        System.out.printf("tokenised, uncached:   %8.2f ms per pass (x%.1f)%n", uncachedMs, regexMs / uncachedMs);
+        System.out.printf("tokenised, cached:     %8.2f ms per pass (x%.1f)%n", cachedMs, regexMs / cachedMs);
+        System.out.printf("sentences blanked differently: %d%n", differing);
+    }
+
+    /** Thời gian trung bình (ms) cho một lượt qua cả bảng. */
+    private static double measure(List<Vocabulary> vocabularies, ToIntFunction<Vocabulary> cloze) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (Vocabulary vocab : vocabularies) {
+                sink += cloze.applyAsInt(vocab);
+            }
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            for (Vocabulary vocab : vocabularies) {
+                sink += cloze.applyAsInt(vocab);
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+        assertTrue(sink > 0);
+        return elapsed;
+    }
+
+    private void persistVocabularies() {
+        Category category = new Category();
+        category.setName("Cloze benchmark");
+        category.setType(CategoryType.VOCABULARY);
+        entityManager.persist(category);
+
+        for (int i = 0; i < VOCABULARY_COUNT; i++) {
+            String word = WORDS[i % WORDS.length];
+            Vocabulary vocab = new Vocabulary();
+            vocab.setWord(word);
+            vocab.setPartOfSpeech("verb");
+            vocab.setDefinitionEn("Definition " + i);
+            vocab.setMeaningVi("Nghĩa " + i);
+            vocab.setExampleEn(SENTENCES[(i / WORDS.length) % SENTENCES.length].replace("%s", word) + " #" + i);
+            vocab.setCategory(category);
+            entityManager.persist(vocab);
+            if (i % 1_000 == 999) {
+                entityManager.flush();
+                entityManager.clear();
+                category = entityManager.find(Category.class, category.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
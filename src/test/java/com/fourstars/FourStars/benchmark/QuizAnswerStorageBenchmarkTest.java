@@ -0,0 +1,156 @@
+package com.fourstars.FourStars.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fourstars.FourStars.domain.Question;
+import com.fourstars.FourStars.domain.QuestionChoice;
+import com.fourstars.FourStars.domain.Quiz;
+import com.fourstars.FourStars.domain.User;
+import com.fourstars.FourStars.domain.UserQuizAttempt;
+import com.fourstars.FourStars.service.QuizAnswerCodec;
+import com.fourstars.FourStars.service.QuizAnswerKeyService;
+import com.fourstars.FourStars.service.QuizAnswerMigrationService;
+import com.fourstars.FourStars.service.QuizScoringService;
+import com.fourstars.FourStars.service.QuizScoringService.ScoredAnswer;
+import com.fourstars.FourStars.util.constant.QuestionType;
+import com.fourstars.FourStars.util.constant.QuizStatus;
+
+/**
+ * So sánh hai chế độ lưu câu trả lời: một dòng user_answers mỗi câu (JDBC batch)
+ * và một cột answers_encoded trên attempt. Đo throughput ghi và dung lượng bảng
+ * (byte dữ liệu thực lưu), rồi kiểm tra job migration chuyển dòng sang cột encoded.
+ *
+ * Chạy bằng: mvn test -Pbenchmark -Dtest=QuizAnswerStorageBenchmarkTest
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Import({ QuizScoringService.class, QuizAnswerKeyService.class, QuizAnswerMigrationService.class })
+class QuizAnswerStorageBenchmarkTest {
+
+    private static final int QUESTION_COUNT = 40;
+    private static final int ATTEMPT_COUNT = 500;
+    private static final int ROW_FIXED_BYTES = 4 * Long.BYTES + 1 + Integer.BYTES;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private QuizScoringService quizScoringService;
+    @Autowired
+    private QuizAnswerMigrationService quizAnswerMigrationService;
+    @MockBean
+    private RedisTemplate<String, String> redisTemplate;
+
+    private final List<Long> attemptIds = new ArrayList<>();
+    private List<ScoredAnswer> answers;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setName("Benchmark User");
+        user.setEmail("storage-benchmark@example.com");
+        user.setPassword("password123");
+        entityManager.persist(user);
+
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Storage Benchmark Quiz");
+        entityManager.persist(quiz);
+
+        answers = new ArrayList<>();
+        for (int i = 0; i < QUESTION_COUNT; i++) {
+            Question question = new Question();
+            question.setQuiz(quiz);
+            question.setQuestionType(i % 4 == 0 ? QuestionType.FILL_IN_BLANK : QuestionType.MULTIPLE_CHOICE_TEXT);
+            question.setPrompt("Question " + i);
+            question.setQuestionOrder(i);
+            if (i % 4 != 0) {
+                QuestionChoice choice = new QuestionChoice();
+                choice.setQuestion(question);
+                choice.setContent("Choice " + i);
+                choice.setCorrect(true);
+                question.getChoices().add(choice);
+            }
+            entityManager.persist(question);
+
+            boolean correct = i % 3 != 0;
+            answers.add(i % 4 == 0
+                    ? new ScoredAnswer(i, question.getId(), "answer text " + i, null, correct, correct ? 10 : 0)
+                    : new ScoredAnswer(i, question.getId(), null, question.getChoices().iterator().next().getId(),
+                            correct, correct ? 10 : 0));
+        }
+
+        for (int i = 0; i < ATTEMPT_COUNT; i++) {
+            UserQuizAttempt attempt = new UserQuizAttempt();
+            attempt.setUser(user);
+            attempt.setQuiz(quiz);
+            attempt.setStatus(QuizStatus.COMPLETED);
+            entityManager.persist(attempt);
+            attemptIds.add(attempt.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void compareRowAndEncodedStorage() {
+        long start = System.nanoTime();
+        for (Long attemptId : attemptIds) {
+            quizScoringService.saveAnswerRows(attemptId, answers);
+        }
+        long rowNanos = System.nanoTime() - start;
+        long rowCount = count("SELECT COUNT(*) FROM user_answers");
+        // Kích thước dữ liệu của các cột (4 BIGINT + BOOLEAN + INT + text), chưa tính chỉ mục PK/FK.
+        long rowBytes = count("SELECT SUM(" + ROW_FIXED_BYTES
+                + " + COALESCE(OCTET_LENGTH(user_answer_text), 0)) FROM user_answers");
+
+        // Migration: dữ liệu vừa ghi theo dòng phải chuyển hết sang cột encoded.
+        assertEquals(ATTEMPT_COUNT, quizAnswerMigrationService.migrateAll(100));
+        assertEquals(0, count("SELECT COUNT(*) FROM user_answers"));
+        byte[] migrated = jdbcTemplate.queryForObject(
+                "SELECT answers_encoded FROM user_quiz_attempts WHERE id = ?", byte[].class, attemptIds.get(0));
+        assertEquals(QUESTION_COUNT, QuizAnswerCodec.decode(migrated).size());
+        assertEquals(answers.get(0).getUserAnswerText(), QuizAnswerCodec.decode(migrated).get(0).getUserAnswerText());
+
+        jdbcTemplate.update("UPDATE user_quiz_attempts SET answers_encoded = NULL");
+        start = System.nanoTime();
+        for (Long attemptId : attemptIds) {
+            quizScoringService.saveEncodedAnswers(attemptId, answers);
+        }
+        long encodedNanos = System.nanoTime() - start;
+        long encodedBytes = count("SELECT SUM(OCTET_LENGTH(answers_encoded)) FROM user_quiz_attempts");
+
+        System.out.printf("%n=== Quiz answer storage benchmark (%d attempts x %d answers, H2) ===%n", ATTEMPT_COUNT,
+                QUESTION_COUNT);
+        print("rows", rowNanos, rowCount, rowBytes);
+        print("encoded", encodedNanos, 0, encodedBytes);
+
+        assertEquals((long) ATTEMPT_COUNT * QUESTION_COUNT, rowCount);
+        assertTrue(encodedBytes < rowBytes);
+    }
+
+    private long count(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value == null ? 0 : value;
+    }
+
+    private static void print(String label, long nanos, long rows, long bytes) {
+        System.out.printf("%-10s: %8.1f attempts/s, %6d answer rows, %8d bytes (%.1f bytes/attempt)%n", label,
+                ATTEMPT_COUNT / (nanos / 1e9), rows, bytes, (double) bytes / ATTEMPT_COUNT);
+    }
+}
@@ -0,0 +1,158 @@
+package com.fourstars.FourStars.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fourstars.FourStars.domain.Category;
+import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
+import com.fourstars.FourStars.repository.CategoryRepository;
+import com.fourstars.FourStars.repository.VocabularyQuestionTemplateRepository;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.service.ClozeEngine;
+import com.fourstars.FourStars.service.DistractorPoolService;
+import com.fourstars.FourStars.service.QuestionTemplateService;
+import com.fourstars.FourStars.service.QuizGenerationService;
+import com.fourstars.FourStars.util.constant.CategoryType;
+
+/**
+ * Đo thời gian sinh quiz cho cả danh mục 100, 1k và 10k từ trên H2: sinh tuần
+ * tự (parallelism = 1) so với sinh song song trên ForkJoinPool (mọi core), cả
+ * hai không giới hạn số câu, chế độ mặc định có giới hạn 500 câu, và sinh song
+ * song sau khi đã dựng sẵn question template cho mọi từ. Mỗi lần gồm cả truy vấn
+ * nạp từ (và template) của danh mục.
+ *
+ * Chạy bằng: mvn test -Pbenchmark -Dtest=QuizGenerationBenchmarkTest
+ */
+@Tag("benchmark")
+@DataJpaTest
+class QuizGenerationBenchmarkTest {
+
+    private static final int[] CATEGORY_SIZES = { 100, 1_000, 10_000 };
+    private static final String[] PARTS_OF_SPEECH = { "noun", "verb", "adjective", "adverb" };
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int QUESTIONS_PER_WORD = 2;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private VocabularyRepository vocabularyRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private VocabularyQuestionTemplateRepository templateRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareSerialAndParallelGeneration() {
+        long[] categoryIds = new long[CATEGORY_SIZES.length];
+        for (int c = 0; c < CATEGORY_SIZES.length; c++) {
+            categoryIds[c] = persistCategory(CATEGORY_SIZES[c]);
+        }
+
+        DistractorPoolService distractorPoolService = new DistractorPoolService(vocabularyRepository);
+        ClozeEngine clozeEngine = new ClozeEngine();
+        QuestionTemplateService templateService = new QuestionTemplateService(vocabularyRepository,
+                templateRepository, distractorPoolService, clozeEngine, jdbcTemplate);
+        QuizGenerationService serial = service(distractorPoolService, templateService, clozeEngine, 1, 0);
+        QuizGenerationService parallel = service(distractorPoolService, templateService, clozeEngine, 0, 0);
+        QuizGenerationService capped = service(distractorPoolService, templateService, clozeEngine, 0, 500);
+
+        long preloadStart = System.nanoTime();
+        distractorPoolService.preload();
+        System.out.printf("%n=== Quiz generation benchmark (%d cores) ===%n",
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("distractor pool preload: %.1f ms%n", (System.nanoTime() - preloadStart) / 1e6);
+
+        try {
+            for (int c = 0; c < CATEGORY_SIZES.length; c++) {
+                long categoryId = categoryIds[c];
+                int words = CATEGORY_SIZES[c];
+                entityManager.clear();
+
+                double serialMs = measure(() -> serial.generateComprehensiveQuizForCategory(categoryId),
+                        words * QUESTIONS_PER_WORD);
+                double parallelMs = measure(() -> parallel.generateComprehensiveQuizForCategory(categoryId),
+                        words * QUESTIONS_PER_WORD);
+                double cappedMs = measure(() -> capped.generateComprehensiveQuizForCategory(categoryId),
+                        Math.min(500, words * QUESTIONS_PER_WORD));
+
+                long precompileStart = System.nanoTime();
+                templateService.precompile(vocabularyRepository.findByCategoryId(categoryId).stream()
+                        .map(Vocabulary::getId).toList());
+                double precompileMs = (System.nanoTime() - precompileStart) / 1e6;
+                entityManager.clear();
+                double templatedMs = measure(() -> parallel.generateComprehensiveQuizForCategory(categoryId),
+                        words * QUESTIONS_PER_WORD);
+
+                System.out.printf("%6d words: serial %8.2f ms, parallel %8.2f ms (x%.1f), capped at 500 %8.2f ms, "
+                        + "templated %8.2f ms (precompile %.1f ms)%n",
+                        words, serialMs, parallelMs, serialMs / parallelMs, cappedMs, templatedMs, precompileMs);
+            }
+        } finally {
+            serial.shutdownGenerationPool();
+            parallel.shutdownGenerationPool();
+            capped.shutdownGenerationPool();
+        }
+    }
+
+    private QuizGenerationService service(DistractorPoolService distractorPoolService,
+            QuestionTemplateService templateService, ClozeEngine clozeEngine, int parallelism, int maxQuestions) {
+        QuizGenerationService service = new QuizGenerationService(vocabularyRepository, categoryRepository,
+                distractorPoolService, templateService, clozeEngine);
+        ReflectionTestUtils.setField(service, "parallelism", parallelism);
+        ReflectionTestUtils.setField(service, "maxQuestions", maxQuestions);
+        return service;
+    }
+
+    /** Thời gian trung bình mỗi lần sinh (ms), sau khi kiểm tra số câu sinh được. */
+    private static double measure(Supplier<QuizDTO> generate, int expectedQuestions) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            assertEquals(expectedQuestions, generate.get().getQuestions().size());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            assertTrue(generate.get().getQuestions().size() > 0);
+        }
+        return (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+    }
+
+    private long persistCategory(int size) {
+        Category category = new Category();
+        category.setName("Benchmark " + size);
+        category.setType(CategoryType.VOCABULARY);
+        entityManager.persist(category);
+
+        for (int i = 0; i < size; i++) {
+            Vocabulary vocab = new Vocabulary();
+            vocab.setWord("word" + size + "x" + i);
+            vocab.setPartOfSpeech(PARTS_OF_SPEECH[i % PARTS_OF_SPEECH.length]);
+            vocab.setDefinitionEn("Definition of word " + i);
+            vocab.setMeaningVi("Nghĩa của từ " + i);
+            vocab.setExampleEn("She said word" + size + "x" + i + " twice before leaving the room.");
+            vocab.setAudio("https://cdn.example.com/audio/" + size + "/" + i + ".mp3");
+            vocab.setCategory(category);
+            entityManager.persist(vocab);
+            if (i % 1_000 == 999) {
+                entityManager.flush();
+                entityManager.clear();
+                category = entityManager.find(Category.class, category.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return category.getId();
+    }
+}
@@ -0,0 +1,211 @@
+package com.fourstars.FourStars.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fourstars.FourStars.domain.Question;
+import com.fourstars.FourStars.domain.QuestionChoice;
+import com.fourstars.FourStars.domain.Quiz;
+import com.fourstars.FourStars.domain.User;
+import com.fourstars.FourStars.domain.UserAnswer;
+import com.fourstars.FourStars.domain.UserQuizAttempt;
+import com.fourstars.FourStars.domain.request.quiz.UserAnswerRequestDTO;
+import com.fourstars.FourStars.repository.QuestionRepository;
+import com.fourstars.FourStars.service.QuizAnswerKeyService;
+import com.fourstars.FourStars.service.QuizScoringService;
+import com.fourstars.FourStars.util.constant.QuestionType;
+import com.fourstars.FourStars.util.constant.QuizStatus;
+
+/**
+ * So sánh số câu lệnh SQL và throughput chấm điểm giữa cách cũ (findById cho
+ * từng câu trả lời + INSERT IDENTITY từng dòng) và {@link QuizScoringService},
+ * với đáp án phải biên dịch lại mỗi lần và với đáp án đã có trong cache.
+ *
+ * Chạy bằng: mvn test -Pbenchmark -Dtest=QuizScoringBenchmarkTest
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import({ QuizScoringService.class, QuizAnswerKeyService.class })
+class QuizScoringBenchmarkTest {
+
+    private static final int QUESTION_COUNT = 40;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 200;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizScoringService quizScoringService;
+    @MockBean
+    private RedisTemplate<String, String> redisTemplate;
+
+    private final AtomicLong quizVersion = new AtomicLong();
+    private long quizId;
+    private long attemptId;
+    private List<UserAnswerRequestDTO> submission;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(inv -> String.valueOf(quizVersion.get()));
+
+        User user = new User();
+        user.setName("Benchmark User");
+        user.setEmail("benchmark@example.com");
+        user.setPassword("password123");
+        entityManager.persist(user);
+
+        Quiz quiz = new Quiz();
+        quiz.setTitle("Benchmark Quiz");
+        entityManager.persist(quiz);
+
+        submission = new ArrayList<>();
+        for (int i = 0; i < QUESTION_COUNT; i++) {
+            Question question = new Question();
+            question.setQuiz(quiz);
+            question.setQuestionType(QuestionType.MULTIPLE_CHOICE_TEXT);
+            question.setPrompt("Question " + i);
+            question.setQuestionOrder(i);
+            for (int c = 0; c < 4; c++) {
+                QuestionChoice choice = new QuestionChoice();
+                choice.setQuestion(question);
+                choice.setContent("Choice " + c);
+                choice.setCorrect(c == 0);
+                question.getChoices().add(choice);
+            }
+            entityManager.persist(question);
+
+            UserAnswerRequestDTO answer = new UserAnswerRequestDTO();
+            answer.setQuestionId(question.getId());
+            answer.setSelectedChoiceId(question.getChoices().iterator().next().getId());
+            submission.add(answer);
+        }
+
+        UserQuizAttempt attempt = new UserQuizAttempt();
+        attempt.setUser(user);
+        attempt.setQuiz(quiz);
+        attempt.setStatus(QuizStatus.IN_PROGRESS);
+        entityManager.persist(attempt);
+
+        entityManager.flush();
+        entityManager.clear();
+        quizId = quiz.getId();
+        attemptId = attempt.getId();
+    }
+
+    @Test
+    void compareLegacyAndSetBasedScoring() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            scoreLegacy();
+            scoreSetBased(true);
+            scoreSetBased(false);
+        }
+
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            scoreLegacy();
+        }
+        Result legacy = new Result(statistics.getPrepareStatementCount(), System.nanoTime() - start, 0);
+
+        // Hibernate không đếm câu lệnh của JdbcTemplate: 1 DELETE + các round trip batch INSERT.
+        int jdbcRoundTrips = 1 + (QUESTION_COUNT + 99) / 100;
+
+        statistics.clear();
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            scoreSetBased(true);
+        }
+        Result coldKey = new Result(statistics.getPrepareStatementCount(), System.nanoTime() - start, jdbcRoundTrips);
+
+        statistics.clear();
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            scoreSetBased(false);
+        }
+        Result cachedKey = new Result(statistics.getPrepareStatementCount(), System.nanoTime() - start,
+                jdbcRoundTrips);
+
+        System.out.printf("%n=== Quiz scoring benchmark (%d questions, %d rounds, H2) ===%n", QUESTION_COUNT,
+                MEASURED_ROUNDS);
+        legacy.print("legacy");
+        coldKey.print("set-based, cold answer key");
+        cachedKey.print("set-based, cached answer key");
+
+        assertEquals(1.0, coldKey.hibernateStatementsPerSubmission());
+        assertEquals(0.0, cachedKey.hibernateStatementsPerSubmission());
+    }
+
+    private record Result(long hibernateStatements, long nanos, int jdbcStatementsPerSubmission) {
+        double hibernateStatementsPerSubmission() {
+            return (double) hibernateStatements / MEASURED_ROUNDS;
+        }
+
+        void print(String label) {
+            System.out.printf("%-30s: %6.1f statements/submission, %8.1f submissions/s%n", label,
+                    hibernateStatementsPerSubmission() + jdbcStatementsPerSubmission,
+                    MEASURED_ROUNDS / (nanos / 1e9));
+        }
+    }
+
+    private void scoreLegacy() {
+        UserQuizAttempt attempt = entityManager.find(UserQuizAttempt.class, attemptId);
+        attempt.getUserAnswers().clear();
+        for (UserAnswerRequestDTO ansReq : submission) {
+            Question question = questionRepository.findById(ansReq.getQuestionId()).orElseThrow();
+            QuestionChoice correctChoice = question.getChoices().stream()
+                    .filter(QuestionChoice::isCorrect)
+                    .findFirst()
+                    .orElse(null);
+
+            UserAnswer userAnswer = new UserAnswer();
+            userAnswer.setUserQuizAttempt(attempt);
+            userAnswer.setQuestion(question);
+            boolean isCorrect = correctChoice != null && correctChoice.getId() == ansReq.getSelectedChoiceId();
+            userAnswer.setCorrect(isCorrect);
+            userAnswer.setPointsAwarded(isCorrect ? question.getPoints() : 0);
+            attempt.getUserAnswers().add(userAnswer);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void scoreSetBased(boolean coldAnswerKey) {
+        if (coldAnswerKey) {
+            // Giả lập một node khác vừa sửa quiz: version trên Redis thay đổi.
+            quizVersion.incrementAndGet();
+        }
+        QuizScoringService.ScoringResult result = quizScoringService.score(quizId, submission);
+        quizScoringService.saveAnswers(attemptId, result.getAnswers());
+        entityManager.clear();
+    }
+}
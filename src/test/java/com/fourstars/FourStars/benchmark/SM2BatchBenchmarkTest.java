@@ -0,0 +1,177 @@
+package com.fourstars.FourStars.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fourstars.FourStars.service.SM2Service;
+
+/**
+ * So sánh đường tính một thẻ gốc (bản sao công thức trước khi có calculateBatch:
+ * một SM2InputData + SM2Result + Instant.now().plus mỗi thẻ), {@link
+ * SM2Service#calculate} hiện tại và {@link SM2Service#calculateBatch} trên mảng
+ * nguyên thủy, theo kiểu JMH: nhiều vòng warmup rồi đo throughput và số byte
+ * cấp phát trên mỗi thẻ (ThreadMXBean của HotSpot).
+ *
+ * Chạy bằng: mvn test -Pbenchmark -Dtest=SM2BatchBenchmarkTest
+ */
+@Tag("benchmark")
+class SM2BatchBenchmarkTest {
+
+    private static final int CARD_COUNT = 10_000;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int MEASURED_ROUNDS = 200;
+
+    private final SM2Service sm2Service = new SM2Service();
+
+    private final int[] repetitions = new int[CARD_COUNT];
+    private final double[] easeFactors = new double[CARD_COUNT];
+    private final int[] intervals = new int[CARD_COUNT];
+    private final int[] qualities = new int[CARD_COUNT];
+
+    private final int[] batchRepetitions = new int[CARD_COUNT];
+    private final double[] batchEaseFactors = new double[CARD_COUNT];
+    private final int[] batchIntervals = new int[CARD_COUNT];
+    private final int[] levels = new int[CARD_COUNT];
+    private final long[] nextReviews = new long[CARD_COUNT];
+
+    private long sink;
+
+    @Test
+    void compareScalarAndBatchCalculation() {
+        Random random = new Random(42);
+        for (int i = 0; i < CARD_COUNT; i++) {
+            repetitions[i] = random.nextInt(8);
+            easeFactors[i] = 1.3 + random.nextDouble() * 1.5;
+            intervals[i] = random.nextInt(120);
+            qualities[i] = random.nextInt(6);
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runReference();
+            runScalar();
+            runBatch();
+        }
+
+        Result reference = measure(this::runReference);
+        Result scalar = measure(this::runScalar);
+        Result batch = measure(this::runBatch);
+
+        System.out.printf("%n=== SM-2 benchmark (%d cards, %d rounds) ===%n", CARD_COUNT, MEASURED_ROUNDS);
+        reference.print("original (per card)");
+        scalar.print("calculate (per card)");
+        batch.print("calculateBatch");
+
+        runReference();
+        long referenceChecksum = sink;
+        runScalar();
+        assertEquals(referenceChecksum, sink);
+        runBatch();
+        assertEquals(referenceChecksum, sink);
+    }
+
+    private void runReference() {
+        long checksum = 0;
+        for (int i = 0; i < CARD_COUNT; i++) {
+            SM2Service.SM2InputData input = new SM2Service.SM2InputData();
+            input.setRepetitions(repetitions[i]);
+            input.setEaseFactor(easeFactors[i]);
+            input.setInterval(intervals[i]);
+            input.setQuality(qualities[i]);
+            SM2Service.SM2Result result = originalCalculate(input);
+            checksum += result.getNewInterval() * 31L + result.getNewLevel() + result.getNewRepetitions();
+        }
+        sink = checksum;
+    }
+
+    /** SM2Service.calculate như trước khi có calculateBatch, giữ lại làm mốc đo. */
+    private static SM2Service.SM2Result originalCalculate(SM2Service.SM2InputData data) {
+        int repetitions = data.getRepetitions();
+        double easeFactor = data.getEaseFactor();
+        int interval = data.getInterval();
+        int quality = data.getQuality();
+
+        if (quality < 3) {
+            repetitions = 0;
+            interval = 1;
+        } else {
+            repetitions++;
+            if (repetitions == 1) {
+                interval = 1;
+            } else if (repetitions == 2) {
+                interval = 6;
+            } else {
+                interval = (int) Math.round(interval * easeFactor);
+            }
+        }
+
+        easeFactor = easeFactor + (0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02));
+        if (easeFactor < 1.3) {
+            easeFactor = 1.3;
+        }
+
+        int newLevel = interval <= 1 ? 1 : interval <= 7 ? 2 : interval <= 21 ? 3 : interval <= 60 ? 4 : 5;
+        Instant nextReviewDate = Instant.now().plus(interval, ChronoUnit.DAYS);
+        return new SM2Service.SM2Result(repetitions, easeFactor, interval, newLevel, nextReviewDate);
+    }
+
+    private void runScalar() {
+        long checksum = 0;
+        for (int i = 0; i < CARD_COUNT; i++) {
+            SM2Service.SM2InputData input = new SM2Service.SM2InputData();
+            input.setRepetitions(repetitions[i]);
+            input.setEaseFactor(easeFactors[i]);
+            input.setInterval(intervals[i]);
+            input.setQuality(qualities[i]);
+            SM2Service.SM2Result result = sm2Service.calculate(input);
+            checksum += result.getNewInterval() * 31L + result.getNewLevel() + result.getNewRepetitions();
+        }
+        sink = checksum;
+    }
+
+    private void runBatch() {
+        System.arraycopy(repetitions, 0, batchRepetitions, 0, CARD_COUNT);
+        System.arraycopy(easeFactors, 0, batchEaseFactors, 0, CARD_COUNT);
+        System.arraycopy(intervals, 0, batchIntervals, 0, CARD_COUNT);
+        sm2Service.calculateBatch(CARD_COUNT, batchRepetitions, batchEaseFactors, batchIntervals, qualities, levels,
+                nextReviews, System.currentTimeMillis());
+        long checksum = 0;
+        for (int i = 0; i < CARD_COUNT; i++) {
+            checksum += batchIntervals[i] * 31L + levels[i] + batchRepetitions[i];
+        }
+        sink = checksum;
+    }
+
+    private Result measure(Runnable round) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        long nanos = System.nanoTime() - start;
+        return new Result(nanos, allocatedBytes() - allocatedBefore);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean hotspot) {
+            return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private record Result(long nanos, long allocatedBytes) {
+        void print(String label) {
+            double cards = (double) CARD_COUNT * MEASURED_ROUNDS;
+            System.out.printf("%-22s: %8.1f ns/card, %10.1f M cards/s, %6.1f bytes allocated/card%n", label,
+                    nanos / cards, cards / (nanos / 1e3), allocatedBytes / cards);
+        }
+    }
+}
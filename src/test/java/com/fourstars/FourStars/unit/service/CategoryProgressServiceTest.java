@@ -0,0 +1,173 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import com.fourstars.FourStars.domain.Category;
+import com.fourstars.FourStars.domain.UserCategoryProgress;
+import com.fourstars.FourStars.domain.key.UserCategoryId;
+import com.fourstars.FourStars.domain.response.vocabulary.CategoryProgressResponseDTO;
+import com.fourstars.FourStars.repository.UserCategoryProgressRepository;
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.repository.projection.CategoryProgressProjection;
+import com.fourstars.FourStars.repository.projection.VocabularyCategoryProjection;
+import com.fourstars.FourStars.service.CategoryProgressService;
+import com.fourstars.FourStars.service.CategoryProgressService.CardChange;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryProgressServiceTest {
+
+    @Mock
+    private UserCategoryProgressRepository userCategoryProgressRepository;
+    @Mock
+    private UserVocabularyRepository userVocabularyRepository;
+    @Mock
+    private VocabularyRepository vocabularyRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CategoryProgressService categoryProgressService;
+
+    @BeforeEach
+    void setUp() {
+        categoryProgressService = new CategoryProgressService(userCategoryProgressRepository,
+                userVocabularyRepository, vocabularyRepository, jdbcTemplate);
+    }
+
+    private static VocabularyCategoryProjection vocabulary(long id, long categoryId) {
+        return new VocabularyCategoryProjection() {
+            public Long getId() {
+                return id;
+            }
+
+            public Long getCategoryId() {
+                return categoryId;
+            }
+        };
+    }
+
+    private static CategoryProgressProjection summary(long categoryId, long notebook, long mastered, long due) {
+        return new CategoryProgressProjection() {
+            public Long getCategoryId() {
+                return categoryId;
+            }
+
+            public String getCategoryName() {
+                return "Category " + categoryId;
+            }
+
+            public Long getNotebookCount() {
+                return notebook;
+            }
+
+            public Long getMasteredCount() {
+                return mastered;
+            }
+
+            public Long getDueCount() {
+                return due;
+            }
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyChanges_sumsDeltasPerCategoryAndInitialisesMissingUsers() {
+        Instant now = Instant.now();
+        Instant overdue = now.minus(1, ChronoUnit.HOURS);
+        Instant later = now.plus(5, ChronoUnit.DAYS);
+        when(vocabularyRepository.findCategoryIdsByIdIn(any())).thenReturn(
+                List.of(vocabulary(1L, 10L), vocabulary(2L, 10L), vocabulary(3L, 20L)));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE user_category_progress"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 1, 0 } });
+        when(userCategoryProgressRepository.findCategoryIdsByUserId(7L)).thenReturn(List.of(10L));
+        when(userVocabularyRepository.summarizeByCategoryForUser(eq(7L), eq(UserCategoryProgress.MASTERED_LEVEL),
+                any())).thenReturn(List.of(summary(10L, 5, 1, 2), summary(20L, 1, 0, 0)));
+
+        categoryProgressService.applyChanges(List.of(
+                // Từ đến hạn được ôn, lên level 4 và hẹn 5 ngày sau.
+                new CardChange(7L, 1L, 3, overdue, 4, later),
+                // Từ mới vào sổ tay qua lượt ôn.
+                new CardChange(7L, 2L, null, null, 1, later),
+                new CardChange(7L, 3L, null, null, 1, later)));
+
+        ArgumentCaptor<Collection<Map.Entry<UserCategoryId, int[]>>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE user_category_progress"), batch.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        List<Map.Entry<UserCategoryId, int[]>> entries = List.copyOf(batch.getValue());
+        assertEquals(new UserCategoryId(7L, 10L), entries.get(0).getKey());
+        assertArrayEquals(new int[] { 1, 1, -1 }, entries.get(0).getValue());
+
+        // Danh mục 20 chưa có dòng: chèn từ số đếm trên sổ tay, không cộng thêm delta.
+        verify(jdbcTemplate).update(startsWith("INSERT INTO user_category_progress"), eq(1L), eq(0L), eq(0L), any(),
+                any(), eq(7L), eq(20L));
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO user_category_progress"), any(), any(), any(),
+                any(), any(), eq(7L), eq(10L));
+    }
+
+    @Test
+    void getProgress_countsFromNotebookWhenDueCountsAreStale() {
+        Category category = new Category();
+        category.setName("Food");
+        UserCategoryProgress stale = new UserCategoryProgress();
+        stale.setId(new UserCategoryId(7L, 10L));
+        stale.setCategory(category);
+        stale.setNotebookCount(5);
+        stale.setDueBefore(CategoryProgressService.dueBefore(Instant.now().minus(1, ChronoUnit.DAYS)));
+        when(userCategoryProgressRepository.findAllByUserIdWithCategory(7L)).thenReturn(List.of(stale));
+        when(userVocabularyRepository.summarizeByCategoryForUser(eq(7L), eq(UserCategoryProgress.MASTERED_LEVEL),
+                any())).thenReturn(List.of(summary(10L, 5, 2, 3)));
+
+        List<CategoryProgressResponseDTO> progress = categoryProgressService.getProgress(7L);
+
+        assertEquals(1, progress.size());
+        assertEquals(3, progress.get(0).getDueCount());
+    }
+
+    @Test
+    void getProgress_readsRollupWhenCurrent() {
+        Category category = new Category();
+        category.setName("Food");
+        UserCategoryProgress row = new UserCategoryProgress();
+        row.setId(new UserCategoryId(7L, 10L));
+        row.setCategory(category);
+        row.setNotebookCount(5);
+        row.setMasteredCount(2);
+        row.setDueCount(1);
+        row.setDueBefore(CategoryProgressService.dueBefore(Instant.now()));
+        UserCategoryProgress emptied = new UserCategoryProgress();
+        emptied.setId(new UserCategoryId(7L, 20L));
+        emptied.setCategory(category);
+        emptied.setDueBefore(row.getDueBefore());
+        when(userCategoryProgressRepository.findAllByUserIdWithCategory(7L)).thenReturn(List.of(row, emptied));
+
+        List<CategoryProgressResponseDTO> progress = categoryProgressService.getProgress(7L);
+
+        assertEquals(1, progress.size());
+        assertEquals("Food", progress.get(0).getCategoryName());
+        assertEquals(2, progress.get(0).getMasteredCount());
+    }
+}
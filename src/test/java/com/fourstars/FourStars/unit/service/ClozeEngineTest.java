@@ -0,0 +1,77 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.fourstars.FourStars.service.ClozeEngine;
+import com.fourstars.FourStars.service.ClozeEngine.Cloze;
+
+class ClozeEngineTest {
+
+    @Test
+    void compute_blanksWholeWordsOnlyIgnoringCase() {
+        Cloze cloze = ClozeEngine.compute("Art lovers start early at the art fair.", "art");
+
+        assertEquals("______ lovers start early at the ______ fair.", cloze.prompt());
+        assertEquals(0, cloze.blankStart());
+        assertEquals(3, cloze.blankLength());
+    }
+
+    @Test
+    void compute_matchesSimpleInflections() {
+        assertEquals("She ______ home and kept ______.",
+                ClozeEngine.compute("She walked home and kept walking.", "walk").prompt());
+        assertEquals("The ______ left on time.", ClozeEngine.compute("The buses left on time.", "bus").prompt());
+        assertEquals("It ______ at noon.", ClozeEngine.compute("It stopped at noon.", "stop").prompt());
+        assertEquals("He ______ hard while she ______.",
+                ClozeEngine.compute("He studied hard while she studies.", "study").prompt());
+        assertEquals("We are ______ late.", ClozeEngine.compute("We are running late.", "run").prompt());
+        assertEquals("I am ______ a cake.", ClozeEngine.compute("I am baking a cake.", "bake").prompt());
+        assertEquals("She ______ home.", ClozeEngine.compute("She goes home.", "go").prompt());
+        assertEquals("He ______ TV.", ClozeEngine.compute("He watches TV.", "watch").prompt());
+    }
+
+    @Test
+    void compute_rejectsLookalikeWordsThatAreNotInflections() {
+        assertFalse(ClozeEngine.compute("Both cares were gone.", "car").matched());
+        assertFalse(ClozeEngine.compute("Take notes now.", "not").matched());
+        assertFalse(ClozeEngine.compute("He hates rain.", "hat").matched());
+        assertFalse(ClozeEngine.compute("The bees buzzed.", "be").matched());
+        assertFalse(ClozeEngine.compute("Go to bed.", "be").matched());
+        assertEquals("She ______ it.", ClozeEngine.compute("She used it.", "use").prompt());
+    }
+
+    @Test
+    void compute_matchesMultiWordEntriesAndKeepsPunctuation() {
+        Cloze cloze = ClozeEngine.compute("Who looks after the dog's bowl?", "look after");
+
+        assertEquals("Who ______ the dog's bowl?", cloze.prompt());
+        assertEquals(4, cloze.blankStart());
+        assertEquals("looks after".length(), cloze.blankLength());
+        assertEquals("The ______'s bowl.", ClozeEngine.compute("The dog's bowl.", "dog").prompt());
+    }
+
+    @Test
+    void compute_leavesSentenceUnchangedWhenWordIsAbsent() {
+        Cloze cloze = ClozeEngine.compute("Nothing to see here.", "cat");
+
+        assertFalse(cloze.matched());
+        assertEquals("Nothing to see here.", cloze.prompt());
+    }
+
+    @Test
+    void cloze_cachesPerVocabularyUntilSentenceChanges() {
+        ClozeEngine engine = new ClozeEngine();
+
+        Cloze first = engine.cloze(1L, "A cat slept.", "cat");
+        assertSame(first, engine.cloze(1L, "A cat slept.", "cat"));
+
+        Cloze edited = engine.cloze(1L, "Two cats slept.", "cat");
+        assertNotSame(first, edited);
+        assertEquals("Two ______ slept.", edited.prompt());
+    }
+}
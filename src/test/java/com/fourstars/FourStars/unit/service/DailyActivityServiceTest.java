@@ -0,0 +1,85 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fourstars.FourStars.service.DailyActivityService;
+
+@ExtendWith(MockitoExtension.class)
+class DailyActivityServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private DailyActivityService dailyActivityService;
+
+    @BeforeEach
+    void setUp() {
+        dailyActivityService = new DailyActivityService(redisTemplate);
+    }
+
+    private static String todayKey(String email) {
+        return "activity:day:" + LocalDate.now() + ":" + email;
+    }
+
+    @Test
+    void claim_onlyFirstRequestOfDayHitsRedisAndWins() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(todayKey("a@x.com")), eq("1"), any(Duration.class))).thenReturn(true);
+
+        assertTrue(dailyActivityService.claim("a@x.com"));
+        assertFalse(dailyActivityService.claim("a@x.com"));
+        assertFalse(dailyActivityService.claim("a@x.com"));
+
+        verify(valueOperations, times(1)).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void claim_losesWhenAnotherNodeRecordedTheDay() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(todayKey("b@x.com")), eq("1"), any(Duration.class))).thenReturn(false);
+
+        assertFalse(dailyActivityService.claim("b@x.com"));
+        assertFalse(dailyActivityService.claim("b@x.com"));
+    }
+
+    @Test
+    void claim_fallsBackToLocalMarkerWhenRedisIsDown() {
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertTrue(dailyActivityService.claim("c@x.com"));
+        assertFalse(dailyActivityService.claim("c@x.com"));
+    }
+
+    @Test
+    void release_letsNextRequestClaimAgain() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(todayKey("d@x.com")), eq("1"), any(Duration.class))).thenReturn(true);
+
+        assertTrue(dailyActivityService.claim("d@x.com"));
+        dailyActivityService.release("d@x.com");
+
+        verify(redisTemplate).delete(todayKey("d@x.com"));
+        assertTrue(dailyActivityService.claim("d@x.com"));
+    }
+}
@@ -0,0 +1,137 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.repository.projection.DistractorProjection;
+import com.fourstars.FourStars.service.DistractorPoolService;
+import com.fourstars.FourStars.service.DistractorPoolService.Distractor;
+
+@ExtendWith(MockitoExtension.class)
+class DistractorPoolServiceTest {
+
+    @Mock
+    private VocabularyRepository vocabularyRepository;
+
+    private DistractorPoolService distractorPoolService;
+
+    @BeforeEach
+    void setUp() {
+        distractorPoolService = new DistractorPoolService(vocabularyRepository);
+    }
+
+    private static DistractorProjection candidate(long id, String word, String partOfSpeech, String image) {
+        return new DistractorProjection() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getWord() {
+                return word;
+            }
+
+            public String getPartOfSpeech() {
+                return partOfSpeech;
+            }
+
+            public String getImage() {
+                return image;
+            }
+
+            public String getAudio() {
+                return null;
+            }
+        };
+    }
+
+    private static Vocabulary target(long id, String word, String partOfSpeech) {
+        Vocabulary vocab = new Vocabulary();
+        vocab.setId(id);
+        vocab.setWord(word);
+        vocab.setPartOfSpeech(partOfSpeech);
+        return vocab;
+    }
+
+    @Test
+    void sample_returnsDistinctWordsOfSamePartOfSpeechExcludingTarget() {
+        List<DistractorProjection> candidates = new ArrayList<>();
+        candidates.add(candidate(1L, "apple", "noun", null));
+        candidates.add(candidate(2L, "Apple", "noun", null));
+        candidates.add(candidate(3L, "pear", "Noun", null));
+        candidates.add(candidate(4L, "pear", "noun", null));
+        candidates.add(candidate(5L, "plum", "noun", null));
+        candidates.add(candidate(6L, "run", "verb", null));
+        when(vocabularyRepository.findAllDistractorCandidates()).thenReturn(candidates);
+
+        for (int i = 0; i < 50; i++) {
+            List<Distractor> picked = distractorPoolService.sample(target(1L, "apple", "noun "), 3, false);
+
+            // Chỉ có "pear" và "plum" là hợp lệ và khác nhau.
+            assertEquals(2, picked.size());
+            Set<String> words = new HashSet<>();
+            picked.forEach(d -> words.add(d.word()));
+            assertEquals(Set.of("pear", "plum"), words);
+        }
+        verify(vocabularyRepository).findAllDistractorCandidates();
+    }
+
+    @Test
+    void sample_withImageSkipsWordsWithoutImage() {
+        when(vocabularyRepository.findAllDistractorCandidates()).thenReturn(List.of(
+                candidate(1L, "cat", "noun", "cat.png"),
+                candidate(2L, "dog", "noun", null),
+                candidate(3L, "cow", "noun", ""),
+                candidate(4L, "pig", "noun", "pig.png")));
+
+        List<Distractor> picked = distractorPoolService.sample(target(9L, "hen", "noun"), 3, true);
+
+        assertEquals(2, picked.size());
+        picked.forEach(d -> assertFalse(d.image() == null || d.image().isEmpty()));
+    }
+
+    @Test
+    void refresh_movesChangedWordAndDropsDeletedOne() {
+        when(vocabularyRepository.findAllDistractorCandidates()).thenReturn(List.of(
+                candidate(1L, "quick", "adjective", null),
+                candidate(2L, "slow", "adjective", null),
+                candidate(3L, "run", "verb", null)));
+        assertEquals(1, distractorPoolService.sample(target(1L, "quick", "adjective"), 3, false).size());
+
+        // Từ 3 đổi sang tính từ, từ 2 bị xóa.
+        when(vocabularyRepository.findDistractorCandidateById(3L))
+                .thenReturn(Optional.of(candidate(3L, "swift", "adjective", null)));
+        when(vocabularyRepository.findDistractorCandidateById(2L)).thenReturn(Optional.empty());
+        distractorPoolService.refresh(3L);
+        distractorPoolService.refresh(2L);
+
+        List<Distractor> adjectives = distractorPoolService.sample(target(1L, "quick", "adjective"), 3, false);
+        assertEquals(1, adjectives.size());
+        assertEquals(3L, adjectives.get(0).id());
+        assertTrue(distractorPoolService.sample(target(7L, "walk", "verb"), 3, false).isEmpty());
+    }
+
+    @Test
+    void refresh_beforeFirstLoadIsIgnored() {
+        distractorPoolService.refresh(3L);
+
+        verify(vocabularyRepository, never()).findDistractorCandidateById(3L);
+    }
+}
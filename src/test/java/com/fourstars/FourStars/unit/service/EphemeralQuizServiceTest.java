@@ -0,0 +1,143 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fourstars.FourStars.domain.request.quiz.QuestionChoiceDTO;
+import com.fourstars.FourStars.domain.request.quiz.QuestionDTO;
+import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
+import com.fourstars.FourStars.service.EphemeralQuizService;
+import com.fourstars.FourStars.service.EphemeralQuizService.EphemeralQuiz;
+import com.fourstars.FourStars.service.QuizAnswerKeyService.QuizAnswerKey;
+import com.fourstars.FourStars.util.constant.QuestionType;
+import com.fourstars.FourStars.util.error.BadRequestException;
+import com.fourstars.FourStars.util.error.ResourceNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class EphemeralQuizServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private EphemeralQuizService ephemeralQuizService;
+
+    @BeforeEach
+    void setUp() {
+        ephemeralQuizService = new EphemeralQuizService(redisTemplate, new ObjectMapper().findAndRegisterModules());
+    }
+
+    private static QuizDTO generatedQuiz() {
+        QuestionDTO choice = new QuestionDTO();
+        choice.setQuestionType(QuestionType.MULTIPLE_CHOICE_TEXT);
+        choice.setPrompt("apple?");
+        choice.setRelatedVocabularyId(101L);
+        Set<QuestionChoiceDTO> choices = new LinkedHashSet<>();
+        choices.add(new QuestionChoiceDTO(0, "quả táo", null, true));
+        choices.add(new QuestionChoiceDTO(0, "quả cam", null, false));
+        choice.setChoices(choices);
+
+        QuestionDTO fill = new QuestionDTO();
+        fill.setQuestionType(QuestionType.FILL_IN_BLANK);
+        fill.setPrompt("I eat an ___");
+        fill.setCorrectSentence("apple");
+        fill.setRelatedVocabularyId(101L);
+
+        QuizDTO quiz = new QuizDTO();
+        quiz.setTitle("Personal Review");
+        Set<QuestionDTO> questions = new LinkedHashSet<>();
+        questions.add(choice);
+        questions.add(fill);
+        quiz.setQuestions(questions);
+        return quiz;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> createAndCaptureStored(long userId) {
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment("quiz:ephemeral:seq")).thenReturn(42L);
+
+        QuizDTO created = ephemeralQuizService.create(userId, generatedQuiz());
+        assertEquals(-42L, created.getId());
+
+        ArgumentCaptor<Map<String, String>> stored = ArgumentCaptor.forClass(Map.class);
+        verify(hashOperations).putAll(eq("quiz:ephemeral:42"), stored.capture());
+        return new HashMap<>(stored.getValue());
+    }
+
+    @Test
+    void create_storesAnswerKeyThatScoresAgainstSequentialIds() {
+        Map<Object, Object> stored = createAndCaptureStored(7L);
+        when(hashOperations.entries("quiz:ephemeral:42")).thenReturn(stored);
+
+        EphemeralQuiz quiz = ephemeralQuizService.load(-42L, 7L);
+        QuizAnswerKey key = ephemeralQuizService.getAnswerKey(quiz);
+
+        assertEquals(2, key.size());
+        assertEquals("Personal Review", key.getQuizTitle());
+        int choiceIndex = key.indexOf(1L);
+        assertTrue(key.isChoiceBased(choiceIndex));
+        assertTrue(key.isCorrect(choiceIndex, 1L, null));
+        assertFalse(key.isCorrect(choiceIndex, 2L, null));
+        assertTrue(key.isCorrect(key.indexOf(2L), null, " Apple "));
+        assertEquals(101L, key.getRelatedVocabularyId(choiceIndex));
+    }
+
+    @Test
+    void withoutAnswers_hidesCorrectChoiceAndSentence() {
+        QuizDTO quiz = EphemeralQuizService.withoutAnswers(generatedQuiz());
+
+        for (QuestionDTO question : quiz.getQuestions()) {
+            assertNull(question.getCorrectSentence());
+            if (question.getChoices() != null) {
+                question.getChoices().forEach(choice -> assertNull(choice.getIsCorrect()));
+            }
+        }
+    }
+
+    @Test
+    void load_rejectsQuizOfAnotherUser() {
+        Map<Object, Object> stored = createAndCaptureStored(7L);
+        when(hashOperations.entries("quiz:ephemeral:42")).thenReturn(stored);
+
+        assertThrows(ResourceNotFoundException.class, () -> ephemeralQuizService.load(-42L, 8L));
+    }
+
+    @Test
+    void claimForScoring_allowsOnlyOneSubmission() {
+        Map<Object, Object> stored = createAndCaptureStored(7L);
+        when(hashOperations.entries("quiz:ephemeral:42")).thenReturn(stored);
+        when(hashOperations.putIfAbsent(eq("quiz:ephemeral:42"), eq("submittedAt"), anyString()))
+                .thenReturn(true, false);
+
+        assertEquals(-42L, ephemeralQuizService.claimForScoring(-42L, 7L).id());
+        assertThrows(BadRequestException.class, () -> ephemeralQuizService.claimForScoring(-42L, 7L));
+    }
+}
@@ -0,0 +1,172 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.domain.VocabularyQuestionTemplate;
+import com.fourstars.FourStars.repository.VocabularyQuestionTemplateRepository;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.service.ClozeEngine;
+import com.fourstars.FourStars.service.DistractorPoolService;
+import com.fourstars.FourStars.service.DistractorPoolService.Distractor;
+import com.fourstars.FourStars.service.QuestionTemplateService;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionTemplateServiceTest {
+
+    private static final Instant CREATED = Instant.parse("2026-03-01T00:00:00Z");
+    private static final Instant EDITED = Instant.parse("2026-03-05T00:00:00Z");
+
+    @Mock
+    private VocabularyRepository vocabularyRepository;
+    @Mock
+    private VocabularyQuestionTemplateRepository templateRepository;
+    @Mock
+    private DistractorPoolService distractorPoolService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private QuestionTemplateService questionTemplateService;
+
+    @BeforeEach
+    void setUp() {
+        questionTemplateService = new QuestionTemplateService(vocabularyRepository, templateRepository,
+                distractorPoolService, new ClozeEngine(), jdbcTemplate);
+    }
+
+    private static Vocabulary vocabulary(long id, String word, String example, Instant updatedAt) {
+        Vocabulary vocab = new Vocabulary();
+        vocab.setId(id);
+        vocab.setWord(word);
+        vocab.setPartOfSpeech("noun");
+        vocab.setExampleEn(example);
+        vocab.setCreatedAt(CREATED);
+        vocab.setUpdatedAt(updatedAt);
+        return vocab;
+    }
+
+    private static VocabularyQuestionTemplate template(long vocabularyId, Instant sourceUpdatedAt) {
+        return template(vocabularyId, sourceUpdatedAt, QuestionTemplateService.FORMAT_VERSION);
+    }
+
+    private static VocabularyQuestionTemplate template(long vocabularyId, Instant sourceUpdatedAt,
+            Integer formatVersion) {
+        VocabularyQuestionTemplate template = new VocabularyQuestionTemplate();
+        template.setVocabularyId(vocabularyId);
+        template.setSourceUpdatedAt(sourceUpdatedAt);
+        template.setFormatVersion(formatVersion);
+        return template;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void precompile_rebuildsOnlyMissingOrStaleTemplatesAndDropsDeletedWords() {
+        Vocabulary upToDate = vocabulary(1L, "dog", "A dog barked.", null);
+        Vocabulary added = vocabulary(2L, "cat", "The Cat sat near the cat.", null);
+        added.setAudio("cat.mp3");
+        Vocabulary edited = vocabulary(3L, "bird", "No match here.", EDITED);
+        when(templateRepository.findAllById(any())).thenReturn(
+                List.of(template(1L, CREATED), template(3L, CREATED), template(4L, CREATED)));
+        when(vocabularyRepository.findAllById(any())).thenReturn(List.of(upToDate, added, edited));
+        when(distractorPoolService.sample(2L, "cat", "noun", 6, false))
+                .thenReturn(List.of(new Distractor(5L, "cow", null, null), new Distractor(6L, "pig", null, null)));
+        when(distractorPoolService.sample(3L, "bird", "noun", 6, false)).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE vocabulary_question_templates"), any(Collection.class),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 0, 1 } });
+
+        int written = questionTemplateService.precompile(List.of(1L, 2L, 3L, 4L, 2L));
+
+        assertEquals(2, written);
+        verify(templateRepository).deleteAllByIdInBatch(Set.of(4L));
+        ArgumentCaptor<Collection<VocabularyQuestionTemplate>> inserted = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO vocabulary_question_templates"), inserted.capture(),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        List<VocabularyQuestionTemplate> rows = List.copyOf(inserted.getValue());
+        assertEquals(1, rows.size());
+        VocabularyQuestionTemplate built = rows.get(0);
+        assertEquals(2L, built.getVocabularyId());
+        assertEquals(CREATED, built.getSourceUpdatedAt());
+        assertEquals(QuestionTemplateService.FORMAT_VERSION, built.getFormatVersion());
+        assertEquals("The ______ sat near the ______.", built.getClozePrompt());
+        assertEquals(4, built.getBlankStart());
+        assertEquals(3, built.getBlankLength());
+        assertEquals("5,6", built.getDistractorIds());
+        assertEquals("cat.mp3", built.getListeningAudio());
+    }
+
+    @Test
+    void precompile_isNoOpWhenEveryTemplateIsCurrent() {
+        when(templateRepository.findAllById(any())).thenReturn(List.of(template(1L, EDITED)));
+        when(vocabularyRepository.findAllById(any()))
+                .thenReturn(List.of(vocabulary(1L, "dog", "A dog barked.", EDITED)));
+
+        assertEquals(0, questionTemplateService.precompile(List.of(1L)));
+
+        verifyNoInteractions(jdbcTemplate, distractorPoolService);
+        verify(templateRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void findFresh_ignoresTemplatesBuiltFromOlderVersion() {
+        Vocabulary fresh = vocabulary(1L, "dog", "A dog barked.", null);
+        Vocabulary edited = vocabulary(2L, "cat", "A cat slept.", EDITED);
+        when(templateRepository.findAllById(any())).thenReturn(List.of(template(1L, CREATED), template(2L, CREATED)));
+
+        Map<Long, VocabularyQuestionTemplate> templates = questionTemplateService.findFresh(List.of(fresh, edited));
+
+        assertEquals(Set.of(1L), templates.keySet());
+        assertNull(templates.get(2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void precompile_rebuildsTemplatesBuiltByAnOlderFormat() {
+        when(templateRepository.findAllById(any())).thenReturn(List.of(template(1L, CREATED, null)));
+        when(vocabularyRepository.findAllById(any()))
+                .thenReturn(List.of(vocabulary(1L, "car", "Both cares and cars matter.", null)));
+        when(distractorPoolService.sample(1L, "car", "noun", 6, false)).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE vocabulary_question_templates"), any(Collection.class),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 1 } });
+
+        assertEquals(1, questionTemplateService.precompile(List.of(1L)));
+
+        ArgumentCaptor<Collection<VocabularyQuestionTemplate>> updated = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE vocabulary_question_templates"), updated.capture(),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        VocabularyQuestionTemplate rebuilt = List.copyOf(updated.getValue()).get(0);
+        assertEquals("Both cares and ______ matter.", rebuilt.getClozePrompt());
+        assertEquals(QuestionTemplateService.FORMAT_VERSION, rebuilt.getFormatVersion());
+    }
+
+    @Test
+    void findFresh_ignoresTemplatesBuiltByAnOlderFormat() {
+        Vocabulary vocab = vocabulary(1L, "car", "Both cares and cars matter.", null);
+        when(templateRepository.findAllById(any())).thenReturn(List.of(template(1L, CREATED, 1)));
+
+        assertTrue(questionTemplateService.findFresh(List.of(vocab)).isEmpty());
+    }
+}
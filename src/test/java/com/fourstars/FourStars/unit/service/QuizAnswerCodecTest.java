@@ -0,0 +1,50 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fourstars.FourStars.service.QuizAnswerCodec;
+import com.fourstars.FourStars.service.QuizScoringService.ScoredAnswer;
+
+class QuizAnswerCodecTest {
+
+    @Test
+    void encodeDecode_roundTripsChoicesTextAndLargeIds() {
+        List<ScoredAnswer> answers = List.of(
+                new ScoredAnswer(0, 1L, null, 42L, true, 10),
+                new ScoredAnswer(1, 9_000_000_000L, "Xin chào thế giới", null, false, 0),
+                new ScoredAnswer(2, 3L, "", 0L, true, 300));
+
+        List<ScoredAnswer> decoded = QuizAnswerCodec.decode(QuizAnswerCodec.encode(answers));
+
+        assertEquals(3, decoded.size());
+        assertEquals(1L, decoded.get(0).getQuestionId());
+        assertEquals(42L, decoded.get(0).getSelectedChoiceId());
+        assertNull(decoded.get(0).getUserAnswerText());
+        assertTrue(decoded.get(0).isCorrect());
+        assertEquals(10, decoded.get(0).getPointsAwarded());
+
+        assertEquals(9_000_000_000L, decoded.get(1).getQuestionId());
+        assertNull(decoded.get(1).getSelectedChoiceId());
+        assertEquals("Xin chào thế giới", decoded.get(1).getUserAnswerText());
+        assertFalse(decoded.get(1).isCorrect());
+
+        assertEquals("", decoded.get(2).getUserAnswerText());
+        assertEquals(0L, decoded.get(2).getSelectedChoiceId());
+        assertEquals(300, decoded.get(2).getPointsAwarded());
+        assertEquals(-1, decoded.get(2).getQuestionIndex());
+    }
+
+    @Test
+    void encode_isCompactForChoiceAnswers() {
+        List<ScoredAnswer> answers = List.of(new ScoredAnswer(0, 100L, null, 400L, true, 10));
+
+        assertEquals(7, QuizAnswerCodec.encode(answers).length);
+    }
+}
@@ -0,0 +1,104 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.fourstars.FourStars.domain.Question;
+import com.fourstars.FourStars.domain.QuestionChoice;
+import com.fourstars.FourStars.repository.QuestionRepository;
+import com.fourstars.FourStars.service.QuizAnswerKeyService;
+import com.fourstars.FourStars.service.QuizAnswerKeyService.QuizAnswerKey;
+import com.fourstars.FourStars.util.constant.QuestionType;
+
+@ExtendWith(MockitoExtension.class)
+class QuizAnswerKeyServiceTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private QuizAnswerKeyService quizAnswerKeyService;
+
+    @BeforeEach
+    void setUp() {
+        quizAnswerKeyService = new QuizAnswerKeyService(questionRepository, redisTemplate);
+    }
+
+    private static Question choiceQuestion(long id, long correctChoiceId, long wrongChoiceId) {
+        Question q = new Question();
+        q.setId(id);
+        q.setQuestionType(QuestionType.MULTIPLE_CHOICE_TEXT);
+        q.setPoints(10);
+        QuestionChoice correct = new QuestionChoice();
+        correct.setId(correctChoiceId);
+        correct.setCorrect(true);
+        QuestionChoice wrong = new QuestionChoice();
+        wrong.setId(wrongChoiceId);
+        q.getChoices().add(correct);
+        q.getChoices().add(wrong);
+        return q;
+    }
+
+    private static Question textQuestion(long id, String correctSentence) {
+        Question q = new Question();
+        q.setId(id);
+        q.setQuestionType(QuestionType.FILL_IN_BLANK);
+        q.setCorrectSentence(correctSentence);
+        q.setPoints(5);
+        return q;
+    }
+
+    @Test
+    void compile_shouldScoreChoiceAndTextQuestions() {
+        QuizAnswerKey key = QuizAnswerKey.compile(1L, 0L,
+                List.of(textQuestion(30L, "Hello World"), choiceQuestion(10L, 100L, 101L)));
+
+        assertEquals(2, key.size());
+        assertEquals(15, key.getTotalPoints());
+        assertEquals(-1, key.indexOf(99L));
+
+        int choiceIndex = key.indexOf(10L);
+        assertTrue(key.isCorrect(choiceIndex, 100L, null));
+        assertFalse(key.isCorrect(choiceIndex, 101L, null));
+        assertFalse(key.isCorrect(choiceIndex, null, null));
+
+        int textIndex = key.indexOf(30L);
+        assertTrue(key.isCorrect(textIndex, null, "  hello world "));
+        assertFalse(key.isCorrect(textIndex, null, "hello"));
+    }
+
+    @Test
+    void getAnswerKey_shouldReuseCachedKeyUntilVersionChanges() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(questionRepository.findAllWithChoicesByQuizId(1L)).thenReturn(List.of(choiceQuestion(10L, 100L, 101L)));
+        when(valueOperations.get("quiz:version:1")).thenReturn(null, null, "1");
+
+        QuizAnswerKey first = quizAnswerKeyService.getAnswerKey(1L);
+        QuizAnswerKey second = quizAnswerKeyService.getAnswerKey(1L);
+        QuizAnswerKey afterBump = quizAnswerKeyService.getAnswerKey(1L);
+
+        assertSame(first, second);
+        assertNotSame(first, afterBump);
+        assertEquals(1L, afterBump.getVersion());
+        verify(questionRepository, times(2)).findAllWithChoicesByQuizId(1L);
+    }
+}
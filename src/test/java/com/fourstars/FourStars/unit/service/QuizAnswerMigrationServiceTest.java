@@ -0,0 +1,92 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import com.fourstars.FourStars.service.QuizAnswerCodec;
+import com.fourstars.FourStars.service.QuizAnswerMigrationService;
+import com.fourstars.FourStars.service.QuizScoringService.ScoredAnswer;
+
+class QuizAnswerMigrationServiceTest {
+
+    private SimpleDriverDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:migration" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE user_quiz_attempts (id BIGINT PRIMARY KEY, answers_encoded BLOB)");
+        jdbcTemplate.execute("CREATE TABLE user_answers (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "user_quiz_attempt_id BIGINT, question_id BIGINT, user_answer_text VARCHAR(255), "
+                + "selected_choice_id BIGINT, is_correct BOOLEAN, points_awarded INT)");
+        for (long attemptId = 1; attemptId <= 3; attemptId++) {
+            jdbcTemplate.update("INSERT INTO user_quiz_attempts (id) VALUES (?)", attemptId);
+            jdbcTemplate.update("INSERT INTO user_answers (user_quiz_attempt_id, question_id, user_answer_text, "
+                    + "selected_choice_id, is_correct, points_awarded) VALUES (?, 10, NULL, 100, TRUE, 5)", attemptId);
+            jdbcTemplate.update("INSERT INTO user_answers (user_quiz_attempt_id, question_id, user_answer_text, "
+                    + "selected_choice_id, is_correct, points_awarded) VALUES (?, 11, 'cat', NULL, FALSE, 0)",
+                    attemptId);
+        }
+    }
+
+    private byte[] encoded(long attemptId) {
+        return jdbcTemplate.queryForObject("SELECT answers_encoded FROM user_quiz_attempts WHERE id = ?",
+                byte[].class, attemptId);
+    }
+
+    private int answerRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_answers", Integer.class);
+    }
+
+    @Test
+    void migrateBatch_encodesAnswersAndRemovesRows() {
+        QuizAnswerMigrationService service = new QuizAnswerMigrationService(jdbcTemplate,
+                new DataSourceTransactionManager(dataSource));
+
+        assertEquals(2, service.migrateBatch(2));
+        assertEquals(2, answerRows());
+        assertNull(encoded(3L));
+
+        List<ScoredAnswer> answers = QuizAnswerCodec.decode(encoded(1L));
+        assertEquals(2, answers.size());
+        assertEquals(10L, answers.get(0).getQuestionId());
+        assertEquals(100L, answers.get(0).getSelectedChoiceId());
+        assertEquals(5, answers.get(0).getPointsAwarded());
+        assertEquals("cat", answers.get(1).getUserAnswerText());
+        assertNull(answers.get(1).getSelectedChoiceId());
+
+        assertEquals(1, service.migrateAll(2));
+        assertEquals(0, answerRows());
+    }
+
+    @Test
+    void migrateBatch_rollsBackEncodedColumnWhenDeleteFails() {
+        JdbcTemplate failingDelete = spy(jdbcTemplate);
+        doThrow(new DataAccessResourceFailureException("connection lost")).when(failingDelete)
+                .update(startsWith("DELETE"), any(Object[].class));
+        QuizAnswerMigrationService service = new QuizAnswerMigrationService(failingDelete,
+                new DataSourceTransactionManager(dataSource));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> service.migrateBatch(10));
+
+        // Không attempt nào bị chuyển dở: cột encoded vẫn trống và dòng câu trả lời còn nguyên.
+        assertNull(encoded(1L));
+        assertEquals(6, answerRows());
+    }
+}
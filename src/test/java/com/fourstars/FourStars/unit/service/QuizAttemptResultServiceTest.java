@@ -0,0 +1,77 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fourstars.FourStars.domain.UserQuizAttemptResult;
+import com.fourstars.FourStars.domain.response.quiz.QuizAttemptResponseDTO;
+import com.fourstars.FourStars.domain.response.quiz.UserAnswerResponseDTO;
+import com.fourstars.FourStars.repository.UserQuizAttemptResultRepository;
+import com.fourstars.FourStars.service.QuizAttemptResultService;
+import com.fourstars.FourStars.util.constant.QuizStatus;
+
+@ExtendWith(MockitoExtension.class)
+class QuizAttemptResultServiceTest {
+
+    @Mock
+    private UserQuizAttemptResultRepository resultRepository;
+
+    private QuizAttemptResultService quizAttemptResultService;
+
+    @BeforeEach
+    void setUp() {
+        quizAttemptResultService = new QuizAttemptResultService(resultRepository,
+                Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    @Test
+    void storedResult_roundTripsWithoutReloadingAttempt() {
+        QuizAttemptResponseDTO result = new QuizAttemptResponseDTO();
+        result.setId(42L);
+        result.setStatus(QuizStatus.COMPLETED);
+        result.setScore(10);
+        result.setTotalPoints(20);
+        result.setCompletedAt(Instant.parse("2024-05-01T10:15:30Z"));
+        UserAnswerResponseDTO answer = new UserAnswerResponseDTO();
+        answer.setQuestionId(7L);
+        answer.setCorrect(true);
+        answer.setPointsAwarded(10);
+        result.setUserAnswers(List.of(answer));
+
+        quizAttemptResultService.storeResult(3L, result);
+
+        ArgumentCaptor<UserQuizAttemptResult> saved = ArgumentCaptor.forClass(UserQuizAttemptResult.class);
+        verify(resultRepository).save(saved.capture());
+        assertTrue(saved.getValue().isNew());
+        when(resultRepository.findResultJson(42L, 3L)).thenReturn(Optional.of(saved.getValue().getResultJson()));
+
+        QuizAttemptResponseDTO loaded = quizAttemptResultService.findResult(42L, 3L).orElseThrow();
+
+        assertEquals(QuizStatus.COMPLETED, loaded.getStatus());
+        assertEquals(20, loaded.getTotalPoints());
+        assertEquals(result.getCompletedAt(), loaded.getCompletedAt());
+        assertTrue(loaded.getUserAnswers().get(0).isCorrect());
+    }
+
+    @Test
+    void findResult_isEmptyForAttemptsWithoutStoredResult() {
+        when(resultRepository.findResultJson(any(Long.class), any(Long.class))).thenReturn(Optional.empty());
+
+        assertTrue(quizAttemptResultService.findResult(1L, 1L).isEmpty());
+    }
+}
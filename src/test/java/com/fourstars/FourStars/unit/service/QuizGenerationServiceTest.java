@@ -0,0 +1,138 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.domain.VocabularyQuestionTemplate;
+import com.fourstars.FourStars.domain.request.quiz.QuestionDTO;
+import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
+import com.fourstars.FourStars.repository.CategoryRepository;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.service.ClozeEngine;
+import com.fourstars.FourStars.service.DistractorPoolService;
+import com.fourstars.FourStars.service.DistractorPoolService.Distractor;
+import com.fourstars.FourStars.service.QuestionTemplateService;
+import com.fourstars.FourStars.service.QuizGenerationService;
+import com.fourstars.FourStars.util.constant.QuestionType;
+
+@ExtendWith(MockitoExtension.class)
+class QuizGenerationServiceTest {
+
+    @Mock
+    private VocabularyRepository vocabularyRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private DistractorPoolService distractorPoolService;
+    @Mock
+    private QuestionTemplateService questionTemplateService;
+
+    private QuizGenerationService quizGenerationService;
+
+    @BeforeEach
+    void setUp() {
+        quizGenerationService = new QuizGenerationService(vocabularyRepository, categoryRepository,
+                distractorPoolService, questionTemplateService, new ClozeEngine());
+        ReflectionTestUtils.setField(quizGenerationService, "parallelism", 2);
+    }
+
+    private void stubSampling() {
+        when(distractorPoolService.sample(anyLong(), anyString(), anyString(), anyInt(), anyBoolean()))
+                .thenReturn(List.of(new Distractor(-1L, "alpha", null, null), new Distractor(-2L, "beta", null, null),
+                        new Distractor(-3L, "gamma", null, null)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        quizGenerationService.shutdownGenerationPool();
+    }
+
+    private static List<Vocabulary> vocabularies(int count) {
+        List<Vocabulary> vocabularies = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Vocabulary vocab = new Vocabulary();
+            vocab.setId(i);
+            vocab.setWord("word" + i);
+            vocab.setPartOfSpeech("noun");
+            vocab.setExampleEn("I wrote word" + i + " on the board.");
+            vocab.setAudio(i % 2 == 0 ? "https://cdn.example.com/" + i + ".mp3" : null);
+            vocabularies.add(vocab);
+        }
+        return vocabularies;
+    }
+
+    @Test
+    void generateQuizFromVocabularyList_buildsQuestionsForEveryWordInParallel() {
+        ReflectionTestUtils.setField(quizGenerationService, "maxQuestions", 0);
+        stubSampling();
+
+        QuizDTO quiz = quizGenerationService.generateQuizFromVocabularyList(vocabularies(300), "t", "d", null, 2);
+
+        assertEquals(600, quiz.getQuestions().size());
+        Set<Long> words = new HashSet<>();
+        quiz.getQuestions().forEach(q -> words.add(q.getRelatedVocabularyId()));
+        assertEquals(300, words.size());
+    }
+
+    @Test
+    void generateQuizFromVocabularyList_capsQuestionsKeepingWordsAtHeadOfList() {
+        ReflectionTestUtils.setField(quizGenerationService, "maxQuestions", 51);
+        stubSampling();
+
+        QuizDTO quiz = quizGenerationService.generateQuizFromVocabularyList(vocabularies(300), "t", "d", null, 2);
+
+        assertEquals(51, quiz.getQuestions().size());
+        for (QuestionDTO question : quiz.getQuestions()) {
+            assertTrue(question.getRelatedVocabularyId() <= 26);
+        }
+    }
+
+    @Test
+    void generateQuizFromVocabularyList_usesPrecompiledTemplateWithoutSampling() {
+        Vocabulary vocab = vocabularies(1).get(0);
+        vocab.setCreatedAt(Instant.parse("2026-01-01T00:00:00Z"));
+        VocabularyQuestionTemplate template = new VocabularyQuestionTemplate();
+        template.setVocabularyId(1L);
+        template.setSourceUpdatedAt(vocab.getCreatedAt());
+        template.setClozePrompt("I wrote ______ on the board.");
+        template.setDistractorIds("11,12,13,14");
+        when(questionTemplateService.findFresh(List.of(vocab))).thenReturn(Map.of(1L, template));
+        when(distractorPoolService.findByIds(new long[] { 11L, 12L, 13L, 14L })).thenReturn(new ArrayList<>(List.of(
+                new Distractor(11L, "alpha", null, null), new Distractor(12L, "beta", null, null),
+                new Distractor(13L, "gamma", null, null), new Distractor(14L, "delta", null, null))));
+
+        QuizDTO quiz = quizGenerationService.generateQuizFromVocabularyList(List.of(vocab), "t", "d", null, 2);
+
+        assertEquals(2, quiz.getQuestions().size());
+        for (QuestionDTO question : quiz.getQuestions()) {
+            assertTrue(question.getPrompt().endsWith("I wrote ______ on the board."));
+            if (question.getQuestionType() == QuestionType.MULTIPLE_CHOICE_TEXT) {
+                assertEquals(4, question.getChoices().size());
+            }
+        }
+        verify(distractorPoolService, never()).sample(anyLong(), anyString(), anyString(), anyInt(), anyBoolean());
+    }
+}
@@ -0,0 +1,98 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fourstars.FourStars.domain.Question;
+import com.fourstars.FourStars.domain.Quiz;
+import com.fourstars.FourStars.domain.response.quiz.QuizForUserAttemptDTO;
+import com.fourstars.FourStars.repository.QuestionRepository;
+import com.fourstars.FourStars.repository.QuizRepository;
+import com.fourstars.FourStars.service.QuizAnswerKeyService;
+import com.fourstars.FourStars.service.QuizPayloadCacheService;
+import com.fourstars.FourStars.service.QuizPayloadCacheService.QuizPayload;
+import com.fourstars.FourStars.util.constant.QuestionType;
+
+@ExtendWith(MockitoExtension.class)
+class QuizPayloadCacheServiceTest {
+
+    @Mock
+    private QuizRepository quizRepository;
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private QuizAnswerKeyService quizAnswerKeyService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private QuizPayloadCacheService quizPayloadCacheService;
+
+    @BeforeEach
+    void setUp() {
+        quizPayloadCacheService = new QuizPayloadCacheService(quizRepository, questionRepository,
+                quizAnswerKeyService, objectMapper);
+    }
+
+    private static Question question(long id, int order, String prompt) {
+        Question q = new Question();
+        q.setId(id);
+        q.setQuestionOrder(order);
+        q.setQuestionType(QuestionType.FILL_IN_BLANK);
+        q.setPrompt(prompt);
+        q.setCorrectSentence("secret answer");
+        return q;
+    }
+
+    @Test
+    void getPayload_serializesQuestionsOnceInOrderWithoutAnswers() throws Exception {
+        Quiz quiz = new Quiz();
+        quiz.setId(1L);
+        quiz.setTitle("Present simple");
+        when(quizAnswerKeyService.getQuizVersion(1L)).thenReturn(0L);
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+        when(questionRepository.findAllWithChoicesByQuizId(1L))
+                .thenReturn(List.of(question(20L, 2, "second"), question(10L, 1, "first")));
+
+        QuizPayload first = quizPayloadCacheService.getPayload(1L);
+        QuizPayload second = quizPayloadCacheService.getPayload(1L);
+
+        assertSame(first, second);
+        assertEquals("Present simple", first.getQuizTitle());
+        JsonNode body = objectMapper.readTree(objectMapper.writeValueAsString(
+                new QuizForUserAttemptDTO(5L, first.getQuizTitle(), first.getQuestions(), List.of())));
+        assertEquals(2, body.get("questions").size());
+        assertEquals("first", body.get("questions").get(0).get("prompt").asText());
+        assertFalse(body.get("questions").get(0).has("correctSentence"));
+        verify(questionRepository, times(1)).findAllWithChoicesByQuizId(1L);
+    }
+
+    @Test
+    void getPayload_rebuildsWhenQuizVersionChanges() {
+        Quiz quiz = new Quiz();
+        quiz.setId(1L);
+        when(quizAnswerKeyService.getQuizVersion(1L)).thenReturn(0L, 1L);
+        when(quizRepository.findById(1L)).thenReturn(Optional.of(quiz));
+        when(questionRepository.findAllWithChoicesByQuizId(1L)).thenReturn(List.of(question(10L, 1, "first")));
+
+        QuizPayload before = quizPayloadCacheService.getPayload(1L);
+        QuizPayload after = quizPayloadCacheService.getPayload(1L);
+
+        assertNotSame(before, after);
+        assertEquals(1L, after.getVersion());
+    }
+}
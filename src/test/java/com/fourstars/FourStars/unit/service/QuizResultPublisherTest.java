@@ -0,0 +1,101 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.fourstars.FourStars.config.RabbitMQConfig;
+import com.fourstars.FourStars.domain.response.quiz.QuizAttemptResponseDTO;
+import com.fourstars.FourStars.messaging.dto.quiz.QuizResultBroadcastMessage;
+import com.fourstars.FourStars.service.QuizResultPublisher;
+import com.fourstars.FourStars.util.constant.QuizStatus;
+
+@ExtendWith(MockitoExtension.class)
+class QuizResultPublisherTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private QuizResultPublisher quizResultPublisher;
+
+    @BeforeEach
+    void setUp() {
+        quizResultPublisher = new QuizResultPublisher(messagingTemplate, rabbitTemplate);
+    }
+
+    private static QuizAttemptResponseDTO completed(long attemptId) {
+        QuizAttemptResponseDTO dto = new QuizAttemptResponseDTO();
+        dto.setId(attemptId);
+        dto.setStatus(QuizStatus.COMPLETED);
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Khi chấm xong, phải hoàn tất long-poll của đúng attempt và đẩy qua STOMP")
+    void publish_completesMatchingWaitersAndPushesToUserTopic() {
+        DeferredResult<QuizAttemptResponseDTO> waiting = new DeferredResult<>();
+        DeferredResult<QuizAttemptResponseDTO> other = new DeferredResult<>();
+        quizResultPublisher.register(10L, waiting);
+        quizResultPublisher.register(11L, other);
+
+        QuizAttemptResponseDTO result = completed(10L);
+        quizResultPublisher.publish(3L, result);
+
+        assertTrue(waiting.hasResult());
+        assertSame(result, waiting.getResult());
+        assertFalse(other.hasResult());
+        verify(messagingTemplate).convertAndSend("/topic/quiz-results.3", result);
+    }
+
+    @Test
+    @DisplayName("Kết quả được phát qua fanout để node đang giữ long-poll của attempt cũng nhận được")
+    void publishAfterCommit_broadcastsToEveryNodeInsteadOfDeliveringLocally() {
+        DeferredResult<QuizAttemptResponseDTO> waiting = new DeferredResult<>();
+        quizResultPublisher.register(10L, waiting);
+
+        quizResultPublisher.publishAfterCommit(3L, completed(10L));
+
+        ArgumentCaptor<QuizResultBroadcastMessage> sent = ArgumentCaptor.forClass(QuizResultBroadcastMessage.class);
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.QUIZ_RESULT_EXCHANGE), eq(""), sent.capture());
+        assertEquals(3L, sent.getValue().getUserId());
+        assertEquals(10L, sent.getValue().getResult().getId());
+        // Node này cũng nhận lại bản phát qua queue riêng của nó, nên chưa giao tại chỗ.
+        assertFalse(waiting.hasResult());
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    @DisplayName("RabbitMQ lỗi thì vẫn giao kết quả cho client của node chấm điểm")
+    void publishAfterCommit_deliversLocallyWhenBroadcastFails() {
+        DeferredResult<QuizAttemptResponseDTO> waiting = new DeferredResult<>();
+        quizResultPublisher.register(10L, waiting);
+        doThrow(new AmqpException("broker down")).when(rabbitTemplate)
+                .convertAndSend(eq(RabbitMQConfig.QUIZ_RESULT_EXCHANGE), eq(""), any(Object.class));
+
+        QuizAttemptResponseDTO result = completed(10L);
+        quizResultPublisher.publishAfterCommit(3L, result);
+
+        assertSame(result, waiting.getResult());
+        verify(messagingTemplate).convertAndSend("/topic/quiz-results.3", result);
+    }
+}
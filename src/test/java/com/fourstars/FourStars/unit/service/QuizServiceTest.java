@@ -0,0 +1,208 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fourstars.FourStars.config.RabbitMQConfig;
+import com.fourstars.FourStars.domain.Quiz;
+import com.fourstars.FourStars.domain.User;
+import com.fourstars.FourStars.domain.UserQuizAttempt;
+import com.fourstars.FourStars.domain.request.quiz.QuizDTO;
+import com.fourstars.FourStars.domain.request.quiz.SubmitQuizRequestDTO;
+import com.fourstars.FourStars.domain.request.quiz.UserAnswerRequestDTO;
+import com.fourstars.FourStars.domain.response.quiz.QuizAttemptResponseDTO;
+import com.fourstars.FourStars.domain.response.quiz.QuizForUserAttemptDTO;
+import com.fourstars.FourStars.messaging.dto.quiz.QuizSubmissionMessage;
+import com.fourstars.FourStars.repository.CategoryRepository;
+import com.fourstars.FourStars.repository.QuestionRepository;
+import com.fourstars.FourStars.repository.QuizRepository;
+import com.fourstars.FourStars.repository.UserAnswerRepository;
+import com.fourstars.FourStars.repository.UserQuizAttemptRepository;
+import com.fourstars.FourStars.repository.UserRepository;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.service.EphemeralQuizService;
+import com.fourstars.FourStars.service.QuizAnswerKeyService;
+import com.fourstars.FourStars.service.QuizAttemptResultService;
+import com.fourstars.FourStars.service.QuizPayloadCacheService;
+import com.fourstars.FourStars.service.QuizResultPublisher;
+import com.fourstars.FourStars.service.QuizScoringService;
+import com.fourstars.FourStars.service.QuizService;
+import com.fourstars.FourStars.service.QuizSessionService;
+import com.fourstars.FourStars.service.QuizSummaryService;
+import com.fourstars.FourStars.service.UserService;
+import com.fourstars.FourStars.service.VocabularyService;
+import com.fourstars.FourStars.util.constant.QuizStatus;
+import com.fourstars.FourStars.util.error.BadRequestException;
+
+@ExtendWith(MockitoExtension.class)
+class QuizServiceTest {
+
+    private static final long QUIZ_ID = 3L;
+    private static final long SUBMITTED_ATTEMPT_ID = 10L;
+
+    @Mock
+    private QuizRepository quizRepository;
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private UserQuizAttemptRepository userQuizAttemptRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private VocabularyRepository vocabularyRepository;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private UserService userService;
+    @Mock
+    private QuizScoringService quizScoringService;
+    @Mock
+    private QuizAnswerKeyService quizAnswerKeyService;
+    @Mock
+    private QuizResultPublisher quizResultPublisher;
+    @Mock
+    private QuizPayloadCacheService quizPayloadCacheService;
+    @Mock
+    private QuizAttemptResultService quizAttemptResultService;
+    @Mock
+    private QuizSessionService quizSessionService;
+    @Mock
+    private QuizSummaryService quizSummaryService;
+    @Mock
+    private UserAnswerRepository userAnswerRepository;
+    @Mock
+    private EphemeralQuizService ephemeralQuizService;
+    @Mock
+    private VocabularyService vocabularyService;
+
+    private QuizService quizService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        quizService = new QuizService(quizRepository, questionRepository, userQuizAttemptRepository, userRepository,
+                categoryRepository, vocabularyRepository, rabbitTemplate, userService, quizScoringService,
+                quizAnswerKeyService, quizResultPublisher, quizPayloadCacheService, quizAttemptResultService,
+                quizSessionService, quizSummaryService, userAnswerRepository, ephemeralQuizService);
+        quizService.setVocabularyService(vocabularyService);
+        user = new User();
+        user.setId(7L);
+        user.setEmail("learner@example.com");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null));
+        lenient().when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static SubmitQuizRequestDTO submission(long attemptId) {
+        UserAnswerRequestDTO answer = new UserAnswerRequestDTO();
+        answer.setQuestionId(1L);
+        SubmitQuizRequestDTO request = new SubmitQuizRequestDTO();
+        request.setUserQuizAttemptId(attemptId);
+        request.setAnswers(List.of(answer));
+        return request;
+    }
+
+    @Test
+    void startQuiz_afterSubmitBeforeScoring_startsNewAttemptInsteadOfResuming() {
+        when(quizSessionService.getOwnerEmail(SUBMITTED_ATTEMPT_ID)).thenReturn(user.getEmail());
+        when(quizSessionService.mergeWithDrafts(eq(SUBMITTED_ATTEMPT_ID), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        when(userQuizAttemptRepository.markSubmitted(eq(SUBMITTED_ATTEMPT_ID), eq(7L), any())).thenReturn(1);
+        // Đóng phiên thất bại: khóa active trên Redis vẫn trỏ vào attempt đã nộp.
+        doThrow(new IllegalStateException("redis down")).when(quizSessionService)
+                .closeSession(SUBMITTED_ATTEMPT_ID, 7L);
+
+        quizService.acceptQuizSubmission(submission(SUBMITTED_ATTEMPT_ID));
+
+        verify(rabbitTemplate).convertAndSend(eq(RabbitMQConfig.QUIZ_SCORING_EXCHANGE),
+                eq(RabbitMQConfig.QUIZ_SCORING_ROUTING_KEY), any(QuizSubmissionMessage.class));
+
+        Quiz quiz = new Quiz();
+        quiz.setId(QUIZ_ID);
+        when(quizPayloadCacheService.getPayload(QUIZ_ID))
+                .thenReturn(mock(QuizPayloadCacheService.QuizPayload.class));
+        when(quizSessionService.findActiveAttemptId(7L, QUIZ_ID)).thenReturn(SUBMITTED_ATTEMPT_ID);
+        when(userQuizAttemptRepository.isResumable(SUBMITTED_ATTEMPT_ID, 7L)).thenReturn(false);
+        when(quizRepository.getReferenceById(QUIZ_ID)).thenReturn(quiz);
+        when(userQuizAttemptRepository.findFirstByUserAndQuizAndStatusAndSubmittedAtIsNullOrderByStartedAtDesc(user,
+                quiz, QuizStatus.IN_PROGRESS)).thenReturn(Optional.empty());
+        when(userQuizAttemptRepository.save(any(UserQuizAttempt.class))).thenAnswer(invocation -> {
+            UserQuizAttempt attempt = invocation.getArgument(0);
+            attempt.setId(11L);
+            return attempt;
+        });
+
+        QuizForUserAttemptDTO started = quizService.startQuiz(QUIZ_ID);
+
+        assertEquals(11L, started.getAttemptId());
+        verify(quizSessionService, never()).getDraftAnswers(SUBMITTED_ATTEMPT_ID);
+        verify(quizSessionService).openSession(11L, 7L, QUIZ_ID, user.getEmail());
+    }
+
+    @Test
+    void acceptQuizSubmission_rejectsAttemptAlreadyScored() {
+        when(userQuizAttemptRepository.markSubmitted(eq(SUBMITTED_ATTEMPT_ID), eq(7L), any())).thenReturn(0);
+        when(userQuizAttemptRepository.findStatusByIdAndUserId(SUBMITTED_ATTEMPT_ID, 7L))
+                .thenReturn(Optional.of(QuizStatus.COMPLETED));
+
+        assertThrows(BadRequestException.class,
+                () -> quizService.acceptQuizSubmission(submission(SUBMITTED_ATTEMPT_ID)));
+        verify(rabbitTemplate, never()).convertAndSend(any(String.class), any(String.class), any(Object.class));
+        verify(quizSessionService, never()).closeSession(anyLong(), anyLong());
+    }
+
+    @Test
+    void processAndScoreQuiz_recordsEphemeralQuizInSummaryAndWeeklyPoints() {
+        Instant submittedAt = Instant.parse("2024-03-01T00:00:00Z");
+        QuizDTO quizDTO = new QuizDTO();
+        quizDTO.setTitle("Review");
+        EphemeralQuizService.EphemeralQuiz quiz = new EphemeralQuizService.EphemeralQuiz(-5L, 7L, quizDTO,
+                submittedAt.minusSeconds(60), submittedAt, null);
+        QuizAnswerKeyService.QuizAnswerKey answerKey = mock(QuizAnswerKeyService.QuizAnswerKey.class);
+        QuizScoringService.ScoringResult scoringResult = mock(QuizScoringService.ScoringResult.class);
+        when(scoringResult.getTotalScore()).thenReturn(30);
+        when(scoringResult.getAnswerKey()).thenReturn(answerKey);
+        when(userRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(user));
+        when(ephemeralQuizService.claimForScoring(-5L, 7L)).thenReturn(quiz);
+        when(ephemeralQuizService.getAnswerKey(quiz)).thenReturn(answerKey);
+        when(quizScoringService.score(eq(answerKey), any())).thenReturn(scoringResult);
+
+        QuizAttemptResponseDTO result = quizService
+                .processAndScoreQuiz(new QuizSubmissionMessage(7L, -5L, List.of()));
+
+        assertEquals(30, result.getScore());
+        assertEquals(30, user.getPoint());
+        // Quiz ôn tập không có dòng attempt: dashboard và bảng xếp hạng tuần lấy điểm từ đây.
+        verify(quizSummaryService).recordCompletedEphemeralQuiz(7L, 30, submittedAt);
+    }
+}
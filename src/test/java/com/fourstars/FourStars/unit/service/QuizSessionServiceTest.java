@@ -0,0 +1,71 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fourstars.FourStars.domain.request.quiz.UserAnswerRequestDTO;
+import com.fourstars.FourStars.service.QuizSessionService;
+
+@ExtendWith(MockitoExtension.class)
+class QuizSessionServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private QuizSessionService quizSessionService;
+
+    @BeforeEach
+    void setUp() {
+        quizSessionService = new QuizSessionService(redisTemplate, new ObjectMapper());
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    }
+
+    private static UserAnswerRequestDTO answer(long questionId, Long choiceId, String text) {
+        UserAnswerRequestDTO dto = new UserAnswerRequestDTO();
+        dto.setQuestionId(questionId);
+        dto.setSelectedChoiceId(choiceId);
+        dto.setUserAnswerText(text);
+        return dto;
+    }
+
+    @Test
+    void mergeWithDrafts_keepsDraftsAndLetsSubmittedAnswersWin() {
+        Map<Object, Object> session = new LinkedHashMap<>();
+        session.put("email", "learner@example.com");
+        session.put("quizId", "9");
+        session.put("q:1", "{\"questionId\":1,\"selectedChoiceId\":11}");
+        session.put("q:2", "{\"questionId\":2,\"userAnswerText\":\"draft\"}");
+        when(hashOperations.entries("quiz:session:5")).thenReturn(session);
+
+        List<UserAnswerRequestDTO> merged = quizSessionService.mergeWithDrafts(5L,
+                List.of(answer(2L, null, "final"), answer(3L, 31L, null)));
+
+        assertEquals(3, merged.size());
+        assertEquals(11L, merged.get(0).getSelectedChoiceId());
+        assertEquals("final", merged.get(1).getUserAnswerText());
+        assertEquals(31L, merged.get(2).getSelectedChoiceId());
+    }
+
+    @Test
+    void getOwnerEmail_isNullWhenSessionExpired() {
+        when(hashOperations.get("quiz:session:5", "email")).thenReturn(null);
+
+        assertNull(quizSessionService.getOwnerEmail(5L));
+    }
+}
@@ -0,0 +1,113 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fourstars.FourStars.domain.UserQuizSummary;
+import com.fourstars.FourStars.domain.UserWeeklyQuizPoints;
+import com.fourstars.FourStars.domain.key.UserWeekId;
+import com.fourstars.FourStars.repository.UserQuizAttemptRepository;
+import com.fourstars.FourStars.repository.UserQuizSummaryRepository;
+import com.fourstars.FourStars.repository.UserWeeklyQuizPointsRepository;
+import com.fourstars.FourStars.repository.projection.QuizSummaryProjection;
+import com.fourstars.FourStars.service.QuizSummaryService;
+
+@ExtendWith(MockitoExtension.class)
+class QuizSummaryServiceTest {
+
+    @Mock
+    private UserQuizSummaryRepository userQuizSummaryRepository;
+    @Mock
+    private UserQuizAttemptRepository userQuizAttemptRepository;
+    @Mock
+    private UserWeeklyQuizPointsRepository userWeeklyQuizPointsRepository;
+
+    private QuizSummaryService quizSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        quizSummaryService = new QuizSummaryService(userQuizSummaryRepository, userQuizAttemptRepository,
+                userWeeklyQuizPointsRepository);
+    }
+
+    @Test
+    void recordCompletedAttempt_seedsFromHistoryExcludingCurrentAttempt() {
+        QuizSummaryProjection history = new QuizSummaryProjection() {
+            public Long getAttemptCount() {
+                return 2L;
+            }
+
+            public Long getScoreSum() {
+                return 50L;
+            }
+
+            public Integer getBestScore() {
+                return 30;
+            }
+
+            public Instant getLastCompletedAt() {
+                return Instant.parse("2024-01-01T00:00:00Z");
+            }
+        };
+        when(userQuizSummaryRepository.findById(7L)).thenReturn(Optional.empty());
+        when(userQuizAttemptRepository.summarizeCompletedAttempts(7L, 99L)).thenReturn(history);
+        when(userQuizSummaryRepository.save(any(UserQuizSummary.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        UserQuizSummary summary = quizSummaryService.recordCompletedAttempt(7L, 99L, 40,
+                Instant.parse("2024-02-01T00:00:00Z"));
+
+        assertEquals(3, summary.getAttemptCount());
+        assertEquals(90L, summary.getScoreSum());
+        assertEquals(40, summary.getBestScore());
+        assertEquals(30.0, summary.getAverageScore());
+        assertEquals(Instant.parse("2024-02-01T00:00:00Z"), summary.getLastCompletedAt());
+    }
+
+    @Test
+    void recordCompletedAttempt_updatesExistingSummaryWithoutScanningHistory() {
+        UserQuizSummary existing = new UserQuizSummary(7L);
+        existing.addAttempt(10, Instant.parse("2024-01-01T00:00:00Z"));
+        when(userQuizSummaryRepository.findById(7L)).thenReturn(Optional.of(existing));
+        when(userQuizSummaryRepository.save(existing)).thenReturn(existing);
+
+        quizSummaryService.recordCompletedAttempt(7L, 100L, 5, Instant.parse("2024-02-01T00:00:00Z"));
+
+        assertEquals(2, existing.getAttemptCount());
+        assertEquals(10, existing.getBestScore());
+        verify(userQuizAttemptRepository, never()).summarizeCompletedAttempts(any(Long.class), any(Long.class));
+    }
+
+    @Test
+    void recordCompletedEphemeralQuiz_addsToSummaryAndWeekOfCompletionInVietnamTime() {
+        // 18:00 Chủ nhật UTC là 01:00 thứ Hai giờ Việt Nam: thuộc tuần mới.
+        Instant completedAt = Instant.parse("2024-03-03T18:00:00Z");
+        UserWeekId weekId = new UserWeekId(7L, LocalDate.of(2024, 3, 4));
+        UserWeeklyQuizPoints weekly = new UserWeeklyQuizPoints(weekId);
+        weekly.addQuiz(10, Instant.parse("2024-03-04T00:00:00Z"));
+        UserQuizSummary existing = new UserQuizSummary(7L);
+        when(userWeeklyQuizPointsRepository.findById(weekId)).thenReturn(Optional.of(weekly));
+        when(userQuizSummaryRepository.findById(7L)).thenReturn(Optional.of(existing));
+        when(userQuizSummaryRepository.save(existing)).thenReturn(existing);
+
+        quizSummaryService.recordCompletedEphemeralQuiz(7L, 25, completedAt);
+
+        assertEquals(35, weekly.getPoints());
+        assertEquals(2, weekly.getQuizCount());
+        verify(userWeeklyQuizPointsRepository).save(weekly);
+        assertEquals(1, existing.getAttemptCount());
+        assertEquals(25, existing.getBestScore());
+    }
+}
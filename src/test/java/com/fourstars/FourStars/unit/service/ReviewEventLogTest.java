@@ -0,0 +1,175 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fourstars.FourStars.domain.ReviewEvent;
+import com.fourstars.FourStars.service.CategoryProgressService;
+import com.fourstars.FourStars.service.ReviewEventLog;
+import com.fourstars.FourStars.service.VocabularyStatsService;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewEventLogTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private VocabularyStatsService vocabularyStatsService;
+    @Mock
+    private CategoryProgressService categoryProgressService;
+
+    private ReviewEventLog reviewEventLog;
+
+    @BeforeEach
+    void setUp() {
+        reviewEventLog = new ReviewEventLog(jdbcTemplate, transactionManager, vocabularyStatsService,
+                categoryProgressService);
+    }
+
+    private static ReviewEvent event(long id, long vocabularyId, int newRepetitions) {
+        ReviewEvent event = new ReviewEvent(7L, vocabularyId, 5, Instant.now());
+        event.setId(id);
+        event.setPreviousState(newRepetitions, newRepetitions - 1, 2.5, 0);
+        event.setNewRepetitions(newRepetitions);
+        event.setNewLevel(newRepetitions + 1);
+        event.setNextReviewAt(Instant.now().plusSeconds(86_400));
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubPending(List<ReviewEvent> events) {
+        when(jdbcTemplate.query(startsWith("SELECT"), any(RowMapper.class), eq(500))).thenReturn(events);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void append_insertsEventsOnCallerThreadWithoutProjecting() {
+        reviewEventLog.appendAll(List.of(event(0L, 1L, 1), event(0L, 1L, 2)));
+
+        ArgumentCaptor<Collection<ReviewEvent>> inserted = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO review_events"), inserted.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2, inserted.getValue().size());
+        assertTrue(inserted.getValue().stream().allMatch(ReviewEvent::isProjectionPending));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE user_vocabularies"), any(Collection.class),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_projectsLatestStatePerCard() {
+        ReviewEvent first = event(1L, 1L, 1);
+        ReviewEvent second = event(2L, 2L, 1);
+        ReviewEvent latest = event(3L, 1L, 2);
+        stubPending(List.of(first, second, latest));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE review_events"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 1, 1, 1 } });
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE user_vocabularies"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 1, 0 } });
+
+        assertEquals(3, reviewEventLog.flush());
+
+        ArgumentCaptor<Collection<ReviewEvent>> created = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO user_vocabularies"), created.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(second), List.copyOf(created.getValue()));
+
+        // Thẻ 1 đã có dòng: level 1 -> 3 qua hai lượt ôn; thẻ 2 là dòng mới ở level 2.
+        ArgumentCaptor<Map<Long, int[]>> stats = ArgumentCaptor.forClass(Map.class);
+        verify(vocabularyStatsService).apply(stats.capture());
+        assertArrayEquals(new int[] { 1, -1, 1, 1, 0, 0 }, stats.getValue().get(7L));
+
+        // Tiến độ theo danh mục nhận trạng thái trước lô (null với dòng mới) và sau lô của từng thẻ.
+        ArgumentCaptor<List<CategoryProgressService.CardChange>> changes = ArgumentCaptor.forClass(List.class);
+        verify(categoryProgressService).applyChanges(changes.capture());
+        assertEquals(2, changes.getValue().size());
+        CategoryProgressService.CardChange updatedCard = changes.getValue().get(0);
+        assertEquals(1L, updatedCard.vocabularyId());
+        assertEquals(1, updatedCard.previousLevel());
+        assertEquals(3, updatedCard.newLevel());
+        assertNull(changes.getValue().get(1).previousLevel());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_skipsEventsClaimedByAnotherNode() {
+        stubPending(List.of(event(1L, 1L, 1), event(2L, 2L, 1)));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE review_events"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 0, 1 } });
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE user_vocabularies"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 1 } });
+
+        assertEquals(1, reviewEventLog.flush());
+
+        ArgumentCaptor<Collection<ReviewEvent>> projected = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE user_vocabularies"), projected.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2L, List.copyOf(projected.getValue()).get(0).getVocabularyId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_doesNotRecreateCardRemovedAfterReview() {
+        ReviewEvent reviewed = event(1L, 1L, 2);
+        reviewed.setPreviousNextReviewAt(Instant.now());
+        stubPending(List.of(reviewed));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE review_events"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 1 } });
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE user_vocabularies"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenReturn(new int[][] { { 0 } });
+
+        reviewEventLog.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT INTO user_vocabularies"), any(Collection.class),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(vocabularyStatsService).apply(Map.of());
+        verify(categoryProgressService).applyChanges(List.of());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_retriesFailedBatchOneEventAtATime() {
+        stubPending(List.of(event(1L, 1L, 1), event(2L, 2L, 1)));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE review_events"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][] { { 1, 1 } })
+                .thenReturn(new int[][] { { 1 } });
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE user_vocabularies"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenReturn(new int[][] { { 1 } });
+
+        assertEquals(1, reviewEventLog.flush());
+        // Sự kiện hỏng được bỏ chiếu để lần chiếu sau không thử lại mãi.
+        verify(jdbcTemplate).update(startsWith("UPDATE review_events"), eq(1L));
+    }
+}
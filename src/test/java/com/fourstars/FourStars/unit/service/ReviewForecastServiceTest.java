@@ -0,0 +1,205 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.fourstars.FourStars.domain.response.vocabulary.ReviewForecastResponseDTO;
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.repository.projection.ReviewScheduleProjection;
+import com.fourstars.FourStars.service.ReviewEventLog;
+import com.fourstars.FourStars.service.ReviewForecastService;
+import com.fourstars.FourStars.service.ReviewRebuildJournal;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewForecastServiceTest {
+
+    // 05:00 ngày 2 tháng 3 giờ Việt Nam
+    private static final Instant NOW = Instant.parse("2024-03-01T22:00:00Z");
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 2);
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private UserVocabularyRepository userVocabularyRepository;
+    @Mock
+    private ReviewEventLog reviewEventLog;
+    @Mock
+    private ReviewRebuildJournal reviewRebuildJournal;
+
+    private ReviewForecastService reviewForecastService;
+
+    @BeforeEach
+    void setUp() {
+        reviewForecastService = new ReviewForecastService(redisTemplate, userVocabularyRepository, reviewEventLog,
+                reviewRebuildJournal);
+        lenient().when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    }
+
+    private static ReviewScheduleProjection entry(long vocabularyId, Instant nextReviewAt) {
+        return new ReviewScheduleProjection() {
+            public Long getVocabularyId() {
+                return vocabularyId;
+            }
+
+            public Instant getNextReviewAt() {
+                return nextReviewAt;
+            }
+        };
+    }
+
+    @Test
+    void getForecast_foldsOverdueIntoTodayAndIgnoresDaysBeyondWindow() {
+        when(hashOperations.hasKey("review:forecast:7", "ready")).thenReturn(true);
+        when(hashOperations.entries("review:forecast:7")).thenReturn(Map.of(
+                "ready", "1",
+                TODAY.minusDays(3).toString(), "4",
+                TODAY.toString(), "2",
+                TODAY.plusDays(2).toString(), "5",
+                TODAY.plusDays(3).toString(), "-1",
+                TODAY.plusDays(30).toString(), "9"));
+
+        List<ReviewForecastResponseDTO> forecast = reviewForecastService.getForecast(7L, NOW, 30);
+
+        assertEquals(30, forecast.size());
+        assertEquals(TODAY, forecast.get(0).getDate());
+        assertEquals(6, forecast.get(0).getDueCount());
+        assertEquals(0, forecast.get(1).getDueCount());
+        assertEquals(5, forecast.get(2).getDueCount());
+        assertEquals(0, forecast.get(3).getDueCount());
+        assertEquals(TODAY.plusDays(29), forecast.get(29).getDate());
+        assertEquals(11, forecast.stream().mapToLong(ReviewForecastResponseDTO::getDueCount).sum());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getForecast_rebuildsMissingBucketsFromDatabaseFirst() {
+        when(hashOperations.hasKey("review:forecast:7", "ready")).thenReturn(false);
+        when(reviewRebuildJournal.start("review:forecast:7")).thenReturn("t1");
+        when(userVocabularyRepository.findReviewScheduleByUserId(7L)).thenReturn(List.of(
+                entry(11L, NOW.minus(2, ChronoUnit.DAYS)), entry(12L, NOW.plus(1, ChronoUnit.DAYS)),
+                entry(13L, NOW.plus(5, ChronoUnit.DAYS))));
+        // Lượt ôn chưa chiếu của từ 13 thắng dòng cũ trong user_vocabularies.
+        when(reviewEventLog.findPendingSchedule(7L))
+                .thenReturn(new HashMap<>(Map.of(13L, NOW.plus(1, ChronoUnit.DAYS))));
+        when(reviewRebuildJournal.finish("review:forecast:7", "t1", 0))
+                .thenReturn(ReviewRebuildJournal.Outcome.DONE);
+        when(hashOperations.entries("review:forecast:7")).thenReturn(Map.of(
+                "ready", "1", TODAY.minusDays(2).toString(), "1", TODAY.plusDays(1).toString(), "2"));
+
+        List<ReviewForecastResponseDTO> forecast = reviewForecastService.getForecast(7L, NOW, 7);
+
+        ArgumentCaptor<Map<String, String>> fields = ArgumentCaptor.forClass(Map.class);
+        verify(hashOperations).putAll(eq("review:forecast:7:rebuild:t1"), fields.capture());
+        assertEquals(Map.of("ready", "1", TODAY.minusDays(2).toString(), "1", TODAY.plusDays(1).toString(), "2"),
+                fields.getValue());
+        assertEquals(1, forecast.get(0).getDueCount());
+        assertEquals(2, forecast.get(1).getDueCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_appliesMovesJournaledWhileReadingDatabase() {
+        when(reviewRebuildJournal.start("review:forecast:7")).thenReturn("t1");
+        when(userVocabularyRepository.findReviewScheduleByUserId(7L)).thenReturn(List.of(
+                entry(11L, NOW), entry(12L, NOW)));
+        when(reviewEventLog.findPendingSchedule(7L)).thenReturn(new HashMap<>());
+        // Trong lúc đọc DB: từ 11 được dời sang ngày mai, từ 12 bị gỡ.
+        when(reviewRebuildJournal.replay(eq("review:forecast:7"), eq(0L), any())).thenAnswer(invocation -> {
+            Map<Long, Instant> schedule = invocation.getArgument(2);
+            schedule.put(11L, NOW.plus(1, ChronoUnit.DAYS));
+            schedule.remove(12L);
+            return 2;
+        });
+        when(reviewRebuildJournal.finish("review:forecast:7", "t1", 2))
+                .thenReturn(ReviewRebuildJournal.Outcome.DONE);
+
+        reviewForecastService.rebuild(7L);
+
+        ArgumentCaptor<Map<String, String>> fields = ArgumentCaptor.forClass(Map.class);
+        verify(hashOperations).putAll(eq("review:forecast:7:rebuild:t1"), fields.capture());
+        assertEquals(Map.of("ready", "1", TODAY.plusDays(1).toString(), "1"), fields.getValue());
+    }
+
+    private Object[] executedArgs() {
+        return mockingDetails(redisTemplate).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("execute"))
+                .findFirst().orElseThrow()
+                .getRawArguments();
+    }
+
+    @Test
+    void moveAll_netsMovesPerDayIntoOneIncrementEach() {
+        Instant today = NOW;
+        Instant tomorrow = NOW.plus(1, ChronoUnit.DAYS);
+        Instant inFourDays = NOW.plus(4, ChronoUnit.DAYS);
+
+        reviewForecastService.moveAll(7L, List.of(
+                new ReviewForecastService.Move(1L, today, inFourDays),
+                new ReviewForecastService.Move(2L, today, tomorrow),
+                new ReviewForecastService.Move(3L, tomorrow, inFourDays),
+                new ReviewForecastService.Move(4L, tomorrow, tomorrow.plusSeconds(60)),
+                new ReviewForecastService.Move(5L, null, tomorrow)));
+
+        // KEYS, rồi ARGV: TTL, số ngày, các cặp (ngày, độ lệch), các mục journal của từ đổi ngày.
+        Object[] args = executedArgs();
+        assertEquals(List.of("review:forecast:7", "review:forecast:7:rebuilding", "review:forecast:7:changes"),
+                args[1]);
+        Object[] argv = (Object[]) args[2];
+        assertEquals("60000", argv[0]);
+        assertEquals("3", argv[1]);
+        Map<String, String> deltas = new HashMap<>();
+        for (int i = 2; i < 8; i += 2) {
+            deltas.put((String) argv[i], (String) argv[i + 1]);
+        }
+        assertEquals(Map.of(TODAY.toString(), "-2", TODAY.plusDays(1).toString(), "1",
+                TODAY.plusDays(4).toString(), "2"), deltas);
+        assertEquals(List.of("1:" + inFourDays.toEpochMilli(), "2:" + tomorrow.toEpochMilli(),
+                "3:" + inFourDays.toEpochMilli(), "5:" + tomorrow.toEpochMilli()),
+                List.of(argv).subList(8, argv.length));
+    }
+
+    @Test
+    void moveAll_journalsMovesThatCancelOut() {
+        Instant tomorrow = NOW.plus(1, ChronoUnit.DAYS);
+
+        reviewForecastService.moveAll(7L, List.of(
+                new ReviewForecastService.Move(1L, NOW, tomorrow),
+                new ReviewForecastService.Move(2L, tomorrow, NOW)));
+
+        assertEquals(List.of("60000", "0", "1:" + tomorrow.toEpochMilli(), "2:" + NOW.toEpochMilli()),
+                List.of((Object[]) executedArgs()[2]));
+    }
+
+    @Test
+    void move_skipsMoveWithinSameDay() {
+        reviewForecastService.move(7L, 11L, NOW, NOW.plusSeconds(60));
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+}
@@ -0,0 +1,184 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.repository.projection.ReviewLoadProjection;
+import com.fourstars.FourStars.service.ReviewEventLog;
+import com.fourstars.FourStars.service.ReviewForecastService;
+import com.fourstars.FourStars.service.ReviewLoadSmoothingService;
+import com.fourstars.FourStars.service.ReviewLoadSmoothingService.Reschedule;
+import com.fourstars.FourStars.service.ReviewQueueService;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewLoadSmoothingServiceTest {
+
+    // 05:00 giờ Việt Nam
+    private static final Instant NOW = Instant.parse("2024-03-01T22:00:00Z");
+
+    @Mock
+    private UserVocabularyRepository userVocabularyRepository;
+    @Mock
+    private ReviewQueueService reviewQueueService;
+    @Mock
+    private ReviewForecastService reviewForecastService;
+    @Mock
+    private ReviewEventLog reviewEventLog;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReviewLoadSmoothingService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReviewLoadSmoothingService(userVocabularyRepository, reviewQueueService,
+                reviewForecastService, reviewEventLog, jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(service, "dailyLimit", 10);
+        ReflectionTestUtils.setField(service, "horizonDays", 30);
+        ReflectionTestUtils.setField(service, "maxShiftDays", 7);
+        ReflectionTestUtils.setField(service, "shiftRatio", 0.1);
+    }
+
+    private static ReviewLoadProjection card(long vocabularyId, Instant nextReviewAt, int interval) {
+        return new ReviewLoadProjection() {
+            public Long getVocabularyId() {
+                return vocabularyId;
+            }
+
+            public Instant getNextReviewAt() {
+                return nextReviewAt;
+            }
+
+            public Integer getReviewInterval() {
+                return interval;
+            }
+        };
+    }
+
+    @Test
+    void plan_spreadsOverdueBacklogAcrossFollowingDays() {
+        List<ReviewLoadProjection> cards = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            cards.add(card(i, NOW.minus(40 - i, ChronoUnit.DAYS), 1));
+        }
+
+        List<Reschedule> moves = service.plan(7L, cards, NOW, new int[38]);
+
+        assertEquals(15, moves.size());
+        Map<Long, Long> perDay = moves.stream().collect(Collectors.groupingBy(
+                move -> ChronoUnit.DAYS.between(NOW, move.to()), Collectors.counting()));
+        assertEquals(Map.of(1L, 10L, 2L, 5L), perDay);
+        // Những từ quá hạn lâu nhất được giữ lại cho hôm nay.
+        assertTrue(moves.stream().allMatch(move -> move.vocabularyId() >= 10));
+    }
+
+    @Test
+    void plan_flattensClusteredFutureReviewsWithinTolerance() {
+        List<ReviewLoadProjection> cards = new ArrayList<>();
+        Instant due = NOW.plus(20, ChronoUnit.DAYS);
+        for (int i = 0; i < 9; i++) {
+            cards.add(card(i, due, 20));
+        }
+        int[] globalLoad = new int[38];
+
+        List<Reschedule> moves = service.plan(7L, cards, NOW, globalLoad);
+
+        // Dung sai 2 ngày: 9 từ chia đều cho 5 ngày 18..22.
+        for (Reschedule move : moves) {
+            long shift = ChronoUnit.DAYS.between(due, move.to());
+            assertTrue(shift != 0 && Math.abs(shift) <= 2);
+        }
+        for (int day = 18; day <= 22; day++) {
+            assertTrue(globalLoad[day] == 1 || globalLoad[day] == 2);
+        }
+        assertEquals(9, globalLoad[18] + globalLoad[19] + globalLoad[20] + globalLoad[21] + globalLoad[22]);
+    }
+
+    @Test
+    void plan_keepsShortIntervalsAndUsesGlobalLoadToBreakTies() {
+        Instant due = NOW.plus(10, ChronoUnit.DAYS);
+        int[] globalLoad = new int[38];
+        globalLoad[10] = 100;
+        globalLoad[9] = 100;
+
+        List<Reschedule> moves = service.plan(7L, List.of(card(1L, due, 1), card(2L, due, 10)), NOW, globalLoad);
+
+        assertEquals(1, moves.size());
+        assertEquals(2L, moves.get(0).vocabularyId());
+        assertEquals(due.plus(1, ChronoUnit.DAYS), moves.get(0).to());
+    }
+
+    @Test
+    void smoothAll_skipsCardReviewedAfterPlanningButBeforeWrite() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:smoothing" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate h2 = new JdbcTemplate(dataSource);
+        h2.execute("CREATE TABLE user_vocabularies (user_id BIGINT, vocabulary_id BIGINT, "
+                + "next_review_at TIMESTAMP(9), updated_at TIMESTAMP(9), PRIMARY KEY (user_id, vocabulary_id))");
+        h2.execute("CREATE TABLE review_events (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, "
+                + "vocabulary_id BIGINT, projection_pending BOOLEAN)");
+        ReviewLoadSmoothingService smoothing = new ReviewLoadSmoothingService(userVocabularyRepository,
+                reviewQueueService, reviewForecastService, reviewEventLog, h2,
+                new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(smoothing, "dailyLimit", 10);
+        ReflectionTestUtils.setField(smoothing, "horizonDays", 30);
+        ReflectionTestUtils.setField(smoothing, "maxShiftDays", 7);
+        ReflectionTestUtils.setField(smoothing, "shiftRatio", 0.1);
+
+        // 12 từ quá hạn với giới hạn 10 mỗi ngày: từ 10 và 11 bị dời.
+        Instant base = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<ReviewLoadProjection> cards = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Instant due = base.minus(40 - i, ChronoUnit.DAYS);
+            cards.add(card(i, due, 1));
+            h2.update("INSERT INTO user_vocabularies VALUES (7, ?, ?, ?)", i, Timestamp.from(due),
+                    Timestamp.from(due));
+        }
+        when(userVocabularyRepository.findDistinctUserIds(any())).thenReturn(List.of(7L));
+        when(userVocabularyRepository.findReviewLoadByUserId(eq(7L), any())).thenReturn(cards);
+        // Lúc lên kế hoạch chưa có lượt ôn; từ 11 được ôn ngay sau đó, trước khi ghi.
+        when(reviewEventLog.findPending(eq(7L), anyCollection())).thenAnswer(invocation -> {
+            h2.update("INSERT INTO review_events (user_id, vocabulary_id, projection_pending) VALUES (7, 11, TRUE)");
+            return Map.of();
+        });
+
+        assertEquals(1, smoothing.smoothAll());
+
+        Instant reviewedDue = base.minus(29, ChronoUnit.DAYS);
+        assertEquals(Timestamp.from(reviewedDue), h2.queryForObject(
+                "SELECT next_review_at FROM user_vocabularies WHERE vocabulary_id = 11", Timestamp.class));
+        Timestamp movedDue = h2.queryForObject(
+                "SELECT next_review_at FROM user_vocabularies WHERE vocabulary_id = 10", Timestamp.class);
+        assertTrue(movedDue.toInstant().isAfter(base));
+        verify(reviewQueueService).scheduleAll(7L, Map.of(10L, movedDue.toInstant()));
+        verify(reviewForecastService).moveAll(7L, List.of(new ReviewForecastService.Move(10L,
+                base.minus(30, ChronoUnit.DAYS), movedDue.toInstant())));
+    }
+}
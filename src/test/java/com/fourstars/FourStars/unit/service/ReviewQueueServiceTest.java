@@ -0,0 +1,148 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.service.ReviewForecastService;
+import com.fourstars.FourStars.service.ReviewQueueService;
+import com.fourstars.FourStars.service.ReviewRebuildJournal;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewQueueServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T00:00:00Z");
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+    @Mock
+    private UserVocabularyRepository userVocabularyRepository;
+    @Mock
+    private ReviewForecastService reviewForecastService;
+    @Mock
+    private ReviewRebuildJournal reviewRebuildJournal;
+
+    private ReviewQueueService reviewQueueService;
+
+    @BeforeEach
+    void setUp() {
+        reviewQueueService = new ReviewQueueService(redisTemplate, userVocabularyRepository, reviewForecastService,
+                reviewRebuildJournal);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    private void stubRebuild(Map<Long, Instant> schedule) {
+        when(reviewRebuildJournal.start("review:due:7")).thenReturn("t1");
+        when(reviewForecastService.loadSchedule(7L)).thenReturn(new HashMap<>(schedule));
+    }
+
+    private static Map<String, Double> scores(Set<TypedTuple<String>> tuples) {
+        Map<String, Double> scores = new HashMap<>();
+        tuples.forEach(tuple -> scores.put(tuple.getValue(), tuple.getScore()));
+        return scores;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findDueVocabularyIds_rebuildsMissingQueueFromDatabaseFirst() {
+        when(zSetOperations.score("review:due:7", "ready")).thenReturn(null);
+        stubRebuild(Map.of(11L, NOW.minusSeconds(60), 12L, NOW.plusSeconds(60)));
+        when(reviewRebuildJournal.finish("review:due:7", "t1", 0)).thenReturn(ReviewRebuildJournal.Outcome.DONE);
+        when(zSetOperations.rangeByScore("review:due:7", Double.NEGATIVE_INFINITY, NOW.toEpochMilli(), 0, 20))
+                .thenReturn(new LinkedHashSet<>(List.of("11")));
+
+        List<Long> due = reviewQueueService.findDueVocabularyIds(7L, NOW, 20);
+
+        assertEquals(List.of(11L), due);
+        ArgumentCaptor<Set<TypedTuple<String>>> tuples = ArgumentCaptor.forClass(Set.class);
+        verify(zSetOperations).add(eq("review:due:7:rebuild:t1"), tuples.capture());
+        assertEquals(3, tuples.getValue().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_appliesChangesJournaledWhileReadingDatabase() {
+        stubRebuild(Map.of(11L, NOW, 12L, NOW));
+        // Trong lúc đọc DB: từ 11 được ôn, từ 12 bị gỡ; trước lần RENAME đầu từ 13 được thêm.
+        when(reviewRebuildJournal.replay(eq("review:due:7"), eq(0L), any())).thenAnswer(invocation -> {
+            Map<Long, Instant> schedule = invocation.getArgument(2);
+            schedule.put(11L, NOW.plusSeconds(600));
+            schedule.remove(12L);
+            return 2;
+        });
+        when(reviewRebuildJournal.finish("review:due:7", "t1", 2)).thenReturn(ReviewRebuildJournal.Outcome.RETRY);
+        when(reviewRebuildJournal.replay(eq("review:due:7"), eq(2L), any())).thenAnswer(invocation -> {
+            Map<Long, Instant> schedule = invocation.getArgument(2);
+            schedule.put(13L, NOW);
+            return 1;
+        });
+        when(reviewRebuildJournal.finish("review:due:7", "t1", 3)).thenReturn(ReviewRebuildJournal.Outcome.DONE);
+
+        reviewQueueService.rebuild(7L);
+
+        ArgumentCaptor<Set<TypedTuple<String>>> tuples = ArgumentCaptor.forClass(Set.class);
+        verify(zSetOperations, times(2)).add(eq("review:due:7:rebuild:t1"), tuples.capture());
+        assertEquals(Map.of("11", (double) NOW.plusSeconds(600).toEpochMilli(), "13", (double) NOW.toEpochMilli(),
+                "ready", Double.POSITIVE_INFINITY), scores(tuples.getValue()));
+    }
+
+    @Test
+    void findDueVocabularyIds_readsDatabaseWhenRebuildIsSuperseded() {
+        when(zSetOperations.score("review:due:7", "ready")).thenReturn(null);
+        stubRebuild(Map.of(11L, NOW));
+        when(reviewRebuildJournal.finish("review:due:7", "t1", 0))
+                .thenReturn(ReviewRebuildJournal.Outcome.SUPERSEDED);
+        when(userVocabularyRepository.findDueVocabularyIds(eq(7L), eq(NOW), any(Pageable.class)))
+                .thenReturn(List.of(11L));
+
+        assertEquals(List.of(11L), reviewQueueService.findDueVocabularyIds(7L, NOW, 10));
+    }
+
+    @Test
+    void findDueVocabularyIds_fallsBackToDatabaseWhenRedisFails() {
+        when(zSetOperations.score(anyString(), any())).thenThrow(new IllegalStateException("connection refused"));
+        when(userVocabularyRepository.findDueVocabularyIds(eq(7L), eq(NOW), any(Pageable.class)))
+                .thenReturn(List.of(3L, 4L));
+
+        assertEquals(List.of(3L, 4L), reviewQueueService.findDueVocabularyIds(7L, NOW, 10));
+    }
+
+    @Test
+    void scheduleAndRemove_writeThroughScriptThatJournalsDuringRebuild() {
+        List<String> keys = List.of("review:due:7", "review:due:7:rebuilding", "review:due:7:changes");
+
+        reviewQueueService.schedule(7L, 11L, NOW);
+        reviewQueueService.remove(7L, 12L);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq("60000"), eq("11"),
+                eq(String.valueOf(NOW.toEpochMilli())));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq("60000"), eq("12"), eq(""));
+    }
+}
@@ -0,0 +1,64 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.fourstars.FourStars.service.ReviewRebuildJournal;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewRebuildJournalTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T00:00:00Z");
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ListOperations<String, String> listOperations;
+
+    private ReviewRebuildJournal reviewRebuildJournal;
+
+    @BeforeEach
+    void setUp() {
+        reviewRebuildJournal = new ReviewRebuildJournal(redisTemplate);
+    }
+
+    @Test
+    void replay_appliesEntriesInOrderFromOffset() {
+        when(redisTemplate.opsForList()).thenReturn(listOperations);
+        when(listOperations.range("review:due:7:changes", 1, -1)).thenReturn(List.of(
+                ReviewRebuildJournal.entry(11L, NOW), ReviewRebuildJournal.entry(12L, null),
+                ReviewRebuildJournal.entry(11L, NOW.plusSeconds(60))));
+        Map<Long, Instant> schedule = new HashMap<>(Map.of(11L, NOW.minusSeconds(60), 12L, NOW));
+
+        assertEquals(3, reviewRebuildJournal.replay("review:due:7", 1, schedule));
+        assertEquals(Map.of(11L, NOW.plusSeconds(60)), schedule);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void finish_reportsRetryWhenJournalGrewSinceLastReplay() {
+        List<String> keys = List.of("review:due:7:rebuild:t1", "review:due:7", "review:due:7:rebuilding",
+                "review:due:7:changes");
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys), eq("t1"), eq("2"))).thenReturn(-1L, 0L, 1L);
+
+        assertEquals(ReviewRebuildJournal.Outcome.RETRY, reviewRebuildJournal.finish("review:due:7", "t1", 2));
+        assertEquals(ReviewRebuildJournal.Outcome.SUPERSEDED, reviewRebuildJournal.finish("review:due:7", "t1", 2));
+        assertEquals(ReviewRebuildJournal.Outcome.DONE, reviewRebuildJournal.finish("review:due:7", "t1", 2));
+    }
+}
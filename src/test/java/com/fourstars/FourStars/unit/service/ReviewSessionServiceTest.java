@@ -0,0 +1,69 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.fourstars.FourStars.service.ReviewSessionService;
+import com.fourstars.FourStars.util.error.BadRequestException;
+import com.fourstars.FourStars.util.error.ResourceNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewSessionServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private ReviewSessionService reviewSessionService;
+
+    @BeforeEach
+    void setUp() {
+        reviewSessionService = new ReviewSessionService(redisTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scriptReturns(Long result) {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("review:session:t1")), any(Object[].class)))
+                .thenReturn(result);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claim_checksAndRemovesAllCardsInOneScript() {
+        scriptReturns(0L);
+
+        reviewSessionService.claim("t1", 7L, List.of(10L, 11L));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("review:session:t1")),
+                eq("7"), eq("v:10"), eq("v:11"));
+    }
+
+    @Test
+    void claim_rejectsCardAlreadyGradedByConcurrentRequest() {
+        scriptReturns(2L);
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> reviewSessionService.claim("t1", 7L, List.of(10L, 11L)));
+        assertTrue(e.getMessage().contains("11"));
+    }
+
+    @Test
+    void claim_rejectsMissingOrForeignSession() {
+        scriptReturns(-1L);
+
+        assertThrows(ResourceNotFoundException.class, () -> reviewSessionService.claim("t1", 7L, List.of(10L)));
+    }
+}
@@ -77,4 +77,68 @@ class SM2ServiceTest {
 
         assertEquals(1.3, result.getNewEaseFactor());
     }
+
+    /** Công thức SM-2 một thẻ như bản gốc, giữ làm chuẩn đối chiếu độc lập với SM2Service. */
+    private static double[] referenceCalculate(int repetitions, double easeFactor, int interval, int quality) {
+        if (quality < 3) {
+            repetitions = 0;
+            interval = 1;
+        } else {
+            repetitions++;
+            if (repetitions == 1) {
+                interval = 1;
+            } else if (repetitions == 2) {
+                interval = 6;
+            } else {
+                interval = (int) Math.round(interval * easeFactor);
+            }
+        }
+
+        easeFactor = easeFactor + (0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02));
+        if (easeFactor < 1.3) {
+            easeFactor = 1.3;
+        }
+
+        int level = interval <= 1 ? 1 : interval <= 7 ? 2 : interval <= 21 ? 3 : interval <= 60 ? 4 : 5;
+        return new double[] { repetitions, easeFactor, interval, level };
+    }
+
+    @Test
+    @DisplayName("calculate và calculateBatch cho cùng kết quả với công thức SM-2 gốc")
+    void calculateAndCalculateBatch_matchReferenceFormula() {
+        int[] repetitions = { 0, 1, 2, 5, 7, 3, 4, 0 };
+        double[] easeFactors = { 2.5, 2.5, 2.36, 2.7, 1.35, 2.1, 1.3, 2.5 };
+        int[] intervals = { 0, 1, 6, 30, 90, 15, 20, 0 };
+        int[] qualities = { 4, 5, 3, 2, 0, 5, 3, 1 };
+        int count = repetitions.length;
+        int[] levels = new int[count];
+        long[] nextReviews = new long[count];
+        long now = 1_700_000_000_000L;
+
+        double[][] expected = new double[count][];
+        for (int i = 0; i < count; i++) {
+            expected[i] = referenceCalculate(repetitions[i], easeFactors[i], intervals[i], qualities[i]);
+
+            SM2Service.SM2InputData input = new SM2Service.SM2InputData();
+            input.setRepetitions(repetitions[i]);
+            input.setEaseFactor(easeFactors[i]);
+            input.setInterval(intervals[i]);
+            input.setQuality(qualities[i]);
+            SM2Service.SM2Result result = sm2Service.calculate(input);
+            assertEquals((int) expected[i][0], result.getNewRepetitions());
+            assertEquals(expected[i][1], result.getNewEaseFactor());
+            assertEquals((int) expected[i][2], result.getNewInterval());
+            assertEquals((int) expected[i][3], result.getNewLevel());
+        }
+
+        sm2Service.calculateBatch(count, repetitions, easeFactors, intervals, qualities, levels, nextReviews, now);
+
+        for (int i = 0; i < count; i++) {
+            assertEquals((int) expected[i][0], repetitions[i]);
+            assertEquals(expected[i][1], easeFactors[i]);
+            assertEquals((int) expected[i][2], intervals[i]);
+            assertEquals((int) expected[i][3], levels[i]);
+            assertEquals(now + intervals[i] * 86_400_000L, nextReviews[i]);
+        }
+    }
 }
@@ -0,0 +1,341 @@
+package com.fourstars.FourStars.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fourstars.FourStars.domain.ReviewEvent;
+import com.fourstars.FourStars.domain.User;
+import com.fourstars.FourStars.domain.UserVocabulary;
+import com.fourstars.FourStars.domain.Vocabulary;
+import com.fourstars.FourStars.domain.request.vocabulary.SubmitReviewRequestDTO;
+import com.fourstars.FourStars.domain.response.CursorPaginationDTO;
+import com.fourstars.FourStars.domain.response.vocabulary.UserVocabularyResponseDTO;
+import com.fourstars.FourStars.domain.response.vocabulary.VocabularyResponseDTO;
+import com.fourstars.FourStars.repository.CategoryRepository;
+import com.fourstars.FourStars.repository.UserRepository;
+import com.fourstars.FourStars.repository.UserVocabularyRepository;
+import com.fourstars.FourStars.repository.VocabularyRepository;
+import com.fourstars.FourStars.service.CategoryProgressService;
+import com.fourstars.FourStars.service.EphemeralQuizService;
+import com.fourstars.FourStars.service.QuizGenerationService;
+import com.fourstars.FourStars.service.ReviewEventLog;
+import com.fourstars.FourStars.service.ReviewForecastService;
+import com.fourstars.FourStars.service.ReviewQueueService;
+import com.fourstars.FourStars.service.ReviewSessionService;
+import com.fourstars.FourStars.service.SM2Service;
+import com.fourstars.FourStars.service.VocabularyService;
+import com.fourstars.FourStars.service.VocabularyStatsService;
+import com.fourstars.FourStars.util.error.BadRequestException;
+
+@ExtendWith(MockitoExtension.class)
+class VocabularyServiceTest {
+
+    @Mock
+    private VocabularyRepository vocabularyRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private UserVocabularyRepository userVocabularyRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+    @Mock
+    private QuizGenerationService quizGenerationService;
+    @Mock
+    private EphemeralQuizService ephemeralQuizService;
+    @Mock
+    private ReviewQueueService reviewQueueService;
+    @Mock
+    private ReviewEventLog reviewEventLog;
+    @Mock
+    private ReviewSessionService reviewSessionService;
+    @Mock
+    private VocabularyStatsService vocabularyStatsService;
+    @Mock
+    private CategoryProgressService categoryProgressService;
+    @Mock
+    private ReviewForecastService reviewForecastService;
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private VocabularyService vocabularyService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        vocabularyService = new VocabularyService(vocabularyRepository, categoryRepository, userVocabularyRepository,
+                userRepository, new SM2Service(), rabbitTemplate, quizGenerationService, ephemeralQuizService,
+                reviewQueueService, reviewEventLog, reviewSessionService, vocabularyStatsService,
+                categoryProgressService, reviewForecastService);
+        user = new User();
+        user.setId(7L);
+        user.setEmail("learner@example.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static Vocabulary vocabulary(long id) {
+        Vocabulary vocab = new Vocabulary();
+        vocab.setId(id);
+        return vocab;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submitVocabularyReviews_loadsOnceAndAppliesDuplicatesInOrder() {
+        UserVocabulary existing = new UserVocabulary(user, vocabulary(1L));
+        when(userVocabularyRepository.findByUserIdAndVocabularyIdIn(eq(7L), any(Collection.class)))
+                .thenReturn(List.of(existing));
+        when(vocabularyRepository.findAllById(List.of(2L))).thenReturn(List.of(vocabulary(2L)));
+
+        List<UserVocabulary> reviewed = vocabularyService.submitVocabularyReviews(List.of(
+                new SubmitReviewRequestDTO(1L, 5),
+                new SubmitReviewRequestDTO(2L, 2),
+                new SubmitReviewRequestDTO(1L, 5)), user);
+
+        assertEquals(2, reviewed.size());
+        UserVocabulary first = reviewed.get(0);
+        assertEquals(1L, first.getId().getVocabularyId());
+        assertEquals(2, first.getRepetitions());
+        assertEquals(6, first.getReviewInterval());
+        UserVocabulary created = reviewed.get(1);
+        assertEquals(0, created.getRepetitions());
+        assertTrue(created.getNextReviewAt() != null);
+
+        ArgumentCaptor<List<ReviewEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(reviewEventLog).appendAll(events.capture());
+        assertEquals(3, events.getValue().size());
+        ReviewEvent secondReviewOfFirst = events.getValue().get(2);
+        assertEquals(1, secondReviewOfFirst.getPreviousRepetitions());
+        assertEquals(2, secondReviewOfFirst.getNewRepetitions());
+        assertEquals(0, existing.getRepetitions());
+        verify(userVocabularyRepository, never()).saveAll(any(Collection.class));
+        verify(userVocabularyRepository, never()).findById(any());
+        verify(vocabularyRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void submitVocabularyReviews_continuesFromUnflushedReview() {
+        ReviewEvent pending = new ReviewEvent(7L, 1L, 5, Instant.now());
+        pending.setNewRepetitions(2);
+        pending.setNewEaseFactor(2.6);
+        pending.setNewInterval(6);
+        when(reviewEventLog.findPending(7L, Set.of(1L))).thenReturn(Map.of(1L, pending));
+
+        List<UserVocabulary> reviewed = vocabularyService.submitVocabularyReviews(
+                List.of(new SubmitReviewRequestDTO(1L, 5)), user);
+
+        assertEquals(3, reviewed.get(0).getRepetitions());
+        assertEquals(16, reviewed.get(0).getReviewInterval());
+        verify(vocabularyRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void submitVocabularyReviews_emptyBatchTouchesNothing() {
+        assertTrue(vocabularyService.submitVocabularyReviews(List.of(), user).isEmpty());
+        verify(userVocabularyRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submitReviewSession_claimsCardsThenGradesThemAsOneBatch() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        UserVocabulary first = new UserVocabulary(user, vocabulary(1L));
+        UserVocabulary second = new UserVocabulary(user, vocabulary(2L));
+        when(userVocabularyRepository.findByUserIdAndVocabularyIdIn(eq(7L), any(Collection.class)))
+                .thenReturn(List.of(first, second));
+
+        List<UserVocabularyResponseDTO> graded = vocabularyService.submitReviewSession("token", List.of(
+                new SubmitReviewRequestDTO(1L, 5), new SubmitReviewRequestDTO(2L, 1)));
+
+        verify(reviewSessionService).claim("token", 7L, Set.of(1L, 2L));
+        assertEquals(2, graded.size());
+        assertEquals(1, graded.get(0).getRepetitions());
+        assertEquals(0, graded.get(1).getRepetitions());
+        ArgumentCaptor<List<ReviewEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(reviewEventLog).appendAll(events.capture());
+        assertEquals(2, events.getValue().size());
+        verify(userVocabularyRepository, never()).findById(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submitReviewSession_returnsCardsToSessionWhenGradingRollsBack() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        // Phiên trên Redis giả lập bằng tập field còn lại của hash; hai script là gỡ (HDEL) và trả lại thẻ.
+        Set<String> session = new HashSet<>(Set.of("userId", "v:1", "v:2"));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("review:session:token")), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    Object[] args = invocation.getArguments();
+                    if (((RedisScript<Long>) args[0]).getScriptAsString().contains("HDEL")) {
+                        List<Object> cards = List.of(args).subList(3, args.length);
+                        if (!session.containsAll(cards)) {
+                            return 1L;
+                        }
+                        session.removeAll(cards);
+                        return 0L;
+                    }
+                    session.add("userId");
+                    List.of(args).subList(4, args.length).forEach(card -> session.add((String) card));
+                    return 1L;
+                });
+        VocabularyService service = new VocabularyService(vocabularyRepository, categoryRepository,
+                userVocabularyRepository, userRepository, new SM2Service(), rabbitTemplate, quizGenerationService,
+                ephemeralQuizService, reviewQueueService, reviewEventLog, new ReviewSessionService(redisTemplate),
+                vocabularyStatsService, categoryProgressService, reviewForecastService);
+        List<SubmitReviewRequestDTO> grades = List.of(new SubmitReviewRequestDTO(1L, 5),
+                new SubmitReviewRequestDTO(2L, 1));
+        doThrow(new IllegalStateException("deadlock")).doNothing().when(reviewEventLog).appendAll(anyList());
+        when(userVocabularyRepository.findByUserIdAndVocabularyIdIn(eq(7L), any(Collection.class)))
+                .thenAnswer(invocation -> List.of(new UserVocabulary(user, vocabulary(1L)),
+                        new UserVocabulary(user, vocabulary(2L))));
+
+        // Lần chấm đầu lỗi giữa transaction: transaction manager báo rollback cho các synchronization.
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(IllegalStateException.class, () -> service.submitReviewSession("token", grades));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(2, service.submitReviewSession("token", grades).size());
+        assertEquals(Set.of("userId"), session);
+    }
+
+    @Test
+    void submitReviewSession_rejectsCardGradedTwice() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        assertThrows(BadRequestException.class, () -> vocabularyService.submitReviewSession("token", List.of(
+                new SubmitReviewRequestDTO(1L, 5), new SubmitReviewRequestDTO(1L, 3))));
+        verify(reviewSessionService, never()).claim(any(), anyLong(), any());
+        verify(reviewEventLog, never()).appendAll(any());
+    }
+
+    @Test
+    void addVocabularyToNotebook_afterReviewBeforeFlush_usesPendingReviewState() {
+        when(userVocabularyRepository.findById(any())).thenReturn(Optional.empty());
+        when(vocabularyRepository.existsById(1L)).thenReturn(true);
+        UserVocabulary reviewed = vocabularyService.submitVocabularyReview(new SubmitReviewRequestDTO(1L, 5), user);
+        ArgumentCaptor<ReviewEvent> event = ArgumentCaptor.forClass(ReviewEvent.class);
+        verify(reviewEventLog).append(event.capture());
+        when(reviewEventLog.findPending(7L, 1L)).thenReturn(event.getValue());
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        UserVocabularyResponseDTO added = vocabularyService.addVocabularyToNotebook(7L, 1L);
+
+        // Lần chiếu sẽ tạo dòng từ lượt ôn: không lưu dòng mặc định, không đếm thẻ hai lần trong dự báo.
+        assertEquals(reviewed.getLevel(), added.getLevel());
+        assertEquals(reviewed.getNextReviewAt(), added.getNextReviewAt());
+        verify(userVocabularyRepository, never()).save(any(UserVocabulary.class));
+        verify(vocabularyStatsService, never()).recordAdded(anyLong(), anyInt());
+        verify(reviewQueueService, times(2)).schedule(7L, 1L, reviewed.getNextReviewAt());
+        verify(reviewForecastService).move(7L, 1L, null, reviewed.getNextReviewAt());
+    }
+
+    @Test
+    void removeVocabularyFromNotebook_discardsUnprojectedReviewOfNewCard() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        ReviewEvent pending = new ReviewEvent(7L, 1L, 4, Instant.now());
+        pending.setNextReviewAt(Instant.now().plusSeconds(86_400));
+        when(reviewEventLog.findPending(7L, 1L)).thenReturn(pending);
+        when(userVocabularyRepository.findById(any())).thenReturn(Optional.empty());
+
+        vocabularyService.removeVocabularyFromNotebook(1L);
+
+        // Thẻ chỉ mới có trong nhật ký: bỏ sự kiện chờ chiếu để lần chiếu sau không tạo lại dòng.
+        verify(reviewEventLog).discardPending(7L, 1L);
+        verify(userVocabularyRepository, never()).delete(any(UserVocabulary.class));
+        verify(reviewQueueService).remove(7L, 1L);
+        verify(reviewForecastService).move(7L, 1L, pending.getNextReviewAt(), null);
+    }
+
+    private UserVocabulary notebookEntry(long vocabularyId, Instant createdAt) {
+        UserVocabulary entry = new UserVocabulary(user, vocabulary(vocabularyId));
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+
+    @Test
+    void fetchNotebookPage_continuesAfterCursorOfLastRow() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        Instant createdAt = Instant.parse("2024-03-01T10:15:30.123456Z");
+        when(userVocabularyRepository.findNotebookFirstPageByLevel(7L, 2, PageRequest.of(0, 3))).thenReturn(List.of(
+                notebookEntry(9L, createdAt.plusSeconds(5)), notebookEntry(8L, createdAt),
+                notebookEntry(4L, createdAt)));
+        when(userVocabularyRepository.findNotebookPageByLevelAfter(7L, 2, createdAt, 8L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(notebookEntry(4L, createdAt)));
+
+        CursorPaginationDTO<VocabularyResponseDTO> first = vocabularyService.fetchNotebookPage(2, null, 2, false);
+        CursorPaginationDTO<VocabularyResponseDTO> second = vocabularyService.fetchNotebookPage(2,
+                first.getMeta().getNextCursor(), 2, true);
+
+        assertEquals(List.of(9L, 8L), first.getResult().stream().map(VocabularyResponseDTO::getId).toList());
+        assertNull(first.getMeta().getTotal());
+        assertEquals(List.of(4L), second.getResult().stream().map(VocabularyResponseDTO::getId).toList());
+        assertNull(second.getMeta().getNextCursor());
+        verify(userVocabularyRepository).countByIdUserIdAndLevel(7L, 2);
+    }
+
+    @Test
+    void fetchNotebookPage_rejectsMalformedCursor() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getEmail(), null));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        assertThrows(BadRequestException.class, () -> vocabularyService.fetchNotebookPage(null, "not-a-cursor", 20,
+                false));
+    }
+}